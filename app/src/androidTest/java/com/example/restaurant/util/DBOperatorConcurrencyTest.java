@@ -0,0 +1,128 @@
+package com.example.restaurant.util;
+
+import android.database.Cursor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Many threads using one DBOperator at the same time: queries spread over the
+ * read-only connections, writes on the writer, transactions reading their own writes.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DBOperatorConcurrencyTest
+{
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 50;
+
+    private DBOperator op;
+    private ExecutorService pool;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        op = TestDatabases.freshCopy("concurrency_test.db");
+        pool = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        pool.shutdownNow();
+        pool.awaitTermination(5, TimeUnit.SECONDS);
+        op.closeDB();
+    }
+
+    @Test
+    public void getInstanceOpensOneOperator() throws Exception
+    {
+        DBOperator.copyDB(InstrumentationRegistry.getInstrumentation().getTargetContext());
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        Set<DBOperator> instances = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        runOnEveryThread(thread -> {
+            start.await();
+            instances.add(DBOperator.getInstance());
+            return null;
+        });
+        assertEquals(1, instances.size());
+    }
+
+    @Test
+    public void readsAndWritesFromManyThreads() throws Exception
+    {
+        int ordersBefore = count("SELECT COUNT(*) FROM Orders");
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        runOnEveryThread(thread -> {
+            start.await();
+            for (int round = 0; round < ROUNDS; round++) {
+                String orderId = "CC" + thread + "-" + round;
+                if ((thread + round) % 2 == 0) {
+                    //a transaction sees its own order before it commits
+                    op.runInTransaction(tx -> {
+                        tx.executeInsert("INSERT INTO Orders VALUES (?, 'CUST001', 'DT001', 'EMP001', 'Placed', 10)",
+                                new Object[]{orderId});
+                        assertEquals(1, count("SELECT COUNT(*) FROM Orders WHERE Order_id = '" + orderId + "'"));
+                    });
+                } else {
+                    op.executeInsert("INSERT INTO Orders VALUES (?, 'CUST001', 'DT001', 'EMP001', 'Placed', 10)",
+                            new Object[]{orderId});
+                }
+                //and every thread sees it once committed
+                assertEquals(1, count("SELECT COUNT(*) FROM Orders WHERE Order_id = '" + orderId + "'"));
+                count("SELECT COUNT(*) FROM Order_Item oi JOIN Orders o ON o.Order_id = oi.Orditem_Order_id");
+            }
+            return null;
+        });
+        assertEquals(ordersBefore + THREADS * ROUNDS, count("SELECT COUNT(*) FROM Orders"));
+    }
+
+    private interface Body
+    {
+        Void run(int thread) throws Exception;
+    }
+
+    /*
+     * run the body on THREADS threads at once, failing with the first error of any of them
+     */
+    private void runOnEveryThread(Body body) throws Exception
+    {
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            futures.add(pool.submit((Callable<Void>) () -> body.run(thread)));
+        }
+        for (Future<Void> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+    }
+
+    private int count(String sql)
+    {
+        Cursor cursor = op.execQuery(sql);
+        try {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        } finally {
+            cursor.close();
+        }
+    }
+}
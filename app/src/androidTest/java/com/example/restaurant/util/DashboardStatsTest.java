@@ -0,0 +1,109 @@
+package com.example.restaurant.util;
+
+import android.database.Cursor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.restaurant.constant.SQLCommand;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+@RunWith(AndroidJUnit4.class)
+public class DashboardStatsTest
+{
+    private DBOperator op;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        op = TestDatabases.freshCopy("dashboard_stats_test.db");
+    }
+
+    @After
+    public void tearDown()
+    {
+        op.closeDB();
+    }
+
+    @Test
+    public void migrationFillsTheCounters()
+    {
+        assertEquals(Collections.emptyList(), DashboardStats.verify(op));
+        Map<String, Double> stats = stats(DashboardStats.GLOBAL);
+        assertEquals(count("SELECT COUNT(*) FROM Employee"),
+                DashboardStats.get(stats, DashboardStats.EMPLOYEE_COUNT), 0);
+        assertEquals(count("SELECT COUNT(*) FROM Orders WHERE Order_status <> 'Cancelled'"),
+                DashboardStats.get(stats, DashboardStats.ORDER_COUNT), 0);
+    }
+
+    @Test
+    public void triggersFollowOrderLifecycle()
+    {
+        double sales = DashboardStats.get(stats(DashboardStats.GLOBAL), DashboardStats.SALES_TOTAL);
+
+        op.insertOrder(new Object[]{"TST001", "CUST001", "DT002", "EMP002", "Placed", 30},
+                new ArrayList<>());
+        op.insertOrder(new Object[]{"TST002", "CUST002", "DT002", "EMP002", "Open", 20},
+                new ArrayList<>());
+        assertEquals(Collections.emptyList(), DashboardStats.verify(op));
+        Map<String, Double> server = stats("EMP002");
+        assertEquals(sales + 50, DashboardStats.get(stats(DashboardStats.GLOBAL), DashboardStats.SALES_TOTAL), 0.001);
+        assertEquals(count("SELECT COUNT(*) FROM Orders WHERE Order_Emp_id = 'EMP002' " +
+                        "AND Order_status IN ('Placed', 'Preparing')"),
+                DashboardStats.get(server, DashboardStats.PENDING_ORDERS), 0);
+
+        //the table stays busy until its last active order is closed
+        op.execSQL(SQLCommand.UPDATE_ORDER_STATUS, new Object[]{"Closed", "TST001"});
+        assertEquals(Collections.emptyList(), DashboardStats.verify(op));
+        op.execSQL(SQLCommand.UPDATE_ORDER_STATUS, new Object[]{"Cancelled", "TST002"});
+        assertEquals(Collections.emptyList(), DashboardStats.verify(op));
+        assertEquals(sales + 30, DashboardStats.get(stats(DashboardStats.GLOBAL), DashboardStats.SALES_TOTAL), 0.001);
+
+        op.execSQL("UPDATE Orders SET Order_Total = Order_Total + 5, Order_DT_id = 'DT003' WHERE Order_id = 'TST001'");
+        op.execSQL("DELETE FROM Orders WHERE Order_id = 'TST002'");
+        op.execSQL("UPDATE Reservation SET Res_status = 'Confirmed'");
+        assertEquals(Collections.emptyList(), DashboardStats.verify(op));
+    }
+
+    @Test
+    public void rebuildRepairsDrift()
+    {
+        op.execSQL("UPDATE Dashboard_Stats SET Stat_value = Stat_value + 7 WHERE Stat_name = 'order_count'");
+        op.execSQL("DELETE FROM Dashboard_Stats WHERE Stat_name = 'busy_tables'");
+        assertFalse(DashboardStats.verify(op).isEmpty());
+
+        DashboardStats.rebuild(op);
+        assertEquals(Collections.emptyList(), DashboardStats.verify(op));
+    }
+
+    private Map<String, Double> stats(String scope)
+    {
+        Cursor cursor = op.execQuery(SQLCommand.QUERY_DASHBOARD_STATS, new String[]{scope});
+        try {
+            return DashboardStats.read(cursor);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private double count(String sql)
+    {
+        Cursor cursor = op.execQuery(sql);
+        try {
+            cursor.moveToFirst();
+            return cursor.getDouble(0);
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.restaurant.util;
+
+import android.app.Instrumentation;
+import android.database.Cursor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class KeysetPagerTest
+{
+    private static final String RESERVATIONS = "SELECT Res_id, Res_date FROM Reservation";
+    private static final KeysetPager.Key[] ORDER = {
+            KeysetPager.Key.desc("Res_date"),
+            KeysetPager.Key.desc("Res_id")
+    };
+    private static final int PAGE_SIZE = 7;
+
+    private final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+    private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+    private final KeysetPager.Listener listener = new KeysetPager.Listener()
+    {
+        @Override
+        public void onRowsLoaded(int first, int count, boolean inserted)
+        {
+            events.add("rows " + first);
+        }
+
+        @Override
+        public void onError(Exception e)
+        {
+            events.add("error");
+        }
+    };
+
+    private DBOperator op;
+    private KeysetPager<String> pager;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        op = TestDatabases.freshCopy("keyset_pager_test.db");
+        //a regular's history, many reservations share a date so the tie breaker matters
+        op.runInTransaction(tx -> {
+            for (int i = 0; i < 120; i++) {
+                tx.execSQL("INSERT INTO Reservation VALUES (?, 'CUST001', 'DT001', ?, ?, 2, 'Completed')",
+                        new Object[]{String.format("RK%03d", i), "2024-06-" + (10 + i % 5) + " 19:00",
+                                "2024-06-" + (10 + i % 5) + " 19:00"});
+            }
+        });
+    }
+
+    @After
+    public void tearDown()
+    {
+        if (pager != null) instrumentation.runOnMainSync(() -> pager.close());
+        op.closeDB();
+    }
+
+    @Test
+    public void seeksThroughEveryRowOnce() throws Exception
+    {
+        List<String> expected = new ArrayList<>();
+        Cursor cursor = op.execQuery(RESERVATIONS + " ORDER BY Res_date DESC, Res_id DESC");
+        while (cursor.moveToNext()) expected.add(cursor.getString(0));
+        cursor.close();
+
+        //only 2 pages kept, scrolling back up has to read the first pages again
+        instrumentation.runOnMainSync(() -> {
+            pager = new KeysetPager<>(op, RESERVATIONS, null, ORDER, PAGE_SIZE, 2,
+                    c -> c.getString(0), listener);
+            pager.start();
+        });
+        for (int position = 0; position < expected.size(); position++) {
+            assertEquals(expected.get(position), itemAt(position));
+        }
+        assertTrue(isComplete());
+        assertEquals(expected.size(), loadedCount());
+        for (int position = expected.size() - 1; position >= 0; position--) {
+            assertEquals(expected.get(position), itemAt(position));
+        }
+    }
+
+    @Test
+    public void reloadSeesNewRows() throws Exception
+    {
+        instrumentation.runOnMainSync(() -> {
+            pager = new KeysetPager<>(op, RESERVATIONS, null, ORDER, PAGE_SIZE, 2,
+                    c -> c.getString(0), listener);
+            pager.start();
+        });
+        assertEquals("rows 0", events.poll(5, TimeUnit.SECONDS));
+        assertFalse(isComplete());
+
+        op.execSQL("INSERT INTO Reservation VALUES ('RK999', 'CUST001', 'DT001', '2099-01-01 19:00', " +
+                "'2099-01-01 19:00', 2, 'Confirmed')");
+        instrumentation.runOnMainSync(() -> pager.reload());
+        assertEquals("RK999", itemAt(0));
+    }
+
+    /*
+     * row at a position, waiting for its page the way a list would
+     */
+    private String itemAt(int position) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            String[] item = new String[1];
+            boolean[] loaded = new boolean[1];
+            instrumentation.runOnMainSync(() -> {
+                loaded[0] = position < pager.getLoadedCount();
+                if (loaded[0]) item[0] = pager.getItem(position);
+                else pager.prefetch(pager.getLoadedCount() - 1);
+            });
+            if (item[0] != null) return item[0];
+            String event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull("no page for row " + position, event);
+            assertFalse("page failed to load", event.equals("error"));
+        }
+        throw new AssertionError("no page for row " + position);
+    }
+
+    private boolean isComplete()
+    {
+        boolean[] complete = new boolean[1];
+        instrumentation.runOnMainSync(() -> complete[0] = pager.isComplete());
+        return complete[0];
+    }
+
+    private int loadedCount()
+    {
+        int[] count = new int[1];
+        instrumentation.runOnMainSync(() -> count[0] = pager.getLoadedCount());
+        return count[0];
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.restaurant.util;
+
+import android.app.Instrumentation;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class MenuCatalogTest
+{
+    private final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+    private final BlockingQueue<MenuCatalog.Snapshot> received = new LinkedBlockingQueue<>();
+    private final MenuCatalog.Listener listener = received::add;
+
+    private DBOperator op;
+    private MenuCatalog catalog;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        op = TestDatabases.freshCopy("menu_catalog_test.db");
+        instrumentation.runOnMainSync(() -> catalog = new MenuCatalog(op));
+    }
+
+    @After
+    public void tearDown()
+    {
+        instrumentation.runOnMainSync(() -> catalog.unsubscribe(listener));
+        op.closeDB();
+    }
+
+    @Test
+    public void loadsOnceAndServesFromMemory() throws Exception
+    {
+        instrumentation.runOnMainSync(() -> catalog.subscribe(listener));
+        MenuCatalog.Snapshot first = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(first);
+        assertEquals(16, first.dishes().size());
+        assertSame(first.dishes().get(0), first.get(first.dishes().get(0).dishId));
+
+        //a second screen gets the cached snapshot inside subscribe, no query involved
+        List<MenuCatalog.Snapshot> delivered = new ArrayList<>();
+        MenuCatalog.Listener other = delivered::add;
+        instrumentation.runOnMainSync(() -> {
+            catalog.subscribe(other);
+            catalog.unsubscribe(other);
+        });
+        assertEquals(1, delivered.size());
+        assertSame(first, delivered.get(0));
+        assertSame(first, catalog.peek());
+    }
+
+    @Test
+    public void reloadsAfterMenuWrite() throws Exception
+    {
+        instrumentation.runOnMainSync(() -> catalog.subscribe(listener));
+        MenuCatalog.Snapshot first = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(first);
+        MenuDish dish = first.available().get(0);
+
+        op.executeUpdateDelete("UPDATE Menu SET Menu_available = 'No' WHERE Menu_DishID = ?",
+                new Object[]{dish.dishId});
+        MenuCatalog.Snapshot second = received.poll(5, TimeUnit.SECONDS);
+
+        assertNotNull(second);
+        assertTrue(second.getVersion() > first.getVersion());
+        assertFalse(second.get(dish.dishId).isAvailable());
+        assertFalse(second.available().contains(second.get(dish.dishId)));
+    }
+
+    @Test
+    public void otherWritesKeepTheSnapshot() throws Exception
+    {
+        instrumentation.runOnMainSync(() -> catalog.subscribe(listener));
+        MenuCatalog.Snapshot first = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(first);
+
+        op.executeUpdateDelete("UPDATE Orders SET Order_status = Order_status", null);
+        assertNull(received.poll(500, TimeUnit.MILLISECONDS));
+        assertSame(first, catalog.peek());
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.restaurant.util;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.restaurant.constant.SQLCommand;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Menu load time against category count: one query per category, as MenuActivity
+ * used to do, compared with a single ordered query read by MenuSectionBuilder.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MenuLoadBenchmark
+{
+    private static final String TAG = "MenuLoadBenchmark";
+    private static final int DISHES_PER_CATEGORY = 10;
+    private static final int RUNS = 20;
+
+    private DBOperator op;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        op = TestDatabases.freshCopy("menu_load_benchmark.db");
+    }
+
+    @After
+    public void tearDown()
+    {
+        op.closeDB();
+    }
+
+    @Test
+    public void singleQueryBeatsQueryPerCategory()
+    {
+        for (int categories : new int[]{1, 5, 10, 30, 60}) {
+            fillMenu(categories);
+            List<Object> expected = loadPerCategory();
+            assertEquals(expected, loadSections());
+
+            long perCategory = 0;
+            long single = 0;
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                loadPerCategory();
+                perCategory += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                loadSections();
+                single += System.nanoTime() - start;
+            }
+            Log.i(TAG, categories + " categories: per category " + perCategory / RUNS / 1000
+                    + " us, single query " + single / RUNS / 1000 + " us");
+            if (categories >= 30) {
+                assertTrue("single query should beat " + (categories + 1) + " round trips",
+                        single < perCategory);
+            }
+        }
+    }
+
+    /*
+     * replace the menu with the given number of categories
+     */
+    private void fillMenu(int categories)
+    {
+        op.runInTransaction(tx -> {
+            tx.execSQL("DELETE FROM Menu WHERE Menu_DishID NOT IN (SELECT Orditem_Menu_dishID FROM Order_Item) "
+                    + "AND Menu_DishID NOT IN (SELECT Inv_Menu_dishID FROM Inventory)");
+            for (int c = 0; c < categories; c++) {
+                for (int d = 0; d < DISHES_PER_CATEGORY; d++) {
+                    tx.executeInsert("INSERT INTO Menu VALUES(?, ?, ?, ?, ?)", new Object[]{
+                            "B" + c + "_" + d, "Dish " + d, "Category " + c, 10 + d,
+                            d % 3 == 0 ? "No" : "Yes"});
+                }
+            }
+        });
+    }
+
+    /*
+     * the old MenuActivity.loadMenu: category list, then one query per category
+     */
+    private List<Object> loadPerCategory()
+    {
+        List<String> categories = new ArrayList<>();
+        Cursor cursor = op.execQuery("SELECT DISTINCT Menu_cat FROM Menu ORDER BY Menu_cat");
+        while (cursor.moveToNext()) {
+            categories.add(cursor.getString(0));
+        }
+        cursor.close();
+
+        MenuSectionBuilder builder = new MenuSectionBuilder();
+        for (String category : categories) {
+            Cursor items = op.execQuery(
+                    "SELECT Menu_DishID, Menu_name, Menu_cat, Menu_price, Menu_available " +
+                            "FROM Menu WHERE Menu_cat = ? ORDER BY Menu_name", new String[]{category});
+            for (MenuDish dish : MenuSectionBuilder.readDishes(items)) {
+                builder.add(dish);
+            }
+            items.close();
+        }
+        return builder.build();
+    }
+
+    private List<Object> loadSections()
+    {
+        Cursor cursor = op.execQuery(SQLCommand.QUERY_MENU_ALL);
+        List<Object> rows = MenuSectionBuilder.readSections(cursor);
+        cursor.close();
+        return rows;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.restaurant.util;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Search time per keystroke on a 5,000 dish menu: MenuSearchIndex against the
+ * linear lowercase/contains scan NewOrderActivity used to do.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MenuSearchBenchmark
+{
+    private static final String TAG = "MenuSearchBenchmark";
+    private static final String[] CATEGORIES = {"Appetizer", "Entree", "Side", "Drink", "Dessert"};
+    private static final String[] WORDS = {
+            "chicken", "burger", "salad", "grilled", "spicy", "cheese", "fries", "soup",
+            "steak", "garlic", "lemon", "tea", "coffee", "chocolate", "cake", "shrimp",
+            "pasta", "tomato", "onion", "rings", "wings", "taco", "rice", "beans"};
+    private static final int ROUNDS = 50;
+
+    @Test
+    public void indexBeatsLinearScanOnLargeMenu()
+    {
+        Random random = new Random(42);
+        List<MenuDish> menu = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + i;
+            menu.add(new MenuDish("D" + i, name, CATEGORIES[i % CATEGORIES.length], 10, "Yes"));
+        }
+        MenuSearchIndex index = new MenuSearchIndex(menu);
+        List<String> keystrokes = new ArrayList<>();
+        for (String typed : new String[]{"grilled chicken", "spicy wings", "choc cake", "tea"}) {
+            for (int i = 1; i <= typed.length(); i++) keystrokes.add(typed.substring(0, i));
+        }
+        List<MenuDish> out = new ArrayList<>();
+
+        //warm up both paths before timing
+        for (int i = 0; i < 20; i++) {
+            for (String query : keystrokes) {
+                index.search(query, "All", out);
+                linearScan(menu, query, "All");
+            }
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            for (String query : keystrokes) linearScan(menu, query, "Entree");
+        }
+        long linear = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            for (String query : keystrokes) index.search(query, "Entree", out);
+        }
+        long indexed = System.nanoTime() - start;
+
+        int searches = ROUNDS * keystrokes.size();
+        Log.i(TAG, "5000 dishes: linear " + linear / searches / 1000 + " us, index "
+                + indexed / searches / 1000 + " us per keystroke");
+        assertTrue("index should beat the linear scan", indexed < linear);
+    }
+
+    //the filter NewOrderActivity ran on every keystroke before the index
+    private static List<MenuDish> linearScan(List<MenuDish> menu, String query, String category)
+    {
+        List<MenuDish> result = new ArrayList<>();
+        String lowerQuery = query.toLowerCase();
+        List<MenuDish> itemsToSearch = category.equals("All") ? menu :
+                menu.stream()
+                        .filter(item -> item.category.equalsIgnoreCase(category))
+                        .collect(java.util.stream.Collectors.toList());
+        for (MenuDish item : itemsToSearch) {
+            if (item.name.toLowerCase().contains(lowerQuery) ||
+                    item.category.toLowerCase().contains(lowerQuery)) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.restaurant.util;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.restaurant.constant.SQLCommand;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares committing every order row on its own with DBOperator.insertOrder,
+ * which commits the header and all items in one transaction.
+ */
+@RunWith(AndroidJUnit4.class)
+public class OrderBatchBenchmark
+{
+    private static final String TAG = "OrderBatchBenchmark";
+    private static final int ORDERS_PER_RUN = 20;
+
+    private DBOperator op;
+    private int sequence = 0;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        op = TestDatabases.freshCopy("order_batch_benchmark.db");
+    }
+
+    @After
+    public void tearDown()
+    {
+        op.closeDB();
+    }
+
+    @Test
+    public void batchedCommitIsFasterThanPerRowCommits()
+    {
+        for (int items : new int[]{1, 10, 50}) {
+            long perRow = timePerRow(items);
+            long batched = timeBatched(items);
+            Log.i(TAG, items + " items: per-row " + perRow / 1000 + " us, batched "
+                    + batched / 1000 + " us per order");
+            if (items == 50) {
+                assertTrue("batched commit should beat 51 separate commits", batched < perRow);
+            }
+        }
+        assertEquals(ORDERS_PER_RUN * 2 * (1 + 10 + 50), countRows("Order_Item") - 10);
+    }
+
+    @Test
+    public void failedItemRollsBackWholeOrder()
+    {
+        List<Object[]> items = items("ORDBAD", 2);
+        //same item ID twice violates the primary key
+        items.add(items.get(0));
+        try {
+            op.insertOrder(order("ORDBAD"), items);
+        } catch (RuntimeException expected) {
+            //rolled back
+        }
+        assertEquals(0, countWhere("Orders", "Order_id = 'ORDBAD'"));
+        assertEquals(0, countWhere("Order_Item", "Orditem_Order_id = 'ORDBAD'"));
+    }
+
+    private long timePerRow(int items)
+    {
+        long start = System.nanoTime();
+        for (int i = 0; i < ORDERS_PER_RUN; i++) {
+            String orderId = "ORDROW" + (sequence++);
+            op.executeInsert(SQLCommand.INSERT_ORDER, order(orderId));
+            for (Object[] item : items(orderId, items)) {
+                op.executeInsert(SQLCommand.INSERT_ORDER_ITEM, item);
+            }
+        }
+        return (System.nanoTime() - start) / ORDERS_PER_RUN;
+    }
+
+    private long timeBatched(int items)
+    {
+        long start = System.nanoTime();
+        for (int i = 0; i < ORDERS_PER_RUN; i++) {
+            String orderId = "ORDBATCH" + (sequence++);
+            op.insertOrder(order(orderId), items(orderId, items));
+        }
+        return (System.nanoTime() - start) / ORDERS_PER_RUN;
+    }
+
+    private static Object[] order(String orderId)
+    {
+        return new Object[]{orderId, "CUST001", "DT001", "EMP001", "Placed", 42};
+    }
+
+    private static List<Object[]> items(String orderId, int count)
+    {
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(new Object[]{orderId + "-" + i, orderId, "M001", 1, 8,
+                    "2025-01-10 18:00:00"});
+        }
+        return items;
+    }
+
+    private int countRows(String table)
+    {
+        return countWhere(table, "1");
+    }
+
+    private int countWhere(String table, String where)
+    {
+        android.database.Cursor cursor = op.execQuery("SELECT COUNT(*) FROM " + table + " WHERE " + where);
+        try {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        } finally {
+            cursor.close();
+        }
+    }
+}
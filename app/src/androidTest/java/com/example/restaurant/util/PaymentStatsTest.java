@@ -0,0 +1,105 @@
+package com.example.restaurant.util;
+
+import android.app.Instrumentation;
+import android.database.Cursor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.restaurant.constant.SQLCommand;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+@RunWith(AndroidJUnit4.class)
+public class PaymentStatsTest
+{
+    private final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+    private final BlockingQueue<PaymentStats.Snapshot> updates = new LinkedBlockingQueue<>();
+    private final PaymentStats.Listener listener = updates::add;
+
+    private DBOperator op;
+    private PaymentStats stats;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        op = TestDatabases.freshCopy("payment_stats_test.db");
+        instrumentation.runOnMainSync(() -> {
+            stats = new PaymentStats(op);
+            stats.subscribe(listener);
+        });
+    }
+
+    @After
+    public void tearDown()
+    {
+        instrumentation.runOnMainSync(() -> stats.unsubscribe(listener));
+        op.closeDB();
+    }
+
+    @Test
+    public void matchesThePaymentQueries() throws Exception
+    {
+        assertMatchesQueries(next());
+    }
+
+    @Test
+    public void followsPaymentsAndOrderTotals() throws Exception
+    {
+        next();
+        //a new bill larger than any so far, reported on the change bus as one event
+        op.runInTransaction(tx -> {
+            tx.execSQL("INSERT INTO Orders VALUES ('TST001', 'CUST001', 'DT001', 'EMP001', 'Closed', 500)");
+            tx.execSQL("INSERT INTO Payments VALUES ('TSTP1', 'CUST001', 'TST001', 'Card', '2025-01-10 21:00')");
+        });
+        PaymentStats.Snapshot added = next();
+        assertEquals("TSTP1", added.getHighest().payId);
+        assertMatchesQueries(added);
+
+        op.execSQL("DELETE FROM Payments WHERE Pay_id = 'TSTP1'");
+        assertMatchesQueries(next());
+
+        //the total of a paid order changed, the statistics are read again
+        op.execSQL("UPDATE Orders SET Order_Total = 1 WHERE Order_id = (SELECT Pay_Order_id FROM Payments LIMIT 1)");
+        PaymentStats.Snapshot changed = next();
+        assertEquals(1, changed.getLowest().amount, 0);
+        assertMatchesQueries(changed);
+    }
+
+    private PaymentStats.Snapshot next() throws InterruptedException
+    {
+        PaymentStats.Snapshot snapshot = updates.poll(5, TimeUnit.SECONDS);
+        assertNotNull("statistics were not delivered", snapshot);
+        return snapshot;
+    }
+
+    private void assertMatchesQueries(PaymentStats.Snapshot snapshot)
+    {
+        assertEquals(value(SQLCommand.QUERY_HIGHEST_PAYMENT, 2), snapshot.getHighest().amount, 0);
+        assertEquals(value(SQLCommand.QUERY_LOWEST_PAYMENT, 2), snapshot.getLowest().amount, 0);
+        assertEquals(value(SQLCommand.QUERY_MEAN_PAYMENT, 0), Math.round(snapshot.getMean() * 100) / 100.0, 0);
+        //a handful of payments, the sketch still holds every one of them
+        assertEquals(value(SQLCommand.QUERY_MEDIAN_PAYMENT, 0), snapshot.getMedian(), 0);
+    }
+
+    private double value(String sql, int column)
+    {
+        Cursor cursor = op.execQuery(sql);
+        try {
+            cursor.moveToFirst();
+            return cursor.getDouble(column);
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.restaurant.util;
+
+import android.app.Instrumentation;
+import android.database.Cursor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(AndroidJUnit4.class)
+public class QueryPagerTest
+{
+    private static final String QUERY = "SELECT Menu_DishID, Menu_name FROM Menu ORDER BY Menu_DishID;";
+
+    private final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+    //"start count", "count count", "rows first", or "error"
+    private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+    private final QueryPager.Listener listener = new QueryPager.Listener()
+    {
+        @Override
+        public void onStarted(String[] columns, int count)
+        {
+            events.add("start " + count);
+        }
+
+        @Override
+        public void onCounted(int count)
+        {
+            events.add("count " + count);
+        }
+
+        @Override
+        public void onRowsLoaded(int first, int count)
+        {
+            events.add("rows " + first);
+        }
+
+        @Override
+        public void onError(Exception e)
+        {
+            events.add("error");
+        }
+    };
+
+    private DBOperator op;
+    private QueryPager pager;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        op = TestDatabases.freshCopy("query_pager_test.db");
+    }
+
+    @After
+    public void tearDown()
+    {
+        if (pager != null) instrumentation.runOnMainSync(() -> pager.close());
+        op.closeDB();
+    }
+
+    @Test
+    public void pagesMatchTheWholeQuery() throws Exception
+    {
+        pageThrough(null);
+    }
+
+    @Test
+    public void keyedPagesMatchTheWholeQuery() throws Exception
+    {
+        pageThrough(new KeysetPager.Key[]{KeysetPager.Key.asc("Menu_DishID")});
+    }
+
+    private void pageThrough(KeysetPager.Key[] keys) throws Exception
+    {
+        List<String[]> expected = new ArrayList<>();
+        Cursor cursor = op.execQuery(QUERY);
+        while (cursor.moveToNext()) {
+            expected.add(new String[]{cursor.getString(0), cursor.getString(1)});
+        }
+        cursor.close();
+
+        //pages of 5 rows, only 2 kept, so scrolling down evicts the first ones
+        instrumentation.runOnMainSync(() -> {
+            pager = new QueryPager(op, QUERY, null, keys, 5, 2, listener);
+            pager.start();
+        });
+        //the first page is shown before the result is counted
+        assertEquals("start 5", events.poll(5, TimeUnit.SECONDS));
+        assertEquals("count " + expected.size(), events.poll(5, TimeUnit.SECONDS));
+        assertArrayEquals(new String[]{"Menu_DishID", "Menu_name"}, pager.getColumnNames());
+
+        for (int position = 0; position < expected.size(); position++) {
+            String[] row = getRow(position);
+            if (row == null) {
+                //page was not loaded yet, wait for it
+                String event;
+                do {
+                    event = events.poll(5, TimeUnit.SECONDS);
+                    assertNotNull("page " + position / 5 + " never loaded", event);
+                } while (!event.equals("rows " + position / 5 * 5));
+                row = getRow(position);
+            }
+            assertArrayEquals(expected.get(position), row);
+        }
+    }
+
+    @Test
+    public void emptyResult() throws Exception
+    {
+        instrumentation.runOnMainSync(() -> {
+            pager = new QueryPager(op, "SELECT * FROM Menu WHERE Menu_DishID = ?", new String[]{"none"},
+                    listener);
+            pager.start();
+        });
+        assertEquals("start 0", events.poll(5, TimeUnit.SECONDS));
+        //a short first page is counted without running the query again
+        assertEquals("count 0", events.poll(5, TimeUnit.SECONDS));
+        assertNull(getRow(0));
+        assertNull(events.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void badQueryReportsError() throws Exception
+    {
+        instrumentation.runOnMainSync(() -> {
+            pager = new QueryPager(op, "SELECT * FROM NoSuchTable", null, listener);
+            pager.start();
+        });
+        assertEquals("error", events.poll(5, TimeUnit.SECONDS));
+    }
+
+    private String[] getRow(int position)
+    {
+        String[][] row = new String[1][];
+        instrumentation.runOnMainSync(() -> row[0] = pager.getRow(position));
+        return row[0];
+    }
+}
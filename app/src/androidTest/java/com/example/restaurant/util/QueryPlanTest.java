@@ -0,0 +1,153 @@
+package com.example.restaurant.util;
+
+import android.database.Cursor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.restaurant.constant.DBConstant;
+import com.example.restaurant.constant.SQLCommand;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs EXPLAIN QUERY PLAN on every query in SQLCommand against a migrated copy
+ * of the asset database and fails if one of them reads a whole table or index.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QueryPlanTest
+{
+    //queries that read a whole table or index by design, each with the reason
+    private static final Set<String> FULL_SCAN_ALLOWED = new HashSet<>(Arrays.asList(
+            //report over every reservation
+            "QUERY_FREQUENT_PARTY_SIZE",
+            //report over every shift
+            "QUERY_EMPLOYEE_SHIFTS",
+            //compares two columns of every inventory row, no index can answer it
+            "QUERY_LOW_INVENTORY",
+            //sorted by the total of the joined order, which Payments cannot be indexed by
+            "QUERY_HIGHEST_PAYMENT",
+            "QUERY_LOWEST_PAYMENT",
+            //median of every payment, reads its own sorted subquery
+            "QUERY_MEDIAN_PAYMENT",
+            //one row per section, for the whole floor
+            "QUERY_SECTION_ASSIGNMENTS",
+            //every table of the floor
+            "QUERY_ALL_TABLES",
+            //the whole menu, read once by MenuSectionBuilder and MenuCatalog
+            "QUERY_MENU_ALL",
+            //sales rollups, one row per dish, day or hour of a day
+            "QUERY_TOP_SELLING",
+            "QUERY_PAYMENT_BY_DAY",
+            "QUERY_PEAK_TIMES",
+            "QUERY_DAILY_REVENUE",
+            //every order total, for the one pass of the Sales Summary
+            "QUERY_ORDER_TOTALS",
+            //walks the partial index idx_turn_open, one row per table with a turn open
+            "QUERY_OPEN_TURNS",
+            //every turn that ended, read once when TableOccupancy loads
+            "QUERY_TURN_HISTORY",
+            //read through KeysetPager, see reservationListSeeksByDate
+            "QUERY_RESERVATION_LIST"
+    ));
+
+    /*
+     * "SCAN t", "SCAN t USING INDEX i", or "SCAN TABLE t AS a" on older SQLite:
+     * every row of a table or index is read. Only a scan of a covering index,
+     * narrower than its table, is let through.
+     */
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN (?!.*COVERING INDEX).*");
+
+    private DBOperator op;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        op = TestDatabases.freshCopy("query_plan_test.db");
+    }
+
+    @After
+    public void tearDown()
+    {
+        op.closeDB();
+    }
+
+    @Test
+    public void migrationBringsAssetToCurrentVersion()
+    {
+        Cursor cursor = op.execQuery("PRAGMA user_version");
+        cursor.moveToFirst();
+        assertEquals(DBConstant.DATABASE_VERSION, cursor.getInt(0));
+        cursor.close();
+    }
+
+    @Test
+    public void queriesDoNotFullScan() throws Exception
+    {
+        List<String> failures = new ArrayList<>();
+        for (Field field : SQLCommand.class.getFields()) {
+            if (!Modifier.isStatic(field.getModifiers())
+                    || !field.getName().startsWith("QUERY_")
+                    || FULL_SCAN_ALLOWED.contains(field.getName())) {
+                continue;
+            }
+            for (String detail : plan((String) field.get(null))) {
+                if (FULL_SCAN.matcher(detail).matches()) {
+                    failures.add(field.getName() + ": " + detail);
+                }
+            }
+        }
+        assertTrue("Full scans: " + failures, failures.isEmpty());
+    }
+
+    @Test
+    public void reservationListSeeksByDate()
+    {
+        KeysetPager.Key[] keys = {KeysetPager.Key.desc("Res_date"), KeysetPager.Key.desc("Res_id")};
+        String sql = KeysetPager.seekSql(SQLCommand.QUERY_RESERVATION_LIST, keys, true, 50);
+        List<String> details = plan(sql);
+        //a page starts at the last row seen in idx_res_date, no sorting and no scan from the top
+        assertTrue(details.toString(), details.get(0).contains("idx_res_date (Res_date<?)"));
+        for (String detail : details) {
+            assertFalse(details.toString(), detail.contains("TEMP B-TREE"));
+        }
+    }
+
+    @Test
+    public void bookingCheckSeeksByTable()
+    {
+        List<String> details = plan(SQLCommand.QUERY_TABLE_RESERVATIONS);
+        //only the reservations of the one table around the new start are read
+        assertTrue(details.toString(), details.get(0).contains("idx_res_table (Res_DT_id=? AND Res_date>? AND Res_date<?)"));
+    }
+
+    /*
+     * detail column of each row of the query plan
+     */
+    private List<String> plan(String sql)
+    {
+        List<String> details = new ArrayList<>();
+        Cursor cursor = op.execQuery("EXPLAIN QUERY PLAN " + sql);
+        int column = cursor.getColumnIndexOrThrow("detail");
+        while (cursor.moveToNext()) {
+            details.add(cursor.getString(column));
+        }
+        cursor.close();
+        return details;
+    }
+}
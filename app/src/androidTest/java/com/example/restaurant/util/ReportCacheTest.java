@@ -0,0 +1,137 @@
+package com.example.restaurant.util;
+
+import android.app.Instrumentation;
+import android.os.SystemClock;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@RunWith(AndroidJUnit4.class)
+public class ReportCacheTest
+{
+    private static final long TTL_MS = 2000;
+
+    private final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+    private final BlockingQueue<ReportCache.Rows> results = new LinkedBlockingQueue<>();
+    private final DBOperator.Callback<ReportCache.Rows> callback = results::add;
+
+    private DBOperator op;
+    private ReportCache cache;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        op = TestDatabases.freshCopy("report_cache_test.db");
+        instrumentation.runOnMainSync(() -> cache = new ReportCache(op, TTL_MS));
+    }
+
+    @After
+    public void tearDown()
+    {
+        op.closeDB();
+    }
+
+    @Test
+    public void servesTheCachedResultUntilATableIsWritten() throws Exception
+    {
+        ReportCache.Rows first = load(Reports.TOP_SELLING);
+        assertEquals(SalesRollupsTest.rows(op, SalesRollupsTest.RAW_TOP_SELLING), joined(first));
+        assertSame(first, load(Reports.TOP_SELLING));
+
+        //a write to a table the report does not read keeps it
+        op.execSQL("UPDATE Employee SET Emp_name = Emp_name WHERE Emp_id = 'EMP001'");
+        SystemClock.sleep(DBChangeBus.DEBOUNCE_MS * 4);
+        assertSame(first, peek(Reports.TOP_SELLING));
+
+        op.execSQL("INSERT INTO Orders VALUES ('TST001', 'CUST001', 'DT001', 'EMP001', 'Closed', 0)");
+        op.execSQL("INSERT INTO Order_Item VALUES ('TSTI1', 'TST001', " +
+                "(SELECT Menu_DishID FROM Menu LIMIT 1), 500, 1, '2025-01-10 20:00')");
+        SystemClock.sleep(DBChangeBus.DEBOUNCE_MS * 4);
+        assertNull(peek(Reports.TOP_SELLING));
+        ReportCache.Rows reloaded = load(Reports.TOP_SELLING);
+        assertNotSame(first, reloaded);
+        assertEquals(SalesRollupsTest.rows(op, SalesRollupsTest.RAW_TOP_SELLING), joined(reloaded));
+    }
+
+    @Test
+    public void expiresAfterTheTtl() throws Exception
+    {
+        ReportCache.Rows first = load(Reports.PAYMENT_BY_DAY);
+        assertSame(first, peek(Reports.PAYMENT_BY_DAY));
+        SystemClock.sleep(TTL_MS + 100);
+        assertNull(peek(Reports.PAYMENT_BY_DAY));
+    }
+
+    @Test
+    public void warmLoadsEveryStandardReportOnce() throws Exception
+    {
+        BlockingQueue<Boolean> done = new LinkedBlockingQueue<>();
+        instrumentation.runOnMainSync(() -> cache.warm(Reports.STANDARD, () -> done.add(true)));
+        assertNotNull("warm did not finish", done.poll(10, TimeUnit.SECONDS));
+        for (ReportCache.Report report : Reports.STANDARD) {
+            assertNotNull(report.key, peek(report));
+        }
+    }
+
+    @Test
+    public void requestsDuringALoadShareIt() throws Exception
+    {
+        instrumentation.runOnMainSync(() -> {
+            cache.get(Reports.PEAK_TIMES, callback);
+            cache.get(Reports.PEAK_TIMES, callback);
+        });
+        ReportCache.Rows first = next();
+        assertSame(first, next());
+    }
+
+    private ReportCache.Rows load(ReportCache.Report report) throws InterruptedException
+    {
+        instrumentation.runOnMainSync(() -> cache.get(report, callback));
+        return next();
+    }
+
+    private ReportCache.Rows peek(ReportCache.Report report)
+    {
+        ReportCache.Rows[] rows = new ReportCache.Rows[1];
+        instrumentation.runOnMainSync(() -> rows[0] = cache.peek(report));
+        return rows[0];
+    }
+
+    //rows as SalesRollupsTest.rows reads them
+    private static List<String> joined(ReportCache.Rows rows)
+    {
+        List<String> result = new ArrayList<>();
+        for (String[] row : rows.rows) {
+            StringBuilder joined = new StringBuilder();
+            for (String value : row) {
+                joined.append(value).append('|');
+            }
+            result.add(joined.toString());
+        }
+        return result;
+    }
+
+    private ReportCache.Rows next() throws InterruptedException
+    {
+        ReportCache.Rows rows = results.poll(5, TimeUnit.SECONDS);
+        assertNotNull("report was not delivered", rows);
+        return rows;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.restaurant.util;
+
+import android.database.Cursor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Booking checks the table for overlapping reservations in the same transaction as the
+ * inserts, so hosts booking one slot at the same time never double-book it.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ReservationBookingTest
+{
+    private static final int THREADS = 16;
+    //2030-06-01 19:00, after every reservation of the asset database
+    private static final long SLOT = TableAvailability.minuteOf("2030-06-01 19:00");
+
+    private DBOperator op;
+    private ExecutorService pool;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        op = TestDatabases.freshCopy("reservation_booking_test.db");
+        pool = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        pool.shutdownNow();
+        pool.awaitTermination(5, TimeUnit.SECONDS);
+        op.closeDB();
+    }
+
+    private static ReservationBooking.Request request(String id, String tableId, long start, int partySize)
+    {
+        return new ReservationBooking.Request("RB" + id, "CB" + id, "Guest " + id, "555-0100",
+                tableId, start, partySize);
+    }
+
+    @Test
+    public void parallelBookingsOfOneSlotHaveOneWinner() throws Exception
+    {
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            futures.add(pool.submit((Callable<Boolean>) () -> {
+                start.await();
+                //every host picks the same table, a few minutes apart
+                return ReservationBooking.book(op, request(String.valueOf(thread), "DT002", SLOT + thread % 4, 4));
+            }));
+        }
+        int won = 0;
+        for (Future<Boolean> future : futures) {
+            if (future.get(60, TimeUnit.SECONDS)) won++;
+        }
+
+        assertEquals(1, won);
+        assertEquals(1, count("SELECT COUNT(*) FROM Reservation WHERE Res_id LIKE 'RB%'"));
+        //the losers left no customer behind either
+        assertEquals(1, count("SELECT COUNT(*) FROM Customer WHERE Cust_id LIKE 'CB%'"));
+    }
+
+    @Test
+    public void mealsBackToBackDoNotOverlap()
+    {
+        assertTrue(ReservationBooking.book(op, request("1", "DT002", SLOT, 4)));
+        //the next party sits down as the first one's meal ends
+        assertTrue(ReservationBooking.book(op, request("2", "DT002", SLOT + TableAvailability.MEAL_MINUTES, 2)));
+        assertFalse(ReservationBooking.book(op, request("3", "DT002", SLOT + 30, 2)));
+        //another table is not in the way
+        assertTrue(ReservationBooking.book(op, request("4", "DT008", SLOT + 30, 2)));
+    }
+
+    @Test
+    public void largePartyTakesTheTableLonger()
+    {
+        assertTrue(ReservationBooking.book(op, request("1", "DT003", SLOT, TableAvailability.LARGE_PARTY)));
+        assertEquals("RB1", ReservationBooking.conflictOf(op, "DT003", SLOT + TableAvailability.MEAL_MINUTES, 2));
+        assertNull(ReservationBooking.conflictOf(op, "DT003", SLOT + TableAvailability.LARGE_PARTY_MEAL_MINUTES, 2));
+    }
+
+    @Test
+    public void cancelledReservationsFreeTheSlot()
+    {
+        assertTrue(ReservationBooking.book(op, request("1", "DT002", SLOT, 4)));
+        op.execSQL("UPDATE Reservation SET Res_status = 'Cancelled' WHERE Res_id = 'RB1'");
+        assertTrue(ReservationBooking.book(op, request("2", "DT002", SLOT, 4)));
+    }
+
+    @Test
+    public void seatedReservationsFreeTheSlot()
+    {
+        assertTrue(ReservationBooking.book(op, request("1", "DT002", SLOT, 4)));
+        //seating hands the table over to the turn, which TableAvailability holds until it is bussed
+        op.execSQL("UPDATE Reservation SET Res_status = 'Completed' WHERE Res_id = 'RB1'");
+        assertNull(ReservationBooking.conflictOf(op, "DT002", SLOT + 30, 2));
+        assertTrue(ReservationBooking.book(op, request("2", "DT002", SLOT + 30, 2)));
+    }
+
+    private int count(String sql)
+    {
+        Cursor cursor = op.execQuery(sql);
+        try {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        } finally {
+            cursor.close();
+        }
+    }
+}
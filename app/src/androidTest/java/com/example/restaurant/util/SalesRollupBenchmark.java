@@ -0,0 +1,124 @@
+package com.example.restaurant.util;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.restaurant.constant.SQLCommand;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the reports computed from Order_Item and Payments with the same reports
+ * read from the sales rollups, on a million order items.
+ * The history is loaded with the rollup triggers dropped and filled with the backfill
+ * job afterwards, the way an upgraded database with years of orders gets its rollups.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SalesRollupBenchmark
+{
+    private static final String TAG = "SalesRollupBenchmark";
+    private static final int ORDER_ITEMS = 1000000;
+    //4 items per order, 120 orders a day over the lunch and dinner hours, one payment per order
+    private static final int ITEMS_PER_ORDER = 4;
+    private static final int ORDERS_PER_DAY = 120;
+    private static final int RUNS = 3;
+
+    private DBOperator op;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        op = TestDatabases.freshCopy("sales_rollup_benchmark.db");
+    }
+
+    @After
+    public void tearDown()
+    {
+        op.closeDB();
+    }
+
+    @Test
+    public void rollupsBeatRawReports()
+    {
+        loadHistory();
+        long start = System.nanoTime();
+        SalesRollups.backfill(op);
+        Log.i(TAG, "backfill of " + ORDER_ITEMS + " order items: " + (System.nanoTime() - start) / 1000000 + " ms");
+        assertEquals(Collections.emptyList(), SalesRollups.verify(op));
+
+        String[][] reports = {
+                {"top selling", SalesRollupsTest.RAW_TOP_SELLING, SQLCommand.QUERY_TOP_SELLING},
+                {"peak times", SalesRollupsTest.RAW_PEAK_TIMES, SQLCommand.QUERY_PEAK_TIMES},
+                {"payments by day", SalesRollupsTest.RAW_PAYMENT_BY_DAY, SQLCommand.QUERY_PAYMENT_BY_DAY}
+        };
+        for (String[] report : reports) {
+            assertEquals(report[0], SalesRollupsTest.rows(op, report[1]), SalesRollupsTest.rows(op, report[2]));
+            long raw = time(report[1]);
+            long rollup = time(report[2]);
+            Log.i(TAG, report[0] + ": raw " + raw / 1000 + " us, rollup " + rollup / 1000 + " us");
+            assertTrue(report[0] + " should be faster from the rollups", rollup < raw);
+        }
+    }
+
+    /*
+     * a million order items in one statement, without the rollup triggers
+     */
+    private void loadHistory()
+    {
+        List<String> triggers = new ArrayList<>();
+        Cursor cursor = op.execQuery("SELECT name, sql FROM sqlite_master " +
+                "WHERE type = 'trigger' AND name LIKE 'trg_rollup_%'");
+        try {
+            while (cursor.moveToNext()) {
+                op.execSQL("DROP TRIGGER " + cursor.getString(0));
+                triggers.add(cursor.getString(1));
+            }
+        } finally {
+            cursor.close();
+        }
+        op.runInTransaction(tx -> {
+            //dishes numbered 0..n-1, SQLite on minSdk 24 has no row_number()
+            tx.execSQL("CREATE TEMP TABLE bench_dish AS SELECT Menu_DishID AS dish, " +
+                    "(SELECT COUNT(*) FROM Menu m2 WHERE m2.Menu_DishID < m.Menu_DishID) AS k FROM Menu m");
+            tx.execSQL("WITH RECURSIVE n(i) AS (SELECT 0 UNION ALL SELECT i + 1 FROM n WHERE i < ?) " +
+                    "INSERT INTO Orders SELECT 'BO' || i, 'CUST001', 'DT001', 'EMP001', 'Closed', 40 FROM n",
+                    new Object[]{ORDER_ITEMS / ITEMS_PER_ORDER - 1});
+            tx.execSQL("WITH RECURSIVE n(i) AS (SELECT 0 UNION ALL SELECT i + 1 FROM n WHERE i < ?) " +
+                    "INSERT INTO Order_Item SELECT 'BI' || i, 'BO' || (i / " + ITEMS_PER_ORDER + "), d.dish, " +
+                    "1 + i % 3, 10 + i % 20, strftime('%Y-%m-%d %H:%M', '2024-01-01 11:00', " +
+                    "'+' || (i / " + ITEMS_PER_ORDER * ORDERS_PER_DAY + ") || ' days', " +
+                    "'+' || (i / " + ITEMS_PER_ORDER + " % 11) || ' hours') " +
+                    "FROM n JOIN bench_dish d ON d.k = i % (SELECT COUNT(*) FROM bench_dish)",
+                    new Object[]{ORDER_ITEMS - 1});
+            tx.execSQL("INSERT INTO Payments SELECT 'BP' || substr(Order_id, 3), 'CUST001', Order_id, 'Card', " +
+                    "strftime('%Y-%m-%d 21:00', '2024-01-01', '+' || " +
+                    "(CAST(substr(Order_id, 3) AS INTEGER) / " + ORDERS_PER_DAY + ") || ' days') " +
+                    "FROM Orders WHERE Order_id LIKE 'BO%'");
+            tx.execSQL("DROP TABLE bench_dish");
+            for (String trigger : triggers) {
+                tx.execSQL(trigger);
+            }
+        });
+    }
+
+    private long time(String sql)
+    {
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            SalesRollupsTest.rows(op, sql);
+        }
+        return (System.nanoTime() - start) / RUNS;
+    }
+}
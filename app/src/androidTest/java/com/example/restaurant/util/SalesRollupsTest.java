@@ -0,0 +1,133 @@
+package com.example.restaurant.util;
+
+import android.database.Cursor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.restaurant.constant.SQLCommand;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+@RunWith(AndroidJUnit4.class)
+public class SalesRollupsTest
+{
+    //the reports as they were computed before the rollups, with the same tie breakers
+    static final String RAW_TOP_SELLING =
+            "SELECT m.Menu_name, m.Menu_cat, SUM(oi.Orditem_Quantity) AS Total_Sold, " +
+                    "SUM(oi.Orditem_Quantity * oi.Orditem_price) AS Revenue " +
+                    "FROM Menu m JOIN Order_Item oi ON m.Menu_DishID = oi.Orditem_Menu_dishID " +
+                    "GROUP BY m.Menu_DishID ORDER BY Total_Sold DESC, m.Menu_DishID LIMIT 5";
+    static final String RAW_PEAK_TIMES =
+            "SELECT strftime('%H:00', Orditem_time_ordered) AS Hour_Interval, " +
+                    "COUNT(DISTINCT Orditem_Order_id) AS Number_of_Orders, " +
+                    "SUM(Orditem_Quantity) AS Total_Items_Ordered FROM Order_Item " +
+                    "GROUP BY strftime('%H', Orditem_time_ordered) " +
+                    "ORDER BY Number_of_Orders DESC, Hour_Interval LIMIT 5";
+    static final String RAW_PAYMENT_BY_DAY =
+            "SELECT CASE CAST(strftime('%w', Pay_time) AS INTEGER) " +
+                    "WHEN 0 THEN 'Sunday' WHEN 1 THEN 'Monday' WHEN 2 THEN 'Tuesday' " +
+                    "WHEN 3 THEN 'Wednesday' WHEN 4 THEN 'Thursday' WHEN 5 THEN 'Friday' " +
+                    "WHEN 6 THEN 'Saturday' END AS Day_of_Week, " +
+                    "SUM(o.Order_Total) AS Total_Revenue, COUNT(*) AS Number_of_Payments " +
+                    "FROM Payments p JOIN Orders o ON p.Pay_Order_id = o.Order_id " +
+                    "GROUP BY strftime('%w', Pay_time) ORDER BY Total_Revenue DESC, Day_of_Week";
+
+    private DBOperator op;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        op = TestDatabases.freshCopy("sales_rollups_test.db");
+    }
+
+    @After
+    public void tearDown()
+    {
+        op.closeDB();
+    }
+
+    @Test
+    public void migrationFillsTheRollups()
+    {
+        assertEquals(Collections.emptyList(), SalesRollups.verify(op));
+        assertReportsMatchRawQueries();
+    }
+
+    @Test
+    public void triggersFollowItemsAndPayments()
+    {
+        List<Object[]> items = new ArrayList<>();
+        items.add(new Object[]{"TSTI1", "TST001", "M001", 2, 12, "2025-01-10 18:05"});
+        items.add(new Object[]{"TSTI2", "TST001", "M002", 1, 9, "2025-01-10 18:40"});
+        items.add(new Object[]{"TSTI3", "TST001", "M001", 3, 12, "2025-01-10 19:10"});
+        op.insertOrder(new Object[]{"TST001", "CUST001", "DT002", "EMP002", "Placed", 69}, items);
+        op.execSQL("INSERT INTO Payments VALUES ('TSTP1', 'CUST001', 'TST001', 'Card', '2025-01-10 20:00')");
+        assertEquals(Collections.emptyList(), SalesRollups.verify(op));
+        assertReportsMatchRawQueries();
+
+        //an item moving to another hour, the order leaving 18:00 only with its last item
+        op.execSQL("UPDATE Order_Item SET Orditem_time_ordered = '2025-01-10 19:30' WHERE Orditem_id = 'TSTI1'");
+        assertEquals(Collections.emptyList(), SalesRollups.verify(op));
+        op.execSQL("DELETE FROM Order_Item WHERE Orditem_id = 'TSTI2'");
+        assertEquals(Collections.emptyList(), SalesRollups.verify(op));
+
+        //the paid order changing its total, the payment moving to another day
+        op.execSQL("UPDATE Orders SET Order_Total = 80 WHERE Order_id = 'TST001'");
+        op.execSQL("UPDATE Payments SET Pay_time = '2025-01-11 09:00' WHERE Pay_id = 'TSTP1'");
+        assertEquals(Collections.emptyList(), SalesRollups.verify(op));
+        op.execSQL("DELETE FROM Payments WHERE Pay_id = 'TSTP1'");
+        assertEquals(Collections.emptyList(), SalesRollups.verify(op));
+        assertReportsMatchRawQueries();
+    }
+
+    @Test
+    public void backfillRepairsDrift()
+    {
+        op.execSQL("UPDATE Rollup_Dish SET Roll_quantity = Roll_quantity + 3");
+        op.execSQL("DELETE FROM Rollup_Payment_Day");
+        assertFalse(SalesRollups.verify(op).isEmpty());
+
+        SalesRollups.backfill(op);
+        assertEquals(Collections.emptyList(), SalesRollups.verify(op));
+    }
+
+    private void assertReportsMatchRawQueries()
+    {
+        assertEquals(rows(RAW_TOP_SELLING), rows(SQLCommand.QUERY_TOP_SELLING));
+        assertEquals(rows(RAW_PEAK_TIMES), rows(SQLCommand.QUERY_PEAK_TIMES));
+        assertEquals(rows(RAW_PAYMENT_BY_DAY), rows(SQLCommand.QUERY_PAYMENT_BY_DAY));
+    }
+
+    static List<String> rows(DBOperator op, String sql)
+    {
+        List<String> rows = new ArrayList<>();
+        Cursor cursor = op.execQuery(sql);
+        try {
+            while (cursor.moveToNext()) {
+                StringBuilder row = new StringBuilder();
+                for (int i = 0; i < cursor.getColumnCount(); i++) {
+                    row.append(cursor.getString(i)).append('|');
+                }
+                rows.add(row.toString());
+            }
+        } finally {
+            cursor.close();
+        }
+        return rows;
+    }
+
+    private List<String> rows(String sql)
+    {
+        return rows(op, sql);
+    }
+}
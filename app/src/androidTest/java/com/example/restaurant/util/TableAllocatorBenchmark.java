@@ -0,0 +1,117 @@
+package com.example.restaurant.util;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.restaurant.util.TableAllocator.Assignment;
+import com.example.restaurant.util.TableAllocator.Party;
+import com.example.restaurant.util.TableAvailability.Table;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Time of a re-plan of the waitlist on the floor of the asset database, over busy
+ * nights of walk-ins seated by TableAllocator.plan, re-made whenever a party arrives,
+ * is seated or walks away. The host screen re-plans on the main thread, so the
+ * slowest ones should fit well within a frame.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TableAllocatorBenchmark
+{
+    private static final String TAG = "TableAllocatorBenchmark";
+    //17:00 to 23:00 in wall-clock minutes
+    private static final long OPEN = 17 * 60;
+    private static final long CLOSE = 23 * 60;
+    private static final long PATIENCE = 60;
+    private static final int NIGHTS = 7;
+
+    @Test
+    public void replanFitsInAFrame()
+    {
+        //warm up, so class loading and the first compilations are not timed
+        replay(0, new ArrayList<>());
+
+        List<Double> planMs = new ArrayList<>();
+        for (int seed = 1; seed <= NIGHTS; seed++) {
+            replay(seed, planMs);
+        }
+        Collections.sort(planMs);
+        double median = planMs.get(planMs.size() / 2);
+        double p95 = planMs.get((int) (0.95 * (planMs.size() - 1)));
+        double slowest = planMs.get(planMs.size() - 1);
+        Log.i(TAG, planMs.size() + " re-plans over " + NIGHTS + " nights: median " + median
+                + " ms, p95 " + p95 + " ms, slowest " + slowest + " ms");
+        assertTrue("p95 re-plan took " + p95 + " ms", p95 < 10);
+    }
+
+    /*
+     * one night minute by minute, walk-ins arriving most in the 18:00 to 21:00 rush and
+     * leaving after the expected meal, every re-plan timed into planMs
+     */
+    private static void replay(long seed, List<Double> planMs)
+    {
+        Random random = new Random(seed);
+        TableAllocator allocator = new TableAllocator(floor());
+        Map<Long, Integer> leaving = new HashMap<>();
+        List<Party> queue = new ArrayList<>();
+        Map<String, Assignment> plan = new HashMap<>();
+        int walkIns = 0;
+        for (long now = OPEN; now < CLOSE; now++) {
+            boolean changed = leaving.remove(now) != null;
+            boolean rush = now >= 18 * 60 && now < 21 * 60;
+            if (random.nextDouble() < (rush ? 0.12 : 0.04) && now < CLOSE - 90) {
+                queue.add(new Party("W" + walkIns++, 1 + random.nextInt(6), now, null));
+                changed = true;
+            }
+            for (Iterator<Party> it = queue.iterator(); it.hasNext(); ) {
+                if (now - it.next().from > PATIENCE) {
+                    it.remove();
+                    changed = true;
+                }
+            }
+            if (changed) {
+                long began = System.nanoTime();
+                plan = allocator.plan(queue, now);
+                planMs.add((System.nanoTime() - began) / 1e6);
+            }
+            for (Iterator<Party> it = queue.iterator(); it.hasNext(); ) {
+                Party party = it.next();
+                Assignment assignment = plan.get(party.id);
+                if (assignment == null || assignment.start != now) continue;
+                long end = now + TableAvailability.mealMinutes(party.size);
+                allocator.hold(party.id, now, end, assignment.tableIds());
+                leaving.put(end, leaving.getOrDefault(end, 0) + 1);
+                it.remove();
+            }
+        }
+    }
+
+    //the floor of the asset database
+    private static List<Table> floor()
+    {
+        return Arrays.asList(
+                new Table("DT001", 1, 2, "Booth"),
+                new Table("DT002", 2, 4, "Standard"),
+                new Table("DT003", 3, 6, "Large"),
+                new Table("DT004", 4, 2, "Standard"),
+                new Table("DT005", 5, 4, "Window"),
+                new Table("DT006", 6, 8, "Party"),
+                new Table("DT007", 7, 2, "Outdoor"),
+                new Table("DT008", 8, 4, "Standard"),
+                new Table("DT009", 9, 6, "Large"),
+                new Table("DT010", 10, 4, "Booth"));
+    }
+}
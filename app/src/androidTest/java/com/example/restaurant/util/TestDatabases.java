@@ -0,0 +1,59 @@
+package com.example.restaurant.util;
+
+import android.content.Context;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.restaurant.constant.DBConstant;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Fresh copies of the shipped asset database, so tests never touch the app database
+ */
+final class TestDatabases
+{
+    private TestDatabases()
+    {
+    }
+
+    /**
+     * copy the asset database to a new file in the cache directory
+     * @param name file name of the copy
+     * @return DBOperator working on the copy
+     */
+    static DBOperator freshCopy(String name) throws IOException
+    {
+        return freshCopy(name, DBConfig.WAL);
+    }
+
+    /**
+     * @param name file name of the copy
+     * @param config journal mode and tuning to open the copy with
+     * @return DBOperator working on the copy
+     */
+    static DBOperator freshCopy(String name, DBConfig config) throws IOException
+    {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        File file = new File(context.getCacheDir(), name);
+        if (file.exists()) file.delete();
+        new File(file.getPath() + "-journal").delete();
+        new File(file.getPath() + "-wal").delete();
+        new File(file.getPath() + "-shm").delete();
+        InputStream is = context.getAssets().open(DBConstant.DATABASE_FILE);
+        OutputStream os = new FileOutputStream(file);
+        byte[] buffer = new byte[1024];
+        int length;
+        while ((length = is.read(buffer))>0){
+            os.write(buffer, 0, length);
+        }
+        is.close();
+        os.flush();
+        os.close();
+        return new DBOperator(file.getPath(), config);
+    }
+}
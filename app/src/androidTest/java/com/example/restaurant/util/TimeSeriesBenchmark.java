@@ -0,0 +1,64 @@
+package com.example.restaurant.util;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Heap taken by 100k points as a List of Pair and as a TimeSeries, measured on the
+ * device runtime after a collection, and the size of the series as bytes for a cache.
+ * Both are sized up front, like TimeSeries.read does from the count of the cursor.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TimeSeriesBenchmark
+{
+    private static final String TAG = "TimeSeriesBenchmark";
+    private static final int POINTS = 100000;
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void seriesTakesLessHeapThanPairs()
+    {
+        long before = usedHeap();
+        List<Pair> pairs = new ArrayList<>(POINTS);
+        for (int i = 0; i < POINTS; i++) {
+            pairs.add(new Pair(i, (i % 97) * 1.25));
+        }
+        long pairBytes = usedHeap() - before;
+
+        before = usedHeap();
+        TimeSeries series = new TimeSeries(POINTS);
+        for (int i = 0; i < POINTS; i++) {
+            series.append(i, (i % 97) * 1.25);
+        }
+        long seriesBytes = usedHeap() - before;
+
+        byte[] bytes = series.toBytes();
+        Log.i(TAG, POINTS + " points: List<Pair> " + pairBytes + " bytes, TimeSeries " + seriesBytes
+                + " bytes (arrays " + series.footprintBytes() + "), serialized " + bytes.length + " bytes");
+
+        //keep both alive until they are measured, and check they hold the same points
+        assertEquals(pairs.size(), series.size());
+        assertEquals(pairs.get(POINTS - 1).getNumber(), series.valueAt(POINTS - 1), 0);
+        assertTrue("series should take at most half the heap of the pairs", seriesBytes * 2 < pairBytes);
+    }
+
+    private static long usedHeap()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            runtime.gc();
+            System.runFinalization();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.restaurant.util;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Kitchen screen reads and server order writes running at the same time, once in the
+ * rollback journal mode the app used to open the database with and once in WAL mode.
+ * With the rollback journal every statement waits for the single connection, with
+ * WAL the readers get connections of their own and run next to the writer.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WalContentionBenchmark
+{
+    private static final String TAG = "WalContentionBenchmark";
+    private static final int READERS = 2;
+    private static final long DURATION_MS = 3000;
+
+    //active orders with their items, as KitchenActivity reads them
+    private static final String KITCHEN_QUERY =
+            "SELECT o.Order_id, dt.DT_number, o.Order_status, " +
+                    "GROUP_CONCAT(m.Menu_name || ' (x' || oi.Orditem_Quantity || ')') AS Items, " +
+                    "oi.Orditem_time_ordered " +
+                    "FROM Orders o " +
+                    "JOIN Dining_table dt ON o.Order_DT_id = dt.DT_id " +
+                    "JOIN Order_Item oi ON o.Order_id = oi.Orditem_Order_id " +
+                    "JOIN Menu m ON oi.Orditem_Menu_dishID = m.Menu_DishID " +
+                    "WHERE o.Order_status IN ('Placed', 'Preparing') " +
+                    "GROUP BY o.Order_id " +
+                    "ORDER BY oi.Orditem_time_ordered";
+
+    @Test
+    public void walReadsDoNotWaitForWrites() throws Exception
+    {
+        long[] rollback = run("rollback journal", DBConfig.ROLLBACK_JOURNAL);
+        long[] wal = run("WAL", DBConfig.WAL);
+        assertTrue("WAL should serve more reads next to the writer", wal[0] > rollback[0]);
+        assertTrue("WAL should not slow the writer down", wal[1] * 2 > rollback[1]);
+    }
+
+    /*
+     * reads and orders written in DURATION_MS, by READERS readers and one writer
+     */
+    private long[] run(String mode, DBConfig config) throws Exception
+    {
+        DBOperator op = TestDatabases.freshCopy("wal_contention_benchmark.db", config);
+        AtomicLong reads = new AtomicLong();
+        AtomicLong writes = new AtomicLong();
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch finished = new CountDownLatch(READERS + 1);
+        List<Thread> threads = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            threads.add(new Thread(() -> {
+                try {
+                    while (!stop.get()) {
+                        Cursor cursor = op.execQuery(KITCHEN_QUERY);
+                        try {
+                            //fills the whole window, like the screen reading every row
+                            cursor.getCount();
+                        } finally {
+                            cursor.close();
+                        }
+                        reads.incrementAndGet();
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    finished.countDown();
+                }
+            }));
+        }
+        threads.add(new Thread(() -> {
+            try {
+                for (int i = 0; !stop.get(); i++) {
+                    String orderId = "WAL" + i;
+                    op.insertOrder(new Object[]{orderId, "CUST001", "DT001", "EMP001", "Placed", 16},
+                            Collections.singletonList(new Object[]{orderId + "-1", orderId, "M001", 2, 8,
+                                    "2025-01-10 18:00:00"}));
+                    writes.incrementAndGet();
+                }
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            } finally {
+                finished.countDown();
+            }
+        }));
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        Thread.sleep(DURATION_MS);
+        stop.set(true);
+        finished.await();
+        op.closeDB();
+        assertNull(mode + " failed: " + failure.get(), failure.get());
+        Log.i(TAG, mode + ": " + reads.get() + " kitchen reads and " + writes.get()
+                + " orders written in " + DURATION_MS + " ms");
+        return new long[]{reads.get(), writes.get()};
+    }
+}
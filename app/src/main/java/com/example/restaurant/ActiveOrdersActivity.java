@@ -1,6 +1,5 @@
 package com.example.restaurant;
 
-import android.database.Cursor;
 import android.graphics.Color;
 import android.os.Bundle;
 import android.view.LayoutInflater;
@@ -14,16 +13,21 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.cardview.widget.CardView;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.restaurant.constant.SQLCommand;
+import com.example.restaurant.util.DBChangeBus;
 import com.example.restaurant.util.DBOperator;
+import com.example.restaurant.util.DBTaskGroup;
+import com.example.restaurant.util.TicketQueue;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 
 public class ActiveOrdersActivity extends AppCompatActivity {
 
@@ -32,7 +36,11 @@ public class ActiveOrdersActivity extends AppCompatActivity {
     private Button btnRefresh;
     private DBOperator dbOperator;
     private OrderAdapter adapter;
-    private List<Order> orders;
+    private final DBTaskGroup tasks = new DBTaskGroup();
+    // Tickets on screen, refreshes only touch the orders that changed
+    private final TicketQueue<Order> tickets = new TicketQueue<>(order -> order.orderId);
+    // Reload as soon as a write to the orders is committed
+    private final DBChangeBus.Listener ordersChanged = tables -> loadActiveOrders();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -47,6 +55,8 @@ public class ActiveOrdersActivity extends AppCompatActivity {
         btnRefresh = findViewById(R.id.btn_refresh_orders);
 
         rvOrders.setLayoutManager(new LinearLayoutManager(this));
+        adapter = new OrderAdapter();
+        rvOrders.setAdapter(adapter);
 
         // Load orders
         loadActiveOrders();
@@ -61,80 +71,99 @@ public class ActiveOrdersActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
+        dbOperator.getChangeBus().subscribe(ordersChanged, DBChangeBus.ORDERS, DBChangeBus.ORDER_ITEM);
         loadActiveOrders();
     }
 
+    @Override
+    protected void onPause() {
+        super.onPause();
+        dbOperator.getChangeBus().unsubscribe(ordersChanged);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        tasks.cancelAll();
+    }
+
     private void loadActiveOrders() {
-        orders = new ArrayList<>();
-
-        try {
-            // Query for active orders with all details
-            String query =
-                    "SELECT o.Order_id, dt.DT_number, c.Cust_name, e.Emp_name, " +
-                            "o.Order_status, o.Order_Total, " +
-                            "GROUP_CONCAT(m.Menu_name || ' (x' || oi.Orditem_Quantity || ')', ', ') AS Items, " +
-                            "MIN(oi.Orditem_time_ordered) AS Time_Ordered " +
-                            "FROM Orders o " +
-                            "LEFT JOIN Customer c ON o.Order_Cust_id = c.Cust_id " +
-                            "JOIN Dining_table dt ON o.Order_DT_id = dt.DT_id " +
-                            "JOIN Employee e ON o.Order_Emp_id = e.Emp_id " +
-                            "JOIN Order_Item oi ON o.Order_id = oi.Orditem_Order_id " +
-                            "JOIN Menu m ON oi.Orditem_Menu_dishID = m.Menu_DishID " +
-                            "WHERE o.Order_status IN ('Placed', 'Preparing', 'Ready') " +
-                            "GROUP BY o.Order_id " +
-                            "ORDER BY MIN(oi.Orditem_time_ordered) DESC";
-
-            Cursor cursor = dbOperator.execQuery(query);
-
-            if (cursor != null) {
-                while (cursor.moveToNext()) {
-                    Order order = new Order();
-                    order.orderId = cursor.getString(0);
-                    order.tableNumber = cursor.getInt(1);
-                    order.customerName = cursor.getString(2);
-                    order.serverName = cursor.getString(3);
-                    order.status = cursor.getString(4);
-                    order.total = cursor.getInt(5);
-                    order.items = cursor.getString(6);
-                    order.timeOrdered = cursor.getString(7);
-
-                    orders.add(order);
+        // Query for active orders with all details
+        String query =
+                "SELECT o.Order_id, dt.DT_number, c.Cust_name, e.Emp_name, " +
+                        "o.Order_status, o.Order_Total, " +
+                        "GROUP_CONCAT(m.Menu_name || ' (x' || oi.Orditem_Quantity || ')', ', ') AS Items, " +
+                        "MIN(oi.Orditem_time_ordered) AS Time_Ordered " +
+                        "FROM Orders o " +
+                        "LEFT JOIN Customer c ON o.Order_Cust_id = c.Cust_id " +
+                        "JOIN Dining_table dt ON o.Order_DT_id = dt.DT_id " +
+                        "JOIN Employee e ON o.Order_Emp_id = e.Emp_id " +
+                        "JOIN Order_Item oi ON o.Order_id = oi.Orditem_Order_id " +
+                        "JOIN Menu m ON oi.Orditem_Menu_dishID = m.Menu_DishID " +
+                        "WHERE o.Order_status IN ('Placed', 'Preparing', 'Ready') " +
+                        "GROUP BY o.Order_id " +
+                        "ORDER BY MIN(oi.Orditem_time_ordered) DESC";
+
+        // Rows are read on a database thread, the list is bound on the main thread
+        tasks.add(dbOperator.queryAsync(query, null, cursor -> {
+            List<Order> result = new ArrayList<>();
+            while (cursor.moveToNext()) {
+                Order order = new Order();
+                order.orderId = cursor.getString(0);
+                order.tableNumber = cursor.getInt(1);
+                order.customerName = cursor.getString(2);
+                order.serverName = cursor.getString(3);
+                order.status = cursor.getString(4);
+                order.total = cursor.getInt(5);
+                order.items = cursor.getString(6);
+                order.timeOrdered = cursor.getString(7);
+
+                result.add(order);
+            }
+            return result;
+        }, new DBOperator.Callback<List<Order>>() {
+            @Override
+            public void onResult(List<Order> result) {
+                // Update count
+                tvOrderCount.setText(result.size() + " Active Orders");
+
+                // Update RecyclerView, the diff runs off the main thread
+                adapter.submitList(tickets.apply(result));
+
+                if (result.isEmpty()) {
+                    Toast.makeText(ActiveOrdersActivity.this, "No active orders", Toast.LENGTH_SHORT).show();
                 }
-                cursor.close();
             }
 
-            // Update count
-            tvOrderCount.setText(orders.size() + " Active Orders");
-
-            // Update RecyclerView
-            adapter = new OrderAdapter(orders);
-            rvOrders.setAdapter(adapter);
-
-            if (orders.isEmpty()) {
-                Toast.makeText(this, "No active orders", Toast.LENGTH_SHORT).show();
+            @Override
+            public void onError(Exception e) {
+                e.printStackTrace();
+                Toast.makeText(ActiveOrdersActivity.this, "Error loading orders: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                android.util.Log.e("ActiveOrders", "Error loading orders", e);
             }
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            Toast.makeText(this, "Error loading orders: " + e.getMessage(), Toast.LENGTH_LONG).show();
-            android.util.Log.e("ActiveOrders", "Error loading orders", e);
-        }
+        }));
     }
 
     private void updateOrderStatus(String orderId, String newStatus) {
-        try {
-            dbOperator.execSQL(
-                    SQLCommand.UPDATE_ORDER_STATUS,
-                    new Object[]{newStatus, orderId}
-            );
-
-            Toast.makeText(this, "Order " + orderId + " updated to " + newStatus, Toast.LENGTH_SHORT).show();
-            loadActiveOrders(); // Refresh list
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            Toast.makeText(this, "Error updating order: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-        }
+        tasks.add(dbOperator.execAsync(
+                SQLCommand.UPDATE_ORDER_STATUS,
+                new Object[]{newStatus, orderId},
+                new DBOperator.Callback<Integer>() {
+                    @Override
+                    public void onResult(Integer updated) {
+                        if (updated == 0) {
+                            Toast.makeText(ActiveOrdersActivity.this, "Order " + orderId + " no longer exists", Toast.LENGTH_SHORT).show();
+                        } else {
+                            Toast.makeText(ActiveOrdersActivity.this, "Order " + orderId + " updated to " + newStatus, Toast.LENGTH_SHORT).show();
+                        }
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        e.printStackTrace();
+                        Toast.makeText(ActiveOrdersActivity.this, "Error updating order: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                    }
+                }));
     }
 
     private void showOrderDetails(Order order) {
@@ -164,15 +193,33 @@ public class ActiveOrdersActivity extends AppCompatActivity {
         int total;
         String items;
         String timeOrdered;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Order)) return false;
+            Order other = (Order) o;
+            return tableNumber == other.tableNumber
+                    && total == other.total
+                    && Objects.equals(orderId, other.orderId)
+                    && Objects.equals(customerName, other.customerName)
+                    && Objects.equals(serverName, other.serverName)
+                    && Objects.equals(status, other.status)
+                    && Objects.equals(items, other.items)
+                    && Objects.equals(timeOrdered, other.timeOrdered);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(orderId, tableNumber, status, total, items);
+        }
     }
 
     // Adapter for orders
-    private class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.ViewHolder> {
-
-        private List<Order> orders;
+    private class OrderAdapter extends ListAdapter<Order, OrderAdapter.ViewHolder> {
 
-        public OrderAdapter(List<Order> orders) {
-            this.orders = orders;
+        public OrderAdapter() {
+            super(tickets.itemCallback());
         }
 
         @Override
@@ -184,7 +231,7 @@ public class ActiveOrdersActivity extends AppCompatActivity {
 
         @Override
         public void onBindViewHolder(ViewHolder holder, int position) {
-            Order order = orders.get(position);
+            Order order = getItem(position);
 
             // Order header
             holder.tvOrderId.setText("Order #" + order.orderId.substring(Math.max(0, order.orderId.length() - 6)));
@@ -266,11 +313,6 @@ public class ActiveOrdersActivity extends AppCompatActivity {
             holder.cardView.setOnClickListener(v -> showOrderDetails(order));
         }
 
-        @Override
-        public int getItemCount() {
-            return orders.size();
-        }
-
         class ViewHolder extends RecyclerView.ViewHolder {
             CardView cardView;
             TextView tvOrderId, tvTable, tvServer, tvItems, tvTotal, tvTimeElapsed, tvStatus;
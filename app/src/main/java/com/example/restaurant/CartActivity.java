@@ -16,8 +16,9 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.example.restaurant.constant.SQLCommand;
 import com.example.restaurant.util.DBOperator;
+import com.example.restaurant.util.IdGenerator;
+import com.example.restaurant.util.TableOccupancy;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -142,7 +143,8 @@ public class CartActivity extends AppCompatActivity {
             }
 
             // Generate order ID
-            String orderId = "ORD" + System.currentTimeMillis();
+            IdGenerator ids = IdGenerator.getInstance();
+            String orderId = ids.nextId("ORD");
 
             // Calculate total
             double total = 0;
@@ -156,60 +158,69 @@ public class CartActivity extends AppCompatActivity {
             String currentTime = sdf.format(new Date());
 
             // FIXED: Use DEFAULT_CUSTOMER_ID instead of null for walk-in orders
-            dbOperator.execSQL(
-                    SQLCommand.INSERT_ORDER,
-                    new Object[]{
-                            orderId,                  // Order_id
-                            DEFAULT_CUSTOMER_ID,      // Order_Cust_id (FIXED - was null)
-                            tableId,                  // Order_DT_id
-                            employeeId,               // Order_Emp_id
-                            "Placed",                 // Order_status
-                            (int)total                // Order_Total
-                    }
-            );
-
-            // Insert order items
+            Object[] order = new Object[]{
+                    orderId,                  // Order_id
+                    DEFAULT_CUSTOMER_ID,      // Order_Cust_id (FIXED - was null)
+                    tableId,                  // Order_DT_id
+                    employeeId,               // Order_Emp_id
+                    "Placed",                 // Order_status
+                    (int)total                // Order_Total
+            };
+
+            // Order items
+            List<Object[]> orderItems = new ArrayList<>();
             for (NewOrderActivity.CartItem item : NewOrderActivity.cart.values()) {
-                String orderItemId = "OI" + System.currentTimeMillis() + item.dishID;
-
-                dbOperator.execSQL(
-                        SQLCommand.INSERT_ORDER_ITEM,
-                        new Object[]{
-                                orderItemId,
-                                orderId,
-                                item.dishID,
-                                item.quantity,
-                                item.price,
-                                currentTime
-                        }
-                );
-
-                // Small delay to ensure unique IDs
-                try {
-                    Thread.sleep(1);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
+                String orderItemId = ids.nextId("OI");
+
+                orderItems.add(new Object[]{
+                        orderItemId,
+                        orderId,
+                        item.dishID,
+                        item.quantity,
+                        item.price,
+                        currentTime
+                });
             }
 
-            // Clear cart
-            NewOrderActivity.cart.clear();
-
-            Toast.makeText(this, "Order submitted successfully!", Toast.LENGTH_LONG).show();
+            // Header and items are committed together on the writer thread
+            btnSubmitOrder.setEnabled(false);
+            String orderTableId = tableId;
+            dbOperator.insertOrderAsync(order, orderItems, new DBOperator.Callback<Void>() {
+                @Override
+                public void onResult(Void result) {
+                    // The table has ordered, seated now if nobody seated it
+                    TableOccupancy.getInstance().onOrdered(orderTableId);
+
+                    // Clear cart
+                    NewOrderActivity.cart.clear();
+
+                    Toast.makeText(CartActivity.this, "Order submitted successfully!", Toast.LENGTH_LONG).show();
+
+                    // Return to server main
+                    Intent intent = new Intent(CartActivity.this, ServerMainActivity.class);
+                    intent.setFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP);
+                    startActivity(intent);
+                    finish();
+                }
 
-            // Return to server main
-            Intent intent = new Intent(this, ServerMainActivity.class);
-            intent.setFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP);
-            startActivity(intent);
-            finish();
+                @Override
+                public void onError(Exception e) {
+                    btnSubmitOrder.setEnabled(true);
+                    showSubmitError(e);
+                }
+            });
 
         } catch (Exception e) {
-            e.printStackTrace();
-            Toast.makeText(this, "Error submitting order: " + e.getMessage(), Toast.LENGTH_LONG).show();
-            android.util.Log.e("CartActivity", "Submit order error", e);
+            showSubmitError(e);
         }
     }
 
+    private void showSubmitError(Exception e) {
+        e.printStackTrace();
+        Toast.makeText(this, "Error submitting order: " + e.getMessage(), Toast.LENGTH_LONG).show();
+        android.util.Log.e("CartActivity", "Submit order error", e);
+    }
+
     private void clearCart() {
         NewOrderActivity.cart.clear();
         Toast.makeText(this, "Cart cleared", Toast.LENGTH_SHORT).show();
@@ -5,13 +5,15 @@ import android.app.TimePickerDialog;
 import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.SharedPreferences;
-import android.database.Cursor;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.ArrayAdapter;
 import android.widget.Button;
+import android.widget.CheckBox;
 import android.widget.EditText;
+import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -21,13 +23,24 @@ import androidx.cardview.widget.CardView;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.restaurant.constant.SQLCommand;
+import com.example.restaurant.util.DashboardStats;
+import com.example.restaurant.util.DBChangeBus;
 import com.example.restaurant.util.DBOperator;
+import com.example.restaurant.util.DBTaskGroup;
+import com.example.restaurant.util.IdGenerator;
+import com.example.restaurant.util.ReservationBooking;
+import com.example.restaurant.util.TableAllocator;
+import com.example.restaurant.util.TableAvailability;
+import com.example.restaurant.util.TableOccupancy;
+import com.example.restaurant.util.Waitlist;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Locale;
+import java.util.TreeSet;
 
 public class HostMainActivity extends AppCompatActivity {
 
@@ -37,6 +50,30 @@ public class HostMainActivity extends AppCompatActivity {
     private Button btnNewReservation, btnLogout;
     private DBOperator dbOperator;
     private String employeeName;
+    private final DBTaskGroup tasks = new DBTaskGroup();
+    private final DBChangeBus.Listener dataChanged = tables -> {
+        loadDashboardData();
+        loadUpcomingReservations();
+    };
+    // Free tables, counted as turns are seated and bussed
+    private final TableOccupancy.Listener occupancyChanged = occupancy ->
+            tvAvailableTables.setText(String.valueOf(occupancy.count(TableOccupancy.State.FREE)));
+    // Keeps the table availability loaded while the host screen is up
+    private final TableAvailability.Listener availabilityLoaded = availability -> { };
+    // Offers the next seat from the waitlist once a table comes free for it
+    private String lastSuggestion = null;
+    private final Waitlist.Listener waitlistChanged = waitlist -> {
+        Waitlist.Suggestion suggestion = waitlist.suggest();
+        String key = suggestion != null ? suggestion.entry.id + "@" + suggestion.table.id : null;
+        if (key != null && !key.equals(lastSuggestion)) {
+            Toast.makeText(this, "Table " + suggestion.table.number + " is free for "
+                    + suggestion.entry.name + ", party of " + suggestion.entry.partySize, Toast.LENGTH_LONG).show();
+        }
+        lastSuggestion = key;
+    };
+
+    // Spinner entry for a reservation without a table preference
+    private static final String ANY_TABLE_TYPE = "Any table";
 
     // For date/time picker
     private Calendar selectedDateTime = Calendar.getInstance();
@@ -85,7 +122,7 @@ public class HostMainActivity extends AppCompatActivity {
         });
 
         cvWaitlist.setOnClickListener(v -> {
-            Toast.makeText(this, "Waitlist feature coming soon", Toast.LENGTH_SHORT).show();
+            showWaitlistDialog();
         });
 
         cvSeating.setOnClickListener(v -> {
@@ -139,76 +176,69 @@ public class HostMainActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
+        dbOperator.getChangeBus().subscribe(dataChanged, DBChangeBus.RESERVATION, DBChangeBus.ORDERS);
+        TableAvailability.getInstance().subscribe(availabilityLoaded);
+        Waitlist.getInstance().subscribe(waitlistChanged);
+        TableOccupancy.getInstance().subscribe(occupancyChanged);
         loadDashboardData();
         loadUpcomingReservations();
     }
 
-    private void loadDashboardData() {
-        try {
-            // Count pending reservations
-            Cursor resCursor = dbOperator.execQuery(
-                    "SELECT COUNT(*) FROM Reservation WHERE Res_status = 'Confirmed'"
-            );
-            int pendingRes = 0;
-            if (resCursor != null && resCursor.moveToFirst()) {
-                pendingRes = resCursor.getInt(0);
-                resCursor.close();
-            }
-            tvPendingReservations.setText(String.valueOf(pendingRes));
+    @Override
+    protected void onPause() {
+        super.onPause();
+        dbOperator.getChangeBus().unsubscribe(dataChanged);
+        TableAvailability.getInstance().unsubscribe(availabilityLoaded);
+        Waitlist.getInstance().unsubscribe(waitlistChanged);
+        TableOccupancy.getInstance().unsubscribe(occupancyChanged);
+    }
 
-            // Count available tables (tables not in active orders)
-            Cursor tableCursor = dbOperator.execQuery(
-                    "SELECT COUNT(*) FROM Dining_table WHERE DT_id NOT IN " +
-                            "(SELECT Order_DT_id FROM Orders WHERE Order_status IN ('Open', 'Placed', 'Preparing'))"
-            );
-            int availableTables = 0;
-            if (tableCursor != null && tableCursor.moveToFirst()) {
-                availableTables = tableCursor.getInt(0);
-                tableCursor.close();
-            }
-            tvAvailableTables.setText(String.valueOf(availableTables));
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        tasks.cancelAll();
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    private void loadDashboardData() {
+        // Pending reservations from the dashboard counters, available tables come from TableOccupancy
+        tasks.add(dbOperator.queryAsync(SQLCommand.QUERY_DASHBOARD_STATS,
+                new String[]{DashboardStats.GLOBAL},
+                DashboardStats::read,
+                stats -> tvPendingReservations.setText(String.valueOf(
+                        (int) DashboardStats.get(stats, DashboardStats.CONFIRMED_RESERVATIONS)))));
     }
 
     private void loadUpcomingReservations() {
-        List<Reservation> reservations = new ArrayList<>();
-
-        try {
-            Cursor cursor = dbOperator.execQuery(
-                    "SELECT r.Res_id, c.Cust_name, c.Cust_Number, r.Res_party_size, " +
-                            "r.Res_date, r.Res_status, d.DT_number " +
-                            "FROM Reservation r " +
-                            "JOIN Customer c ON r.Res_Cust_id = c.Cust_id " +
-                            "JOIN Dining_table d ON r.Res_DT_id = d.DT_id " +
-                            "WHERE r.Res_status IN ('Confirmed', 'Pending') " +
-                            "ORDER BY r.Res_date LIMIT 10"
-            );
-
-            if (cursor != null) {
-                while (cursor.moveToNext()) {
-                    Reservation res = new Reservation();
-                    res.id = cursor.getString(0);
-                    res.customerName = cursor.getString(1);
-                    res.phone = cursor.getString(2);
-                    res.partySize = cursor.getInt(3);
-                    res.dateTime = cursor.getString(4);
-                    res.status = cursor.getString(5);
-                    res.tableNumber = cursor.getInt(6);
-
-                    reservations.add(res);
-                }
-                cursor.close();
-            }
-
-            ReservationAdapter adapter = new ReservationAdapter(reservations);
-            rvUpcomingReservations.setAdapter(adapter);
-
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        tasks.add(dbOperator.queryAsync(
+                "SELECT r.Res_id, c.Cust_name, c.Cust_Number, r.Res_party_size, " +
+                        "r.Res_date, r.Res_status, d.DT_number, r.Res_DT_id " +
+                        "FROM Reservation r " +
+                        "JOIN Customer c ON r.Res_Cust_id = c.Cust_id " +
+                        "JOIN Dining_table d ON r.Res_DT_id = d.DT_id " +
+                        "WHERE r.Res_status IN ('Confirmed', 'Pending') " +
+                        "ORDER BY r.Res_date LIMIT 10",
+                null,
+                cursor -> {
+                    List<Reservation> reservations = new ArrayList<>();
+                    while (cursor.moveToNext()) {
+                        Reservation res = new Reservation();
+                        res.id = cursor.getString(0);
+                        res.customerName = cursor.getString(1);
+                        res.phone = cursor.getString(2);
+                        res.partySize = cursor.getInt(3);
+                        res.dateTime = cursor.getString(4);
+                        res.status = cursor.getString(5);
+                        res.tableNumber = cursor.getInt(6);
+                        res.tableId = cursor.getString(7);
+
+                        reservations.add(res);
+                    }
+                    return reservations;
+                },
+                reservations -> {
+                    ReservationAdapter adapter = new ReservationAdapter(reservations);
+                    rvUpcomingReservations.setAdapter(adapter);
+                }));
     }
 
     private void showNewReservationDialog() {
@@ -223,6 +253,23 @@ public class HostMainActivity extends AppCompatActivity {
         Button btnSelectDate = dialogView.findViewById(R.id.btn_select_date);
         Button btnSelectTime = dialogView.findViewById(R.id.btn_select_time);
         tvSelectedDateTime = dialogView.findViewById(R.id.tv_selected_datetime);
+        Spinner spinnerTableType = dialogView.findViewById(R.id.spinner_table_type);
+
+        // Table types on the floor, first entry means no preference
+        List<String> tableTypes = new ArrayList<>();
+        tableTypes.add(ANY_TABLE_TYPE);
+        TableAllocator allocator = TableAvailability.getInstance().allocator();
+        if (allocator != null) {
+            TreeSet<String> types = new TreeSet<>();
+            for (TableAvailability.Table table : allocator.tables()) {
+                if (table.type != null) types.add(table.type);
+            }
+            tableTypes.addAll(types);
+        }
+        ArrayAdapter<String> typeAdapter = new ArrayAdapter<>(this,
+                android.R.layout.simple_spinner_item, tableTypes);
+        typeAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        spinnerTableType.setAdapter(typeAdapter);
 
         // Reset selected date/time
         selectedDateTime = Calendar.getInstance();
@@ -272,7 +319,9 @@ public class HostMainActivity extends AppCompatActivity {
             }
 
             int partySize = Integer.parseInt(partySizeStr);
-            createReservation(name, phone, partySize);
+            String preferredType = spinnerTableType.getSelectedItemPosition() > 0
+                    ? (String) spinnerTableType.getSelectedItem() : null;
+            createReservation(name, phone, partySize, preferredType);
         });
 
         builder.setNegativeButton("Cancel", null);
@@ -286,28 +335,11 @@ public class HostMainActivity extends AppCompatActivity {
         }
     }
 
-    private void createReservation(String customerName, String phone, int partySize) {
+    private void createReservation(String customerName, String phone, int partySize, String preferredType) {
         try {
-            // Generate unique IDs using timestamp
-            long timestamp = System.currentTimeMillis();
-            String customerId = "CUST" + (timestamp % 100000);
-            String resId = "RES" + ((timestamp + 1) % 100000);
-
-            // Find available table for party size
-            Cursor tableCursor = dbOperator.execQuery(
-                    "SELECT DT_id FROM Dining_table WHERE DT_party_size >= " + partySize +
-                            " AND DT_id NOT IN (SELECT Res_DT_id FROM Reservation WHERE Res_status = 'Confirmed') " +
-                            "ORDER BY DT_party_size LIMIT 1"
-            );
-
-            String tableId = null;
-            if (tableCursor != null && tableCursor.moveToFirst()) {
-                tableId = tableCursor.getString(0);
-                tableCursor.close();
-            }
-
-            if (tableId == null) {
-                Toast.makeText(this, "No available table for party size " + partySize, Toast.LENGTH_SHORT).show();
+            TableAvailability availability = TableAvailability.getInstance();
+            if (!availability.isLoaded()) {
+                Toast.makeText(this, "Still loading tables, try again in a moment", Toast.LENGTH_SHORT).show();
                 return;
             }
 
@@ -315,25 +347,42 @@ public class HostMainActivity extends AppCompatActivity {
             SimpleDateFormat dbFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.US);
             String dateStr = dbFormat.format(selectedDateTime.getTime());
 
-            // *** FIXED: Use execSQL for INSERT statements ***
-
-            // Insert customer using execSQL with parameters
-            dbOperator.execSQL(
-                    "INSERT INTO Customer (Cust_id, Cust_name, Cust_Number) VALUES (?, ?, ?)",
-                    new Object[]{customerId, customerName, phone}
-            );
-
-            // Insert reservation using execSQL with parameters
-            dbOperator.execSQL(
-                    "INSERT INTO Reservation (Res_id, Res_Cust_id, Res_DT_id, Res_date, Res_start_item, Res_party_size, Res_status) VALUES (?, ?, ?, ?, ?, ?, ?)",
-                    new Object[]{resId, customerId, tableId, dateStr, dateStr, partySize, "Confirmed"}
-            );
-
-            Toast.makeText(this, "Reservation created successfully!", Toast.LENGTH_SHORT).show();
+            // Best fit among the tables free for the whole meal at the selected time,
+            // a reservation names a single table so none are pushed together
+            long start = TableAvailability.minuteOf(dateStr);
+            List<TableAllocator.Assignment> options = availability.options(partySize, start, preferredType, false);
+            if (options.isEmpty()) {
+                Toast.makeText(this, "No available table for party size " + partySize + " at that time", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            TableAvailability.Table table = options.get(0).tables.get(0);
+
+            // Generate unique IDs
+            IdGenerator ids = IdGenerator.getInstance();
+            String customerId = ids.nextId("CUST");
+            String resId = ids.nextId("RES");
+
+            // Customer and reservation are inserted together, unless another host booked the table meanwhile
+            ReservationBooking.Request request = new ReservationBooking.Request(
+                    resId, customerId, customerName, phone, table.id, start, partySize);
+            tasks.add(ReservationBooking.bookAsync(dbOperator, request, new DBOperator.Callback<Boolean>() {
+                @Override
+                public void onResult(Boolean booked) {
+                    if (!booked) {
+                        Toast.makeText(HostMainActivity.this, "Table " + table.number
+                                + " was just booked for that time, please try again", Toast.LENGTH_LONG).show();
+                        return;
+                    }
+                    availability.onCreated(resId, table.id, start, partySize);
+                    Toast.makeText(HostMainActivity.this, "Reservation created successfully!", Toast.LENGTH_SHORT).show();
+                }
 
-            // Refresh the dashboard and reservations list
-            loadDashboardData();
-            loadUpcomingReservations();
+                @Override
+                public void onError(Exception e) {
+                    e.printStackTrace();
+                    Toast.makeText(HostMainActivity.this, "Error creating reservation: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                }
+            }));
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -368,73 +417,168 @@ public class HostMainActivity extends AppCompatActivity {
     }
 
     private void loadAvailableTables(RecyclerView recyclerView, int partySize) {
-        List<Table> tables = new ArrayList<>();
+        // Every table, or pair of tables pushed together, free for the meal from now, best fit first
+        List<TableAllocator.Assignment> options = TableAvailability.getInstance()
+                .options(partySize, TableAvailability.nowMinute(), null, true);
 
-        try {
-            Cursor cursor = dbOperator.execQuery(
-                    "SELECT DT_id, DT_number, DT_party_size, DT_table_type FROM Dining_table " +
-                            "WHERE DT_party_size >= " + partySize +
-                            " AND DT_id NOT IN (SELECT Order_DT_id FROM Orders WHERE Order_status IN ('Open', 'Placed', 'Preparing')) " +
-                            "ORDER BY DT_party_size"
-            );
+        if (options.isEmpty()) {
+            Toast.makeText(this, "No available tables for party of " + partySize, Toast.LENGTH_SHORT).show();
+        }
 
-            if (cursor != null) {
-                while (cursor.moveToNext()) {
-                    Table table = new Table();
-                    table.id = cursor.getString(0);
-                    table.number = cursor.getInt(1);
-                    table.capacity = cursor.getInt(2);
-                    table.type = cursor.getString(3);
+        TableSelectionAdapter adapter = new TableSelectionAdapter(options,
+                option -> seatWalkIn(recyclerView, partySize, option));
+        recyclerView.setAdapter(adapter);
+    }
 
-                    tables.add(table);
-                }
-                cursor.close();
-            }
+    private void seatWalkIn(RecyclerView recyclerView, int partySize, TableAllocator.Assignment option) {
+        // The turn of every table starts, TableAvailability holds them while it is open
+        TableOccupancy.getInstance().onSeated(option.tableIds());
+        Toast.makeText(this, "Party of " + partySize + " seated at " + option.label(), Toast.LENGTH_SHORT).show();
+        loadAvailableTables(recyclerView, partySize);
+    }
 
-            if (tables.isEmpty()) {
-                Toast.makeText(this, "No available tables for party of " + partySize, Toast.LENGTH_SHORT).show();
+    private void showWaitlistDialog() {
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        View dialogView = LayoutInflater.from(this).inflate(R.layout.dialog_waitlist, null);
+        builder.setView(dialogView);
+        builder.setTitle("Waitlist");
+
+        EditText etName = dialogView.findViewById(R.id.et_wait_name);
+        EditText etPhone = dialogView.findViewById(R.id.et_wait_phone);
+        EditText etPartySize = dialogView.findViewById(R.id.et_wait_party_size);
+        CheckBox cbVip = dialogView.findViewById(R.id.cb_wait_vip);
+        Button btnAdd = dialogView.findViewById(R.id.btn_add_to_waitlist);
+        TextView tvSuggestion = dialogView.findViewById(R.id.tv_wait_suggestion);
+        RecyclerView rvWaitlist = dialogView.findViewById(R.id.rv_waitlist);
+        rvWaitlist.setLayoutManager(new LinearLayoutManager(this));
+
+        Waitlist waitlist = Waitlist.getInstance();
+        WaitlistAdapter adapter = new WaitlistAdapter(waitlist);
+        rvWaitlist.setAdapter(adapter);
+
+        // Refresh the queue and its estimates on every change
+        Waitlist.Listener refresh = changed -> {
+            adapter.setEntries(changed.entries());
+            Waitlist.Suggestion suggestion = changed.suggest();
+            tvSuggestion.setText(suggestion != null
+                    ? "Next seat: " + suggestion.entry.name + " at Table " + suggestion.table.number
+                    : "No table free for the waitlist yet");
+        };
+        waitlist.subscribe(refresh);
+
+        btnAdd.setOnClickListener(v -> {
+            String name = etName.getText().toString().trim();
+            String phone = etPhone.getText().toString().trim();
+            String partySizeStr = etPartySize.getText().toString().trim();
+            if (name.isEmpty() || partySizeStr.isEmpty()) {
+                Toast.makeText(this, "Enter a name and party size", Toast.LENGTH_SHORT).show();
+                return;
             }
 
-            TableSelectionAdapter adapter = new TableSelectionAdapter(tables);
-            recyclerView.setAdapter(adapter);
+            tasks.add(waitlist.add(name, phone, Integer.parseInt(partySizeStr), cbVip.isChecked(),
+                    new DBOperator.Callback<Waitlist.Entry>() {
+                        @Override
+                        public void onResult(Waitlist.Entry entry) {
+                            etName.setText("");
+                            etPhone.setText("");
+                            etPartySize.setText("");
+                            cbVip.setChecked(false);
+                            Toast.makeText(HostMainActivity.this, entry.name + " added to the waitlist", Toast.LENGTH_SHORT).show();
+                        }
+
+                        @Override
+                        public void onError(Exception e) {
+                            e.printStackTrace();
+                            Toast.makeText(HostMainActivity.this, "Error adding to the waitlist", Toast.LENGTH_SHORT).show();
+                        }
+                    }));
+        });
 
-        } catch (Exception e) {
-            e.printStackTrace();
+        builder.setNegativeButton("Close", null);
+        AlertDialog dialog = builder.create();
+        dialog.setOnDismissListener(d -> waitlist.unsubscribe(refresh));
+        dialog.show();
+    }
+
+    private void seatFromWaitlist(Waitlist.Entry entry) {
+        // The tables the party was planned at if they are ready, otherwise the best ones free now
+        long now = TableAvailability.nowMinute();
+        TableAllocator.Assignment planned = Waitlist.getInstance().plannedTables(entry);
+        if (planned == null || planned.start > now) {
+            List<TableAllocator.Assignment> options = TableAvailability.getInstance()
+                    .options(entry.partySize, now, null, true);
+            planned = options.isEmpty() ? null : options.get(0);
+        }
+        if (planned == null) {
+            Toast.makeText(this, "No table free for a party of " + entry.partySize + " yet", Toast.LENGTH_SHORT).show();
+            return;
         }
+
+        TableAllocator.Assignment tables = planned;
+        tasks.add(Waitlist.getInstance().seat(entry, tables.tableIds(), new DBOperator.Callback<Integer>() {
+            @Override
+            public void onResult(Integer updated) {
+                Toast.makeText(HostMainActivity.this, entry.name + " seated at " + tables.label(), Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                e.printStackTrace();
+                Toast.makeText(HostMainActivity.this, "Error seating from the waitlist", Toast.LENGTH_SHORT).show();
+            }
+        }));
+    }
+
+    private void removeFromWaitlist(Waitlist.Entry entry) {
+        tasks.add(Waitlist.getInstance().remove(entry, new DBOperator.Callback<Integer>() {
+            @Override
+            public void onResult(Integer updated) {
+                Toast.makeText(HostMainActivity.this, entry.name + " removed from the waitlist", Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                e.printStackTrace();
+                Toast.makeText(HostMainActivity.this, "Error removing from the waitlist", Toast.LENGTH_SHORT).show();
+            }
+        }));
     }
 
     // *** Methods to update reservation status ***
 
     private void seatReservation(Reservation res) {
-        try {
-            // Use execSQL for UPDATE statements
-            dbOperator.execSQL(
-                    "UPDATE Reservation SET Res_status = ? WHERE Res_id = ?",
-                    new Object[]{"Completed", res.id}
-            );
-            Toast.makeText(this, res.customerName + " has been seated", Toast.LENGTH_SHORT).show();
-            loadDashboardData();
-            loadUpcomingReservations();
-        } catch (Exception e) {
-            e.printStackTrace();
-            Toast.makeText(this, "Error seating reservation", Toast.LENGTH_SHORT).show();
-        }
+        updateReservationStatus(res, "Completed", res.customerName + " has been seated",
+                "Error seating reservation");
     }
 
     private void cancelReservation(Reservation res) {
-        try {
-            // Use execSQL for UPDATE statements
-            dbOperator.execSQL(
-                    "UPDATE Reservation SET Res_status = ? WHERE Res_id = ?",
-                    new Object[]{"Cancelled", res.id}
-            );
-            Toast.makeText(this, "Reservation cancelled", Toast.LENGTH_SHORT).show();
-            loadDashboardData();
-            loadUpcomingReservations();
-        } catch (Exception e) {
-            e.printStackTrace();
-            Toast.makeText(this, "Error cancelling reservation", Toast.LENGTH_SHORT).show();
-        }
+        updateReservationStatus(res, "Cancelled", "Reservation cancelled",
+                "Error cancelling reservation");
+    }
+
+    private void updateReservationStatus(Reservation res, String status,
+                                         String doneMessage, String errorMessage) {
+        tasks.add(dbOperator.execAsync(
+                "UPDATE Reservation SET Res_status = ? WHERE Res_id = ?",
+                new Object[]{status, res.id},
+                new DBOperator.Callback<Integer>() {
+                    @Override
+                    public void onResult(Integer updated) {
+                        if ("Cancelled".equals(status)) {
+                            TableAvailability.getInstance().onCancelled(res.id);
+                        } else if ("Completed".equals(status)) {
+                            TableAvailability.getInstance().onSeated(res.id);
+                            TableOccupancy.getInstance().onSeated(res.tableId);
+                        }
+                        Toast.makeText(HostMainActivity.this, doneMessage, Toast.LENGTH_SHORT).show();
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        e.printStackTrace();
+                        Toast.makeText(HostMainActivity.this, errorMessage, Toast.LENGTH_SHORT).show();
+                    }
+                }));
     }
 
     // Data classes
@@ -446,16 +590,9 @@ public class HostMainActivity extends AppCompatActivity {
         String dateTime;
         String status;
         int tableNumber;
+        String tableId;
     }
 
-    private static class Table {
-        String id;
-        int number;
-        int capacity;
-        String type;
-    }
-
-    // Adapters
     private class ReservationAdapter extends RecyclerView.Adapter<ReservationAdapter.ViewHolder> {
         private List<Reservation> reservations;
 
@@ -518,11 +655,73 @@ public class HostMainActivity extends AppCompatActivity {
         }
     }
 
+    private class WaitlistAdapter extends RecyclerView.Adapter<WaitlistAdapter.ViewHolder> {
+        private final Waitlist waitlist;
+        private List<Waitlist.Entry> entries = new ArrayList<>();
+
+        public WaitlistAdapter(Waitlist waitlist) {
+            this.waitlist = waitlist;
+        }
+
+        public void setEntries(List<Waitlist.Entry> entries) {
+            this.entries = entries;
+            notifyDataSetChanged();
+        }
+
+        @Override
+        public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            View view = LayoutInflater.from(parent.getContext())
+                    .inflate(R.layout.item_waitlist, parent, false);
+            return new ViewHolder(view);
+        }
+
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position) {
+            Waitlist.Entry entry = entries.get(position);
+            long waited = TableAvailability.nowMinute() - entry.arrival;
+            long wait = waitlist.estimatedWait(entry);
+            TableAllocator.Assignment planned = waitlist.plannedTables(entry);
+
+            holder.tvName.setText(entry.vip ? "★ " + entry.name : entry.name);
+            holder.tvEstimate.setText(wait < 0 ? "No table in sight" : wait == 0 ? "Ready now" : "~" + wait + " min");
+            holder.tvDetails.setText("Party of " + entry.partySize + " · waiting " + waited + " min"
+                    + (planned != null ? " · " + planned.label() : ""));
+
+            holder.btnSeat.setOnClickListener(v -> seatFromWaitlist(entry));
+            holder.btnRemove.setOnClickListener(v -> removeFromWaitlist(entry));
+        }
+
+        @Override
+        public int getItemCount() {
+            return entries.size();
+        }
+
+        class ViewHolder extends RecyclerView.ViewHolder {
+            TextView tvName, tvEstimate, tvDetails;
+            Button btnSeat, btnRemove;
+
+            public ViewHolder(View itemView) {
+                super(itemView);
+                tvName = itemView.findViewById(R.id.tv_wait_name);
+                tvEstimate = itemView.findViewById(R.id.tv_wait_estimate);
+                tvDetails = itemView.findViewById(R.id.tv_wait_details);
+                btnSeat = itemView.findViewById(R.id.btn_wait_seat);
+                btnRemove = itemView.findViewById(R.id.btn_wait_remove);
+            }
+        }
+    }
+
+    private interface OnTableSelected {
+        void onTableSelected(TableAllocator.Assignment option);
+    }
+
     private class TableSelectionAdapter extends RecyclerView.Adapter<TableSelectionAdapter.ViewHolder> {
-        private List<Table> tables;
+        private List<TableAllocator.Assignment> tables;
+        private OnTableSelected onSelected;
 
-        public TableSelectionAdapter(List<Table> tables) {
+        public TableSelectionAdapter(List<TableAllocator.Assignment> tables, OnTableSelected onSelected) {
             this.tables = tables;
+            this.onSelected = onSelected;
         }
 
         @Override
@@ -534,16 +733,13 @@ public class HostMainActivity extends AppCompatActivity {
 
         @Override
         public void onBindViewHolder(ViewHolder holder, int position) {
-            Table table = tables.get(position);
+            TableAllocator.Assignment option = tables.get(position);
 
-            holder.tvTableNumber.setText("Table " + table.number);
-            holder.tvTableType.setText(table.type);
-            holder.tvCapacity.setText(table.capacity + " seats");
+            holder.tvTableNumber.setText(option.label());
+            holder.tvTableType.setText(option.tables.get(0).type);
+            holder.tvCapacity.setText(option.seats + " seats");
 
-            holder.itemView.setOnClickListener(v -> {
-                Toast.makeText(HostMainActivity.this,
-                        "Selected Table " + table.number, Toast.LENGTH_SHORT).show();
-            });
+            holder.itemView.setOnClickListener(v -> onSelected.onTableSelected(option));
         }
 
         @Override
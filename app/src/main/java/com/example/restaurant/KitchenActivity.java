@@ -2,7 +2,6 @@ package com.example.restaurant;
 
 import android.content.Intent;
 import android.content.SharedPreferences;
-import android.database.Cursor;
 import android.graphics.Color;
 import android.os.Bundle;
 import android.os.Handler;
@@ -17,16 +16,21 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.cardview.widget.CardView;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.restaurant.constant.SQLCommand;
+import com.example.restaurant.util.DBChangeBus;
 import com.example.restaurant.util.DBOperator;
+import com.example.restaurant.util.DBTaskGroup;
+import com.example.restaurant.util.TicketQueue;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 
 public class KitchenActivity extends AppCompatActivity {
 
@@ -35,8 +39,20 @@ public class KitchenActivity extends AppCompatActivity {
     private Button btnRefresh;
     private DBOperator dbOperator;
     private OrderAdapter adapter;
-    private Handler autoRefreshHandler;
-    private Runnable autoRefreshRunnable;
+    private final Handler elapsedHandler = new Handler();
+    private final DBTaskGroup tasks = new DBTaskGroup();
+    // Tickets on screen, refreshes only touch the orders that changed
+    private final TicketQueue<KitchenOrder> tickets = new TicketQueue<>(order -> order.orderId);
+    // Orders are reloaded as soon as a write to them is committed
+    private final DBChangeBus.Listener ordersChanged = tables -> loadKitchenOrders();
+    // Elapsed times only need redrawing once a minute
+    private final Runnable elapsedTicker = new Runnable() {
+        @Override
+        public void run() {
+            adapter.notifyItemRangeChanged(0, adapter.getItemCount());
+            elapsedHandler.postDelayed(this, 60000);
+        }
+    };
 
     private Button btnLogout;
 
@@ -55,9 +71,8 @@ public class KitchenActivity extends AppCompatActivity {
         btnLogout = findViewById(R.id.btn_logout);
 
         rvOrders.setLayoutManager(new LinearLayoutManager(this));
-
-        // Load orders
-        loadKitchenOrders();
+        adapter = new OrderAdapter();
+        rvOrders.setAdapter(adapter);
 
         // Refresh button
         btnRefresh.setOnClickListener(v -> {
@@ -72,81 +87,83 @@ public class KitchenActivity extends AppCompatActivity {
                 showLogoutConfirmation();
             }
         });
+    }
 
-        // Auto-refresh every 30 seconds
-        autoRefreshHandler = new Handler();
-        autoRefreshRunnable = new Runnable() {
-            @Override
-            public void run() {
-                loadKitchenOrders();
-                autoRefreshHandler.postDelayed(this, 30000); // 30 seconds
-            }
-        };
-        autoRefreshHandler.postDelayed(autoRefreshRunnable, 30000);
-
+    @Override
+    protected void onResume() {
+        super.onResume();
+        dbOperator.getChangeBus().subscribe(ordersChanged, DBChangeBus.ORDERS, DBChangeBus.ORDER_ITEM);
+        loadKitchenOrders();
+        elapsedHandler.postDelayed(elapsedTicker, 60000);
+    }
 
+    @Override
+    protected void onPause() {
+        super.onPause();
+        dbOperator.getChangeBus().unsubscribe(ordersChanged);
+        elapsedHandler.removeCallbacks(elapsedTicker);
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (autoRefreshHandler != null) {
-            autoRefreshHandler.removeCallbacks(autoRefreshRunnable);
-        }
+        tasks.cancelAll();
     }
 
     private void loadKitchenOrders() {
-        List<KitchenOrder> orders = new ArrayList<>();
-
-        try {
-            // Get all active orders
-            String query =
-                    "SELECT o.Order_id, dt.DT_number, o.Order_status, " +
-                            "GROUP_CONCAT(m.Menu_name || ' (x' || oi.Orditem_Quantity || ')') AS Items, " +
-                            "oi.Orditem_time_ordered " +
-                            "FROM Orders o " +
-                            "JOIN Dining_table dt ON o.Order_DT_id = dt.DT_id " +
-                            "JOIN Order_Item oi ON o.Order_id = oi.Orditem_Order_id " +
-                            "JOIN Menu m ON oi.Orditem_Menu_dishID = m.Menu_DishID " +
-                            "WHERE o.Order_status IN ('Placed', 'Preparing') " +
-                            "GROUP BY o.Order_id " +
-                            "ORDER BY oi.Orditem_time_ordered";
-
-            Cursor cursor = dbOperator.execQuery(query);
-
-            int queueCount = 0;
-            int progressCount = 0;
-
-            if (cursor != null) {
-                while (cursor.moveToNext()) {
-                    KitchenOrder order = new KitchenOrder();
-                    order.orderId = cursor.getString(0);
-                    order.tableNumber = cursor.getInt(1);
-                    order.status = cursor.getString(2);
-                    order.items = cursor.getString(3);
-                    order.timeOrdered = cursor.getString(4);
-
-                    orders.add(order);
-
+        // Get all active orders
+        String query =
+                "SELECT o.Order_id, dt.DT_number, o.Order_status, " +
+                        "GROUP_CONCAT(m.Menu_name || ' (x' || oi.Orditem_Quantity || ')') AS Items, " +
+                        "oi.Orditem_time_ordered " +
+                        "FROM Orders o " +
+                        "JOIN Dining_table dt ON o.Order_DT_id = dt.DT_id " +
+                        "JOIN Order_Item oi ON o.Order_id = oi.Orditem_Order_id " +
+                        "JOIN Menu m ON oi.Orditem_Menu_dishID = m.Menu_DishID " +
+                        "WHERE o.Order_status IN ('Placed', 'Preparing') " +
+                        "GROUP BY o.Order_id " +
+                        "ORDER BY oi.Orditem_time_ordered";
+
+        // The four-table join runs on a database thread
+        tasks.add(dbOperator.queryAsync(query, null, cursor -> {
+            List<KitchenOrder> orders = new ArrayList<>();
+            while (cursor.moveToNext()) {
+                KitchenOrder order = new KitchenOrder();
+                order.orderId = cursor.getString(0);
+                order.tableNumber = cursor.getInt(1);
+                order.status = cursor.getString(2);
+                order.items = cursor.getString(3);
+                order.timeOrdered = cursor.getString(4);
+
+                orders.add(order);
+            }
+            return orders;
+        }, new DBOperator.Callback<List<KitchenOrder>>() {
+            @Override
+            public void onResult(List<KitchenOrder> orders) {
+                int queueCount = 0;
+                int progressCount = 0;
+                for (KitchenOrder order : orders) {
                     if (order.status.equals("Placed")) {
                         queueCount++;
                     } else if (order.status.equals("Preparing")) {
                         progressCount++;
                     }
                 }
-                cursor.close();
-            }
 
-            tvOrderQueue.setText(String.valueOf(queueCount));
-            tvInProgress.setText(String.valueOf(progressCount));
+                tvOrderQueue.setText(String.valueOf(queueCount));
+                tvInProgress.setText(String.valueOf(progressCount));
 
-            adapter = new OrderAdapter(orders);
-            rvOrders.setAdapter(adapter);
+                // The diff against the current list runs off the main thread
+                adapter.submitList(tickets.apply(orders));
+            }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            Toast.makeText(this, "Error loading orders", Toast.LENGTH_SHORT).show();
-        }
+            @Override
+            public void onError(Exception e) {
+                e.printStackTrace();
+                Toast.makeText(KitchenActivity.this, "Error loading orders", Toast.LENGTH_SHORT).show();
+            }
+        }));
     }
 
     private void showLogoutConfirmation() {
@@ -184,17 +201,25 @@ public class KitchenActivity extends AppCompatActivity {
     }
 
     private void updateOrderStatus(String orderId, String newStatus) {
-        try {
-            dbOperator.execSQL(
-                    SQLCommand.UPDATE_ORDER_STATUS,
-                    new Object[]{newStatus, orderId}
-            );
-            loadKitchenOrders();
-            Toast.makeText(this, "Order " + orderId + " marked as " + newStatus, Toast.LENGTH_SHORT).show();
-        } catch (Exception e) {
-            e.printStackTrace();
-            Toast.makeText(this, "Error updating order", Toast.LENGTH_SHORT).show();
-        }
+        tasks.add(dbOperator.execAsync(
+                SQLCommand.UPDATE_ORDER_STATUS,
+                new Object[]{newStatus, orderId},
+                new DBOperator.Callback<Integer>() {
+                    @Override
+                    public void onResult(Integer updated) {
+                        if (updated == 0) {
+                            Toast.makeText(KitchenActivity.this, "Order " + orderId + " no longer exists", Toast.LENGTH_SHORT).show();
+                        } else {
+                            Toast.makeText(KitchenActivity.this, "Order " + orderId + " marked as " + newStatus, Toast.LENGTH_SHORT).show();
+                        }
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        e.printStackTrace();
+                        Toast.makeText(KitchenActivity.this, "Error updating order", Toast.LENGTH_SHORT).show();
+                    }
+                }));
     }
 
     // Kitchen Order model
@@ -204,15 +229,30 @@ public class KitchenActivity extends AppCompatActivity {
         String status;
         String items;
         String timeOrdered;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof KitchenOrder)) return false;
+            KitchenOrder other = (KitchenOrder) o;
+            return tableNumber == other.tableNumber
+                    && Objects.equals(orderId, other.orderId)
+                    && Objects.equals(status, other.status)
+                    && Objects.equals(items, other.items)
+                    && Objects.equals(timeOrdered, other.timeOrdered);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(orderId, tableNumber, status, items, timeOrdered);
+        }
     }
 
     // Adapter for kitchen orders
-    private class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.ViewHolder> {
+    private class OrderAdapter extends ListAdapter<KitchenOrder, OrderAdapter.ViewHolder> {
 
-        private List<KitchenOrder> orders;
-
-        public OrderAdapter(List<KitchenOrder> orders) {
-            this.orders = orders;
+        public OrderAdapter() {
+            super(tickets.itemCallback());
         }
 
         @Override
@@ -224,7 +264,7 @@ public class KitchenActivity extends AppCompatActivity {
 
         @Override
         public void onBindViewHolder(ViewHolder holder, int position) {
-            KitchenOrder order = orders.get(position);
+            KitchenOrder order = getItem(position);
 
             holder.tvOrderId.setText("Order #" + order.orderId);
             holder.tvTable.setText("Table " + order.tableNumber);
@@ -274,11 +314,6 @@ public class KitchenActivity extends AppCompatActivity {
             }
         }
 
-        @Override
-        public int getItemCount() {
-            return orders.size();
-        }
-
         class ViewHolder extends RecyclerView.ViewHolder {
             CardView cardView;
             TextView tvOrderId, tvTable, tvItems, tvTimeElapsed, tvStatus;
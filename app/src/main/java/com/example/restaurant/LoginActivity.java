@@ -4,6 +4,7 @@ import android.content.Intent;
 import android.content.SharedPreferences;
 import android.database.Cursor;
 import android.os.Bundle;
+import android.provider.Settings;
 import android.view.View;
 import android.widget.Button;
 import android.widget.CheckBox;
@@ -14,6 +15,7 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.restaurant.constant.SQLCommand;
 import com.example.restaurant.util.DBOperator;
+import com.example.restaurant.util.IdGenerator;
 
 import java.io.IOException;
 
@@ -39,6 +41,10 @@ public class LoginActivity extends AppCompatActivity {
             // Continue anyway for testing
         }
 
+        // Node id keeps generated IDs apart across tablets, set before the first order is taken
+        IdGenerator.setNodeId(IdGenerator.nodeIdFor(
+                Settings.Secure.getString(getContentResolver(), Settings.Secure.ANDROID_ID)));
+
         setContentView(R.layout.activity_login);
 
         // Initialize DBOperator
@@ -2,7 +2,6 @@ package com.example.restaurant;
 
 import android.content.Intent;
 import android.content.SharedPreferences;
-import android.database.Cursor;
 import android.os.Bundle;
 import android.view.Menu;
 import android.view.MenuItem;
@@ -15,10 +14,15 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.cardview.widget.CardView;
 
+import com.example.restaurant.constant.SQLCommand;
+import com.example.restaurant.util.DashboardStats;
+import com.example.restaurant.util.DBChangeBus;
 import com.example.restaurant.util.DBOperator;
+import com.example.restaurant.util.DBTaskGroup;
 
 import java.text.NumberFormat;
 import java.util.Locale;
+import java.util.Map;
 
 public class ManagerMainActivity extends AppCompatActivity {
 
@@ -27,6 +31,8 @@ public class ManagerMainActivity extends AppCompatActivity {
     private Button btnLogout;
     private DBOperator dbOperator;
     private String employeeName;
+    private final DBTaskGroup tasks = new DBTaskGroup();
+    private final DBChangeBus.Listener dataChanged = tables -> loadDashboardMetrics();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -61,6 +67,10 @@ public class ManagerMainActivity extends AppCompatActivity {
         // Load dashboard metrics
         loadDashboardMetrics();
 
+        // Keep the reports precomputed while the device charges or sits idle,
+        // the counters and rollups behind the tiles and reports are checked there too
+        ReportWarmService.schedule(this);
+
         // Set click listeners for cards
         cvReports.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -116,53 +126,54 @@ public class ManagerMainActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
+        dbOperator.getChangeBus().subscribe(dataChanged, DBChangeBus.ORDERS, DBChangeBus.EMPLOYEE);
         loadDashboardMetrics();
     }
 
-    private void loadDashboardMetrics() {
-        try {
-            // Total Sales
-            Cursor salesCursor = dbOperator.execQuery(
-                    "SELECT SUM(Order_Total) FROM Orders WHERE Order_status NOT IN ('Cancelled')"
-            );
-            double totalSales = 0;
-            if (salesCursor != null && salesCursor.moveToFirst()) {
-                totalSales = salesCursor.getDouble(0);
-                salesCursor.close();
-            }
-            NumberFormat currency = NumberFormat.getCurrencyInstance(Locale.US);
-            tvTotalSales.setText(currency.format(totalSales));
-
-            // Total Orders
-            Cursor ordersCursor = dbOperator.execQuery(
-                    "SELECT COUNT(*) FROM Orders WHERE Order_status NOT IN ('Cancelled')"
-            );
-            int totalOrders = 0;
-            if (ordersCursor != null && ordersCursor.moveToFirst()) {
-                totalOrders = ordersCursor.getInt(0);
-                ordersCursor.close();
-            }
-            tvTotalOrders.setText(String.valueOf(totalOrders));
-
-            // Average Order Value
-            double avgOrder = totalOrders > 0 ? totalSales / totalOrders : 0;
-            tvAvgOrder.setText(currency.format(avgOrder));
-
-            // Active Staff (currently on shift)
-            Cursor staffCursor = dbOperator.execQuery(
-                    "SELECT COUNT(*) FROM Employee"
-            );
-            int activeStaff = 0;
-            if (staffCursor != null && staffCursor.moveToFirst()) {
-                activeStaff = staffCursor.getInt(0);
-                staffCursor.close();
-            }
-            tvActiveStaff.setText(String.valueOf(activeStaff));
+    @Override
+    protected void onPause() {
+        super.onPause();
+        dbOperator.getChangeBus().unsubscribe(dataChanged);
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            Toast.makeText(this, "Error loading metrics", Toast.LENGTH_SHORT).show();
-        }
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        tasks.cancelAll();
+    }
+
+    private void loadDashboardMetrics() {
+        // Total sales, total orders and active staff from the dashboard counters
+        tasks.add(dbOperator.queryAsync(SQLCommand.QUERY_DASHBOARD_STATS,
+                new String[]{DashboardStats.GLOBAL},
+                DashboardStats::read,
+                new DBOperator.Callback<Map<String, Double>>() {
+                    @Override
+                    public void onResult(Map<String, Double> stats) {
+                        // Total Sales
+                        double totalSales = DashboardStats.get(stats, DashboardStats.SALES_TOTAL);
+                        NumberFormat currency = NumberFormat.getCurrencyInstance(Locale.US);
+                        tvTotalSales.setText(currency.format(totalSales));
+
+                        // Total Orders
+                        int totalOrders = (int) DashboardStats.get(stats, DashboardStats.ORDER_COUNT);
+                        tvTotalOrders.setText(String.valueOf(totalOrders));
+
+                        // Average Order Value
+                        double avgOrder = totalOrders > 0 ? totalSales / totalOrders : 0;
+                        tvAvgOrder.setText(currency.format(avgOrder));
+
+                        // Active Staff (currently on shift)
+                        tvActiveStaff.setText(String.valueOf(
+                                (int) DashboardStats.get(stats, DashboardStats.EMPLOYEE_COUNT)));
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        e.printStackTrace();
+                        Toast.makeText(ManagerMainActivity.this, "Error loading metrics", Toast.LENGTH_SHORT).show();
+                    }
+                }));
     }
 
     private void showLogoutConfirmation() {
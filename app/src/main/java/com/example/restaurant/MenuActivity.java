@@ -1,6 +1,5 @@
 package com.example.restaurant;
 
-import android.database.Cursor;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.LayoutInflater;
@@ -13,9 +12,10 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.example.restaurant.util.DBOperator;
+import com.example.restaurant.util.MenuCatalog;
+import com.example.restaurant.util.MenuDish;
+import com.example.restaurant.util.MenuSectionBuilder.CategoryHeader;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class MenuActivity extends AppCompatActivity {
@@ -23,103 +23,43 @@ public class MenuActivity extends AppCompatActivity {
     private static final String TAG = "MenuActivity";
     private RecyclerView rvMenu;
     private TextView tvTitle;
-    private DBOperator dbOperator;
+    private MenuCatalog catalog;
+    private final MenuCatalog.Listener menuChanged = menu -> showMenu(menu.sections());
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_menu);
 
-        dbOperator = DBOperator.getInstance();
+        catalog = MenuCatalog.getInstance();
 
         tvTitle = findViewById(R.id.tv_menu_title);
         rvMenu = findViewById(R.id.rv_menu);
         rvMenu.setLayoutManager(new LinearLayoutManager(this));
-
-        loadMenu();
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        loadMenu();
+        // Sections are built once per menu version by the shared catalog
+        catalog.subscribe(menuChanged);
     }
 
-    private void loadMenu() {
-        List<Object> menuItems = new ArrayList<>();
-
-        try {
-            Log.d(TAG, "Loading menu...");
-
-            // Get all categories first
-            Cursor catCursor = dbOperator.execQuery(
-                    "SELECT DISTINCT Menu_cat FROM Menu ORDER BY Menu_cat"
-            );
-
-            List<String> categories = new ArrayList<>();
-            if (catCursor != null) {
-                while (catCursor.moveToNext()) {
-                    categories.add(catCursor.getString(0));
-                }
-                catCursor.close();
-            }
-
-            Log.d(TAG, "Found " + categories.size() + " categories");
-
-            // For each category, get menu items
-            for (String category : categories) {
-                // Add category header
-                menuItems.add(new CategoryHeader(category));
-
-                // Get items in this category
-                Cursor itemCursor = dbOperator.execQuery(
-                        "SELECT Menu_DishID, Menu_name, Menu_price, Menu_available " +
-                                "FROM Menu WHERE Menu_cat = '" + category + "' ORDER BY Menu_name"
-                );
-
-                if (itemCursor != null) {
-                    while (itemCursor.moveToNext()) {
-                        MenuItem item = new MenuItem();
-                        item.dishId = itemCursor.getString(0);
-                        item.name = itemCursor.getString(1);
-                        item.price = itemCursor.getInt(2);
-                        item.available = itemCursor.getString(3);
-
-                        menuItems.add(item);
-                    }
-                    itemCursor.close();
-                }
-            }
-
-            Log.d(TAG, "Total items loaded: " + menuItems.size());
-
-            if (menuItems.isEmpty()) {
-                Toast.makeText(this, "No menu items found", Toast.LENGTH_SHORT).show();
-            }
-
-            MenuAdapter adapter = new MenuAdapter(menuItems);
-            rvMenu.setAdapter(adapter);
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error loading menu: " + e.getMessage(), e);
-            Toast.makeText(this, "Error loading menu: " + e.getMessage(), Toast.LENGTH_LONG).show();
-        }
+    @Override
+    protected void onPause() {
+        super.onPause();
+        catalog.unsubscribe(menuChanged);
     }
 
-    // Data classes
-    private static class CategoryHeader {
-        String name;
+    private void showMenu(List<Object> menuItems) {
+        Log.d(TAG, "Total rows loaded: " + menuItems.size());
 
-        CategoryHeader(String name) {
-            this.name = name;
+        if (menuItems.isEmpty()) {
+            Toast.makeText(this, "No menu items found", Toast.LENGTH_SHORT).show();
         }
-    }
 
-    private static class MenuItem {
-        String dishId;
-        String name;
-        int price;
-        String available;
+        MenuAdapter adapter = new MenuAdapter(menuItems);
+        rvMenu.setAdapter(adapter);
     }
 
     // Adapter with multiple view types
@@ -161,14 +101,14 @@ public class MenuActivity extends AppCompatActivity {
                 CategoryHeader header = (CategoryHeader) items.get(position);
                 ((HeaderViewHolder) holder).tvCategory.setText(header.name);
             } else if (holder instanceof ItemViewHolder) {
-                MenuItem item = (MenuItem) items.get(position);
+                MenuDish item = (MenuDish) items.get(position);
                 ItemViewHolder itemHolder = (ItemViewHolder) holder;
 
                 itemHolder.tvName.setText(item.name);
                 itemHolder.tvPrice.setText("$" + item.price);
 
                 // Show availability status
-                boolean isAvailable = item.available != null && item.available.equalsIgnoreCase("Yes");
+                boolean isAvailable = item.isAvailable();
                 itemHolder.tvAvailability.setText(isAvailable ? "Available" : "Unavailable");
                 itemHolder.tvAvailability.setTextColor(isAvailable ?
                         android.graphics.Color.parseColor("#10B981") :
@@ -1,6 +1,5 @@
 package com.example.restaurant;
 
-import android.database.Cursor;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.LayoutInflater;
@@ -14,8 +13,9 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.restaurant.util.DBOperator;
+import com.example.restaurant.util.MenuCatalog;
+import com.example.restaurant.util.MenuDish;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class MenuManagementActivity extends AppCompatActivity {
@@ -23,6 +23,8 @@ public class MenuManagementActivity extends AppCompatActivity {
     private static final String TAG = "MenuManagementActivity";
     private RecyclerView rvMenuMgmt;
     private DBOperator dbOperator;
+    private MenuCatalog catalog;
+    private final MenuCatalog.Listener menuChanged = menu -> showMenu(menu.dishes());
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -51,99 +53,47 @@ public class MenuManagementActivity extends AppCompatActivity {
 
         rvMenuMgmt.setLayoutManager(new LinearLayoutManager(this));
 
-        // Load the menu
-        loadMenu();
+        // The menu is read from the shared catalog, only reloaded after it changes
+        catalog = MenuCatalog.getInstance();
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        loadMenu();
+        if (catalog != null) {
+            catalog.subscribe(menuChanged);
+        }
     }
 
-    private void loadMenu() {
-        List<MenuItem> menuItems = new ArrayList<>();
-
-        try {
-            Log.d(TAG, "Loading menu from database...");
-
-            // Simple query to get all menu items
-            String query = "SELECT Menu_DishID, Menu_name, Menu_cat, Menu_price, Menu_available FROM Menu ORDER BY Menu_cat, Menu_name";
-            Log.d(TAG, "Query: " + query);
-
-            Cursor cursor = dbOperator.execQuery(query);
-
-            if (cursor == null) {
-                Log.e(TAG, "Cursor is null - query failed");
-                Toast.makeText(this, "Error: Query returned null", Toast.LENGTH_LONG).show();
-                return;
-            }
-
-            Log.d(TAG, "Cursor returned, column count: " + cursor.getColumnCount());
-
-            // Log column names for debugging
-            String[] columnNames = cursor.getColumnNames();
-            for (int i = 0; i < columnNames.length; i++) {
-                Log.d(TAG, "Column " + i + ": " + columnNames[i]);
-            }
-
-            int rowCount = 0;
-            while (cursor.moveToNext()) {
-                rowCount++;
-                MenuItem item = new MenuItem();
-
-                // Get column indices safely
-                int idxDishId = cursor.getColumnIndex("Menu_DishID");
-                int idxName = cursor.getColumnIndex("Menu_name");
-                int idxCat = cursor.getColumnIndex("Menu_cat");
-                int idxPrice = cursor.getColumnIndex("Menu_price");
-                int idxAvailable = cursor.getColumnIndex("Menu_available");
-
-                // Use indices if found, otherwise use position
-                item.dishId = (idxDishId >= 0) ? cursor.getString(idxDishId) : cursor.getString(0);
-                item.name = (idxName >= 0) ? cursor.getString(idxName) : cursor.getString(1);
-                item.category = (idxCat >= 0) ? cursor.getString(idxCat) : cursor.getString(2);
-                item.price = (idxPrice >= 0) ? cursor.getInt(idxPrice) : cursor.getInt(3);
-                item.available = (idxAvailable >= 0) ? cursor.getString(idxAvailable) : cursor.getString(4);
-
-                Log.d(TAG, "Loaded item: " + item.name + " - $" + item.price);
-                menuItems.add(item);
-            }
-            cursor.close();
-
-            Log.d(TAG, "Total menu items loaded: " + rowCount);
-
-            if (menuItems.isEmpty()) {
-                Toast.makeText(this, "No menu items found in database", Toast.LENGTH_SHORT).show();
-                Log.w(TAG, "Menu table is empty!");
-            } else {
-                Toast.makeText(this, "Loaded " + menuItems.size() + " menu items", Toast.LENGTH_SHORT).show();
-            }
-
-            // Set adapter
-            MenuAdapter adapter = new MenuAdapter(menuItems);
-            rvMenuMgmt.setAdapter(adapter);
+    @Override
+    protected void onPause() {
+        super.onPause();
+        if (catalog != null) {
+            catalog.unsubscribe(menuChanged);
+        }
+    }
 
-            Log.d(TAG, "Adapter set with " + menuItems.size() + " items");
+    private void showMenu(List<MenuDish> menuItems) {
+        Log.d(TAG, "Total menu items loaded: " + menuItems.size());
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error loading menu: " + e.getMessage(), e);
-            Toast.makeText(this, "Error loading menu: " + e.getMessage(), Toast.LENGTH_LONG).show();
+        if (menuItems.isEmpty()) {
+            Toast.makeText(this, "No menu items found in database", Toast.LENGTH_SHORT).show();
+            Log.w(TAG, "Menu table is empty!");
+        } else {
+            Toast.makeText(this, "Loaded " + menuItems.size() + " menu items", Toast.LENGTH_SHORT).show();
         }
-    }
 
-    private static class MenuItem {
-        String dishId;
-        String name;
-        String category;
-        int price;
-        String available;
+        // Set adapter
+        MenuAdapter adapter = new MenuAdapter(menuItems);
+        rvMenuMgmt.setAdapter(adapter);
+
+        Log.d(TAG, "Adapter set with " + menuItems.size() + " items");
     }
 
     private class MenuAdapter extends RecyclerView.Adapter<MenuAdapter.ViewHolder> {
-        private List<MenuItem> items;
+        private List<MenuDish> items;
 
-        public MenuAdapter(List<MenuItem> items) {
+        public MenuAdapter(List<MenuDish> items) {
             this.items = items;
             Log.d(TAG, "MenuAdapter created with " + items.size() + " items");
         }
@@ -158,19 +108,18 @@ public class MenuManagementActivity extends AppCompatActivity {
 
         @Override
         public void onBindViewHolder(ViewHolder holder, int position) {
-            MenuItem item = items.get(position);
+            MenuDish item = items.get(position);
             Log.d(TAG, "onBindViewHolder position " + position + ": " + item.name);
 
             holder.tvName.setText(item.name);
             holder.tvCategory.setText(item.category);
             holder.tvPrice.setText("$" + item.price);
 
-            String availText = (item.available != null && item.available.equalsIgnoreCase("Yes"))
-                    ? "Available" : "Unavailable";
+            String availText = item.isAvailable() ? "Available" : "Unavailable";
             holder.tvAvailable.setText(availText);
 
             // Color code availability
-            if (item.available != null && item.available.equalsIgnoreCase("Yes")) {
+            if (item.isAvailable()) {
                 holder.tvAvailable.setTextColor(android.graphics.Color.parseColor("#10B981"));
             } else {
                 holder.tvAvailable.setTextColor(android.graphics.Color.parseColor("#EF4444"));
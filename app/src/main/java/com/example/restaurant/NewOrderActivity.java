@@ -21,11 +21,14 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.example.restaurant.constant.SQLCommand;
 import com.example.restaurant.util.DBOperator;
+import com.example.restaurant.util.MenuCatalog;
+import com.example.restaurant.util.MenuDish;
+import com.example.restaurant.util.MenuSearchIndex;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -40,8 +43,15 @@ public class NewOrderActivity extends AppCompatActivity {
     private Button btnViewCart;
     private DBOperator dbOperator;
     private MenuAdapter adapter;
-    private List<MenuItem> menuItems;
-    private List<MenuItem> filteredItems;
+    private MenuSearchIndex searchIndex = new MenuSearchIndex(Collections.<MenuDish>emptyList());
+    private final List<MenuDish> filteredItems = new ArrayList<>();
+    private MenuCatalog catalog;
+    // Available dishes come from the shared menu cache, no query per visit
+    private final MenuCatalog.Listener menuChanged = menu -> {
+        searchIndex = menu.availableIndex();
+        // Keep whatever search or category filter is active
+        filterMenuItems(etSearch.getText().toString());
+    };
     private String currentFilter = "All";
 
     // Cart: Map of dishID -> CartItem
@@ -53,6 +63,7 @@ public class NewOrderActivity extends AppCompatActivity {
         setContentView(R.layout.activity_new_order);
 
         dbOperator = DBOperator.getInstance();
+        catalog = MenuCatalog.getInstance();
 
         // Initialize views
         spinnerTable = findViewById(R.id.spinner_table);
@@ -64,13 +75,12 @@ public class NewOrderActivity extends AppCompatActivity {
         btnViewCart = findViewById(R.id.btn_view_cart);
 
         rvMenuItems.setLayoutManager(new GridLayoutManager(this, 2));
+        adapter = new MenuAdapter(filteredItems);
+        rvMenuItems.setAdapter(adapter);
 
         // Load available tables
         loadAvailableTables();
 
-        // Load menu items
-        loadMenuItems();
-
         // Update cart count display
         updateCartCount();
 
@@ -118,6 +128,13 @@ public class NewOrderActivity extends AppCompatActivity {
         super.onResume();
         // Update cart count when returning from cart
         updateCartCount();
+        catalog.subscribe(menuChanged);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        catalog.unsubscribe(menuChanged);
     }
 
     private void openCart() {
@@ -160,99 +177,30 @@ public class NewOrderActivity extends AppCompatActivity {
         spinnerTable.setAdapter(adapter);
     }
 
-    private void loadMenuItems() {
-        menuItems = new ArrayList<>();
-
-        try {
-            Cursor cursor = dbOperator.execQuery(SQLCommand.QUERY_MENU_AVAILABLE);
-
-            if (cursor != null) {
-                while (cursor.moveToNext()) {
-                    MenuItem item = new MenuItem();
-                    item.dishID = cursor.getString(0);
-                    item.name = cursor.getString(1);
-                    item.category = cursor.getString(2);
-                    item.price = cursor.getInt(3);
-                    item.available = cursor.getString(4);
-
-                    menuItems.add(item);
-                }
-                cursor.close();
-            }
-
-            filteredItems = new ArrayList<>(menuItems);
-            adapter = new MenuAdapter(filteredItems);
-            rvMenuItems.setAdapter(adapter);
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            Toast.makeText(this, "Error loading menu: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-        }
-    }
-
     private void filterByCategory(String category) {
         currentFilter = category;
-        filteredItems.clear();
-
-        if (category.equals("All")) {
-            filteredItems.addAll(menuItems);
-        } else {
-            for (MenuItem item : menuItems) {
-                if (item.category.equalsIgnoreCase(category)) {
-                    filteredItems.add(item);
-                }
-            }
-        }
-
-        adapter.notifyDataSetChanged();
+        filterMenuItems(etSearch.getText().toString());
     }
 
     private void filterMenuItems(String query) {
-        filteredItems.clear();
-
-        if (query.isEmpty()) {
-            // Apply category filter
-            if (currentFilter.equals("All")) {
-                filteredItems.addAll(menuItems);
-            } else {
-                for (MenuItem item : menuItems) {
-                    if (item.category.equalsIgnoreCase(currentFilter)) {
-                        filteredItems.add(item);
-                    }
-                }
-            }
-        } else {
-            // Search within current category
-            String lowerQuery = query.toLowerCase();
-            List<MenuItem> itemsToSearch = currentFilter.equals("All") ? menuItems :
-                    menuItems.stream()
-                            .filter(item -> item.category.equalsIgnoreCase(currentFilter))
-                            .collect(java.util.stream.Collectors.toList());
-
-            for (MenuItem item : itemsToSearch) {
-                if (item.name.toLowerCase().contains(lowerQuery) ||
-                        item.category.toLowerCase().contains(lowerQuery)) {
-                    filteredItems.add(item);
-                }
-            }
-        }
-
+        // Answered from the prebuilt index, refilling the adapter's list in place
+        searchIndex.search(query, currentFilter, filteredItems);
         adapter.notifyDataSetChanged();
     }
 
-    private void addToCart(MenuItem item) {
-        if (cart.containsKey(item.dishID)) {
+    private void addToCart(MenuDish item) {
+        if (cart.containsKey(item.dishId)) {
             // Increment quantity
-            CartItem cartItem = cart.get(item.dishID);
+            CartItem cartItem = cart.get(item.dishId);
             cartItem.quantity++;
         } else {
             // Add new item
             CartItem cartItem = new CartItem();
-            cartItem.dishID = item.dishID;
+            cartItem.dishID = item.dishId;
             cartItem.name = item.name;
             cartItem.price = item.price;
             cartItem.quantity = 1;
-            cart.put(item.dishID, cartItem);
+            cart.put(item.dishId, cartItem);
         }
 
         updateCartCount();
@@ -277,15 +225,6 @@ public class NewOrderActivity extends AppCompatActivity {
         tvCartItemsCount.setText(totalItems + " item" + (totalItems != 1 ? "s" : ""));
     }
 
-    // MenuItem model class
-    public static class MenuItem {
-        public String dishID;
-        public String name;
-        public String category;
-        public int price;
-        public String available;
-    }
-
     // CartItem model class
     public static class CartItem implements Serializable {
         public String dishID;
@@ -297,9 +236,9 @@ public class NewOrderActivity extends AppCompatActivity {
     // Adapter for menu items
     private class MenuAdapter extends RecyclerView.Adapter<MenuAdapter.ViewHolder> {
 
-        private List<MenuItem> items;
+        private List<MenuDish> items;
 
-        public MenuAdapter(List<MenuItem> items) {
+        public MenuAdapter(List<MenuDish> items) {
             this.items = items;
         }
 
@@ -312,7 +251,7 @@ public class NewOrderActivity extends AppCompatActivity {
 
         @Override
         public void onBindViewHolder(ViewHolder holder, int position) {
-            MenuItem item = items.get(position);
+            MenuDish item = items.get(position);
 
             holder.tvName.setText(item.name);
             holder.tvCategory.setText(item.category);
@@ -1,12 +1,11 @@
 package com.example.restaurant;
 
-import android.database.Cursor;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
-import android.widget.ScrollView;
+import android.widget.FrameLayout;
 import android.widget.Spinner;
 import android.widget.Toast;
 
@@ -14,14 +13,21 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.restaurant.constant.SQLCommand;
 import com.example.restaurant.util.DBOperator;
+import com.example.restaurant.util.KeysetPager;
+import com.example.restaurant.util.PaymentStats;
+import com.example.restaurant.util.ReportEngine;
 import com.example.restaurant.view.TableView;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class QueryActivity extends AppCompatActivity {
 
     private Spinner spinnerQuery;
     private Button btnExecute;
-    private ScrollView scrollView;
-    private DBOperator dbOperator;
+    private FrameLayout resultsFrame;
+    private TableView tableView;
+    private PaymentStats.Listener paymentListener;
 
     private String[] queryNames = {
             "Select a query",
@@ -72,12 +78,10 @@ public class QueryActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_query);
 
-        dbOperator = DBOperator.getInstance();
-
         // Initialize views
         spinnerQuery = findViewById(R.id.spinner_query);
         btnExecute = findViewById(R.id.btn_execute_query);
-        scrollView = findViewById(R.id.scroll_results);
+        resultsFrame = findViewById(R.id.frame_results);
 
         // Setup spinner
         ArrayAdapter<String> adapter = new ArrayAdapter<>(this,
@@ -100,43 +104,81 @@ public class QueryActivity extends AppCompatActivity {
         });
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (tableView != null) tableView.close();
+        if (paymentListener != null) PaymentStats.getInstance().unsubscribe(paymentListener);
+    }
+
     private void executeQuery(int position) {
         try {
-            scrollView.removeAllViews();
+            // Stop loading the previous result before showing the new one
+            if (tableView != null) tableView.close();
+            if (paymentListener != null) {
+                PaymentStats.getInstance().unsubscribe(paymentListener);
+                paymentListener = null;
+            }
+            resultsFrame.removeAllViews();
+
+            // Highest, lowest, average and median payment come from the payment statistics
+            if (position >= 10 && position <= 13) {
+                showPaymentStats(position);
+                return;
+            }
 
             String query = queries[position];
-            Cursor cursor;
+            String[] args;
+            KeysetPager.Key[] keys = null;
 
             // Handle queries with parameters
             switch (position) {
                 case 1: // Customer Order History
-                    cursor = dbOperator.execQuery(query, new String[]{"CUST001"});
+                    args = new String[]{"CUST001"};
+                    keys = new KeysetPager.Key[]{
+                            KeysetPager.Key.desc("Orditem_time_ordered"),
+                            KeysetPager.Key.desc("Orditem_id")};
                     break;
                 case 8: // Available Tables
-                    cursor = dbOperator.execQuery(query, new String[]{"4"});
+                    args = new String[]{"4"};
                     break;
                 case 15: // Order Details
-                    cursor = dbOperator.execQuery(query, new String[]{"ORD001"});
+                    args = new String[]{"ORD001"};
                     break;
                 case 16: // Customer Reservations
-                    cursor = dbOperator.execQuery(query, new String[]{"CUST001"});
+                    args = new String[]{"CUST001"};
+                    keys = new KeysetPager.Key[]{
+                            KeysetPager.Key.desc("Res_date"),
+                            KeysetPager.Key.desc("Res_id")};
                     break;
                 default:
-                    cursor = dbOperator.execQuery(query);
+                    args = null;
                     break;
             }
 
-            if (cursor != null) {
-                TableView tableView = new TableView(this, cursor);
-                scrollView.addView(tableView);
+            // Rows are read page by page while the list is scrolled
+            tableView = new TableView(this, query, args, keys);
+            tableView.setCallback(new DBOperator.Callback<Integer>() {
+                @Override
+                public void onResult(Integer rowCount) {
+                    if (rowCount > 0) {
+                        Toast.makeText(QueryActivity.this,
+                                "Query executed: " + rowCount + " results",
+                                Toast.LENGTH_SHORT).show();
+                    } else {
+                        Toast.makeText(QueryActivity.this, "No results found", Toast.LENGTH_SHORT).show();
+                    }
+                }
 
-                int rowCount = cursor.getCount();
-                Toast.makeText(this,
-                        "Query executed: " + rowCount + " results",
-                        Toast.LENGTH_SHORT).show();
-            } else {
-                Toast.makeText(this, "No results found", Toast.LENGTH_SHORT).show();
-            }
+                @Override
+                public void onError(Exception e) {
+                    e.printStackTrace();
+                    Toast.makeText(QueryActivity.this,
+                            "Query error: " + e.getMessage(),
+                            Toast.LENGTH_LONG).show();
+                }
+            });
+            resultsFrame.addView(tableView);
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -145,4 +187,39 @@ public class QueryActivity extends AppCompatActivity {
                     Toast.LENGTH_LONG).show();
         }
     }
-}
\ No newline at end of file
+
+    private void showPaymentStats(int position) {
+        paymentListener = stats -> {
+            String[] columns;
+            List<String[]> rows = new ArrayList<>();
+            switch (position) {
+                case 10: // Highest Payment
+                case 11: // Lowest Payment
+                    columns = new String[]{"Pay_id", "Pay_Order_id", "Amount", "Pay_time"};
+                    PaymentStats.Payment payment = position == 10 ? stats.getHighest() : stats.getLowest();
+                    if (payment != null) {
+                        rows.add(new String[]{payment.payId, payment.orderId,
+                                ReportEngine.format(payment.amount), payment.time});
+                    }
+                    break;
+                case 12: // Average Payment
+                    columns = new String[]{"Average_Payment"};
+                    rows.add(new String[]{ReportEngine.format(stats.getMean())});
+                    break;
+                default: // Median Payment, with the upper percentiles
+                    columns = new String[]{"Median_Payment", "P90_Payment", "P99_Payment"};
+                    rows.add(new String[]{ReportEngine.format(stats.getMedian()),
+                            ReportEngine.format(stats.getP90()), ReportEngine.format(stats.getP99())});
+                    break;
+            }
+            if (tableView != null) tableView.close();
+            resultsFrame.removeAllViews();
+            tableView = new TableView(this, columns, rows);
+            resultsFrame.addView(tableView);
+            if (rows.isEmpty()) {
+                Toast.makeText(this, "No results found", Toast.LENGTH_SHORT).show();
+            }
+        };
+        PaymentStats.getInstance().subscribe(paymentListener);
+    }
+}
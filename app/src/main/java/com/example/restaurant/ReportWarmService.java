@@ -0,0 +1,89 @@
+package com.example.restaurant;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+
+import com.example.restaurant.constant.DBConstant;
+import com.example.restaurant.util.DBOperator;
+import com.example.restaurant.util.DashboardStats;
+import com.example.restaurant.util.ReportCache;
+import com.example.restaurant.util.Reports;
+import com.example.restaurant.util.SalesRollups;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Precomputes the standard reports into the ReportCache while the device is charging
+ * or idle, so the Reports screen opens on cached results.
+ * The cache lives in memory, a warm run helps as long as the app process is kept.
+ * Each run first checks the dashboard counters and the sales rollups against the whole
+ * history, on a reader connection, and fixes them only if they drifted, so the reports
+ * are warmed from rollups known to be right.
+ */
+public class ReportWarmService extends JobService {
+
+    private static final int JOB_CHARGING = 1801;
+    private static final int JOB_IDLE = 1802;
+    private static final long PERIOD_MS = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * schedule the warm runs, once, they repeat by themselves
+     * the scheduler only knows AND of constraints, so charging and idle are two jobs
+     * @param context
+     */
+    public static void schedule(Context context) {
+        JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (scheduler == null) return;
+        ComponentName service = new ComponentName(context, ReportWarmService.class);
+        if (scheduler.getPendingJob(JOB_CHARGING) == null) {
+            scheduler.schedule(new JobInfo.Builder(JOB_CHARGING, service)
+                    .setRequiresCharging(true)
+                    .setPeriodic(PERIOD_MS)
+                    .build());
+        }
+        if (scheduler.getPendingJob(JOB_IDLE) == null) {
+            scheduler.schedule(new JobInfo.Builder(JOB_IDLE, service)
+                    .setRequiresDeviceIdle(true)
+                    .setPeriodic(PERIOD_MS)
+                    .build());
+        }
+    }
+
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        // Nothing to warm before the database has been copied on first login
+        if (!new File(DBConstant.DATABASE_PATH, DBConstant.DATABASE_FILE).exists()) return false;
+        DBOperator op = DBOperator.getInstance();
+        DashboardStats.checkAsync(op, drift -> { });
+        SalesRollups.checkAsync(op, new DBOperator.Callback<List<String>>() {
+            @Override
+            public void onResult(List<String> drift) {
+                warm(params);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                // Warm anyway, the reports were read from the rollups before the check too
+                DBOperator.Callback.super.onError(e);
+                warm(params);
+            }
+        });
+        return true;
+    }
+
+    private void warm(JobParameters params) {
+        ReportCache.getInstance().warm(Reports.STANDARD, () -> jobFinished(params, false));
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        // The loads already started still fill the cache, the next period tries again
+        return false;
+    }
+}
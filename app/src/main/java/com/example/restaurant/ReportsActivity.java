@@ -1,100 +1,132 @@
 package com.example.restaurant;
 
-import android.database.Cursor;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.Button;
 import android.widget.LinearLayout;
-import android.widget.ScrollView;
+import android.widget.FrameLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 
-import com.example.restaurant.constant.SQLCommand;
 import com.example.restaurant.util.DBOperator;
+import com.example.restaurant.util.ReportCache;
+import com.example.restaurant.util.Reports;
 import com.example.restaurant.view.TableView;
 
 public class ReportsActivity extends AppCompatActivity {
 
     private Button btnSalesReport, btnTopSelling, btnPeakTimes, btnPaymentAnalysis;
-    private ScrollView scrollResults;
+    private FrameLayout resultsFrame;
     private LinearLayout reportContainer;
-    private DBOperator dbOperator;
+    private TableView reportTable;
+    private DBOperator.Callback<ReportCache.Rows> pending;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_reports);
 
-        dbOperator = DBOperator.getInstance();
-
         btnSalesReport = findViewById(R.id.btn_sales_report);
         btnTopSelling = findViewById(R.id.btn_top_selling);
         btnPeakTimes = findViewById(R.id.btn_peak_times);
         btnPaymentAnalysis = findViewById(R.id.btn_payment_analysis);
-        scrollResults = findViewById(R.id.scroll_report_results);
+        resultsFrame = findViewById(R.id.frame_report_results);
 
-        // Create a LinearLayout container to hold multiple views inside ScrollView
+        // Create a LinearLayout container to hold the title and the table, the table scrolls itself
         reportContainer = new LinearLayout(this);
         reportContainer.setOrientation(LinearLayout.VERTICAL);
         reportContainer.setLayoutParams(new LinearLayout.LayoutParams(
                 LinearLayout.LayoutParams.MATCH_PARENT,
-                LinearLayout.LayoutParams.WRAP_CONTENT
+                LinearLayout.LayoutParams.MATCH_PARENT
         ));
-        scrollResults.addView(reportContainer);
+        resultsFrame.addView(reportContainer);
 
-        btnSalesReport.setOnClickListener(v -> showReport("Sales Summary",
-                "SELECT 'Total Sales' as Metric, SUM(Order_Total) as Value FROM Orders " +
-                        "UNION ALL SELECT 'Total Orders', COUNT(*) FROM Orders " +
-                        "UNION ALL SELECT 'Avg Order', AVG(Order_Total) FROM Orders"));
+        // The reports read the sales rollups, kept current by triggers, and are cached until written
+        btnSalesReport.setOnClickListener(v -> showReport("Sales Summary", Reports.SALES_SUMMARY));
 
-        btnTopSelling.setOnClickListener(v -> showReport("Top 5 Best Sellers",
-                SQLCommand.QUERY_TOP_SELLING));
+        btnTopSelling.setOnClickListener(v -> showReport("Top 5 Best Sellers", Reports.TOP_SELLING));
 
-        btnPeakTimes.setOnClickListener(v -> showReport("Peak Order Times",
-                SQLCommand.QUERY_PEAK_TIMES));
+        btnPeakTimes.setOnClickListener(v -> showReport("Peak Order Times", Reports.PEAK_TIMES));
 
         btnPaymentAnalysis.setOnClickListener(v -> showReport("Payment Analysis by Day",
-                SQLCommand.QUERY_PAYMENT_BY_DAY));
+                Reports.PAYMENT_BY_DAY));
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (reportTable != null) reportTable.close();
+        if (pending != null) ReportCache.getInstance().forget(pending);
     }
 
-    private void showReport(String title, String query) {
-        try {
-            // Clear the container, not the ScrollView
-            reportContainer.removeAllViews();
-
-            // Create title TextView
-            TextView tvTitle = new TextView(this);
-            tvTitle.setText(title);
-            tvTitle.setTextSize(20);
-            tvTitle.setTextColor(getResources().getColor(android.R.color.black));
-            tvTitle.setPadding(16, 16, 16, 16);
-
-            // Add title to container
-            reportContainer.addView(tvTitle);
-
-            // Execute query and create table
-            Cursor cursor = dbOperator.execQuery(query);
-            if (cursor != null && cursor.getCount() > 0) {
-                TableView tableView = new TableView(this, cursor);
-                reportContainer.addView(tableView);
-
-                Toast.makeText(this, title + " generated", Toast.LENGTH_SHORT).show();
-            } else {
-                // Show empty state
-                TextView tvEmpty = new TextView(this);
-                tvEmpty.setText("No data available for this report.");
-                tvEmpty.setTextSize(16);
-                tvEmpty.setPadding(16, 32, 16, 32);
-                tvEmpty.setTextColor(getResources().getColor(android.R.color.darker_gray));
-                reportContainer.addView(tvEmpty);
-
-                Toast.makeText(this, "No data found", Toast.LENGTH_SHORT).show();
+    private void showReport(String title, ReportCache.Report report) {
+        // Only the latest report is shown, a cached one straight away
+        if (pending != null) ReportCache.getInstance().forget(pending);
+        pending = new DBOperator.Callback<ReportCache.Rows>() {
+            @Override
+            public void onResult(ReportCache.Rows result) {
+                pending = null;
+                showTable(title, new TableView(ReportsActivity.this, result.columns, result.rows));
+            }
+
+            @Override
+            public void onError(Exception e) {
+                pending = null;
+                e.printStackTrace();
+                Toast.makeText(ReportsActivity.this, "Error generating report: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+            }
+        };
+        ReportCache.getInstance().get(report, pending);
+    }
+
+    private void showTable(String title, TableView tableView) {
+        // Drop the previous report, the TableView scrolls its own rows
+        reportContainer.removeAllViews();
+
+        // Create title TextView
+        TextView tvTitle = new TextView(this);
+        tvTitle.setText(title);
+        tvTitle.setTextSize(20);
+        tvTitle.setTextColor(getResources().getColor(android.R.color.black));
+        tvTitle.setPadding(16, 16, 16, 16);
+
+        // Add title to container
+        reportContainer.addView(tvTitle);
+
+        // Only the latest report is shown
+        if (reportTable != null) reportTable.close();
+        reportTable = tableView;
+        tableView.setLayoutParams(new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.MATCH_PARENT, 0, 1f));
+        reportContainer.addView(tableView);
+        tableView.setCallback(new DBOperator.Callback<Integer>() {
+            @Override
+            public void onResult(Integer rowCount) {
+                if (rowCount > 0) {
+                    Toast.makeText(ReportsActivity.this, title + " generated", Toast.LENGTH_SHORT).show();
+                } else {
+                    tableView.close();
+                    reportContainer.removeView(tableView);
+
+                    // Show empty state
+                    TextView tvEmpty = new TextView(ReportsActivity.this);
+                    tvEmpty.setText("No data available for this report.");
+                    tvEmpty.setTextSize(16);
+                    tvEmpty.setPadding(16, 32, 16, 32);
+                    tvEmpty.setTextColor(getResources().getColor(android.R.color.darker_gray));
+                    reportContainer.addView(tvEmpty);
+
+                    Toast.makeText(ReportsActivity.this, "No data found", Toast.LENGTH_SHORT).show();
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                e.printStackTrace();
+                Toast.makeText(ReportsActivity.this, "Error generating report: " + e.getMessage(), Toast.LENGTH_SHORT).show();
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            Toast.makeText(this, "Error generating report: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-        }
+        });
     }
 }
\ No newline at end of file
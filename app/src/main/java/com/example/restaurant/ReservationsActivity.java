@@ -13,15 +13,24 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.restaurant.constant.SQLCommand;
 import com.example.restaurant.util.DBOperator;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.example.restaurant.util.KeysetPager;
+import com.example.restaurant.util.TableAvailability;
+import com.example.restaurant.util.TableOccupancy;
 
 public class ReservationsActivity extends AppCompatActivity {
 
+    // Newest first, Res_id breaks ties so every row has its own place in the list
+    private static final KeysetPager.Key[] RESERVATION_ORDER = {
+            KeysetPager.Key.desc("Res_date"),
+            KeysetPager.Key.desc("Res_id")
+    };
+
     private RecyclerView rvAllReservations;
     private DBOperator dbOperator;
+    private AllReservationsAdapter adapter;
+    private KeysetPager<Reservation> pager;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -33,7 +42,12 @@ public class ReservationsActivity extends AppCompatActivity {
         rvAllReservations = findViewById(R.id.rv_all_reservations);
         rvAllReservations.setLayoutManager(new LinearLayoutManager(this));
 
-        loadReservations();
+        // Reservations are read a page at a time while the list is scrolled
+        adapter = new AllReservationsAdapter();
+        pager = new KeysetPager<>(dbOperator, SQLCommand.QUERY_RESERVATION_LIST, null,
+                RESERVATION_ORDER, ReservationsActivity::readReservation, adapter);
+        adapter.setPager(pager);
+        rvAllReservations.setAdapter(adapter);
     }
 
     @Override
@@ -42,42 +56,27 @@ public class ReservationsActivity extends AppCompatActivity {
         loadReservations();
     }
 
-    private void loadReservations() {
-        List<Reservation> reservations = new ArrayList<>();
-
-        try {
-            Cursor cursor = dbOperator.execQuery(
-                    "SELECT r.Res_id, c.Cust_name, c.Cust_Number, r.Res_party_size, " +
-                            "r.Res_date, r.Res_status, d.DT_number " +
-                            "FROM Reservation r " +
-                            "JOIN Customer c ON r.Res_Cust_id = c.Cust_id " +
-                            "JOIN Dining_table d ON r.Res_DT_id = d.DT_id " +
-                            "ORDER BY r.Res_date DESC"
-            );
-
-            if (cursor != null) {
-                while (cursor.moveToNext()) {
-                    Reservation res = new Reservation();
-                    res.id = cursor.getString(0);
-                    res.customerName = cursor.getString(1);
-                    res.phone = cursor.getString(2);
-                    res.partySize = cursor.getInt(3);
-                    res.dateTime = cursor.getString(4);
-                    res.status = cursor.getString(5);
-                    res.tableNumber = cursor.getInt(6);
-
-                    reservations.add(res);
-                }
-                cursor.close();
-            }
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        pager.close();
+    }
 
-            AllReservationsAdapter adapter = new AllReservationsAdapter(reservations);
-            rvAllReservations.setAdapter(adapter);
+    private void loadReservations() {
+        pager.reload();
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            Toast.makeText(this, "Error loading reservations", Toast.LENGTH_SHORT).show();
-        }
+    private static Reservation readReservation(Cursor cursor) {
+        Reservation res = new Reservation();
+        res.id = cursor.getString(0);
+        res.customerName = cursor.getString(1);
+        res.phone = cursor.getString(2);
+        res.partySize = cursor.getInt(3);
+        res.dateTime = cursor.getString(4);
+        res.status = cursor.getString(5);
+        res.tableNumber = cursor.getInt(6);
+        res.tableId = cursor.getString(7);
+        return res;
     }
 
     private static class Reservation {
@@ -88,14 +87,11 @@ public class ReservationsActivity extends AppCompatActivity {
         String dateTime;
         String status;
         int tableNumber;
+        String tableId;
     }
 
-    private class AllReservationsAdapter extends RecyclerView.Adapter<AllReservationsAdapter.ViewHolder> {
-        private List<Reservation> reservations;
-
-        public AllReservationsAdapter(List<Reservation> reservations) {
-            this.reservations = reservations;
-        }
+    private class AllReservationsAdapter
+            extends KeysetPager.PagedAdapter<Reservation, AllReservationsAdapter.ViewHolder> {
 
         @Override
         public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
@@ -105,8 +101,24 @@ public class ReservationsActivity extends AppCompatActivity {
         }
 
         @Override
-        public void onBindViewHolder(ViewHolder holder, int position) {
-            Reservation res = reservations.get(position);
+        public void onError(Exception e) {
+            e.printStackTrace();
+            Toast.makeText(ReservationsActivity.this, "Error loading reservations", Toast.LENGTH_SHORT).show();
+        }
+
+        @Override
+        public void onBindItem(ViewHolder holder, Reservation res) {
+            if (res == null) {
+                // Page is being read again, keep the row blank until it arrives
+                holder.tvCustomerName.setText("");
+                holder.tvPhone.setText("");
+                holder.tvPartySize.setText("");
+                holder.tvTable.setText("");
+                holder.tvStatus.setText("");
+                holder.btnSeat.setVisibility(View.GONE);
+                holder.btnCancel.setVisibility(View.GONE);
+                return;
+            }
 
             holder.tvCustomerName.setText(res.customerName);
             holder.tvPhone.setText(res.phone);
@@ -146,11 +158,6 @@ public class ReservationsActivity extends AppCompatActivity {
             });
         }
 
-        @Override
-        public int getItemCount() {
-            return reservations.size();
-        }
-
         class ViewHolder extends RecyclerView.ViewHolder {
             TextView tvCustomerName, tvPhone, tvPartySize, tvTable, tvStatus;
             Button btnSeat, btnCancel;
@@ -174,6 +181,8 @@ public class ReservationsActivity extends AppCompatActivity {
                     "UPDATE Reservation SET Res_status = ? WHERE Res_id = ?",
                     new Object[]{"Completed", res.id}
             );
+            TableAvailability.getInstance().onSeated(res.id);
+            TableOccupancy.getInstance().onSeated(res.tableId);
             Toast.makeText(this, res.customerName + " has been seated", Toast.LENGTH_SHORT).show();
             loadReservations();
         } catch (Exception e) {
@@ -188,6 +197,7 @@ public class ReservationsActivity extends AppCompatActivity {
                     "UPDATE Reservation SET Res_status = ? WHERE Res_id = ?",
                     new Object[]{"Cancelled", res.id}
             );
+            TableAvailability.getInstance().onCancelled(res.id);
             Toast.makeText(this, "Reservation cancelled", Toast.LENGTH_SHORT).show();
             loadReservations();
         } catch (Exception e) {
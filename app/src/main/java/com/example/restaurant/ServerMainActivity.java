@@ -2,7 +2,6 @@ package com.example.restaurant;
 
 import android.content.Intent;
 import android.content.SharedPreferences;
-import android.database.Cursor;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.Button;
@@ -13,7 +12,11 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.cardview.widget.CardView;
 
+import com.example.restaurant.constant.SQLCommand;
+import com.example.restaurant.util.DashboardStats;
+import com.example.restaurant.util.DBChangeBus;
 import com.example.restaurant.util.DBOperator;
+import com.example.restaurant.util.DBTaskGroup;
 
 public class ServerMainActivity extends AppCompatActivity {
 
@@ -22,6 +25,8 @@ public class ServerMainActivity extends AppCompatActivity {
     private Button btnLogout;
     private DBOperator dbOperator;
     private String employeeId, employeeName;
+    private final DBTaskGroup tasks = new DBTaskGroup();
+    private final DBChangeBus.Listener ordersChanged = tables -> loadDashboardMetrics();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -93,40 +98,33 @@ public class ServerMainActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
+        dbOperator.getChangeBus().subscribe(ordersChanged, DBChangeBus.ORDERS);
         loadDashboardMetrics();
     }
 
-    private void loadDashboardMetrics() {
-        try {
-            // Count active tables for this server
-            Cursor tablesCursor = dbOperator.execQuery(
-                    "SELECT COUNT(DISTINCT Order_DT_id) FROM Orders " +
-                            "WHERE Order_Emp_id = '" + employeeId + "' " +
-                            "AND Order_status IN ('Open', 'Placed', 'Preparing', 'Ready')"
-            );
-            int activeTables = 0;
-            if (tablesCursor != null && tablesCursor.moveToFirst()) {
-                activeTables = tablesCursor.getInt(0);
-                tablesCursor.close();
-            }
-            tvActiveTables.setText(String.valueOf(activeTables));
-
-            // Count pending orders for this server
-            Cursor ordersCursor = dbOperator.execQuery(
-                    "SELECT COUNT(*) FROM Orders " +
-                            "WHERE Order_Emp_id = '" + employeeId + "' " +
-                            "AND Order_status IN ('Placed', 'Preparing')"
-            );
-            int pendingOrders = 0;
-            if (ordersCursor != null && ordersCursor.moveToFirst()) {
-                pendingOrders = ordersCursor.getInt(0);
-                ordersCursor.close();
-            }
-            tvPendingOrders.setText(String.valueOf(pendingOrders));
+    @Override
+    protected void onPause() {
+        super.onPause();
+        dbOperator.getChangeBus().unsubscribe(ordersChanged);
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        tasks.cancelAll();
+    }
+
+    private void loadDashboardMetrics() {
+        // Active tables and pending orders for this server from the dashboard counters
+        tasks.add(dbOperator.queryAsync(SQLCommand.QUERY_DASHBOARD_STATS,
+                new String[]{employeeId},
+                DashboardStats::read,
+                stats -> {
+                    tvActiveTables.setText(String.valueOf(
+                            (int) DashboardStats.get(stats, DashboardStats.OPEN_TABLES)));
+                    tvPendingOrders.setText(String.valueOf(
+                            (int) DashboardStats.get(stats, DashboardStats.PENDING_ORDERS)));
+                }));
     }
 
     private void showLogoutConfirmation() {
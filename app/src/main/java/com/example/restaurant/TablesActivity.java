@@ -9,6 +9,7 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.cardview.widget.CardView;
 import androidx.recyclerview.widget.GridLayoutManager;
@@ -16,9 +17,13 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.restaurant.constant.SQLCommand;
 import com.example.restaurant.util.DBOperator;
+import com.example.restaurant.util.TableAvailability;
+import com.example.restaurant.util.TableOccupancy;
+import com.example.restaurant.util.TurnTimes;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 public class TablesActivity extends AppCompatActivity {
 
@@ -26,6 +31,10 @@ public class TablesActivity extends AppCompatActivity {
     private TableAdapter adapter;
     private DBOperator dbOperator;
     private List<Table> tableList;
+    // Redraws the tiles as turns move on
+    private final TableOccupancy.Listener occupancyChanged = occupancy -> {
+        if (adapter != null) adapter.notifyDataSetChanged();
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -42,6 +51,18 @@ public class TablesActivity extends AppCompatActivity {
         loadTables();
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+        TableOccupancy.getInstance().subscribe(occupancyChanged);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        TableOccupancy.getInstance().unsubscribe(occupancyChanged);
+    }
+
     private void loadTables() {
         tableList = new ArrayList<>();
 
@@ -83,6 +104,56 @@ public class TablesActivity extends AppCompatActivity {
         }
     }
 
+    // Step of the turn and for how long, e.g. "Ordered 25 min"
+    private String describeTurn(String tableId) {
+        TableOccupancy occupancy = TableOccupancy.getInstance();
+        TableOccupancy.State state = occupancy.stateOf(tableId);
+        String name = state.name().charAt(0) + state.name().substring(1).toLowerCase();
+        if (state == TableOccupancy.State.FREE) return name;
+        return name + " " + (TableAvailability.nowMinute() - occupancy.since(tableId)) + " min";
+    }
+
+    private void showTurnDialog(Table table) {
+        TableOccupancy occupancy = TableOccupancy.getInstance();
+        if (!occupancy.isLoaded()) {
+            Toast.makeText(this, "Table turns are still loading", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        TableOccupancy.State state = occupancy.stateOf(table.id);
+        String type = table.type != null ? table.type : "Standard";
+
+        // How long turns at this kind of table usually last, for planning the floor
+        TurnTimes turns = occupancy.turnTimes(table.type);
+        String message = describeTurn(table.id);
+        if (state != TableOccupancy.State.FREE) {
+            message += "\nSeated " + (TableAvailability.nowMinute() - occupancy.seatedAt(table.id)) + " min ago";
+        }
+        if (turns.size() > 0) {
+            message += String.format(Locale.US, "\n\nTurns at %s tables: median %.0f min, 90%% within %.0f min",
+                    type, turns.quantile(0.5), turns.quantile(0.9));
+        } else {
+            message += "\n\nNo finished turns at " + type + " tables yet";
+        }
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(this)
+                .setTitle("Table " + table.number + " (" + type + ") - " + table.partySize + " seats")
+                .setMessage(message)
+                .setNegativeButton("Close", null);
+        switch (state) {
+            case FREE:
+                builder.setPositiveButton("Seat", (dialog, which) -> occupancy.onSeated(table.id));
+                break;
+            case ORDERED:
+                builder.setPositiveButton("Mark Paid", (dialog, which) -> occupancy.onPaid(table.id));
+                break;
+            default:
+                // Seated parties that leave without ordering are bussed as well
+                builder.setPositiveButton("Mark Bussed", (dialog, which) -> occupancy.onBussed(table.id));
+                break;
+        }
+        builder.show();
+    }
+
     // Table model class
     private static class Table {
         String id;
@@ -113,7 +184,7 @@ public class TablesActivity extends AppCompatActivity {
 
             holder.tvTableNumber.setText("Table " + table.number);
             holder.tvTableType.setText(table.type != null ? table.type : "Standard");
-            holder.tvPartySize.setText(table.partySize + " seats");
+            holder.tvPartySize.setText(table.partySize + " seats - " + describeTurn(table.id));
 
             int backgroundColor, textColor;
 
@@ -146,11 +217,7 @@ public class TablesActivity extends AppCompatActivity {
             holder.cardView.setCardBackgroundColor(backgroundColor);
             holder.tvTableType.setTextColor(textColor);
 
-            holder.itemView.setOnClickListener(v -> {
-                Toast.makeText(TablesActivity.this,
-                        "Table " + table.number + " (" + table.type + ") - " + table.partySize + " seats",
-                        Toast.LENGTH_SHORT).show();
-            });
+            holder.itemView.setOnClickListener(v -> showTurnDialog(table));
         }
 
         @Override
@@ -12,5 +12,5 @@ public abstract class DBConstant
     //database file name
     public static String DATABASE_FILE = "Group.AlphaRestraunt.db";
     //database version
-    public static int DATABASE_VERSION = 1;
+    public static int DATABASE_VERSION = 8;
 }
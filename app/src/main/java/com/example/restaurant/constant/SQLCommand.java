@@ -5,14 +5,14 @@ public abstract class SQLCommand {
     // Query 1: Customer Order History
     public static String QUERY_CUSTOMER_ORDER_HISTORY =
             "SELECT c.Cust_name, o.Order_id, o.Order_status, o.Order_Total, " +
-                    "oi.Orditem_Menu_dishID, m.Menu_name, oi.Orditem_Quantity, " +
+                    "oi.Orditem_id, oi.Orditem_Menu_dishID, m.Menu_name, oi.Orditem_Quantity, " +
                     "oi.Orditem_price, oi.Orditem_time_ordered " +
                     "FROM Customer c " +
                     "JOIN Orders o ON c.Cust_id = o.Order_Cust_id " +
                     "JOIN Order_Item oi ON o.Order_id = oi.Orditem_Order_id " +
                     "JOIN Menu m ON oi.Orditem_Menu_dishID = m.Menu_DishID " +
                     "WHERE c.Cust_id = ? " +
-                    "ORDER BY oi.Orditem_time_ordered DESC";
+                    "ORDER BY oi.Orditem_time_ordered DESC, oi.Orditem_id DESC";
 
     // Query 2: Reservation Screen
     public static String QUERY_RESERVATIONS =
@@ -48,15 +48,20 @@ public abstract class SQLCommand {
                     "WHERE Menu_available = 'Yes' " +
                     "ORDER BY Menu_cat, Menu_name";
 
-    // Query 5a: Top 5 Best Selling Items
+    // Query 4b: Whole Menu grouped by category, read in one pass by MenuSectionBuilder
+    public static String QUERY_MENU_ALL =
+            "SELECT Menu_DishID, Menu_name, Menu_cat, Menu_price, Menu_available " +
+                    "FROM Menu " +
+                    "ORDER BY Menu_cat, Menu_name";
+
+    // Query 5a: Top 5 Best Selling Items, from the dish rollup of SalesRollups
     public static String QUERY_TOP_SELLING =
             "SELECT m.Menu_name, m.Menu_cat, " +
-                    "SUM(oi.Orditem_Quantity) AS Total_Sold, " +
-                    "SUM(oi.Orditem_Quantity * oi.Orditem_price) AS Revenue " +
-                    "FROM Menu m " +
-                    "JOIN Order_Item oi ON m.Menu_DishID = oi.Orditem_Menu_dishID " +
-                    "GROUP BY m.Menu_DishID, m.Menu_name, m.Menu_cat " +
-                    "ORDER BY Total_Sold DESC " +
+                    "r.Roll_quantity AS Total_Sold, " +
+                    "r.Roll_revenue AS Revenue " +
+                    "FROM Rollup_Dish r " +
+                    "JOIN Menu m ON m.Menu_DishID = r.Roll_dish " +
+                    "ORDER BY Total_Sold DESC, m.Menu_DishID " +
                     "LIMIT 5";
 
     // Query 5b: Most Frequent Party Size
@@ -122,19 +127,31 @@ public abstract class SQLCommand {
                     "LIMIT 2 - (SELECT COUNT(*) FROM Payments) % 2 " +
                     "OFFSET (SELECT (COUNT(*) - 1) / 2 FROM Payments))";
 
-    // Query 9e: Days of Week with Highest Payments
+    // Payments with the total of their order, in a rowid range, read in one pass by PaymentStats
+    public static String QUERY_PAYMENT_AMOUNTS =
+            "SELECT p.rowid, p.Pay_id, p.Pay_Order_id, o.Order_Total, p.Pay_time " +
+                    "FROM Payments p " +
+                    "LEFT JOIN Orders o ON p.Pay_Order_id = o.Order_id " +
+                    "WHERE p.rowid > ? AND p.rowid <= ? " +
+                    "ORDER BY p.rowid";
+
+    // Payments and the last rowid, read together so the rows up to it can be counted
+    public static String QUERY_PAYMENT_COUNT =
+            "SELECT COUNT(*), IFNULL(MAX(rowid), 0) FROM Payments";
+
+    // Query 9e: Days of Week with Highest Payments, from the daily payment rollup
     public static String QUERY_PAYMENT_BY_DAY =
-            "SELECT CASE CAST(strftime('%w', Pay_time) AS INTEGER) " +
+            "SELECT CASE CAST(strftime('%w', Roll_day) AS INTEGER) " +
                     "WHEN 0 THEN 'Sunday' WHEN 1 THEN 'Monday' " +
                     "WHEN 2 THEN 'Tuesday' WHEN 3 THEN 'Wednesday' " +
                     "WHEN 4 THEN 'Thursday' WHEN 5 THEN 'Friday' " +
                     "WHEN 6 THEN 'Saturday' END AS Day_of_Week, " +
-                    "SUM(o.Order_Total) AS Total_Revenue, " +
-                    "COUNT(*) AS Number_of_Payments " +
-                    "FROM Payments p " +
-                    "JOIN Orders o ON p.Pay_Order_id = o.Order_id " +
-                    "GROUP BY strftime('%w', Pay_time) " +
-                    "ORDER BY Total_Revenue DESC";
+                    "SUM(Roll_revenue) AS Total_Revenue, " +
+                    "SUM(Roll_payments) AS Number_of_Payments " +
+                    "FROM Rollup_Payment_Day " +
+                    "GROUP BY strftime('%w', Roll_day) " +
+                    "HAVING Number_of_Payments > 0 " +
+                    "ORDER BY Total_Revenue DESC, Day_of_Week";
 
     // Query 10: Order Details with Items
     public static String QUERY_ORDER_DETAILS =
@@ -158,7 +175,19 @@ public abstract class SQLCommand {
                     "JOIN Reservation r ON c.Cust_id = r.Res_Cust_id " +
                     "JOIN Dining_table dt ON r.Res_DT_id = dt.DT_id " +
                     "WHERE c.Cust_id = ? " +
-                    "ORDER BY r.Res_date DESC";
+                    "ORDER BY r.Res_date DESC, r.Res_id DESC";
+
+    // Dashboard counters of one scope, see DashboardStats
+    public static String QUERY_DASHBOARD_STATS =
+            "SELECT Stat_name, Stat_value FROM Dashboard_Stats WHERE Stat_scope = ?";
+
+    // Query 11b: Reservation list, read page by page by Res_date DESC, Res_id DESC
+    public static String QUERY_RESERVATION_LIST =
+            "SELECT r.Res_id, c.Cust_name, c.Cust_Number, r.Res_party_size, " +
+                    "r.Res_date, r.Res_status, d.DT_number, r.Res_DT_id " +
+                    "FROM Reservation r " +
+                    "JOIN Customer c ON r.Res_Cust_id = c.Cust_id " +
+                    "JOIN Dining_table d ON r.Res_DT_id = d.DT_id";
 
     // Query 12: Employee Section Assignments
     public static String QUERY_SECTION_ASSIGNMENTS =
@@ -172,16 +201,30 @@ public abstract class SQLCommand {
                     "AND o.Order_status IN ('Placed', 'Preparing', 'Ready') " +
                     "GROUP BY rs.Sec_id, e.Emp_name, e.Emp_role";
 
-    // Query 13: Peak Order Times
+    // Query 13: Peak Order Times, from the hourly rollup
     public static String QUERY_PEAK_TIMES =
-            "SELECT strftime('%H:00', Orditem_time_ordered) AS Hour_Interval, " +
-                    "COUNT(DISTINCT Orditem_Order_id) AS Number_of_Orders, " +
-                    "SUM(Orditem_Quantity) AS Total_Items_Ordered " +
-                    "FROM Order_Item " +
-                    "GROUP BY strftime('%H', Orditem_time_ordered) " +
-                    "ORDER BY Number_of_Orders DESC " +
+            "SELECT printf('%02d:00', Roll_hour) AS Hour_Interval, " +
+                    "SUM(Roll_orders) AS Number_of_Orders, " +
+                    "SUM(Roll_quantity) AS Total_Items_Ordered " +
+                    "FROM Rollup_Hour " +
+                    "GROUP BY Roll_hour " +
+                    "HAVING Number_of_Orders > 0 " +
+                    "ORDER BY Number_of_Orders DESC, Roll_hour " +
                     "LIMIT 5";
 
+    // Query 13b: Order totals behind the Sales Summary, read in one pass by ReportEngine
+    public static String QUERY_ORDER_TOTALS =
+            "SELECT Order_Total FROM Orders WHERE Order_status <> 'Cancelled'";
+
+    // Query 13c: Revenue of every day keyed by its month (year * 12 + month - 1), read into a TimeSeries
+    public static String QUERY_DAILY_REVENUE =
+            "SELECT CAST(strftime('%Y', Roll_day) AS INTEGER) * 12 + " +
+                    "CAST(strftime('%m', Roll_day) AS INTEGER) - 1 AS Month_Index, " +
+                    "Roll_revenue " +
+                    "FROM Rollup_Payment_Day " +
+                    "WHERE Roll_payments > 0 " +
+                    "ORDER BY Roll_day";
+
     // Additional useful queries for the app
 
     // Get all tables
@@ -189,6 +232,29 @@ public abstract class SQLCommand {
             "SELECT DT_id, DT_number, DT_party_size, DT_table_type " +
                     "FROM Dining_table ORDER BY DT_number";
 
+    // Reservations holding a table from a start date on, for TableAvailability
+    public static String QUERY_RESERVATION_WINDOWS =
+            "SELECT Res_id, Res_DT_id, Res_start_item, Res_party_size " +
+                    "FROM Reservation " +
+                    "WHERE Res_date >= ? AND Res_status NOT IN ('Cancelled', 'Completed')";
+
+    // Reservations of a table starting inside a time range, for ReservationBooking
+    // a seated one holds its table by the open turn instead, as in TableAvailability
+    public static String QUERY_TABLE_RESERVATIONS =
+            "SELECT Res_id, Res_start_item, Res_party_size " +
+                    "FROM Reservation " +
+                    "WHERE Res_DT_id = ? AND Res_date > ? AND Res_date < ? " +
+                    "AND Res_status NOT IN ('Cancelled', 'Completed')";
+
+    // New customer
+    public static String INSERT_CUSTOMER =
+            "INSERT INTO Customer(Cust_id, Cust_name, Cust_Number) VALUES(?, ?, ?)";
+
+    // New reservation, Res_date and Res_start_item both hold the start
+    public static String INSERT_RESERVATION =
+            "INSERT INTO Reservation(Res_id, Res_Cust_id, Res_DT_id, Res_date, Res_start_item, " +
+                    "Res_party_size, Res_status) VALUES(?, ?, ?, ?, ?, ?, 'Confirmed')";
+
     // Get menu by category
     public static String QUERY_MENU_BY_CATEGORY =
             "SELECT * FROM Menu WHERE Menu_cat = ? AND Menu_available = 'Yes' " +
@@ -217,14 +283,105 @@ public abstract class SQLCommand {
     public static String UPDATE_INVENTORY =
             "UPDATE Inventory SET Inv_item_count = ? WHERE Inv_ItemID = ?";
 
+    // Parties still waiting for a table, for Waitlist
+    public static String QUERY_WAITLIST =
+            "SELECT Wait_id, Wait_name, Wait_phone, Wait_party_size, Wait_vip, Wait_arrival " +
+                    "FROM Waitlist WHERE Wait_status = 'Waiting'";
+
+    // Put a party on the waitlist
+    public static String INSERT_WAITLIST =
+            "INSERT INTO Waitlist(Wait_id, Wait_name, Wait_phone, Wait_party_size, " +
+                    "Wait_vip, Wait_arrival) VALUES(?, ?, ?, ?, ?, ?)";
+
+    // Seat a waiting party
+    public static String UPDATE_WAITLIST_SEATED =
+            "UPDATE Waitlist SET Wait_status = 'Seated', Wait_tables = ?, Wait_seated = ? WHERE Wait_id = ?";
+
+    // Take a party off the waitlist
+    public static String UPDATE_WAITLIST_STATUS =
+            "UPDATE Waitlist SET Wait_status = ? WHERE Wait_id = ?";
+
+    // Turns not bussed yet, one per taken table, for TableOccupancy
+    public static String QUERY_OPEN_TURNS =
+            "SELECT Turn_DT_id, Turn_seated, Turn_ordered, Turn_paid " +
+                    "FROM Table_Turn WHERE Turn_bussed IS NULL";
+
+    // Minutes from seating to bussing of every turn that ended, by table type, for TableOccupancy
+    public static String QUERY_TURN_HISTORY =
+            "SELECT d.DT_table_type, (julianday(t.Turn_bussed) - julianday(t.Turn_seated)) * 1440 " +
+                    "FROM Table_Turn t " +
+                    "JOIN Dining_table d ON d.DT_id = t.Turn_DT_id " +
+                    "WHERE t.Turn_bussed IS NOT NULL";
+
+    // Seat a table, ignored while it has a turn open
+    public static String INSERT_TURN_SEATED =
+            "INSERT OR IGNORE INTO Table_Turn(Turn_DT_id, Turn_seated) VALUES(?, ?)";
+
+    // First order of a seated table: ordered, DT_id
+    public static String UPDATE_TURN_ORDERED =
+            "UPDATE Table_Turn SET Turn_ordered = ? " +
+                    "WHERE Turn_DT_id = ? AND Turn_bussed IS NULL AND Turn_ordered IS NULL AND Turn_paid IS NULL";
+
+    // Paid: paid, DT_id
+    public static String UPDATE_TURN_PAID =
+            "UPDATE Table_Turn SET Turn_paid = ? WHERE Turn_DT_id = ? AND Turn_bussed IS NULL AND Turn_paid IS NULL";
+
+    // Bussed, the table is free again: bussed, DT_id
+    public static String UPDATE_TURN_BUSSED =
+            "UPDATE Table_Turn SET Turn_bussed = ? WHERE Turn_DT_id = ? AND Turn_bussed IS NULL";
+
     // Get order total
     public static String QUERY_ORDER_TOTAL =
             "SELECT SUM(Orditem_Quantity * Orditem_price) AS Total " +
                     "FROM Order_Item WHERE Orditem_Order_id = ?";
-}
 
+    // Indexes added in schema version 2, one per join/filter used by the queries above
+    public static String INDEX_ORDERS_STATUS =
+            "CREATE INDEX IF NOT EXISTS idx_orders_status " +
+                    "ON Orders(Order_status, Order_Emp_id, Order_DT_id)";
+
+    public static String INDEX_ORDERS_CUSTOMER =
+            "CREATE INDEX IF NOT EXISTS idx_orders_cust ON Orders(Order_Cust_id)";
 
+    public static String INDEX_ORDERS_TABLE =
+            "CREATE INDEX IF NOT EXISTS idx_orders_table ON Orders(Order_DT_id, Order_status)";
 
+    // covers the item columns read by order history, active orders and order totals
+    public static String INDEX_ORDER_ITEM_ORDER =
+            "CREATE INDEX IF NOT EXISTS idx_orditem_order " +
+                    "ON Order_Item(Orditem_Order_id, Orditem_Menu_dishID, Orditem_Quantity, " +
+                    "Orditem_price, Orditem_time_ordered)";
 
+    // covers the sales totals in top selling
+    public static String INDEX_ORDER_ITEM_DISH =
+            "CREATE INDEX IF NOT EXISTS idx_orditem_dish " +
+                    "ON Order_Item(Orditem_Menu_dishID, Orditem_Quantity, Orditem_price)";
 
+    public static String INDEX_RESERVATION_STATUS =
+            "CREATE INDEX IF NOT EXISTS idx_res_status_date " +
+                    "ON Reservation(Res_status, Res_date, Res_start_item)";
 
+    public static String INDEX_RESERVATION_CUSTOMER =
+            "CREATE INDEX IF NOT EXISTS idx_res_cust ON Reservation(Res_Cust_id, Res_date)";
+
+    public static String INDEX_INVENTORY_DISH =
+            "CREATE INDEX IF NOT EXISTS idx_inv_dish ON Inventory(Inv_Menu_dishID)";
+
+    public static String INDEX_PAYMENTS_ORDER =
+            "CREATE INDEX IF NOT EXISTS idx_pay_order ON Payments(Pay_Order_id)";
+
+    public static String INDEX_MENU_AVAILABLE =
+            "CREATE INDEX IF NOT EXISTS idx_menu_available " +
+                    "ON Menu(Menu_available, Menu_cat, Menu_name)";
+
+    public static String INDEX_TABLE_PARTY_SIZE =
+            "CREATE INDEX IF NOT EXISTS idx_table_party ON Dining_table(DT_party_size)";
+
+    // Index added in schema version 3, keyset pages of the reservation list
+    public static String INDEX_RESERVATION_DATE =
+            "CREATE INDEX IF NOT EXISTS idx_res_date ON Reservation(Res_date, Res_id)";
+
+    // Index added in schema version 8, reservations of a table around a time when booking
+    public static String INDEX_RESERVATION_TABLE =
+            "CREATE INDEX IF NOT EXISTS idx_res_table ON Reservation(Res_DT_id, Res_date, Res_start_item)";
+}
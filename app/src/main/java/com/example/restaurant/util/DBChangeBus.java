@@ -0,0 +1,132 @@
+package com.example.restaurant.util;
+
+import android.os.Handler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tells screens which tables were written, so they refresh only when their data changed.
+ * DBOperator publishes the table of every write once it is committed. Changes arriving
+ * within DEBOUNCE_MS of each other are delivered together, on the thread of the handler.
+ */
+public class DBChangeBus
+{
+    public static final String ORDERS = "Orders";
+    public static final String ORDER_ITEM = "Order_Item";
+    public static final String RESERVATION = "Reservation";
+    public static final String INVENTORY = "Inventory";
+    public static final String EMPLOYEE = "Employee";
+    public static final String MENU = "Menu";
+    public static final String PAYMENTS = "Payments";
+    public static final String WAITLIST = "Waitlist";
+    public static final String TABLE_TURN = "Table_Turn";
+
+    //window in which a burst of writes is coalesced into one event
+    static final long DEBOUNCE_MS = 50;
+
+    private static final Pattern WRITE_TARGET = Pattern.compile(
+            "^\\s*(?:INSERT(?:\\s+OR\\s+\\w+)?\\s+INTO|REPLACE\\s+INTO|UPDATE(?:\\s+OR\\s+\\w+)?|DELETE\\s+FROM)"
+                    + "\\s+[\"`\\[]?(\\w+)",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Receives the tables changed since the last event, on the thread of the bus handler
+     */
+    public interface Listener
+    {
+        void onTablesChanged(Set<String> tables);
+    }
+
+    private final Handler handler;
+    private final Map<Listener, Set<String>> listeners = new LinkedHashMap<>();
+    private final Set<String> pending = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    private boolean flushScheduled = false;
+    private final Runnable flush = this::flush;
+
+    public DBChangeBus(Handler handler)
+    {
+        this.handler = handler;
+    }
+
+    /**
+     * get notified when any of the given tables changes
+     * subscribing again replaces the tables of the listener
+     * @param listener
+     * @param tables table names, case does not matter
+     */
+    public synchronized void subscribe(Listener listener, String... tables)
+    {
+        Set<String> watched = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        watched.addAll(Arrays.asList(tables));
+        listeners.put(listener, watched);
+    }
+
+    public synchronized void unsubscribe(Listener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    /**
+     * record changed tables, listeners are called once the debounce window has passed
+     * @param tables
+     */
+    public void publish(Collection<String> tables)
+    {
+        if (tables.isEmpty()) return;
+        synchronized (this) {
+            pending.addAll(tables);
+            if (flushScheduled) return;
+            flushScheduled = true;
+        }
+        handler.postDelayed(flush, DEBOUNCE_MS);
+    }
+
+    /*
+     * deliver everything collected so far to the listeners watching those tables
+     */
+    void flush()
+    {
+        Set<String> changed;
+        List<Map.Entry<Listener, Set<String>>> targets;
+        synchronized (this) {
+            flushScheduled = false;
+            if (pending.isEmpty()) return;
+            changed = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+            changed.addAll(pending);
+            pending.clear();
+            targets = new ArrayList<>(listeners.entrySet());
+        }
+        changed = Collections.unmodifiableSet(changed);
+        for (Map.Entry<Listener, Set<String>> target : targets) {
+            if (!Collections.disjoint(target.getValue(), changed) && isSubscribed(target.getKey())) {
+                target.getKey().onTablesChanged(changed);
+            }
+        }
+    }
+
+    private synchronized boolean isSubscribed(Listener listener)
+    {
+        return listeners.containsKey(listener);
+    }
+
+    /**
+     * table written by an INSERT, REPLACE, UPDATE or DELETE statement
+     * @param sql
+     * @return table name, null for any other statement
+     */
+    public static String tableWrittenBy(String sql)
+    {
+        Matcher matcher = WRITE_TARGET.matcher(sql);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+}
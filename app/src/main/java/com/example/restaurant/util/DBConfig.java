@@ -0,0 +1,143 @@
+package com.example.restaurant.util;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * How DBOperator opens and tunes its connections: journal mode, read-only connections
+ * next to the writer, page cache, memory mapping, fsync policy, temp storage and how
+ * often the write-ahead log is checkpointed.
+ * A value of 0 leaves the SQLite default.
+ */
+public final class DBConfig
+{
+    /**
+     * PRAGMA synchronous, NORMAL is durable in WAL mode except for the last commits on power loss
+     */
+    public enum Synchronous
+    {
+        DEFAULT, OFF, NORMAL, FULL
+    }
+
+    /**
+     * PRAGMA temp_store, where sorts and temporary b-trees live
+     */
+    public enum TempStore
+    {
+        DEFAULT, FILE, MEMORY
+    }
+
+    /**
+     * the way the app database was always opened: rollback journal, SQLite defaults
+     */
+    public static final DBConfig ROLLBACK_JOURNAL =
+            new DBConfig(false, 0, 0, 0, Synchronous.DEFAULT, TempStore.DEFAULT, 0);
+
+    /**
+     * write-ahead logging, so readers do not block the writer and the other way round,
+     * three read-only connections: one per reader lane thread and one for the rest,
+     * with a 4 MB page cache, 16 MB of the file memory mapped and a checkpoint every minute
+     */
+    public static final DBConfig WAL =
+            new DBConfig(true, 3, 4 * 1024, 16L * 1024 * 1024, Synchronous.NORMAL, TempStore.MEMORY, 60 * 1000);
+
+    public final boolean writeAheadLogging;
+    //read-only connections for queries, WAL only, see ReaderPool
+    public final int readConnections;
+    //PRAGMA cache_size in KB
+    public final int cacheSizeKb;
+    //PRAGMA mmap_size in bytes
+    public final long mmapSizeBytes;
+    public final Synchronous synchronous;
+    public final TempStore tempStore;
+    //time between passive checkpoints of the log, WAL only
+    public final long checkpointIntervalMs;
+
+    public DBConfig(boolean writeAheadLogging, int readConnections, int cacheSizeKb, long mmapSizeBytes,
+                    Synchronous synchronous, TempStore tempStore, long checkpointIntervalMs)
+    {
+        this.writeAheadLogging = writeAheadLogging;
+        //without the log a reader would wait for every write, or fail with SQLITE_BUSY
+        this.readConnections = writeAheadLogging ? readConnections : 0;
+        this.cacheSizeKb = cacheSizeKb;
+        this.mmapSizeBytes = mmapSizeBytes;
+        this.synchronous = synchronous;
+        this.tempStore = tempStore;
+        this.checkpointIntervalMs = checkpointIntervalMs;
+    }
+
+    /**
+     * flags for SQLiteDatabase.openDatabase of the writer
+     * @return
+     */
+    int openFlags()
+    {
+        int flags = SQLiteDatabase.OPEN_READWRITE;
+        if (writeAheadLogging) flags |= SQLiteDatabase.ENABLE_WRITE_AHEAD_LOGGING;
+        return flags;
+    }
+
+    /**
+     * set the pragmas on the primary connection, the one every write goes through
+     * @param db
+     */
+    void apply(SQLiteDatabase db)
+    {
+        //a statement is pinned to the primary connection only inside a transaction,
+        //except synchronous, which cannot be changed inside one
+        if (synchronous != Synchronous.DEFAULT) {
+            db.execSQL("PRAGMA synchronous = " + synchronous.name());
+        }
+        if (cacheSizeKb == 0 && mmapSizeBytes == 0 && tempStore == TempStore.DEFAULT) return;
+        db.beginTransactionNonExclusive();
+        try {
+            applyToReader(db);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * set the pragmas on a read-only connection, it has a single connection so no
+     * transaction is needed, and fsync does not matter to it
+     * @param db
+     */
+    void applyToReader(SQLiteDatabase db)
+    {
+        //negative sizes are in KB rather than pages
+        if (cacheSizeKb != 0) pragma(db, "PRAGMA cache_size = -" + cacheSizeKb);
+        if (mmapSizeBytes != 0) pragma(db, "PRAGMA mmap_size = " + mmapSizeBytes);
+        if (tempStore != TempStore.DEFAULT) pragma(db, "PRAGMA temp_store = " + tempStore.name());
+    }
+
+    /**
+     * copy the log into the database file without waiting for readers, see checkpointIntervalMs
+     * @param db
+     * @return pages still in the log that could not be copied yet, -1 if the log is busy
+     */
+    static int checkpoint(SQLiteDatabase db)
+    {
+        //busy, log pages, pages checkpointed
+        Cursor cursor = db.rawQuery("PRAGMA wal_checkpoint(PASSIVE)", null);
+        try {
+            if (!cursor.moveToFirst() || cursor.getInt(0) != 0) return -1;
+            return cursor.getInt(1) - cursor.getInt(2);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /*
+     * pragmas that set a value may return it as a row, so they are run as queries
+     */
+    private static void pragma(SQLiteDatabase db, String sql)
+    {
+        Cursor cursor = db.rawQuery(sql, null);
+        try {
+            cursor.moveToFirst();
+        } finally {
+            cursor.close();
+        }
+    }
+}
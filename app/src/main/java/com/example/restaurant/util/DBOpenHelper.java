@@ -4,11 +4,52 @@ import android.content.Context;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
 
+import com.example.restaurant.constant.DBConstant;
+import com.example.restaurant.constant.SQLCommand;
+
 /**
  * Class used to open database file
+ * Also holds the schema migrations applied on top of the shipped asset database
  */
 public class DBOpenHelper extends SQLiteOpenHelper {
 
+    //the asset database ships with user_version 0, which is treated as version 1
+    private static final int ASSET_VERSION = 1;
+
+    //MIGRATIONS[i] upgrades the schema from version i + 1 to i + 2
+    private static final String[][] MIGRATIONS = {
+            //version 2: secondary indexes
+            {
+                    SQLCommand.INDEX_ORDERS_STATUS,
+                    SQLCommand.INDEX_ORDERS_CUSTOMER,
+                    SQLCommand.INDEX_ORDERS_TABLE,
+                    SQLCommand.INDEX_ORDER_ITEM_ORDER,
+                    SQLCommand.INDEX_ORDER_ITEM_DISH,
+                    SQLCommand.INDEX_RESERVATION_STATUS,
+                    SQLCommand.INDEX_RESERVATION_CUSTOMER,
+                    SQLCommand.INDEX_INVENTORY_DISH,
+                    SQLCommand.INDEX_PAYMENTS_ORDER,
+                    SQLCommand.INDEX_MENU_AVAILABLE,
+                    SQLCommand.INDEX_TABLE_PARTY_SIZE
+            },
+            //version 3: keyset paging of reservations
+            {
+                    SQLCommand.INDEX_RESERVATION_DATE
+            },
+            //version 4: dashboard counters kept by triggers
+            DashboardStats.SCHEMA,
+            //version 5: sales rollups kept by triggers, filled from the existing rows
+            SalesRollups.SCHEMA,
+            //version 6: waitlist of the host stand
+            Waitlist.SCHEMA,
+            //version 7: table turns, filled from the paid and open orders
+            TableOccupancy.SCHEMA,
+            //version 8: overlap check when booking a reservation
+            {
+                    SQLCommand.INDEX_RESERVATION_TABLE
+            },
+    };
+
     public DBOpenHelper(Context context, String path, int version){
         super(context, path, null, version);
     }
@@ -17,8 +58,41 @@ public class DBOpenHelper extends SQLiteOpenHelper {
     }
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        applyMigrations(db, Math.max(oldVersion, ASSET_VERSION), newVersion);
     }
 
-}
+    /**
+     * bring an opened database up to DBConstant.DATABASE_VERSION
+     * DBOperator opens the file directly, so onUpgrade never runs for it
+     * @param db database opened read-write
+     */
+    public static void migrate(SQLiteDatabase db)
+    {
+        int version = Math.max(db.getVersion(), ASSET_VERSION);
+        if (version >= DBConstant.DATABASE_VERSION) return;
+        db.beginTransaction();
+        try {
+            applyMigrations(db, version, DBConstant.DATABASE_VERSION);
+            db.setVersion(DBConstant.DATABASE_VERSION);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
 
+    /*
+     * run every migration after oldVersion up to and including newVersion
+     */
+    private static void applyMigrations(SQLiteDatabase db, int oldVersion, int newVersion)
+    {
+        if (newVersion - 1 > MIGRATIONS.length) {
+            throw new IllegalStateException("No migration to database version " + newVersion);
+        }
+        for (int version = oldVersion + 1; version <= newVersion; version++) {
+            for (String sql : MIGRATIONS[version - 2]) {
+                db.execSQL(sql);
+            }
+        }
+    }
 
+}
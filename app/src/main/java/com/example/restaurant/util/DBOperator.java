@@ -2,17 +2,33 @@ package com.example.restaurant.util;
 
 import android.content.Context;
 import android.database.Cursor;
+import android.database.MatrixCursor;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
 
 import com.example.restaurant.constant.DBConstant;
+import com.example.restaurant.constant.SQLCommand;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Class to manipulate tables & data
@@ -20,23 +36,118 @@ import java.io.OutputStream;
  */
 public class DBOperator
 {
-    private static DBOperator instance = null;
+    private static final String TAG = "DBOperator";
+    //number of threads running queries in the background
+    private static final int READER_THREADS = 2;
+    //max number of tasks waiting in each lane
+    private static final int LANE_CAPACITY = 32;
+    //max number of compiled statements kept around
+    private static final int STATEMENT_CACHE_SIZE = 32;
+
+    //volatile: a thread seeing the reference also sees the opened operator
+    private static volatile DBOperator instance = null;
     private SQLiteDatabase db;
+    private final DBConfig config;
+    //read-only connections for queries, null without WAL
+    private final ReaderPool readers;
+    private StatementCache statements;
+    //queries run on the reader lane, writes on a single writer thread
+    private final ThreadPoolExecutor readerLane = newLane("db-reader", READER_THREADS);
+    private final ThreadPoolExecutor writerLane = newLane("db-writer", 1);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    //tables written by this operator, published after commit
+    private final DBChangeBus changes = new DBChangeBus(mainHandler);
+    //tables written inside the running transaction of the current thread
+    private final ThreadLocal<Set<String>> transactionWrites = new ThreadLocal<>();
+    //passive checkpoint of the write-ahead log, on the writer lane, see DBConfig
+    private final Runnable checkpointer = this::scheduleCheckpoint;
+
+    /**
+     * Turns the rows of a cursor into a result, runs on a database thread.
+     * The cursor is closed by DBOperator afterwards.
+     */
+    public interface CursorReader<T>
+    {
+        T read(Cursor cursor);
+    }
+
+    /**
+     * Receives the result of an async call on the main thread
+     */
+    public interface Callback<T>
+    {
+        void onResult(T result);
+
+        default void onError(Exception e)
+        {
+            Log.e(TAG, "Async database call failed", e);
+        }
+    }
+
+    /**
+     * Work done inside a transaction, see runInTransaction
+     */
+    public interface Transaction
+    {
+        void run(DBOperator op);
+    }
+
+    /**
+     * Work run on one of the lanes, see callAsync and readAsync
+     */
+    public interface Work<T>
+    {
+        T run();
+    }
 
     private DBOperator()
     {
         //path of database file
-        String path = DBConstant.DATABASE_PATH + "/" + DBConstant.DATABASE_FILE;
-        db = SQLiteDatabase.openDatabase(path, null, SQLiteDatabase.OPEN_READWRITE);
+        this(DBConstant.DATABASE_PATH + "/" + DBConstant.DATABASE_FILE);
+    }
+    /*
+     * open a database file other than the app database, used by tests
+     */
+    DBOperator(String path)
+    {
+        this(path, DBConfig.WAL);
+    }
+    /*
+     * open a database file with a given journal mode and tuning, used by tests and benchmarks
+     */
+    DBOperator(String path, DBConfig config)
+    {
+        this.config = config;
+        db = SQLiteDatabase.openDatabase(path, null, config.openFlags());
+        config.apply(db);
+        DBOpenHelper.migrate(db);
+        statements = new StatementCache(db, STATEMENT_CACHE_SIZE);
+        //readers are opened once the schema is up to date
+        readers = config.readConnections > 0 ? new ReaderPool(path, config) : null;
+        if (config.writeAheadLogging && config.checkpointIntervalMs > 0) {
+            mainHandler.postDelayed(checkpointer, config.checkpointIntervalMs);
+        }
     }
     /*
      * Singleton Pattern
      * Why should we avoid multiple instances here?
+     * Two connections writing the same file would wait on each other's locks, so the
+     * instance is created once even when threads ask for it at the same time.
+     * Double-checked rather than a holder class, so a failed open can be retried.
      */
     public static DBOperator getInstance()
     {
-        if (instance==null) instance = new DBOperator();
-        return instance;
+        DBOperator result = instance;
+        if (result == null) {
+            synchronized (DBOperator.class) {
+                result = instance;
+                if (result == null) {
+                    result = new DBOperator();
+                    instance = result;
+                }
+            }
+        }
+        return result;
     }
     /**
      * Copy database file
@@ -68,19 +179,153 @@ public class DBOperator
     public void execSQL(String sql)
     {
         db.execSQL(sql);
+        wrote(sql);
     }
     /**
      * execute sql such as update/delete/insert
+     * the compiled statement is cached and reused
      * @param sql
      * @param args
      * @throws SQLException
      */
     public void execSQL(String sql, Object[] args)
     {
-        db.execSQL(sql, args);
+        statements.execute(sql, args);
+        wrote(sql);
+    }
+    /**
+     * execute insert sql with a cached statement
+     * @param sql
+     * @param args
+     * @return row id of the inserted row, -1 on failure
+     * @throws SQLException
+     */
+    public long executeInsert(String sql, Object[] args)
+    {
+        long rowId = statements.executeInsert(sql, args);
+        if (rowId != -1) wrote(sql);
+        return rowId;
+    }
+    /**
+     * execute update/delete sql with a cached statement
+     * @param sql
+     * @param args
+     * @return number of rows affected
+     * @throws SQLException
+     */
+    public int executeUpdateDelete(String sql, Object[] args)
+    {
+        int rows = statements.executeUpdateDelete(sql, args);
+        if (rows > 0) wrote(sql);
+        return rows;
+    }
+    /**
+     * run several statements as one transaction
+     * everything is rolled back if the body throws
+     * the transaction begins IMMEDIATE, taking the write lock before the body runs,
+     * so what the body reads cannot be changed by another writer before it commits
+     * @param body
+     */
+    public void runInTransaction(Transaction body)
+    {
+        //nested calls report their writes with the outermost transaction
+        boolean outermost = transactionWrites.get() == null;
+        Set<String> written = outermost ? new HashSet<>() : transactionWrites.get();
+        boolean committed = false;
+        if (outermost) transactionWrites.set(written);
+        db.beginTransactionNonExclusive();
+        try {
+            body.run(this);
+            db.setTransactionSuccessful();
+            committed = true;
+        } finally {
+            db.endTransaction();
+            if (outermost) {
+                transactionWrites.remove();
+                if (committed) changes.publish(written);
+            }
+        }
+    }
+    /**
+     * insert an order header and all of its items in one transaction
+     * @param order arguments of SQLCommand.INSERT_ORDER
+     * @param items arguments of SQLCommand.INSERT_ORDER_ITEM, one array per item
+     * @throws SQLException nothing is inserted in that case
+     */
+    public void insertOrder(Object[] order, List<Object[]> items)
+    {
+        runInTransaction(op -> {
+            op.executeInsert(SQLCommand.INSERT_ORDER, order);
+            for (Object[] item : items) {
+                op.executeInsert(SQLCommand.INSERT_ORDER_ITEM, item);
+            }
+        });
+    }
+    /**
+     * cache of compiled statements, exposes hit/miss counters
+     * @return
+     */
+    public StatementCache getStatementCache()
+    {
+        return statements;
+    }
+    public DBConfig getConfig()
+    {
+        return config;
+    }
+    /**
+     * copy the write-ahead log into the database file, without blocking readers or writers
+     * SQLite does it as well once the log reaches 1000 pages, this keeps it short in between
+     * @return pages left in the log, -1 if it was busy or the database is not in WAL mode
+     */
+    public int checkpoint()
+    {
+        return config.writeAheadLogging ? DBConfig.checkpoint(db) : -1;
+    }
+    /*
+     * checkpoint after the writes queued so far, then wait for the next interval
+     */
+    private void scheduleCheckpoint()
+    {
+        callAsync(this::checkpoint, new Callback<Integer>() {
+            @Override
+            public void onResult(Integer pagesLeft) {
+                if (pagesLeft != 0) Log.d(TAG, "Checkpoint left " + pagesLeft + " pages in the log");
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.w(TAG, "Checkpoint failed", e);
+            }
+        });
+        mainHandler.postDelayed(checkpointer, config.checkpointIntervalMs);
+    }
+    /**
+     * bus telling which tables were written, events arrive on the main thread
+     * @return
+     */
+    public DBChangeBus getChangeBus()
+    {
+        return changes;
+    }
+    /*
+     * publish the table written by sql, or hold it until the running transaction commits
+     */
+    private void wrote(String sql)
+    {
+        String table = DBChangeBus.tableWrittenBy(sql);
+        if (table == null) return;
+        Set<String> written = transactionWrites.get();
+        if (written != null) {
+            written.add(table);
+        } else {
+            changes.publish(Collections.singleton(table));
+        }
     }
     /**
      * execute sql query
+     * a SELECT outside a transaction runs on a read-only connection, anything else
+     * on the writer, so a transaction reads its own writes
      * @param sql
      * @param selectionArgs
      * @return cursor
@@ -88,7 +333,15 @@ public class DBOperator
      */
     public Cursor execQuery(String sql,String[] selectionArgs)
     {
-        return db.rawQuery(sql, selectionArgs);
+        return connectionFor(sql).rawQuery(sql, selectionArgs);
+    }
+    /*
+     * connection a statement should run on
+     */
+    private SQLiteDatabase connectionFor(String sql)
+    {
+        if (readers == null || db.inTransaction() || !ReaderPool.isQuery(sql)) return db;
+        return readers.get();
     }
     /**
      * execute query without arguments
@@ -100,11 +353,159 @@ public class DBOperator
     {
         return this.execQuery(sql, null);
     }
+    /**
+     * execute a query on the reader lane
+     * the reader runs in the background, the callback on the main thread
+     * @param sql
+     * @param selectionArgs
+     * @param reader
+     * @param callback
+     * @return task that can be cancelled
+     */
+    public <T> DBTask queryAsync(String sql, String[] selectionArgs,
+                                 CursorReader<T> reader, Callback<T> callback)
+    {
+        return submit(readerLane, () -> {
+            Cursor cursor = execQuery(sql, selectionArgs);
+            try {
+                return reader.read(cursor);
+            } finally {
+                if (cursor != null) cursor.close();
+            }
+        }, callback);
+    }
+    /**
+     * run work that only reads, such as several queries of one report, on the reader lane
+     * @param work
+     * @param callback receives what the work returned
+     * @return task that can be cancelled
+     */
+    public <T> DBTask readAsync(Work<T> work, Callback<T> callback)
+    {
+        return submit(readerLane, work, callback);
+    }
+    /**
+     * execute sql such as update/delete/insert on the writer lane
+     * @param sql
+     * @param args
+     * @param callback receives the number of rows affected
+     * @return task that can be cancelled
+     */
+    public DBTask execAsync(String sql, Object[] args, Callback<Integer> callback)
+    {
+        return submit(writerLane, () -> executeUpdateDelete(sql, args), callback);
+    }
+
+    /**
+     * insert an order and its items on the writer lane, see insertOrder
+     * @param order
+     * @param items
+     * @param callback
+     * @return task that can be cancelled
+     */
+    public DBTask insertOrderAsync(Object[] order, List<Object[]> items, Callback<Void> callback)
+    {
+        return submit(writerLane, () -> {
+            insertOrder(order, items);
+            return null;
+        }, callback);
+    }
+    /**
+     * run work that reads and writes on the writer lane, after the writes queued before it
+     * @param work
+     * @param callback receives what the work returned
+     * @return task that can be cancelled
+     */
+    public <T> DBTask callAsync(Work<T> work, Callback<T> callback)
+    {
+        return submit(writerLane, work, callback);
+    }
+    /**
+     * copy all rows of a cursor into memory
+     * used as a CursorReader when the rows are shown by a cursor based view
+     * @param cursor
+     * @return in-memory cursor, to be closed by the caller
+     */
+    public static Cursor copyOf(Cursor cursor)
+    {
+        String[] columns = cursor.getColumnNames();
+        MatrixCursor copy = new MatrixCursor(columns, cursor.getCount());
+        Object[] row = new Object[columns.length];
+        while (cursor.moveToNext()) {
+            for (int i = 0; i < columns.length; i++) {
+                row[i] = cursor.getString(i);
+            }
+            copy.addRow(row);
+        }
+        return copy;
+    }
+
+
+    private <T> DBTask submit(ThreadPoolExecutor lane, Work<T> work, Callback<T> callback)
+    {
+        DBTask task = new DBTask();
+        try {
+            task.setFuture(lane.submit(() -> {
+                if (task.isCancelled()) return;
+                try {
+                    T result = work.run();
+                    deliver(task, () -> callback.onResult(result), result);
+                } catch (Exception e) {
+                    deliver(task, () -> callback.onError(e), null);
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            deliver(task, () -> callback.onError(e), null);
+        }
+        return task;
+    }
+
+    /*
+     * hand a result to the main thread, unless the task was cancelled meanwhile
+     */
+    private void deliver(DBTask task, Runnable action, Object result)
+    {
+        mainHandler.post(() -> {
+            if (task.isCancelled()) {
+                closeQuietly(result);
+                return;
+            }
+            task.markDone();
+            action.run();
+        });
+    }
+
+    private static void closeQuietly(Object result)
+    {
+        try {
+            if (result instanceof Cursor) ((Cursor) result).close();
+            else if (result instanceof Closeable) ((Closeable) result).close();
+        } catch (IOException e) {
+            Log.w(TAG, "Could not close stale result", e);
+        }
+    }
+
+    private static ThreadPoolExecutor newLane(String name, int threads)
+    {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(LANE_CAPACITY), factory);
+    }
     /**
      * close database
      */
     public void closeDB()
     {
+        mainHandler.removeCallbacks(checkpointer);
+        readerLane.shutdown();
+        writerLane.shutdown();
+        if (statements!=null) statements.clear();
+        if (readers!=null) readers.close();
         if (db!=null) db.close();
     }
 }
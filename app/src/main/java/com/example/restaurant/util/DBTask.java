@@ -0,0 +1,46 @@
+package com.example.restaurant.util;
+
+import java.util.concurrent.Future;
+
+/**
+ * Handle for a query or write submitted to one of the DBOperator lanes.
+ * Once cancelled, the result is never delivered to the main thread.
+ */
+public class DBTask
+{
+    private volatile boolean cancelled = false;
+    private volatile boolean done = false;
+    private Future<?> future;
+
+    void setFuture(Future<?> future)
+    {
+        this.future = future;
+    }
+
+    void markDone()
+    {
+        done = true;
+    }
+
+    /**
+     * cancel the task; a task already running is allowed to finish
+     * but its callback is dropped
+     */
+    public void cancel()
+    {
+        cancelled = true;
+        done = true;
+        Future<?> f = future;
+        if (f != null) f.cancel(false);
+    }
+
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+
+    public boolean isDone()
+    {
+        return done;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.restaurant.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Keeps track of the DBTasks started by one screen,
+ * so they can all be cancelled when the Activity is destroyed
+ */
+public class DBTaskGroup
+{
+    private final List<DBTask> tasks = new ArrayList<>();
+
+    /**
+     * remember a task and drop the ones that already finished
+     * @param task
+     * @return the same task
+     */
+    public synchronized DBTask add(DBTask task)
+    {
+        Iterator<DBTask> it = tasks.iterator();
+        while (it.hasNext()) {
+            if (it.next().isDone()) it.remove();
+        }
+        tasks.add(task);
+        return task;
+    }
+
+    /**
+     * cancel every pending task of the group
+     */
+    public synchronized void cancelAll()
+    {
+        for (DBTask task : tasks) {
+            task.cancel();
+        }
+        tasks.clear();
+    }
+}
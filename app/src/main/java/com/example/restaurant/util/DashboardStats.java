@@ -0,0 +1,267 @@
+package com.example.restaurant.util;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dashboard counters kept in the Dashboard_Stats table.
+ * SQLite triggers on Orders, Reservation, Employee and Dining_table add the change of
+ * every written row to the counters (minus the old row, plus the new one), so a tile
+ * reads one row by primary key instead of aggregating the whole history.
+ * Counts of distinct tables are kept with one counter per table, a table is counted
+ * when its counter goes from 0 to 1 and dropped when it goes back to 0.
+ * verify compares the counters with the aggregates over the base tables and rebuild
+ * computes them again from scratch.
+ */
+public final class DashboardStats
+{
+    private static final String TAG = "DashboardStats";
+
+    //scope of the restaurant wide counters, the others are scoped by DT_id or Emp_id
+    public static final String GLOBAL = "*";
+
+    //global: SUM(Order_Total) and COUNT(*) of orders not cancelled
+    public static final String SALES_TOTAL = "sales_total";
+    public static final String ORDER_COUNT = "order_count";
+    //global
+    public static final String EMPLOYEE_COUNT = "employee_count";
+    public static final String TABLE_COUNT = "table_count";
+    public static final String CONFIRMED_RESERVATIONS = "confirmed_reservations";
+    //global: tables with an active order, per table: its active orders
+    public static final String BUSY_TABLES = "busy_tables";
+    public static final String ACTIVE_ORDERS = "active_orders";
+    //per server: open orders, tables with an open order, orders waiting for the kitchen
+    //per server and table (Emp_id/DT_id): open orders
+    public static final String OPEN_ORDERS = "open_orders";
+    public static final String OPEN_TABLES = "open_tables";
+    public static final String PENDING_ORDERS = "pending_orders";
+
+    //order statuses behind the counters, same as the dashboards used to query
+    private static final String NOT_CANCELLED = "<> 'Cancelled'";
+    private static final String ACTIVE = "IN ('Open', 'Placed', 'Preparing')";
+    private static final String OPEN = "IN ('Open', 'Placed', 'Preparing', 'Ready')";
+    private static final String PENDING = "IN ('Placed', 'Preparing')";
+
+    public static final String CREATE_TABLE =
+            "CREATE TABLE IF NOT EXISTS Dashboard_Stats (" +
+                    "Stat_scope TEXT NOT NULL, " +
+                    "Stat_name TEXT NOT NULL, " +
+                    "Stat_value REAL NOT NULL DEFAULT 0, " +
+                    "PRIMARY KEY (Stat_scope, Stat_name)) WITHOUT ROWID";
+
+    //every counter computed from the base tables
+    private static final String EXPECTED =
+            "SELECT '*', 'sales_total', IFNULL(SUM(Order_Total), 0) FROM Orders WHERE Order_status " + NOT_CANCELLED +
+                    " UNION ALL SELECT '*', 'order_count', COUNT(*) FROM Orders WHERE Order_status " + NOT_CANCELLED +
+                    " UNION ALL SELECT '*', 'employee_count', COUNT(*) FROM Employee" +
+                    " UNION ALL SELECT '*', 'table_count', COUNT(*) FROM Dining_table" +
+                    " UNION ALL SELECT '*', 'confirmed_reservations', COUNT(*) FROM Reservation WHERE Res_status = 'Confirmed'" +
+                    " UNION ALL SELECT '*', 'busy_tables', COUNT(DISTINCT Order_DT_id) FROM Orders WHERE Order_status " + ACTIVE +
+                    " UNION ALL SELECT Order_DT_id, 'active_orders', COUNT(*) FROM Orders WHERE Order_status " + ACTIVE +
+                    " GROUP BY Order_DT_id" +
+                    " UNION ALL SELECT Order_Emp_id, 'open_orders', COUNT(*) FROM Orders WHERE Order_status " + OPEN +
+                    " GROUP BY Order_Emp_id" +
+                    " UNION ALL SELECT Order_Emp_id, 'open_tables', COUNT(DISTINCT Order_DT_id) FROM Orders" +
+                    " WHERE Order_status " + OPEN + " GROUP BY Order_Emp_id" +
+                    " UNION ALL SELECT Order_Emp_id, 'pending_orders', COUNT(*) FROM Orders WHERE Order_status " + PENDING +
+                    " GROUP BY Order_Emp_id" +
+                    " UNION ALL SELECT Order_Emp_id || '/' || Order_DT_id, 'open_orders', COUNT(*) FROM Orders" +
+                    " WHERE Order_status " + OPEN + " GROUP BY Order_Emp_id, Order_DT_id";
+
+    public static final String REBUILD = "INSERT OR REPLACE INTO Dashboard_Stats " + EXPECTED;
+
+    /**
+     * table, triggers and first fill, run by the schema version 4 migration
+     */
+    public static final String[] SCHEMA = {
+            CREATE_TABLE,
+            trigger("trg_stats_orders_ins", "INSERT ON Orders", orders("NEW", 1)),
+            trigger("trg_stats_orders_del", "DELETE ON Orders", orders("OLD", -1)),
+            trigger("trg_stats_orders_upd",
+                    "UPDATE OF Order_status, Order_Total, Order_DT_id, Order_Emp_id ON Orders",
+                    orders("OLD", -1) + orders("NEW", 1)),
+            trigger("trg_stats_res_ins", "INSERT ON Reservation", reservation("NEW", 1)),
+            trigger("trg_stats_res_del", "DELETE ON Reservation", reservation("OLD", -1)),
+            trigger("trg_stats_res_upd", "UPDATE OF Res_status ON Reservation",
+                    reservation("OLD", -1) + reservation("NEW", 1)),
+            trigger("trg_stats_emp_ins", "INSERT ON Employee", add(global(EMPLOYEE_COUNT), "1", null)),
+            trigger("trg_stats_emp_del", "DELETE ON Employee", add(global(EMPLOYEE_COUNT), "-1", null)),
+            trigger("trg_stats_table_ins", "INSERT ON Dining_table", add(global(TABLE_COUNT), "1", null)),
+            trigger("trg_stats_table_del", "DELETE ON Dining_table", add(global(TABLE_COUNT), "-1", null)),
+            REBUILD
+    };
+
+    private DashboardStats()
+    {
+    }
+
+    /**
+     * counters of one scope, as read with SQLCommand.QUERY_DASHBOARD_STATS
+     * @param cursor
+     * @return counter name to value, missing counters are 0, see get
+     */
+    public static Map<String, Double> read(Cursor cursor)
+    {
+        Map<String, Double> stats = new HashMap<>();
+        while (cursor.moveToNext()) {
+            stats.put(cursor.getString(0), cursor.getDouble(1));
+        }
+        return stats;
+    }
+
+    public static double get(Map<String, Double> stats, String name)
+    {
+        Double value = stats.get(name);
+        return value != null ? value : 0;
+    }
+
+    /**
+     * compare the counters with the base tables
+     * both are read by one statement, which sees a single snapshot, so a write landing
+     * meanwhile cannot look like drift. Outside a transaction it runs on a reader
+     * connection and does not take the write lock.
+     * @param op
+     * @return one line per counter that is off, empty when they all match
+     */
+    public static List<String> verify(DBOperator op)
+    {
+        Map<String, Double> expected = new HashMap<>();
+        Map<String, Double> stored = new HashMap<>();
+        Cursor cursor = op.execQuery("SELECT 1, * FROM (" + EXPECTED + ")" +
+                " UNION ALL SELECT 0, Stat_scope, Stat_name, Stat_value FROM Dashboard_Stats");
+        try {
+            while (cursor.moveToNext()) {
+                Map<String, Double> values = cursor.getInt(0) == 1 ? expected : stored;
+                values.put(cursor.getString(1) + "/" + cursor.getString(2), cursor.getDouble(3));
+            }
+        } finally {
+            cursor.close();
+        }
+        Set<String> keys = new HashSet<>(expected.keySet());
+        keys.addAll(stored.keySet());
+        List<String> drift = new ArrayList<>();
+        for (String key : keys) {
+            double want = expected.containsKey(key) ? expected.get(key) : 0;
+            double have = stored.containsKey(key) ? stored.get(key) : 0;
+            //sales are sums of money, allow for rounding of the running total
+            if (Math.abs(want - have) > 0.005) {
+                drift.add(key + ": " + have + " instead of " + want);
+            }
+        }
+        return drift;
+    }
+
+    /**
+     * throw the counters away and compute them again from the base tables
+     * @param op
+     */
+    public static void rebuild(DBOperator op)
+    {
+        op.runInTransaction(tx -> {
+            tx.execSQL("DELETE FROM Dashboard_Stats");
+            tx.execSQL(REBUILD);
+        });
+    }
+
+    /**
+     * verify the counters on the reader lane, and rebuild them on the writer lane only
+     * if they drifted. It aggregates every order, run it from ReportWarmService.
+     * @param op
+     * @param callback receives the counters that were off, empty if none
+     * @return task that can be cancelled, a rebuild once started runs to the end
+     */
+    public static DBTask checkAsync(DBOperator op, DBOperator.Callback<List<String>> callback)
+    {
+        return op.readAsync(() -> verify(op), new DBOperator.Callback<List<String>>() {
+            @Override
+            public void onResult(List<String> drift) {
+                if (drift.isEmpty()) {
+                    callback.onResult(drift);
+                    return;
+                }
+                op.callAsync(() -> {
+                    Log.w(TAG, "Dashboard counters drifted, rebuilding: " + drift);
+                    rebuild(op);
+                    return drift;
+                }, callback);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                callback.onError(e);
+            }
+        });
+    }
+
+    /*
+     * counter changes for one Orders row, row is NEW or OLD and sign 1 or -1
+     */
+    private static String orders(String row, int sign)
+    {
+        String status = row + ".Order_status ";
+        String table = row + ".Order_DT_id";
+        String server = row + ".Order_Emp_id";
+        String serverTable = server + " || '/' || " + table;
+        return add(global(SALES_TOTAL), sign + " * " + row + ".Order_Total", status + NOT_CANCELLED)
+                + add(global(ORDER_COUNT), String.valueOf(sign), status + NOT_CANCELLED)
+                + distinct(table, ACTIVE_ORDERS, global(BUSY_TABLES), sign, status + ACTIVE)
+                + add(scoped(server, OPEN_ORDERS), String.valueOf(sign), status + OPEN)
+                + distinct(serverTable, OPEN_ORDERS, scoped(server, OPEN_TABLES), sign, status + OPEN)
+                + add(scoped(server, PENDING_ORDERS), String.valueOf(sign), status + PENDING);
+    }
+
+    private static String reservation(String row, int sign)
+    {
+        return add(global(CONFIRMED_RESERVATIONS), String.valueOf(sign), row + ".Res_status = 'Confirmed'");
+    }
+
+    /*
+     * count a key once while its own counter is above 0
+     * the key counter is changed first, then the distinct counter if it crossed 0
+     */
+    private static String distinct(String scope, String name, String[] target, int sign, String when)
+    {
+        String counter = "(SELECT Stat_value FROM Dashboard_Stats WHERE Stat_scope = " + scope +
+                " AND Stat_name = '" + name + "')";
+        return add(scoped(scope, name), String.valueOf(sign), when)
+                + add(target, String.valueOf(sign), when + " AND " + counter + " = " + (sign > 0 ? 1 : 0));
+    }
+
+    /*
+     * statements adding delta to a counter when the condition holds, creating its row first
+     */
+    private static String add(String[] counter, String delta, String when)
+    {
+        String insert = "INSERT OR IGNORE INTO Dashboard_Stats (Stat_scope, Stat_name) " +
+                "SELECT " + counter[0] + ", '" + counter[1] + "'";
+        String update = "UPDATE Dashboard_Stats SET Stat_value = Stat_value + " + delta +
+                " WHERE Stat_scope = " + counter[0] + " AND Stat_name = '" + counter[1] + "'";
+        if (when != null) {
+            insert += " WHERE " + when;
+            update += " AND " + when;
+        }
+        return insert + "; " + update + "; ";
+    }
+
+    private static String[] global(String name)
+    {
+        return new String[]{"'" + GLOBAL + "'", name};
+    }
+
+    private static String[] scoped(String scopeExpression, String name)
+    {
+        return new String[]{scopeExpression, name};
+    }
+
+    private static String trigger(String name, String event, String body)
+    {
+        return "CREATE TRIGGER IF NOT EXISTS " + name + " AFTER " + event + " BEGIN " + body + "END";
+    }
+}
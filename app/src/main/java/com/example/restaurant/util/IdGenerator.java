@@ -0,0 +1,111 @@
+package com.example.restaurant.util;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates unique, time ordered IDs without locks and without sleeping.
+ * An id is laid out like a Snowflake id:
+ * 41 bits of milliseconds since EPOCH | 10 bits of node id | 12 bits of sequence.
+ * When more than 4096 ids are asked for within one millisecond, the generator
+ * borrows the next millisecond instead of waiting for the clock.
+ */
+public class IdGenerator
+{
+    //2025-01-01 00:00:00 UTC
+    static final long EPOCH = 1735689600000L;
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static volatile IdGenerator instance = new IdGenerator(0);
+
+    private final long node;
+    //last timestamp and sequence packed in one long: timestamp << SEQUENCE_BITS | sequence
+    private final AtomicLong state = new AtomicLong();
+
+    IdGenerator(long node)
+    {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE);
+        }
+        this.node = node;
+    }
+
+    public static IdGenerator getInstance()
+    {
+        return instance;
+    }
+
+    /**
+     * Set the node id of this device, call once before the first id is generated.
+     * Two devices writing to the same database need different node ids.
+     * @param nodeId
+     */
+    public static void setNodeId(long nodeId)
+    {
+        if (instance.node != nodeId) instance = new IdGenerator(nodeId);
+    }
+
+    /**
+     * derive the node id of a device from its identifier, such as ANDROID_ID, which stays
+     * the same across restarts and reinstalls until the device is reset, so nothing has to
+     * be stored or asked for. Each tablet only has its own database file, so there is no
+     * shared place to hand node ids out from.
+     * 10 bits cannot tell every device apart: two tablets share a node id about one time
+     * in 1023, n tablets about n(n - 1) / 2046 of the time, 1% for five of them. Where that
+     * is too much, give every tablet its own node id from one list when setting it up and
+     * pass it to setNodeId instead.
+     * @param deviceId
+     * @return node id between 1 and MAX_NODE, 0 without an identifier
+     */
+    public static long nodeIdFor(String deviceId)
+    {
+        if (deviceId == null || deviceId.isEmpty()) return 0;
+        long hash = 0;
+        for (int i = 0; i < deviceId.length(); i++) {
+            hash = 31 * hash + deviceId.charAt(i);
+        }
+        //spread every bit of the identifier over the low ones, as the SplitMix64 finalizer does
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        //node 0 is left to the generator used before a node id is set
+        return 1 + Long.remainderUnsigned(hash, MAX_NODE);
+    }
+
+    /**
+     * @return next unique id, greater than every id returned before by this generator
+     */
+    public long nextId()
+    {
+        while (true) {
+            long current = state.get();
+            long now = System.currentTimeMillis() - EPOCH;
+            long next;
+            if (now > (current >>> SEQUENCE_BITS)) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                //same millisecond or clock moved back: count on,
+                //a full sequence carries over into the next millisecond
+                next = current + 1;
+            }
+            if (state.compareAndSet(current, next)) {
+                long time = next >>> SEQUENCE_BITS;
+                return (time << (NODE_BITS + SEQUENCE_BITS))
+                        | (node << SEQUENCE_BITS)
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * @param prefix such as "ORD" or "RES"
+     * @return prefix followed by the next id in base 36
+     */
+    public String nextId(String prefix)
+    {
+        return prefix + Long.toString(nextId(), 36).toUpperCase(Locale.US);
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.restaurant.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Set of half-open intervals [start, end) with an id each, answering "does anything
+ * overlap this window" in O(log n).
+ * A treap ordered by start, every node also keeping the largest end below it, so a
+ * search only walks down one path: left while the left side can still reach the
+ * window, right otherwise.
+ * Not thread-safe.
+ */
+final class IntervalTree
+{
+    private static final class Node
+    {
+        final String id;
+        final long start;
+        final long end;
+        final int priority;
+        long maxEnd;
+        Node left;
+        Node right;
+
+        Node(String id, long start, long end)
+        {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            //any well mixed value keeps the treap balanced, the id hash makes it repeatable
+            int h = id.hashCode() * 0x9E3779B9;
+            this.priority = h ^ (h >>> 16);
+            this.maxEnd = end;
+        }
+    }
+
+    private Node root = null;
+    //interval of every id, to find its node again
+    private final Map<String, long[]> byId = new HashMap<>();
+
+    /**
+     * add an interval, replacing the one the id had
+     * @param id
+     * @param start
+     * @param end after start
+     */
+    void add(String id, long start, long end)
+    {
+        if (end <= start) throw new IllegalArgumentException("Empty interval " + start + ".." + end + " for " + id);
+        remove(id);
+        root = insert(root, new Node(id, start, end));
+        byId.put(id, new long[]{start, end});
+    }
+
+    /**
+     * @param id
+     * @return whether the id had an interval
+     */
+    boolean remove(String id)
+    {
+        long[] interval = byId.remove(id);
+        if (interval == null) return false;
+        root = delete(root, id, interval[0]);
+        return true;
+    }
+
+    /**
+     * @param id
+     * @return start and end of the interval of the id, null if it has none
+     */
+    long[] get(String id)
+    {
+        long[] interval = byId.get(id);
+        return interval != null ? interval.clone() : null;
+    }
+
+    /**
+     * @param start
+     * @param end
+     * @return id of an interval overlapping [start, end), null if none does
+     */
+    String findOverlap(long start, long end)
+    {
+        Node node = root;
+        while (node != null) {
+            if (node.start < end && start < node.end) return node.id;
+            //if the left side reaches past start and has no overlap, every interval there
+            //starts at or after end, and so does everything on the right
+            if (node.left != null && node.left.maxEnd > start) {
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param from
+     * @return smallest start at or after from, Long.MAX_VALUE if there is none
+     */
+    long nextStart(long from)
+    {
+        long next = Long.MAX_VALUE;
+        Node node = root;
+        while (node != null) {
+            if (node.start >= from) {
+                next = node.start;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * @param before
+     * @return largest end of the intervals starting before before, Long.MIN_VALUE if there is none
+     */
+    long previousEnd(long before)
+    {
+        long previous = Long.MIN_VALUE;
+        Node node = root;
+        while (node != null) {
+            if (node.start < before) {
+                //this node and everything left of it start before
+                previous = Math.max(previous, node.end);
+                if (node.left != null) previous = Math.max(previous, node.left.maxEnd);
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return previous;
+    }
+
+    int size()
+    {
+        return byId.size();
+    }
+
+    private static int compare(long start, String id, Node node)
+    {
+        int c = Long.compare(start, node.start);
+        return c != 0 ? c : id.compareTo(node.id);
+    }
+
+    private static Node insert(Node node, Node added)
+    {
+        if (node == null) return added;
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) node = rotateRight(node);
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) node = rotateLeft(node);
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node delete(Node node, String id, long start)
+    {
+        if (node == null) return null;
+        int c = compare(start, id, node);
+        if (c < 0) {
+            node.left = delete(node.left, id, start);
+        } else if (c > 0) {
+            node.right = delete(node.right, id, start);
+        } else {
+            //rotate the node down until it has one child, then drop it
+            if (node.left == null) return node.right;
+            if (node.right == null) return node.left;
+            if (node.left.priority > node.right.priority) {
+                node = rotateRight(node);
+                node.right = delete(node.right, id, start);
+            } else {
+                node = rotateLeft(node);
+                node.left = delete(node.left, id, start);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node rotateRight(Node node)
+    {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node)
+    {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node node)
+    {
+        long maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd > maxEnd) maxEnd = node.left.maxEnd;
+        if (node.right != null && node.right.maxEnd > maxEnd) maxEnd = node.right.maxEnd;
+        node.maxEnd = maxEnd;
+    }
+}
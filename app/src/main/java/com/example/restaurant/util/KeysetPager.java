@@ -0,0 +1,384 @@
+package com.example.restaurant.util;
+
+import android.database.Cursor;
+import android.util.LruCache;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads a long, ordered result one page at a time with keyset (seek) pagination.
+ * Every page starts right after the sort key of the last row of the page before it,
+ * "WHERE key < last ORDER BY key DESC LIMIT n", so a page costs the same wherever it
+ * is in the result, unlike OFFSET. The keys have to be result columns, NOT NULL, and
+ * the last one unique, e.g. (Res_date DESC, Res_id DESC).
+ * Rows show up as the list is scrolled; only a few pages are kept, the boundaries of
+ * the pages dropped are remembered so they can be read again.
+ * Use it from the main thread.
+ */
+public class KeysetPager<T>
+{
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int DEFAULT_MAX_PAGES = 5;
+
+    /**
+     * A sort column of the query
+     */
+    public static final class Key
+    {
+        public final String column;
+        public final boolean descending;
+
+        private Key(String column, boolean descending)
+        {
+            this.column = column;
+            this.descending = descending;
+        }
+
+        public static Key asc(String column)
+        {
+            return new Key(column, false);
+        }
+
+        public static Key desc(String column)
+        {
+            return new Key(column, true);
+        }
+    }
+
+    /**
+     * Reads the row the cursor is on, called on the reader lane
+     */
+    public interface RowReader<T>
+    {
+        T read(Cursor cursor);
+    }
+
+    /**
+     * Told about loaded pages on the main thread
+     */
+    public interface Listener
+    {
+        /**
+         * rows [first, first + count) can now be read with getItem
+         * @param inserted true when the rows are new to the list, false for a page read again
+         */
+        void onRowsLoaded(int first, int count, boolean inserted);
+
+        void onError(Exception e);
+    }
+
+    private static final class Page<T>
+    {
+        List<T> rows;
+        String[] lastKey;
+    }
+
+    private final DBOperator op;
+    private final String sql;
+    private final String[] args;
+    private final Key[] keys;
+    private final int pageSize;
+    private final RowReader<T> reader;
+    private final Listener listener;
+    private final LruCache<Integer, List<T>> pages;
+    //lastKeys.get(i) is the sort key of the last row of page i
+    private final List<String[]> lastKeys = new ArrayList<>();
+    private final Set<Integer> loading = new HashSet<>();
+    private final DBTaskGroup tasks = new DBTaskGroup();
+    private int loadedCount = 0;
+    private boolean complete = false;
+    //bumped by reload, pages read before it are thrown away
+    private int generation = 0;
+
+    public KeysetPager(DBOperator op, String sql, String[] args, Key[] keys,
+                       RowReader<T> reader, Listener listener)
+    {
+        this(op, sql, args, keys, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES, reader, listener);
+    }
+
+    public KeysetPager(DBOperator op, String sql, String[] args, Key[] keys, int pageSize,
+                       int maxPages, RowReader<T> reader, Listener listener)
+    {
+        if (keys.length == 0) throw new IllegalArgumentException("Keyset paging needs a sort key");
+        this.op = op;
+        this.sql = sql.trim().replaceAll(";+$", "");
+        this.args = args != null ? args : new String[0];
+        this.keys = keys;
+        this.pageSize = pageSize;
+        this.reader = reader;
+        this.listener = listener;
+        this.pages = new LruCache<>(maxPages);
+    }
+
+    /**
+     * load the first page
+     */
+    public void start()
+    {
+        request(0);
+    }
+
+    /**
+     * forget every page and start again from the top, e.g. after the rows were changed
+     */
+    public void reload()
+    {
+        close();
+        generation++;
+        lastKeys.clear();
+        loadedCount = 0;
+        complete = false;
+        start();
+    }
+
+    /**
+     * @return rows found so far, grows as the list is scrolled
+     */
+    public int getLoadedCount()
+    {
+        return loadedCount;
+    }
+
+    /**
+     * @return true once the last page has been read
+     */
+    public boolean isComplete()
+    {
+        return complete;
+    }
+
+    /**
+     * row at a position, loading its page if needed
+     * the next page is requested when the position gets close to the end of the rows found
+     * @param position
+     * @return the row, null while its page is being read again
+     */
+    public T getItem(int position)
+    {
+        prefetch(position);
+        int page = position / pageSize;
+        List<T> rows = pages.get(page);
+        if (rows == null) {
+            request(page);
+            return null;
+        }
+        int offset = position % pageSize;
+        return offset < rows.size() ? rows.get(offset) : null;
+    }
+
+    /**
+     * make sure the pages around a position are loaded or on their way
+     * @param position
+     */
+    public void prefetch(int position)
+    {
+        int page = position / pageSize;
+        int offset = position % pageSize;
+        if (offset >= pageSize / 2) {
+            request(page + 1);
+        } else if (page > 0 && pages.get(page - 1) == null) {
+            request(page - 1);
+        }
+    }
+
+    /**
+     * stop loading and drop every page
+     */
+    public void close()
+    {
+        tasks.cancelAll();
+        loading.clear();
+        pages.evictAll();
+    }
+
+    private void request(int page)
+    {
+        //a page can only be read once the page before it has been seen
+        if (page < 0 || page > lastKeys.size()) return;
+        if (page == lastKeys.size() && complete) return;
+        if (loading.contains(page) || pages.get(page) != null) return;
+
+        String[] after = page > 0 ? lastKeys.get(page - 1) : null;
+        String pageSql = seekSql(sql, keys, after != null, pageSize);
+        String[] pageArgs = seekArgs(args, after);
+        int requestGeneration = generation;
+        loading.add(page);
+        tasks.add(op.queryAsync(pageSql, pageArgs, cursor -> readPage(cursor),
+                new DBOperator.Callback<Page<T>>() {
+                    @Override
+                    public void onResult(Page<T> result) {
+                        if (requestGeneration != generation) return;
+                        loading.remove(page);
+                        pages.put(page, result.rows);
+                        boolean inserted = page == lastKeys.size();
+                        if (inserted) {
+                            if (result.lastKey != null) lastKeys.add(result.lastKey);
+                            loadedCount += result.rows.size();
+                            complete = result.rows.size() < pageSize;
+                        }
+                        listener.onRowsLoaded(page * pageSize, result.rows.size(), inserted);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        if (requestGeneration != generation) return;
+                        loading.remove(page);
+                        listener.onError(e);
+                    }
+                }));
+    }
+
+    private Page<T> readPage(Cursor cursor)
+    {
+        Page<T> page = new Page<>();
+        page.rows = new ArrayList<>(pageSize);
+        int[] keyColumns = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keyColumns[i] = cursor.getColumnIndexOrThrow(keys[i].column);
+        }
+        while (cursor.moveToNext()) {
+            page.rows.add(reader.read(cursor));
+        }
+        if (cursor.moveToLast()) {
+            page.lastKey = new String[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                page.lastKey[i] = cursor.getString(keyColumns[i]);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * query for one page
+     * the seek condition is spelled out as (k1 > ?) OR (k1 = ? AND k2 > ?) ...,
+     * row values (k1, k2) > (?, ?) need SQLite 3.15 and cannot mix directions.
+     * The OR alone cannot be used as an index range, so k1 >= ? is added in front of it
+     * to let SQLite start the index scan at the last row instead of the top
+     * @param sql the whole query, its own ORDER BY is replaced by the keys
+     * @param keys sort columns, the last one unique
+     * @param seek true to start after a key, bound by seekArgs
+     * @param limit rows per page
+     * @return
+     */
+    public static String seekSql(String sql, Key[] keys, boolean seek, int limit)
+    {
+        StringBuilder builder = new StringBuilder("SELECT * FROM (").append(sql).append(")");
+        if (seek) {
+            builder.append(" WHERE ").append(keys[0].column)
+                    .append(keys[0].descending ? " <= ?" : " >= ?").append(" AND (");
+            for (int i = 0; i < keys.length; i++) {
+                if (i > 0) builder.append(" OR ");
+                builder.append('(');
+                for (int j = 0; j < i; j++) {
+                    builder.append(keys[j].column).append(" = ? AND ");
+                }
+                builder.append(keys[i].column).append(keys[i].descending ? " < ?" : " > ?");
+                builder.append(')');
+            }
+            builder.append(')');
+        }
+        builder.append(" ORDER BY ");
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(keys[i].column).append(keys[i].descending ? " DESC" : "");
+        }
+        return builder.append(" LIMIT ").append(limit).toString();
+    }
+
+    /**
+     * arguments for seekSql
+     * @param args arguments of the query itself
+     * @param after sort key to start after, null for the first page
+     * @return
+     */
+    public static String[] seekArgs(String[] args, String[] after)
+    {
+        if (after == null) return args;
+        List<String> result = new ArrayList<>(Arrays.asList(args));
+        result.add(after[0]);
+        for (int i = 0; i < after.length; i++) {
+            for (int j = 0; j <= i; j++) {
+                result.add(after[j]);
+            }
+        }
+        return result.toArray(new String[0]);
+    }
+
+    /**
+     * RecyclerView adapter over a KeysetPager
+     * Pages are asked for as the list scrolls, ahead of the rows being bound.
+     */
+    public abstract static class PagedAdapter<T, VH extends RecyclerView.ViewHolder>
+            extends RecyclerView.Adapter<VH> implements Listener
+    {
+        private KeysetPager<T> pager;
+        private final RecyclerView.OnScrollListener prefetcher = new RecyclerView.OnScrollListener()
+        {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy)
+            {
+                RecyclerView.LayoutManager layout = recyclerView.getLayoutManager();
+                if (pager != null && dy > 0 && layout instanceof LinearLayoutManager) {
+                    pager.prefetch(((LinearLayoutManager) layout).findLastVisibleItemPosition());
+                }
+            }
+        };
+
+        public void setPager(KeysetPager<T> pager)
+        {
+            this.pager = pager;
+            notifyDataSetChanged();
+        }
+
+        /**
+         * bind a row, item is null while its page is being read again
+         */
+        public abstract void onBindItem(VH holder, T item);
+
+        @Override
+        public void onBindViewHolder(VH holder, int position)
+        {
+            onBindItem(holder, pager.getItem(position));
+        }
+
+        @Override
+        public int getItemCount()
+        {
+            return pager != null ? pager.getLoadedCount() : 0;
+        }
+
+        @Override
+        public void onRowsLoaded(int first, int count, boolean inserted)
+        {
+            if (first == 0 && inserted) {
+                //first page, also after a reload
+                notifyDataSetChanged();
+            } else if (inserted) {
+                notifyItemRangeInserted(first, count);
+            } else {
+                notifyItemRangeChanged(first, count);
+            }
+        }
+
+        @Override
+        public void onAttachedToRecyclerView(RecyclerView recyclerView)
+        {
+            super.onAttachedToRecyclerView(recyclerView);
+            recyclerView.addOnScrollListener(prefetcher);
+        }
+
+        @Override
+        public void onDetachedFromRecyclerView(RecyclerView recyclerView)
+        {
+            super.onDetachedFromRecyclerView(recyclerView);
+            recyclerView.removeOnScrollListener(prefetcher);
+        }
+    }
+}
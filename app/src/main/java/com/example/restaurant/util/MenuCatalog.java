@@ -0,0 +1,230 @@
+package com.example.restaurant.util;
+
+import android.util.Log;
+
+import com.example.restaurant.constant.SQLCommand;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide copy of the Menu table.
+ * The menu is read once, on first use, into an immutable Snapshot and kept until a
+ * write to Menu is reported on the DBChangeBus. Screens subscribe in onResume: they
+ * get the cached snapshot straight away, and a new one after every change.
+ * Everything except peek is meant to be called on the main thread.
+ */
+public class MenuCatalog
+{
+    private static final String TAG = "MenuCatalog";
+    private static MenuCatalog instance = null;
+
+    /**
+     * Receives the menu on the main thread
+     */
+    public interface Listener
+    {
+        void onMenuChanged(Snapshot menu);
+    }
+
+    /**
+     * Immutable view of the Menu table at one point in time
+     */
+    public static final class Snapshot
+    {
+        private final long version;
+        private final List<MenuDish> dishes;
+        private final List<MenuDish> available;
+        private final Map<String, MenuDish> byId;
+        private final Map<String, List<MenuDish>> byCategory;
+        private final List<Object> sections;
+        private final MenuSearchIndex availableIndex;
+
+        /**
+         * @param version catalog version the rows were read at
+         * @param dishes rows ordered by category, then name
+         */
+        Snapshot(long version, List<MenuDish> dishes)
+        {
+            this.version = version;
+            this.dishes = Collections.unmodifiableList(new ArrayList<>(dishes));
+            List<MenuDish> available = new ArrayList<>();
+            Map<String, MenuDish> byId = new HashMap<>();
+            Map<String, List<MenuDish>> byCategory = new LinkedHashMap<>();
+            MenuSectionBuilder sections = new MenuSectionBuilder();
+            for (MenuDish dish : dishes) {
+                if (dish.isAvailable()) available.add(dish);
+                byId.put(dish.dishId, dish);
+                List<MenuDish> category = byCategory.get(dish.category);
+                if (category == null) {
+                    category = new ArrayList<>();
+                    byCategory.put(dish.category, category);
+                }
+                category.add(dish);
+                sections.add(dish);
+            }
+            for (Map.Entry<String, List<MenuDish>> entry : byCategory.entrySet()) {
+                entry.setValue(Collections.unmodifiableList(entry.getValue()));
+            }
+            this.available = Collections.unmodifiableList(available);
+            this.byId = Collections.unmodifiableMap(byId);
+            this.byCategory = Collections.unmodifiableMap(byCategory);
+            this.sections = sections.build();
+            this.availableIndex = new MenuSearchIndex(available);
+        }
+
+        public long getVersion()
+        {
+            return version;
+        }
+
+        /**
+         * @return every dish, ordered by category then name
+         */
+        public List<MenuDish> dishes()
+        {
+            return dishes;
+        }
+
+        /**
+         * @return dishes with Menu_available = 'Yes', same order
+         */
+        public List<MenuDish> available()
+        {
+            return available;
+        }
+
+        /**
+         * @param dishId Menu_DishID
+         * @return dish, null if there is none
+         */
+        public MenuDish get(String dishId)
+        {
+            return byId.get(dishId);
+        }
+
+        /**
+         * @param category Menu_cat, exact match
+         * @return dishes of the category, empty if there are none
+         */
+        public List<MenuDish> inCategory(String category)
+        {
+            List<MenuDish> result = byCategory.get(category);
+            return result != null ? result : Collections.<MenuDish>emptyList();
+        }
+
+        public List<String> categories()
+        {
+            return new ArrayList<>(byCategory.keySet());
+        }
+
+        /**
+         * @return CategoryHeader and MenuDish rows, see MenuSectionBuilder
+         */
+        public List<Object> sections()
+        {
+            return sections;
+        }
+
+        /**
+         * search index over the available dishes, use it on the main thread only
+         * @return
+         */
+        public MenuSearchIndex availableIndex()
+        {
+            return availableIndex;
+        }
+    }
+
+    private final DBOperator op;
+    private final List<Listener> listeners = new ArrayList<>();
+    private volatile Snapshot snapshot = null;
+    //bumped by every invalidation, a load started before it is thrown away
+    private long version = 0;
+    private DBTask loading = null;
+
+    MenuCatalog(DBOperator op)
+    {
+        this.op = op;
+        op.getChangeBus().subscribe(tables -> invalidate(), DBChangeBus.MENU);
+    }
+
+    public static synchronized MenuCatalog getInstance()
+    {
+        if (instance == null) {
+            instance = new MenuCatalog(DBOperator.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * get the menu now if it is cached, and again whenever it changes
+     * @param listener
+     */
+    public void subscribe(Listener listener)
+    {
+        if (!listeners.contains(listener)) listeners.add(listener);
+        Snapshot current = snapshot;
+        if (current != null) {
+            listener.onMenuChanged(current);
+        } else {
+            load();
+        }
+    }
+
+    public void unsubscribe(Listener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return cached menu, null until it has been loaded
+     */
+    public Snapshot peek()
+    {
+        return snapshot;
+    }
+
+    /**
+     * drop the cached menu, it is read again if a screen is listening
+     */
+    public void invalidate()
+    {
+        version++;
+        snapshot = null;
+        if (loading != null) {
+            loading.cancel();
+            loading = null;
+        }
+        if (!listeners.isEmpty()) load();
+    }
+
+    private void load()
+    {
+        if (loading != null) return;
+        final long loadVersion = version;
+        loading = op.queryAsync(SQLCommand.QUERY_MENU_ALL, null,
+                cursor -> new Snapshot(loadVersion, MenuSectionBuilder.readDishes(cursor)),
+                new DBOperator.Callback<Snapshot>() {
+                    @Override
+                    public void onResult(Snapshot menu) {
+                        loading = null;
+                        if (loadVersion != version) return;
+                        snapshot = menu;
+                        for (Listener listener : new ArrayList<>(listeners)) {
+                            listener.onMenuChanged(menu);
+                        }
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        loading = null;
+                        Log.e(TAG, "Could not load the menu", e);
+                    }
+                });
+    }
+}
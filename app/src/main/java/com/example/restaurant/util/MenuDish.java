@@ -0,0 +1,52 @@
+package com.example.restaurant.util;
+
+import java.util.Objects;
+
+/**
+ * One row of the Menu table
+ */
+public final class MenuDish
+{
+    public final String dishId;
+    public final String name;
+    public final String category;
+    public final int price;
+    public final String available;
+
+    public MenuDish(String dishId, String name, String category, int price, String available)
+    {
+        this.dishId = dishId;
+        this.name = name;
+        this.category = category;
+        this.price = price;
+        this.available = available;
+    }
+
+    /**
+     * Menu_available is stored as 'Yes' / 'No'
+     * @return
+     */
+    public boolean isAvailable()
+    {
+        return available != null && available.equalsIgnoreCase("Yes");
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) return true;
+        if (!(o instanceof MenuDish)) return false;
+        MenuDish other = (MenuDish) o;
+        return price == other.price
+                && Objects.equals(dishId, other.dishId)
+                && Objects.equals(name, other.name)
+                && Objects.equals(category, other.category)
+                && Objects.equals(available, other.available);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(dishId, name, category, price, available);
+    }
+}
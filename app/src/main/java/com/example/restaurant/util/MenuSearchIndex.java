@@ -0,0 +1,405 @@
+package com.example.restaurant.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Search index over a fixed list of dishes, built once per menu version.
+ * Names and categories are split into lowercase tokens and stored in a prefix trie
+ * and in trigram postings; every category also gets a bitset of its dishes.
+ * A query token matches a dish when it is a prefix of one of the dish tokens, or,
+ * for tokens of four letters or more, when they share at least half of their trigrams,
+ * which tolerates a typo. All query tokens have to match. Results are ranked by how
+ * well they matched, then by their position in the list the index was built from.
+ * Searching reuses its scratch buffers, so a keystroke does not allocate.
+ * Not thread safe: use one index per thread, normally the main thread.
+ */
+public class MenuSearchIndex
+{
+    //points per query token
+    private static final int EXACT_SCORE = 4;
+    private static final int PREFIX_SCORE = 3;
+    private static final int FUZZY_SCORE = 1;
+    //longest query token looked at, longer input is cut
+    private static final int MAX_TOKEN = 32;
+
+    private final List<MenuDish> dishes;
+    private final Node root;
+    private final TrigramPostings trigrams;
+    private final Map<String, BitSet> categories = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    //scratch state, see search
+    private final char[] token = new char[MAX_TOKEN];
+    private final int[] matched;
+    private final int[] score;
+    private final int[] tokenStamp;
+    private final int[] gramStamp;
+    private final int[] gramHits;
+    private final int[] candidates;
+    private final int[] gramTouched;
+    private final long[] ranking;
+    private int stamp = 0;
+
+    public MenuSearchIndex(List<MenuDish> dishes)
+    {
+        this.dishes = new ArrayList<>(dishes);
+        int n = this.dishes.size();
+        Builder builder = new Builder();
+        for (int doc = 0; doc < n; doc++) {
+            MenuDish dish = this.dishes.get(doc);
+            builder.addText(dish.name, doc);
+            builder.addText(dish.category, doc);
+            if (dish.category != null) {
+                BitSet members = categories.get(dish.category);
+                if (members == null) {
+                    members = new BitSet(n);
+                    categories.put(dish.category, members);
+                }
+                members.set(doc);
+            }
+        }
+        root = builder.root.freeze();
+        trigrams = builder.trigrams();
+
+        matched = new int[n];
+        score = new int[n];
+        tokenStamp = new int[n];
+        gramStamp = new int[n];
+        gramHits = new int[n];
+        candidates = new int[n];
+        gramTouched = new int[n];
+        ranking = new long[n];
+    }
+
+    public int size()
+    {
+        return dishes.size();
+    }
+
+    /**
+     * find the dishes matching a query, best match first
+     * @param query words typed by the user, empty matches everything
+     * @param category only dishes of this category, null or "All" for every category
+     * @param out cleared, then filled with the results
+     */
+    public void search(CharSequence query, String category, List<MenuDish> out)
+    {
+        out.clear();
+        BitSet allowed = null;
+        if (category != null && !category.equalsIgnoreCase("All")) {
+            allowed = categories.get(category);
+            if (allowed == null) return;
+        }
+
+        int count = match(query);
+        if (count < 0) {
+            //no tokens in the query, everything in list order
+            for (int doc = 0; doc < dishes.size(); doc++) {
+                if (allowed == null || allowed.get(doc)) out.add(dishes.get(doc));
+            }
+            return;
+        }
+
+        int ranked = 0;
+        for (int i = 0; i < count; i++) {
+            int doc = candidates[i];
+            if (allowed != null && !allowed.get(doc)) continue;
+            //higher score first, then the original order
+            ranking[ranked++] = ((long) (Integer.MAX_VALUE - score[doc]) << 32) | doc;
+        }
+        Arrays.sort(ranking, 0, ranked);
+        for (int i = 0; i < ranked; i++) {
+            out.add(dishes.get((int) ranking[i]));
+        }
+    }
+
+    /*
+     * score every dish against the tokens of the query
+     * returns the number of dishes left in candidates, -1 if the query has no tokens
+     */
+    private int match(CharSequence query)
+    {
+        int tokens = 0;
+        int count = 0;
+        int i = 0;
+        int length = query.length();
+        while (i < length) {
+            //next token, lowercased letters and digits
+            int len = 0;
+            while (i < length && !Character.isLetterOrDigit(query.charAt(i))) i++;
+            while (i < length && Character.isLetterOrDigit(query.charAt(i))) {
+                if (len < MAX_TOKEN) token[len++] = Character.toLowerCase(query.charAt(i));
+                i++;
+            }
+            if (len == 0) break;
+
+            int required = tokens;
+            int kept = matchToken(len, required, count);
+            if (required == 0) {
+                count = kept;
+            } else {
+                //keep the candidates that matched this token too
+                int next = 0;
+                for (int c = 0; c < count; c++) {
+                    int doc = candidates[c];
+                    if (matched[doc] == required + 1) candidates[next++] = doc;
+                }
+                count = next;
+            }
+            tokens++;
+            if (count == 0) return 0;
+        }
+        return tokens == 0 ? -1 : count;
+    }
+
+    /*
+     * match token[0, len) against the index
+     * dishes that matched all earlier tokens (matched == required) move on to required + 1
+     * for the first token the matching dishes are written to candidates and their number returned
+     */
+    private int matchToken(int len, int required, int count)
+    {
+        int current = ++stamp;
+        int added = 0;
+
+        Node node = root;
+        for (int c = 0; c < len && node != null; c++) {
+            node = node.child(token[c]);
+        }
+        if (node != null) {
+            for (int doc : node.exact) {
+                added = accept(doc, EXACT_SCORE, current, required, added);
+            }
+            for (int doc : node.prefixed) {
+                added = accept(doc, PREFIX_SCORE, current, required, added);
+            }
+        }
+
+        int grams = len - 2;
+        if (len >= 4) {
+            int touched = 0;
+            for (int g = 0; g < grams; g++) {
+                int[] postings = trigrams.get(TrigramPostings.key(token[g], token[g + 1], token[g + 2]));
+                if (postings == null) continue;
+                for (int doc : postings) {
+                    if (gramStamp[doc] != current) {
+                        gramStamp[doc] = current;
+                        gramHits[doc] = 0;
+                        gramTouched[touched++] = doc;
+                    }
+                    gramHits[doc]++;
+                }
+            }
+            for (int t = 0; t < touched; t++) {
+                int doc = gramTouched[t];
+                if (gramHits[doc] * 2 >= grams) {
+                    added = accept(doc, FUZZY_SCORE, current, required, added);
+                }
+            }
+        }
+        return required == 0 ? added : count;
+    }
+
+    private int accept(int doc, int points, int current, int required, int added)
+    {
+        if (tokenStamp[doc] == current) return added;
+        tokenStamp[doc] = current;
+        if (required == 0) {
+            matched[doc] = 1;
+            score[doc] = points;
+            candidates[added++] = doc;
+        } else if (matched[doc] == required) {
+            matched[doc] = required + 1;
+            score[doc] += points;
+        }
+        return added;
+    }
+
+    /*
+     * Trie node, children sorted by character
+     * exact: dishes with a token ending here, prefixed: dishes with a longer token
+     */
+    private static final class Node
+    {
+        private static final int[] NONE = new int[0];
+        private static final Node[] LEAF = new Node[0];
+
+        char[] keys = new char[0];
+        Node[] children = LEAF;
+        int[] exact = NONE;
+        int[] prefixed = NONE;
+
+        Node child(char c)
+        {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+    }
+
+    /*
+     * Open addressing map from packed trigram to the sorted dishes containing it
+     */
+    private static final class TrigramPostings
+    {
+        private final long[] keys;
+        private final int[][] values;
+        private final int mask;
+
+        TrigramPostings(Map<Long, IntList> grams)
+        {
+            int capacity = 16;
+            while (capacity < grams.size() * 2) capacity <<= 1;
+            keys = new long[capacity];
+            values = new int[capacity][];
+            mask = capacity - 1;
+            for (Map.Entry<Long, IntList> entry : grams.entrySet()) {
+                long key = entry.getKey();
+                int slot = slot(key);
+                while (keys[slot] != 0) slot = (slot + 1) & mask;
+                keys[slot] = key;
+                values[slot] = entry.getValue().toArray();
+            }
+        }
+
+        static long key(char a, char b, char c)
+        {
+            //the top bit keeps every key non zero, zero marks an empty slot
+            return (1L << 48) | ((long) a << 32) | ((long) b << 16) | c;
+        }
+
+        int[] get(long key)
+        {
+            int slot = slot(key);
+            while (keys[slot] != 0) {
+                if (keys[slot] == key) return values[slot];
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        private int slot(long key)
+        {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 40) & mask;
+        }
+    }
+
+    /*
+     * Growable list of ascending dish numbers without duplicates
+     */
+    private static final class IntList
+    {
+        int[] items = new int[4];
+        int size = 0;
+
+        void add(int doc)
+        {
+            if (size > 0 && items[size - 1] == doc) return;
+            if (size == items.length) items = Arrays.copyOf(items, size * 2);
+            items[size++] = doc;
+        }
+
+        int[] toArray()
+        {
+            return Arrays.copyOf(items, size);
+        }
+    }
+
+    /*
+     * Collects tokens while the index is built, then packs them into arrays
+     */
+    private static final class Builder
+    {
+        final BuildNode root = new BuildNode();
+        final Map<Long, IntList> grams = new HashMap<>();
+
+        void addText(String text, int doc)
+        {
+            if (text == null) return;
+            String lower = text.toLowerCase(Locale.ROOT);
+            int i = 0;
+            while (i < lower.length()) {
+                while (i < lower.length() && !Character.isLetterOrDigit(lower.charAt(i))) i++;
+                int start = i;
+                while (i < lower.length() && Character.isLetterOrDigit(lower.charAt(i))) i++;
+                if (i > start) addToken(lower, start, Math.min(i, start + MAX_TOKEN), doc);
+            }
+        }
+
+        private void addToken(String text, int start, int end, int doc)
+        {
+            BuildNode node = root;
+            for (int i = start; i < end; i++) {
+                node = node.child(text.charAt(i));
+                if (i < end - 1) node.prefixed.add(doc);
+            }
+            node.exact.add(doc);
+            for (int i = start; i + 3 <= end; i++) {
+                long key = TrigramPostings.key(text.charAt(i), text.charAt(i + 1), text.charAt(i + 2));
+                IntList postings = grams.get(key);
+                if (postings == null) {
+                    postings = new IntList();
+                    grams.put(key, postings);
+                }
+                postings.add(doc);
+            }
+        }
+
+        TrigramPostings trigrams()
+        {
+            return new TrigramPostings(grams);
+        }
+    }
+
+    private static final class BuildNode
+    {
+        final TreeMap<Character, BuildNode> children = new TreeMap<>();
+        final IntList exact = new IntList();
+        final IntList prefixed = new IntList();
+
+        BuildNode child(char c)
+        {
+            BuildNode node = children.get(c);
+            if (node == null) {
+                node = new BuildNode();
+                children.put(c, node);
+            }
+            return node;
+        }
+
+        Node freeze()
+        {
+            Node node = new Node();
+            node.keys = new char[children.size()];
+            node.children = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, BuildNode> entry : children.entrySet()) {
+                node.keys[i] = entry.getKey();
+                node.children[i] = entry.getValue().freeze();
+                i++;
+            }
+            node.exact = exact.toArray();
+            node.prefixed = withoutExact(prefixed.toArray(), node.exact);
+            return node;
+        }
+
+        //a dish with both a token ending here and a longer one only counts as exact
+        private static int[] withoutExact(int[] prefixed, int[] exact)
+        {
+            if (exact.length == 0) return prefixed;
+            int[] result = new int[prefixed.length];
+            int size = 0;
+            for (int doc : prefixed) {
+                if (Arrays.binarySearch(exact, doc) < 0) result[size++] = doc;
+            }
+            return Arrays.copyOf(result, size);
+        }
+    }
+}
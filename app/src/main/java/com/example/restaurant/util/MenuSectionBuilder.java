@@ -0,0 +1,100 @@
+package com.example.restaurant.util;
+
+import android.database.Cursor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Turns dishes ordered by category into a sectioned list in one pass:
+ * a CategoryHeader row before the first dish of every category, then the dishes.
+ * Feed it SQLCommand.QUERY_MENU_ALL or any query returning the same columns.
+ */
+public class MenuSectionBuilder
+{
+    /**
+     * Header row of a category section
+     */
+    public static final class CategoryHeader
+    {
+        public final String name;
+
+        public CategoryHeader(String name)
+        {
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            return o instanceof CategoryHeader && Objects.equals(name, ((CategoryHeader) o).name);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hashCode(name);
+        }
+    }
+
+    private final List<Object> rows = new ArrayList<>();
+    private String category = null;
+    private boolean started = false;
+
+    /**
+     * append a dish, dishes must arrive grouped by category
+     * @param dish
+     * @return this builder
+     */
+    public MenuSectionBuilder add(MenuDish dish)
+    {
+        if (!started || !Objects.equals(category, dish.category)) {
+            category = dish.category;
+            started = true;
+            rows.add(new CategoryHeader(category));
+        }
+        rows.add(dish);
+        return this;
+    }
+
+    /**
+     * @return CategoryHeader and MenuDish rows in display order
+     */
+    public List<Object> build()
+    {
+        return Collections.unmodifiableList(new ArrayList<>(rows));
+    }
+
+    /**
+     * read the dishes of a menu query
+     * columns: Menu_DishID, Menu_name, Menu_cat, Menu_price, Menu_available
+     * @param cursor
+     * @return
+     */
+    public static List<MenuDish> readDishes(Cursor cursor)
+    {
+        List<MenuDish> dishes = new ArrayList<>(Math.max(cursor.getCount(), 0));
+        while (cursor.moveToNext()) {
+            dishes.add(new MenuDish(cursor.getString(0), cursor.getString(1),
+                    cursor.getString(2), cursor.getInt(3), cursor.getString(4)));
+        }
+        return dishes;
+    }
+
+    /**
+     * read a menu query ordered by category straight into sections
+     * @param cursor
+     * @return CategoryHeader and MenuDish rows in display order
+     */
+    public static List<Object> readSections(Cursor cursor)
+    {
+        MenuSectionBuilder builder = new MenuSectionBuilder();
+        while (cursor.moveToNext()) {
+            builder.add(new MenuDish(cursor.getString(0), cursor.getString(1),
+                    cursor.getString(2), cursor.getInt(3), cursor.getString(4)));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.restaurant.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where every dining table is in its turn, free, seated, ordered or paid, since when,
+ * and how long the turns that ended lasted, per table type. The number of tables in
+ * each state is kept as they move, so reading a count is O(1).
+ * A turn starts when a party is seated, or with the first order at a free table, and
+ * ends when the table is bussed, which frees it. A transition that does not apply to
+ * the state of the table is refused, so an event reported twice changes nothing.
+ * Not thread-safe.
+ */
+final class Occupancy
+{
+    /*
+     * the open turn of a table, times are wall-clock minutes, -1 until reached
+     */
+    static final class Turn
+    {
+        TableOccupancy.State state = TableOccupancy.State.SEATED;
+        final long seated;
+        long ordered = -1;
+        long paid = -1;
+
+        Turn(long seated)
+        {
+            this.seated = seated;
+        }
+
+        //when the table entered its state
+        long since()
+        {
+            switch (state) {
+                case PAID:
+                    return paid;
+                case ORDERED:
+                    return ordered;
+                default:
+                    return seated;
+            }
+        }
+    }
+
+    private final Map<String, TableAvailability.Table> tables = new LinkedHashMap<>();
+    private final Map<String, Turn> turns = new HashMap<>();
+    private final int[] counts = new int[TableOccupancy.State.values().length];
+    //turns that ended, by DT_table_type
+    private final Map<String, TurnTimes> history = new HashMap<>();
+
+    Occupancy(List<TableAvailability.Table> tables)
+    {
+        for (TableAvailability.Table table : tables) {
+            this.tables.put(table.id, table);
+        }
+        counts[TableOccupancy.State.FREE.ordinal()] = this.tables.size();
+    }
+
+    /**
+     * put back a turn that was open when the app stopped
+     * @param tableId
+     * @param seated
+     * @param ordered -1 if not ordered yet
+     * @param paid -1 if not paid yet
+     * @return false if the table is unknown or already taken
+     */
+    boolean restore(String tableId, long seated, long ordered, long paid)
+    {
+        if (!seat(tableId, seated)) return false;
+        if (ordered >= 0) order(tableId, ordered);
+        if (paid >= 0) pay(tableId, paid);
+        return true;
+    }
+
+    /**
+     * @param type DT_table_type
+     * @param minutes a turn that ended, from seating to bussing
+     */
+    void addHistory(String type, double minutes)
+    {
+        TurnTimes times = history.get(type);
+        if (times == null) {
+            times = new TurnTimes();
+            history.put(type, times);
+        }
+        times.add(minutes);
+    }
+
+    boolean seat(String tableId, long now)
+    {
+        if (!tables.containsKey(tableId) || turns.containsKey(tableId)) return false;
+        Turn turn = new Turn(now);
+        turns.put(tableId, turn);
+        move(TableOccupancy.State.FREE, TableOccupancy.State.SEATED);
+        return true;
+    }
+
+    /**
+     * the first order of the turn, a free table is seated at the same time
+     * @param tableId
+     * @param now
+     * @return false if the table already ordered or is unknown
+     */
+    boolean order(String tableId, long now)
+    {
+        if (!turns.containsKey(tableId) && !seat(tableId, now)) return false;
+        Turn turn = turns.get(tableId);
+        if (turn.state != TableOccupancy.State.SEATED) return false;
+        turn.ordered = now;
+        turn.state = TableOccupancy.State.ORDERED;
+        move(TableOccupancy.State.SEATED, TableOccupancy.State.ORDERED);
+        return true;
+    }
+
+    boolean pay(String tableId, long now)
+    {
+        Turn turn = turns.get(tableId);
+        if (turn == null || turn.state == TableOccupancy.State.PAID) return false;
+        TableOccupancy.State from = turn.state;
+        turn.paid = now;
+        turn.state = TableOccupancy.State.PAID;
+        move(from, TableOccupancy.State.PAID);
+        return true;
+    }
+
+    /**
+     * the table was cleared, its turn ends and goes into the history of its type
+     * @param tableId
+     * @param now
+     * @return the turn in minutes, -1 if the table was free
+     */
+    long bus(String tableId, long now)
+    {
+        Turn turn = turns.remove(tableId);
+        if (turn == null) return -1;
+        move(turn.state, TableOccupancy.State.FREE);
+        long minutes = Math.max(0, now - turn.seated);
+        addHistory(tables.get(tableId).type, minutes);
+        return minutes;
+    }
+
+    TableOccupancy.State stateOf(String tableId)
+    {
+        Turn turn = turns.get(tableId);
+        return turn != null ? turn.state : TableOccupancy.State.FREE;
+    }
+
+    /**
+     * @param tableId
+     * @return the open turn of the table, null if it is free
+     */
+    Turn turnOf(String tableId)
+    {
+        return turns.get(tableId);
+    }
+
+    int count(TableOccupancy.State state)
+    {
+        return counts[state.ordinal()];
+    }
+
+    int tableCount()
+    {
+        return tables.size();
+    }
+
+    List<TableAvailability.Table> tables()
+    {
+        return new ArrayList<>(tables.values());
+    }
+
+    /**
+     * @param type DT_table_type
+     * @return turns that ended at tables of the type, empty if none did
+     */
+    TurnTimes turnTimes(String type)
+    {
+        TurnTimes times = history.get(type);
+        return times != null ? times : new TurnTimes();
+    }
+
+    /**
+     * @return a copy of the turns that ended, by DT_table_type
+     */
+    Map<String, TurnTimes> history()
+    {
+        Map<String, TurnTimes> copy = new HashMap<>();
+        for (Map.Entry<String, TurnTimes> entry : history.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().copy());
+        }
+        return copy;
+    }
+
+    private void move(TableOccupancy.State from, TableOccupancy.State to)
+    {
+        counts[from.ordinal()]--;
+        counts[to.ordinal()]++;
+    }
+}
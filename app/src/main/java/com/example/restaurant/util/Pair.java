@@ -1,5 +1,9 @@
 package com.example.restaurant.util;
 
+/**
+ * @deprecated an object per point, use TimeSeries for series of month and value
+ */
+@Deprecated
 public class Pair {
     private int month;
     private double number;
@@ -0,0 +1,319 @@
+package com.example.restaurant.util;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import com.example.restaurant.constant.SQLCommand;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process-wide statistics of the payments, the Order_Total of every paid order.
+ * Count, total, mean, lowest and highest payment are kept exactly, the median, p90
+ * and p99 through a TDigest, so the payment analysis is read from memory instead of
+ * sorting and scanning Payments for every figure.
+ * The statistics are built in one streaming pass over Payments. When a write to
+ * Payments is reported on the DBChangeBus only the rows added since, by rowid, are
+ * read and added. If rows went missing the pass is made again from scratch. A write
+ * to Orders may change the Order_Total of a paid order, so it makes the pass again
+ * while anyone listens, and otherwise drops the statistics until they are asked for.
+ * Everything except peek is meant to be called on the main thread.
+ */
+public class PaymentStats
+{
+    private static final String TAG = "PaymentStats";
+    private static PaymentStats instance = null;
+
+    /**
+     * Receives the statistics on the main thread
+     */
+    public interface Listener
+    {
+        void onPaymentStatsChanged(Snapshot stats);
+    }
+
+    /**
+     * One payment with the total of its order
+     */
+    public static final class Payment
+    {
+        public final String payId;
+        public final String orderId;
+        public final double amount;
+        public final String time;
+
+        public Payment(String payId, String orderId, double amount, String time)
+        {
+            this.payId = payId;
+            this.orderId = orderId;
+            this.amount = amount;
+            this.time = time;
+        }
+    }
+
+    /**
+     * Immutable statistics of the payments up to a rowid
+     */
+    public static final class Snapshot
+    {
+        static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, null, null, new TDigest());
+
+        private final long lastRowId;
+        private final int rowsRead;
+        private final int count;
+        private final double total;
+        private final Payment lowest;
+        private final Payment highest;
+        private final TDigest digest;
+        private final double median;
+        private final double p90;
+        private final double p99;
+
+        private Snapshot(long lastRowId, int rowsRead, int count, double total,
+                         Payment lowest, Payment highest, TDigest digest)
+        {
+            this.lastRowId = lastRowId;
+            this.rowsRead = rowsRead;
+            this.count = count;
+            this.total = total;
+            this.lowest = lowest;
+            this.highest = highest;
+            this.digest = digest;
+            this.median = digest.quantile(0.5);
+            this.p90 = digest.quantile(0.9);
+            this.p99 = digest.quantile(0.99);
+        }
+
+        /**
+         * @return payments of an existing order
+         */
+        public int getCount()
+        {
+            return count;
+        }
+
+        public double getTotal()
+        {
+            return total;
+        }
+
+        /**
+         * @return NaN without payments
+         */
+        public double getMean()
+        {
+            return count > 0 ? total / count : Double.NaN;
+        }
+
+        /**
+         * @return null without payments, the first one read on a tie
+         */
+        public Payment getLowest()
+        {
+            return lowest;
+        }
+
+        public Payment getHighest()
+        {
+            return highest;
+        }
+
+        /**
+         * exact up to about a hundred payments, an estimate beyond
+         * @return NaN without payments
+         */
+        public double getMedian()
+        {
+            return median;
+        }
+
+        public double getP90()
+        {
+            return p90;
+        }
+
+        public double getP99()
+        {
+            return p99;
+        }
+
+        /**
+         * add the rows of SQLCommand.QUERY_PAYMENT_AMOUNTS, in one pass
+         * @param cursor
+         * @return new snapshot, this one is not changed
+         */
+        Snapshot plus(Cursor cursor)
+        {
+            long lastRowId = this.lastRowId;
+            int rowsRead = this.rowsRead;
+            int count = this.count;
+            double total = this.total;
+            Payment lowest = this.lowest;
+            Payment highest = this.highest;
+            TDigest digest = this.digest.copy();
+            while (cursor.moveToNext()) {
+                lastRowId = cursor.getLong(0);
+                rowsRead++;
+                //a payment of an order that does not exist has no amount, like in the old join
+                if (cursor.isNull(3)) continue;
+                double amount = cursor.getDouble(3);
+                count++;
+                total += amount;
+                digest.add(amount);
+                if (lowest == null || amount < lowest.amount) {
+                    lowest = new Payment(cursor.getString(1), cursor.getString(2), amount, cursor.getString(4));
+                }
+                if (highest == null || amount > highest.amount) {
+                    highest = new Payment(cursor.getString(1), cursor.getString(2), amount, cursor.getString(4));
+                }
+            }
+            return new Snapshot(lastRowId, rowsRead, count, total, lowest, highest, digest);
+        }
+    }
+
+    private final DBOperator op;
+    private final List<Listener> listeners = new ArrayList<>();
+    private volatile Snapshot snapshot = null;
+    private DBTask loading = null;
+    //asked for while loading, loaded once the running pass is done
+    private boolean refreshPending = false;
+    private boolean rebuildPending = false;
+    //dropped while a pass was running, its result is out of date
+    private boolean stale = false;
+
+    PaymentStats(DBOperator op)
+    {
+        this.op = op;
+        op.getChangeBus().subscribe(tables -> {
+            if (!tables.contains(DBChangeBus.ORDERS)) {
+                refresh();
+            } else if (!listeners.isEmpty()) {
+                rebuild();
+            } else {
+                //nobody looks at them, build them again on the next subscribe
+                snapshot = null;
+                stale = true;
+            }
+        }, DBChangeBus.PAYMENTS, DBChangeBus.ORDERS);
+    }
+
+    public static synchronized PaymentStats getInstance()
+    {
+        if (instance == null) {
+            instance = new PaymentStats(DBOperator.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * get the statistics now if they are built, and again whenever they change
+     * @param listener
+     */
+    public void subscribe(Listener listener)
+    {
+        if (!listeners.contains(listener)) listeners.add(listener);
+        Snapshot current = snapshot;
+        if (current != null) {
+            listener.onPaymentStatsChanged(current);
+        } else {
+            load(false);
+        }
+    }
+
+    public void unsubscribe(Listener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return current statistics, null until they have been built
+     */
+    public Snapshot peek()
+    {
+        return snapshot;
+    }
+
+    /**
+     * add the payments written since the last pass
+     */
+    public void refresh()
+    {
+        load(false);
+    }
+
+    /**
+     * read every payment again
+     */
+    public void rebuild()
+    {
+        load(true);
+    }
+
+    private void load(boolean full)
+    {
+        if (loading != null) {
+            refreshPending = true;
+            rebuildPending |= full;
+            return;
+        }
+        stale = false;
+        Snapshot current = snapshot;
+        final Snapshot base = full || current == null ? Snapshot.EMPTY : current;
+        loading = op.queryAsync(SQLCommand.QUERY_PAYMENT_COUNT, null, cursor -> {
+            //the count and last rowid come from one statement, rows past that rowid are
+            //left to the next pass, so a payment landing meanwhile is not taken for a gap
+            int payments = cursor.moveToFirst() ? cursor.getInt(0) : 0;
+            long lastRowId = cursor.getLong(1);
+            Snapshot next = readSince(op, base, lastRowId);
+            //fewer rows than the table holds, some were deleted or a rowid was reused
+            if (next.rowsRead != payments) next = readSince(op, Snapshot.EMPTY, lastRowId);
+            return next;
+        }, new DBOperator.Callback<Snapshot>() {
+            @Override
+            public void onResult(Snapshot stats) {
+                loading = null;
+                if (stale) {
+                    //an Orders write came in while reading and nobody was listening
+                    loadPending();
+                    return;
+                }
+                snapshot = stats;
+                for (Listener listener : new ArrayList<>(listeners)) {
+                    listener.onPaymentStatsChanged(stats);
+                }
+                loadPending();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                loading = null;
+                Log.e(TAG, "Could not read the payments", e);
+                loadPending();
+            }
+        });
+    }
+
+    private void loadPending()
+    {
+        if (!refreshPending) return;
+        boolean full = rebuildPending;
+        refreshPending = false;
+        rebuildPending = false;
+        load(full);
+    }
+
+    /*
+     * payments after the last rowid of base up to lastRowId, on the reader lane
+     */
+    static Snapshot readSince(DBOperator op, Snapshot base, long lastRowId)
+    {
+        Cursor cursor = op.execQuery(SQLCommand.QUERY_PAYMENT_AMOUNTS,
+                new String[]{String.valueOf(base.lastRowId), String.valueOf(lastRowId)});
+        try {
+            return base.plus(cursor);
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.restaurant.util;
+
+import android.database.Cursor;
+import android.util.LruCache;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads the result of a query in pages of LIMIT/OFFSET rows on the reader lane.
+ * Only the last few pages touched are kept, so memory does not grow with the result.
+ * When the sort keys of the query are given, a page that follows a page already read
+ * seeks past its last row instead, see KeysetPager; OFFSET is only used to jump.
+ * The first page is delivered as soon as it is read, the rows of the whole result
+ * are counted afterwards in a task of their own, and only if the first page is full.
+ * Rows are copied as strings, ready to be shown. Use it from the main thread.
+ */
+public class QueryPager
+{
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    //pages kept in memory, enough for a screen plus prefetch on both sides
+    public static final int DEFAULT_MAX_PAGES = 6;
+
+    /**
+     * Told about loaded rows on the main thread
+     */
+    public interface Listener
+    {
+        /**
+         * first page is in, the rest of the result is still being counted
+         * @param columns column names of the query
+         * @param count number of rows of the first page
+         */
+        void onStarted(String[] columns, int count);
+
+        /**
+         * the size of the result is known, after onStarted
+         * @param count number of rows of the whole result
+         */
+        void onCounted(int count);
+
+        /**
+         * rows [first, first + count) can now be read with getRow
+         */
+        void onRowsLoaded(int first, int count);
+
+        void onError(Exception e);
+    }
+
+    private static final class Page
+    {
+        String[] columns;
+        String[][] rows;
+        String[] lastKey;
+    }
+
+    private final DBOperator op;
+    private final String sql;
+    private final String[] args;
+    private final KeysetPager.Key[] keys;
+    private final int pageSize;
+    private final Listener listener;
+    private final LruCache<Integer, String[][]> pages;
+    private final Set<Integer> loading = new HashSet<>();
+    //sort key of the last row of each page read, only with keys
+    private final Map<Integer, String[]> lastKeys = new HashMap<>();
+    private final DBTaskGroup tasks = new DBTaskGroup();
+    private String[] columns = new String[0];
+    //rows known, those of the first page until the result is counted
+    private int count = -1;
+    private boolean counted = false;
+
+    public QueryPager(DBOperator op, String sql, String[] args, Listener listener)
+    {
+        this(op, sql, args, null, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES, listener);
+    }
+
+    /**
+     * @param keys ORDER BY of the query as result columns, the last one unique, null to use OFFSET only
+     */
+    public QueryPager(DBOperator op, String sql, String[] args, KeysetPager.Key[] keys,
+                      int pageSize, int maxPages, Listener listener)
+    {
+        this.op = op;
+        //the query is wrapped as a subquery, a trailing ; would break it
+        this.sql = sql.trim().replaceAll(";+$", "");
+        this.args = args != null ? args : new String[0];
+        this.keys = keys != null && keys.length > 0 ? keys : null;
+        this.pageSize = pageSize;
+        this.listener = listener;
+        this.pages = new LruCache<>(maxPages);
+    }
+
+    /**
+     * load the first page, then count the rows
+     */
+    public void start()
+    {
+        loading.add(0);
+        tasks.add(op.queryAsync(pageSql(0), pageArgs(0), cursor -> {
+            Page page = readPage(cursor);
+            page.columns = cursor.getColumnNames();
+            return page;
+        }, new DBOperator.Callback<Page>() {
+            @Override
+            public void onResult(Page page) {
+                loading.remove(0);
+                columns = page.columns;
+                count = page.rows.length;
+                pages.put(0, page.rows);
+                if (page.lastKey != null) lastKeys.put(0, page.lastKey);
+                listener.onStarted(columns, count);
+                if (count < pageSize) {
+                    //a short first page is the whole result
+                    counted(count);
+                } else {
+                    countRows();
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                loading.remove(0);
+                listener.onError(e);
+            }
+        }));
+    }
+
+    /**
+     * @return number of rows known, -1 until the first page is in,
+     * then its rows until the whole result is counted
+     */
+    public int getCount()
+    {
+        return count;
+    }
+
+    /**
+     * @return whether getCount is the size of the whole result
+     */
+    public boolean isCounted()
+    {
+        return counted;
+    }
+
+    public String[] getColumnNames()
+    {
+        return columns;
+    }
+
+    /**
+     * row at a position, loading its page if needed
+     * pages next to the position are prefetched as it gets close to them
+     * @param position
+     * @return column values, null while the page is being loaded
+     */
+    public String[] getRow(int position)
+    {
+        int page = position / pageSize;
+        int offset = position % pageSize;
+        if (offset >= pageSize / 2) {
+            request(page + 1);
+        } else if (offset < pageSize / 4) {
+            request(page - 1);
+        }
+        String[][] rows = pages.get(page);
+        if (rows == null) {
+            request(page);
+            return null;
+        }
+        return offset < rows.length ? rows[offset] : null;
+    }
+
+    /**
+     * stop loading and drop every page
+     */
+    public void close()
+    {
+        tasks.cancelAll();
+        loading.clear();
+        pages.evictAll();
+        lastKeys.clear();
+    }
+
+    /*
+     * the whole query runs once to count it, on the reader lane after the first page is shown
+     */
+    private void countRows()
+    {
+        tasks.add(op.readAsync(() -> {
+            Cursor total = op.execQuery("SELECT COUNT(*) FROM (" + sql + ")", args);
+            try {
+                return total.moveToFirst() ? total.getInt(0) : 0;
+            } finally {
+                total.close();
+            }
+        }, new DBOperator.Callback<Integer>() {
+            @Override
+            public void onResult(Integer total) {
+                counted(total);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                listener.onError(e);
+            }
+        }));
+    }
+
+    private void counted(int total)
+    {
+        count = total;
+        counted = true;
+        listener.onCounted(count);
+    }
+
+    private void request(int page)
+    {
+        if (page < 0 || count < 0 || page * pageSize >= count) return;
+        if (loading.contains(page) || pages.get(page) != null) return;
+        loading.add(page);
+        tasks.add(op.queryAsync(pageSql(page), pageArgs(page), cursor -> readPage(cursor),
+                new DBOperator.Callback<Page>() {
+                    @Override
+                    public void onResult(Page result) {
+                        loading.remove(page);
+                        pages.put(page, result.rows);
+                        if (result.lastKey != null) lastKeys.put(page, result.lastKey);
+                        listener.onRowsLoaded(page * pageSize, result.rows.length);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        loading.remove(page);
+                        listener.onError(e);
+                    }
+                }));
+    }
+
+    private String pageSql(int page)
+    {
+        if (keys != null) {
+            boolean seek = lastKeys.containsKey(page - 1);
+            if (seek || page == 0) return KeysetPager.seekSql(sql, keys, seek, pageSize);
+        }
+        return "SELECT * FROM (" + sql + ") LIMIT " + pageSize + " OFFSET " + (long) page * pageSize;
+    }
+
+    private String[] pageArgs(int page)
+    {
+        if (keys == null) return args;
+        return KeysetPager.seekArgs(args, lastKeys.get(page - 1));
+    }
+
+    private Page readPage(Cursor cursor)
+    {
+        Page page = new Page();
+        int columnCount = cursor.getColumnCount();
+        String[][] rows = new String[Math.max(cursor.getCount(), 0)][];
+        int i = 0;
+        while (cursor.moveToNext() && i < rows.length) {
+            String[] row = new String[columnCount];
+            for (int c = 0; c < columnCount; c++) {
+                row[c] = cursor.getString(c);
+            }
+            rows[i++] = row;
+        }
+        page.rows = rows;
+        if (keys != null && i > 0 && cursor.moveToPosition(i - 1)) {
+            page.lastKey = new String[keys.length];
+            for (int k = 0; k < keys.length; k++) {
+                page.lastKey[k] = cursor.getString(cursor.getColumnIndexOrThrow(keys[k].column));
+            }
+        }
+        return page;
+    }
+}
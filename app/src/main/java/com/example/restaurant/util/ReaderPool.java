@@ -0,0 +1,81 @@
+package com.example.restaurant.util;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Read-only connections next to the DBOperator writer, for queries outside a transaction.
+ * Every thread is given one of them, round robin, the first time it queries, so the
+ * reader lane threads each read on a connection of their own. With write-ahead logging
+ * they see the last commit and never wait for the writer.
+ */
+final class ReaderPool
+{
+    //a WITH query may end in a write, which a read-only connection refuses
+    private static final Pattern WRITE = Pattern.compile("\\b(INSERT|UPDATE|DELETE|REPLACE)\\b");
+
+    private final SQLiteDatabase[] readers;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ThreadLocal<SQLiteDatabase> assigned = new ThreadLocal<SQLiteDatabase>()
+    {
+        @Override
+        protected SQLiteDatabase initialValue()
+        {
+            return readers[(next.getAndIncrement() & Integer.MAX_VALUE) % readers.length];
+        }
+    };
+
+    /**
+     * open the connections, the database must already be in WAL mode and migrated
+     * @param path
+     * @param config size of the pool and pragmas of every connection
+     */
+    ReaderPool(String path, DBConfig config)
+    {
+        readers = new SQLiteDatabase[config.readConnections];
+        try {
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = SQLiteDatabase.openDatabase(path, null, SQLiteDatabase.OPEN_READONLY);
+                config.applyToReader(readers[i]);
+            }
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return connection of the calling thread
+     */
+    SQLiteDatabase get()
+    {
+        return assigned.get();
+    }
+
+    int size()
+    {
+        return readers.length;
+    }
+
+    void close()
+    {
+        for (SQLiteDatabase reader : readers) {
+            if (reader != null) reader.close();
+        }
+    }
+
+    /**
+     * whether sql only reads, so it can run on a read-only connection
+     * @param sql
+     * @return true for SELECT, and WITH without a write
+     */
+    static boolean isQuery(String sql)
+    {
+        String statement = sql.trim().toUpperCase(Locale.US);
+        if (statement.startsWith("SELECT")) return true;
+        return statement.startsWith("WITH") && !WRITE.matcher(statement).find();
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.restaurant.util;
+
+import android.database.Cursor;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Process-wide cache of report results, keyed by query and parameters.
+ * A result is served from memory until its TTL runs out or one of the tables the
+ * report reads is written, as reported on the DBChangeBus. Requests for a report that
+ * is already loading wait for that load instead of running the query again.
+ * Everything is meant to be called on the main thread, see ReportWarmService for
+ * filling the cache in the background.
+ */
+public class ReportCache
+{
+    private static final String TAG = "ReportCache";
+    //a result older than this is read again even without writes, e.g. after a restore
+    public static final long DEFAULT_TTL_MS = 30 * 60 * 1000;
+    private static ReportCache instance = null;
+
+    /**
+     * Reads the result of a report, runs on the reader lane
+     */
+    public interface Loader
+    {
+        Rows load(DBOperator op);
+    }
+
+    /**
+     * Immutable result of a report, ready for TableView
+     */
+    public static final class Rows
+    {
+        public final String[] columns;
+        public final List<String[]> rows;
+
+        public Rows(String[] columns, List<String[]> rows)
+        {
+            this.columns = columns.clone();
+            this.rows = Collections.unmodifiableList(new ArrayList<>(rows));
+        }
+
+        /**
+         * read every row of a cursor as strings
+         * @param cursor
+         * @return
+         */
+        public static Rows read(Cursor cursor)
+        {
+            int columnCount = cursor.getColumnCount();
+            List<String[]> rows = new ArrayList<>(Math.max(0, cursor.getCount()));
+            while (cursor.moveToNext()) {
+                String[] row = new String[columnCount];
+                for (int c = 0; c < columnCount; c++) {
+                    row[c] = cursor.getString(c);
+                }
+                rows.add(row);
+            }
+            return new Rows(cursor.getColumnNames(), rows);
+        }
+    }
+
+    /**
+     * A cacheable report: how to read it and the tables whose writes make it stale
+     */
+    public static final class Report
+    {
+        public final String key;
+        private final Loader loader;
+        private final String[] tables;
+
+        private Report(String key, Loader loader, String[] tables)
+        {
+            this.key = key;
+            this.loader = loader;
+            this.tables = tables.clone();
+        }
+
+        /**
+         * @param sql
+         * @param selectionArgs part of the cache key
+         * @param tables every table the query reads
+         * @return
+         */
+        public static Report query(String sql, String[] selectionArgs, String... tables)
+        {
+            String key = selectionArgs == null ? sql : sql + '\0' + Arrays.toString(selectionArgs);
+            return new Report(key, op -> {
+                Cursor cursor = op.execQuery(sql, selectionArgs);
+                try {
+                    return Rows.read(cursor);
+                } finally {
+                    cursor.close();
+                }
+            }, tables);
+        }
+
+        /**
+         * a report computed by code, e.g. from several queries
+         * @param key unique among the reports
+         * @param loader
+         * @param tables every table the loader reads
+         * @return
+         */
+        public static Report of(String key, Loader loader, String... tables)
+        {
+            return new Report(key, loader, tables);
+        }
+    }
+
+    private static final class Entry
+    {
+        final Rows rows;
+        final long loadedAt;
+
+        Entry(Rows rows, long loadedAt)
+        {
+            this.rows = rows;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private static final class Loading
+    {
+        final Report report;
+        final List<DBOperator.Callback<Rows>> waiters = new ArrayList<>();
+        DBTask task;
+
+        Loading(Report report)
+        {
+            this.report = report;
+        }
+    }
+
+    private final DBOperator op;
+    private final long ttlMs;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, Loading> loading = new HashMap<>();
+    private final Map<String, Report> reports = new HashMap<>();
+    private final Set<String> watched = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    private final DBChangeBus.Listener busListener = this::invalidate;
+
+    ReportCache(DBOperator op, long ttlMs)
+    {
+        this.op = op;
+        this.ttlMs = ttlMs;
+    }
+
+    public static synchronized ReportCache getInstance()
+    {
+        if (instance == null) {
+            instance = new ReportCache(DBOperator.getInstance(), DEFAULT_TTL_MS);
+        }
+        return instance;
+    }
+
+    /**
+     * get the result of a report, straight away if it is cached and fresh
+     * @param report
+     * @param callback called on the main thread, possibly before get returns
+     */
+    public void get(Report report, DBOperator.Callback<Rows> callback)
+    {
+        Rows cached = peek(report);
+        if (cached != null) {
+            callback.onResult(cached);
+            return;
+        }
+        Loading load = loading.get(report.key);
+        if (load == null) {
+            load = new Loading(report);
+            loading.put(report.key, load);
+            start(load);
+        }
+        load.waiters.add(callback);
+    }
+
+    /**
+     * @param report
+     * @return cached result, null if there is none or it is past its TTL
+     */
+    public Rows peek(Report report)
+    {
+        Entry entry = entries.get(report.key);
+        if (entry == null) return null;
+        if (SystemClock.elapsedRealtime() - entry.loadedAt >= ttlMs) {
+            entries.remove(report.key);
+            return null;
+        }
+        return entry.rows;
+    }
+
+    /**
+     * load the reports that are not cached
+     * @param reports
+     * @param done called on the main thread once every report is cached or failed
+     */
+    public void warm(Collection<Report> reports, Runnable done)
+    {
+        int[] remaining = {reports.size()};
+        if (remaining[0] == 0) {
+            done.run();
+            return;
+        }
+        DBOperator.Callback<Rows> countDown = new DBOperator.Callback<Rows>() {
+            @Override
+            public void onResult(Rows rows) {
+                if (--remaining[0] == 0) done.run();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.w(TAG, "Could not warm a report", e);
+                onResult(null);
+            }
+        };
+        for (Report report : reports) {
+            get(report, countDown);
+        }
+    }
+
+    /**
+     * stop delivering results to a callback, e.g. when its screen is destroyed
+     * the load itself goes on and is cached
+     * @param callback
+     */
+    public void forget(DBOperator.Callback<Rows> callback)
+    {
+        for (Loading load : loading.values()) {
+            load.waiters.remove(callback);
+        }
+    }
+
+    /**
+     * drop the results of the reports reading any of the tables
+     * a report being loaded is read again, its result could miss the write
+     * @param tables
+     */
+    public void invalidate(Set<String> tables)
+    {
+        for (Report report : reports.values()) {
+            if (!readsAny(report, tables)) continue;
+            entries.remove(report.key);
+            Loading load = loading.get(report.key);
+            if (load != null) {
+                load.task.cancel();
+                start(load);
+            }
+        }
+    }
+
+    /**
+     * drop every result
+     */
+    public void clear()
+    {
+        entries.clear();
+    }
+
+    private void start(Loading load)
+    {
+        Report report = load.report;
+        //watch the tables before reading them, so a write during the load is not missed
+        reports.put(report.key, report);
+        if (watched.addAll(Arrays.asList(report.tables))) {
+            op.getChangeBus().subscribe(busListener, watched.toArray(new String[0]));
+        }
+        load.task = op.readAsync(() -> report.loader.load(op), new DBOperator.Callback<Rows>() {
+            @Override
+            public void onResult(Rows rows) {
+                loading.remove(report.key);
+                entries.put(report.key, new Entry(rows, SystemClock.elapsedRealtime()));
+                for (DBOperator.Callback<Rows> waiter : new ArrayList<>(load.waiters)) {
+                    waiter.onResult(rows);
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                loading.remove(report.key);
+                for (DBOperator.Callback<Rows> waiter : new ArrayList<>(load.waiters)) {
+                    waiter.onError(e);
+                }
+            }
+        });
+    }
+
+    private static boolean readsAny(Report report, Set<String> tables)
+    {
+        for (String table : report.tables) {
+            for (String changed : tables) {
+                if (table.equalsIgnoreCase(changed)) return true;
+            }
+        }
+        return false;
+    }
+}
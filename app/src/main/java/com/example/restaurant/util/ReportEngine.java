@@ -0,0 +1,279 @@
+package com.example.restaurant.util;
+
+import android.database.Cursor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Several aggregates of one query, evaluated together in a single pass over its cursor.
+ * A report declares its metrics (SUM, COUNT, AVG, MIN, MAX or a histogram of a
+ * column) and the source rows are read once, each metric adding to its own primitive
+ * accumulator, instead of running one SELECT per figure.
+ * NULL values are skipped like SQL aggregates do, COUNT without a column counts rows.
+ */
+public final class ReportEngine
+{
+    public enum Kind
+    {
+        SUM, COUNT, AVG, MIN, MAX, HISTOGRAM
+    }
+
+    /**
+     * One figure of the report
+     */
+    public static final class Metric
+    {
+        public final Kind kind;
+        public final String label;
+        //result column, null for COUNT of rows
+        public final String column;
+        //HISTOGRAM: lower bounds of the buckets, ascending
+        private final double[] bounds;
+
+        private Metric(Kind kind, String label, String column, double[] bounds)
+        {
+            this.kind = kind;
+            this.label = label;
+            this.column = column;
+            this.bounds = bounds;
+        }
+
+        public static Metric sum(String label, String column)
+        {
+            return new Metric(Kind.SUM, label, column, null);
+        }
+
+        /**
+         * @param column null to count rows, like COUNT(*)
+         */
+        public static Metric count(String label, String column)
+        {
+            return new Metric(Kind.COUNT, label, column, null);
+        }
+
+        public static Metric avg(String label, String column)
+        {
+            return new Metric(Kind.AVG, label, column, null);
+        }
+
+        public static Metric min(String label, String column)
+        {
+            return new Metric(Kind.MIN, label, column, null);
+        }
+
+        public static Metric max(String label, String column)
+        {
+            return new Metric(Kind.MAX, label, column, null);
+        }
+
+        /**
+         * count the values per bucket, values below the first bound are not counted
+         * @param bounds lower bound of every bucket, ascending, the last one is open
+         */
+        public static Metric histogram(String label, String column, double... bounds)
+        {
+            double[] sorted = bounds.clone();
+            Arrays.sort(sorted);
+            return new Metric(Kind.HISTOGRAM, label, column, sorted);
+        }
+    }
+
+    /**
+     * Values of the metrics, one row per figure and per histogram bucket
+     */
+    public static final class Result
+    {
+        public static final String[] COLUMNS = {"Metric", "Value"};
+
+        private final List<String[]> rows;
+        private final long rowCount;
+
+        private Result(List<String[]> rows, long rowCount)
+        {
+            this.rows = Collections.unmodifiableList(rows);
+            this.rowCount = rowCount;
+        }
+
+        /**
+         * @return label and formatted value, see format
+         */
+        public List<String[]> getRows()
+        {
+            return rows;
+        }
+
+        /**
+         * @return source rows read
+         */
+        public long getRowCount()
+        {
+            return rowCount;
+        }
+
+        /**
+         * @param label
+         * @return formatted value of the metric, null if it has none or there is no such metric
+         */
+        public String get(String label)
+        {
+            for (String[] row : rows) {
+                if (row[0].equals(label)) return row[1];
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Running totals of one pass, filled row by row
+     */
+    final class Accumulator
+    {
+        private final double[] sums = new double[metrics.length];
+        private final long[] counts = new long[metrics.length];
+        private final double[] mins = new double[metrics.length];
+        private final double[] maxes = new double[metrics.length];
+        private final long[][] buckets = new long[metrics.length][];
+        private long rows = 0;
+
+        Accumulator()
+        {
+            Arrays.fill(mins, Double.POSITIVE_INFINITY);
+            Arrays.fill(maxes, Double.NEGATIVE_INFINITY);
+            for (int i = 0; i < metrics.length; i++) {
+                if (metrics[i].kind == Kind.HISTOGRAM) buckets[i] = new long[metrics[i].bounds.length];
+            }
+        }
+
+        /**
+         * @param values value of every column, by column index
+         * @param isNull whether the column is NULL
+         * @param columns column of every metric in values, -1 for a count of rows
+         */
+        void add(double[] values, boolean[] isNull, int[] columns)
+        {
+            rows++;
+            for (int i = 0; i < metrics.length; i++) {
+                int column = columns[i];
+                if (column < 0) {
+                    counts[i]++;
+                    continue;
+                }
+                if (isNull[column]) continue;
+                double value = values[column];
+                counts[i]++;
+                sums[i] += value;
+                if (value < mins[i]) mins[i] = value;
+                if (value > maxes[i]) maxes[i] = value;
+                if (buckets[i] != null) {
+                    int bucket = Arrays.binarySearch(metrics[i].bounds, value);
+                    //not found: -(insertion point) - 1, the bucket is the one before it
+                    if (bucket < 0) bucket = -bucket - 2;
+                    if (bucket >= 0) buckets[i][bucket]++;
+                }
+            }
+        }
+
+        Result finish()
+        {
+            List<String[]> result = new ArrayList<>();
+            for (int i = 0; i < metrics.length; i++) {
+                Metric metric = metrics[i];
+                boolean empty = counts[i] == 0;
+                switch (metric.kind) {
+                    case SUM:
+                        //SUM of no values is NULL in SQL, a report wants 0
+                        result.add(new String[]{metric.label, format(sums[i])});
+                        break;
+                    case COUNT:
+                        result.add(new String[]{metric.label, String.valueOf(counts[i])});
+                        break;
+                    case AVG:
+                        result.add(new String[]{metric.label, empty ? null : format(sums[i] / counts[i])});
+                        break;
+                    case MIN:
+                        result.add(new String[]{metric.label, empty ? null : format(mins[i])});
+                        break;
+                    case MAX:
+                        result.add(new String[]{metric.label, empty ? null : format(maxes[i])});
+                        break;
+                    case HISTOGRAM:
+                        double[] bounds = metric.bounds;
+                        for (int b = 0; b < bounds.length; b++) {
+                            String range = b + 1 < bounds.length
+                                    ? format(bounds[b]) + "-" + format(bounds[b + 1])
+                                    : format(bounds[b]) + "+";
+                            result.add(new String[]{metric.label + " " + range, String.valueOf(buckets[i][b])});
+                        }
+                        break;
+                }
+            }
+            return new Result(result, rows);
+        }
+    }
+
+    private final Metric[] metrics;
+
+    public ReportEngine(Metric... metrics)
+    {
+        this.metrics = metrics.clone();
+    }
+
+    /**
+     * evaluate every metric over the rows of the cursor, reading it once
+     * @param cursor source rows, the metrics name its columns
+     * @return
+     */
+    public Result run(Cursor cursor)
+    {
+        int[] columns = new int[metrics.length];
+        for (int i = 0; i < metrics.length; i++) {
+            columns[i] = metrics[i].column == null ? -1 : cursor.getColumnIndexOrThrow(metrics[i].column);
+        }
+        //one row buffer for the whole pass, nothing is allocated per row
+        double[] values = new double[cursor.getColumnCount()];
+        boolean[] isNull = new boolean[values.length];
+        boolean[] used = new boolean[values.length];
+        for (int column : columns) {
+            if (column >= 0) used[column] = true;
+        }
+        Accumulator accumulator = new Accumulator();
+        while (cursor.moveToNext()) {
+            for (int column = 0; column < values.length; column++) {
+                if (!used[column]) continue;
+                isNull[column] = cursor.isNull(column);
+                values[column] = isNull[column] ? 0 : cursor.getDouble(column);
+            }
+            accumulator.add(values, isNull, columns);
+        }
+        return accumulator.finish();
+    }
+
+    /**
+     * run the source query on the reader lane and evaluate the metrics over it
+     * @param op
+     * @param sql source rows
+     * @param selectionArgs
+     * @param callback receives the result on the main thread
+     * @return task that can be cancelled
+     */
+    public DBTask runAsync(DBOperator op, String sql, String[] selectionArgs, DBOperator.Callback<Result> callback)
+    {
+        return op.queryAsync(sql, selectionArgs, this::run, callback);
+    }
+
+    /**
+     * whole numbers as they are stored, others with two decimals
+     * @param value
+     * @return null for NaN
+     */
+    public static String format(double value)
+    {
+        if (Double.isNaN(value)) return null;
+        if (value == Math.rint(value) && !Double.isInfinite(value)) return String.valueOf((long) value);
+        return String.format(Locale.US, "%.2f", value);
+    }
+}
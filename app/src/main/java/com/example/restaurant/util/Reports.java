@@ -0,0 +1,81 @@
+package com.example.restaurant.util;
+
+import android.database.Cursor;
+
+import com.example.restaurant.constant.SQLCommand;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The standard reports of ReportsActivity, as cacheable reports, see ReportCache.
+ * Each one lists the tables it reads: the sales rollups and the base tables whose
+ * triggers write them, since the change bus reports the table a statement names.
+ */
+public final class Reports
+{
+    // Every figure of the summary comes from one pass over the order totals
+    private static final ReportEngine SALES_SUMMARY_ENGINE = new ReportEngine(
+            ReportEngine.Metric.sum("Total Sales", "Order_Total"),
+            ReportEngine.Metric.count("Total Orders", null),
+            ReportEngine.Metric.avg("Avg Order", "Order_Total"),
+            ReportEngine.Metric.min("Smallest Order", "Order_Total"),
+            ReportEngine.Metric.max("Largest Order", "Order_Total"),
+            ReportEngine.Metric.histogram("Orders", "Order_Total", 0, 25, 50, 100));
+
+    public static final ReportCache.Report SALES_SUMMARY = ReportCache.Report.of("sales_summary",
+            Reports::salesSummary,
+            DBChangeBus.ORDERS, DBChangeBus.PAYMENTS, "Rollup_Payment_Day");
+
+    public static final ReportCache.Report TOP_SELLING = ReportCache.Report.query(
+            SQLCommand.QUERY_TOP_SELLING, null,
+            DBChangeBus.ORDER_ITEM, DBChangeBus.MENU, "Rollup_Dish");
+
+    public static final ReportCache.Report PEAK_TIMES = ReportCache.Report.query(
+            SQLCommand.QUERY_PEAK_TIMES, null,
+            DBChangeBus.ORDER_ITEM, "Rollup_Hour", "Rollup_Order_Hour");
+
+    public static final ReportCache.Report PAYMENT_BY_DAY = ReportCache.Report.query(
+            SQLCommand.QUERY_PAYMENT_BY_DAY, null,
+            DBChangeBus.ORDERS, DBChangeBus.PAYMENTS, "Rollup_Payment_Day");
+
+    //precomputed by ReportWarmService
+    public static final List<ReportCache.Report> STANDARD = Collections.unmodifiableList(Arrays.asList(
+            SALES_SUMMARY, TOP_SELLING, PEAK_TIMES, PAYMENT_BY_DAY));
+
+    private Reports()
+    {
+    }
+
+    /*
+     * figures of the order totals, then the revenue of every month
+     */
+    private static ReportCache.Rows salesSummary(DBOperator op)
+    {
+        List<String[]> rows;
+        Cursor cursor = op.execQuery(SQLCommand.QUERY_ORDER_TOTALS);
+        try {
+            rows = new ArrayList<>(SALES_SUMMARY_ENGINE.run(cursor).getRows());
+        } finally {
+            cursor.close();
+        }
+        // One point per day keyed by its month, downsample(1) adds up the days of a month
+        TimeSeries months;
+        cursor = op.execQuery(SQLCommand.QUERY_DAILY_REVENUE);
+        try {
+            months = TimeSeries.read(cursor, 0, 1).downsample(1);
+        } finally {
+            cursor.close();
+        }
+        for (int i = 0; i < months.size(); i++) {
+            int month = months.keyAt(i);
+            rows.add(new String[]{
+                    String.format(Locale.US, "Revenue %04d-%02d", month / 12, month % 12 + 1),
+                    ReportEngine.format(months.valueAt(i))});
+        }
+        return new ReportCache.Rows(ReportEngine.Result.COLUMNS, rows);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.restaurant.util;
+
+import android.database.Cursor;
+
+import com.example.restaurant.constant.SQLCommand;
+
+/**
+ * Books a reservation in one IMMEDIATE transaction: the reservations of the table are
+ * checked for one overlapping the meal, then the customer and the reservation are
+ * inserted. The write lock is taken before the check, so of two hosts booking the same
+ * table at the same time the second one sees the first reservation and is refused.
+ * The check reads idx_res_table by table and start, from a large party meal before the
+ * new start, the longest a reservation starting earlier can still take the table.
+ */
+public final class ReservationBooking
+{
+    /**
+     * One reservation to book, the ids are made by the caller
+     */
+    public static final class Request
+    {
+        public final String resId;
+        public final String customerId;
+        public final String customerName;
+        public final String phone;
+        public final String tableId;
+        //wall-clock minute, see TableAvailability
+        public final long start;
+        public final int partySize;
+
+        public Request(String resId, String customerId, String customerName, String phone,
+                       String tableId, long start, int partySize)
+        {
+            this.resId = resId;
+            this.customerId = customerId;
+            this.customerName = customerName;
+            this.phone = phone;
+            this.tableId = tableId;
+            this.start = start;
+            this.partySize = partySize;
+        }
+    }
+
+    private ReservationBooking()
+    {
+    }
+
+    /**
+     * book on the calling thread, waits for the transactions of other threads
+     * @param op
+     * @param request
+     * @return true if booked, false if a reservation overlaps it and nothing was written
+     */
+    public static boolean book(DBOperator op, Request request)
+    {
+        boolean[] booked = {false};
+        op.runInTransaction(tx -> {
+            if (conflictOf(tx, request.tableId, request.start, request.partySize) != null) return;
+            String start = TableAvailability.format(request.start);
+            tx.executeInsert(SQLCommand.INSERT_CUSTOMER,
+                    new Object[]{request.customerId, request.customerName, request.phone});
+            tx.executeInsert(SQLCommand.INSERT_RESERVATION,
+                    new Object[]{request.resId, request.customerId, request.tableId, start, start, request.partySize});
+            booked[0] = true;
+        });
+        return booked[0];
+    }
+
+    /**
+     * book on the writer lane, see book
+     * @param op
+     * @param request
+     * @param callback receives false if the table was taken meanwhile
+     * @return task that can be cancelled
+     */
+    public static DBTask bookAsync(DBOperator op, Request request, DBOperator.Callback<Boolean> callback)
+    {
+        return op.callAsync(() -> book(op, request), callback);
+    }
+
+    /**
+     * @param op
+     * @param tableId
+     * @param start wall-clock minute
+     * @param partySize
+     * @return Res_id of a reservation of the table overlapping the meal, null if there is none
+     */
+    static String conflictOf(DBOperator op, String tableId, long start, int partySize)
+    {
+        long end = start + TableAvailability.mealMinutes(partySize);
+        String from = TableAvailability.format(start - TableAvailability.LARGE_PARTY_MEAL_MINUTES);
+        Cursor cursor = op.execQuery(SQLCommand.QUERY_TABLE_RESERVATIONS,
+                new String[]{tableId, from, TableAvailability.format(end)});
+        try {
+            while (cursor.moveToNext()) {
+                long other = TableAvailability.minuteOf(cursor.getString(1));
+                if (other < 0) continue;
+                if (other < end && start < other + TableAvailability.mealMinutes(cursor.getInt(2))) {
+                    return cursor.getString(0);
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        return null;
+    }
+}
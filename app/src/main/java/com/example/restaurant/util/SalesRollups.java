@@ -0,0 +1,275 @@
+package com.example.restaurant.util;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sales pre-aggregated for the reports, so a report reads a few hundred rollup rows
+ * instead of grouping every order item and payment with strftime.
+ * Rollup_Dish: quantity and revenue per dish
+ * Rollup_Hour: orders, quantity and revenue per day and hour of Orditem_time_ordered
+ * Rollup_Payment_Day: payments and the totals of the paid orders per day of Pay_time
+ * Triggers on Order_Item, Payments and Orders keep them current as rows are committed,
+ * the same way as DashboardStats. Orders are counted once per hour with the help of
+ * Rollup_Order_Hour, which holds the items of an order in an hour while there are any.
+ * backfill computes everything from the base tables, verify checks the rollups against it.
+ */
+public final class SalesRollups
+{
+    private static final String TAG = "SalesRollups";
+
+    public static final String[] TABLES = {
+            "Rollup_Dish", "Rollup_Hour", "Rollup_Order_Hour", "Rollup_Payment_Day"
+    };
+
+    //NUMERIC keeps whole amounts as integers, like the INT columns they are summed from
+    private static final String[] CREATE_TABLES = {
+            "CREATE TABLE IF NOT EXISTS Rollup_Dish (" +
+                    "Roll_dish TEXT NOT NULL PRIMARY KEY, " +
+                    "Roll_quantity INTEGER NOT NULL DEFAULT 0, " +
+                    "Roll_revenue NUMERIC NOT NULL DEFAULT 0) WITHOUT ROWID",
+            "CREATE TABLE IF NOT EXISTS Rollup_Hour (" +
+                    "Roll_day TEXT NOT NULL, " +
+                    "Roll_hour INTEGER NOT NULL, " +
+                    "Roll_orders INTEGER NOT NULL DEFAULT 0, " +
+                    "Roll_quantity INTEGER NOT NULL DEFAULT 0, " +
+                    "Roll_revenue NUMERIC NOT NULL DEFAULT 0, " +
+                    "PRIMARY KEY (Roll_day, Roll_hour)) WITHOUT ROWID",
+            "CREATE TABLE IF NOT EXISTS Rollup_Order_Hour (" +
+                    "Roll_order TEXT NOT NULL, " +
+                    "Roll_day TEXT NOT NULL, " +
+                    "Roll_hour INTEGER NOT NULL, " +
+                    "Roll_items INTEGER NOT NULL DEFAULT 0, " +
+                    "PRIMARY KEY (Roll_order, Roll_day, Roll_hour)) WITHOUT ROWID",
+            "CREATE TABLE IF NOT EXISTS Rollup_Payment_Day (" +
+                    "Roll_day TEXT NOT NULL PRIMARY KEY, " +
+                    "Roll_payments INTEGER NOT NULL DEFAULT 0, " +
+                    "Roll_revenue NUMERIC NOT NULL DEFAULT 0) WITHOUT ROWID"
+    };
+
+    //rollup rows computed from the base tables, in the column order of TABLES
+    private static final String[] EXPECTED = {
+            "SELECT Orditem_Menu_dishID, SUM(Orditem_Quantity), SUM(Orditem_Quantity * Orditem_price) " +
+                    "FROM Order_Item GROUP BY Orditem_Menu_dishID",
+            "SELECT date(Orditem_time_ordered) AS d, CAST(strftime('%H', Orditem_time_ordered) AS INTEGER) AS h, " +
+                    "COUNT(DISTINCT Orditem_Order_id), SUM(Orditem_Quantity), " +
+                    "SUM(Orditem_Quantity * Orditem_price) FROM Order_Item GROUP BY d, h",
+            "SELECT Orditem_Order_id, date(Orditem_time_ordered) AS d, " +
+                    "CAST(strftime('%H', Orditem_time_ordered) AS INTEGER) AS h, COUNT(*) " +
+                    "FROM Order_Item GROUP BY Orditem_Order_id, d, h",
+            "SELECT date(p.Pay_time) AS d, COUNT(*), SUM(o.Order_Total) " +
+                    "FROM Payments p JOIN Orders o ON p.Pay_Order_id = o.Order_id GROUP BY d"
+    };
+
+    private static final String[] TRIGGERS = {
+            trigger("trg_rollup_item_ins", "INSERT ON Order_Item", item("NEW", 1)),
+            trigger("trg_rollup_item_del", "DELETE ON Order_Item", item("OLD", -1)),
+            trigger("trg_rollup_item_upd", "UPDATE OF Orditem_Order_id, Orditem_Menu_dishID, " +
+                            "Orditem_Quantity, Orditem_price, Orditem_time_ordered ON Order_Item",
+                    item("OLD", -1) + item("NEW", 1)),
+            trigger("trg_rollup_pay_ins", "INSERT ON Payments", payment("NEW", 1)),
+            trigger("trg_rollup_pay_del", "DELETE ON Payments", payment("OLD", -1)),
+            trigger("trg_rollup_pay_upd", "UPDATE OF Pay_Order_id, Pay_time ON Payments",
+                    payment("OLD", -1) + payment("NEW", 1)),
+            //the payment rollup sums Order_Total, follow the orders that were paid
+            trigger("trg_rollup_order_ins", "INSERT ON Orders", paidOrder("NEW", 1)),
+            trigger("trg_rollup_order_del", "DELETE ON Orders", paidOrder("OLD", -1)),
+            trigger("trg_rollup_order_upd", "UPDATE OF Order_Total ON Orders",
+                    paidOrder("OLD", -1) + paidOrder("NEW", 1))
+    };
+
+    /**
+     * statements that fill the rollups from scratch
+     */
+    public static final String[] BACKFILL = {
+            "DELETE FROM Rollup_Dish",
+            "DELETE FROM Rollup_Hour",
+            "DELETE FROM Rollup_Order_Hour",
+            "DELETE FROM Rollup_Payment_Day",
+            "INSERT INTO Rollup_Dish " + EXPECTED[0],
+            "INSERT INTO Rollup_Hour " + EXPECTED[1],
+            "INSERT INTO Rollup_Order_Hour " + EXPECTED[2],
+            "INSERT INTO Rollup_Payment_Day " + EXPECTED[3]
+    };
+
+    /**
+     * tables, triggers and first fill, run by the schema version 5 migration
+     */
+    public static final String[] SCHEMA = concat(CREATE_TABLES, TRIGGERS, BACKFILL);
+
+    private SalesRollups()
+    {
+    }
+
+    /**
+     * fill the rollups from the base tables in one transaction
+     * safe to run at any time, writes made meanwhile wait on the writer lane
+     * @param op
+     */
+    public static void backfill(DBOperator op)
+    {
+        op.runInTransaction(tx -> {
+            for (String sql : BACKFILL) {
+                tx.execSQL(sql);
+            }
+        });
+    }
+
+    /**
+     * verify the rollups on the reader lane, and backfill them on the writer lane only
+     * if they drifted, so orders are not held up by the check.
+     * It groups the whole history, run it from ReportWarmService rather than a screen.
+     * A backfill once started runs to the end, even if the task is cancelled.
+     * @param op
+     * @param callback receives the rollup tables that were off, empty if none
+     * @return task that can be cancelled
+     */
+    public static DBTask checkAsync(DBOperator op, DBOperator.Callback<List<String>> callback)
+    {
+        return op.readAsync(() -> verify(op), new DBOperator.Callback<List<String>>() {
+            @Override
+            public void onResult(List<String> drift) {
+                if (drift.isEmpty()) {
+                    callback.onResult(drift);
+                    return;
+                }
+                op.callAsync(() -> {
+                    long start = System.nanoTime();
+                    backfill(op);
+                    Log.w(TAG, "Sales rollups drifted, backfilled in " + (System.nanoTime() - start) / 1000000
+                            + " ms: " + drift);
+                    return drift;
+                }, callback);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                callback.onError(e);
+            }
+        });
+    }
+
+    /**
+     * compare the rollups with the base tables
+     * every count is taken by one statement, which reads a single snapshot, so a write
+     * landing meanwhile cannot look like drift. Outside a transaction the statement runs
+     * on a reader connection, where write-ahead logging keeps that snapshot without
+     * taking the write lock.
+     * @param op
+     * @return one line per rollup table that is off, empty when they all match
+     */
+    public static List<String> verify(DBOperator op)
+    {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < TABLES.length; i++) {
+            if (i > 0) sql.append(", ");
+            sql.append("(SELECT COUNT(*) FROM (").append(EXPECTED[i]).append(" EXCEPT SELECT * FROM ")
+                    .append(TABLES[i]).append("))");
+            //rows left at zero are harmless, a row only has to go once it holds something
+            sql.append(", (SELECT COUNT(*) FROM (SELECT * FROM ").append(TABLES[i]).append(" WHERE ")
+                    .append(nonZero(i)).append(" EXCEPT ").append(EXPECTED[i]).append("))");
+        }
+        List<String> drift = new ArrayList<>();
+        Cursor cursor = op.execQuery(sql.toString());
+        try {
+            cursor.moveToFirst();
+            for (int i = 0; i < TABLES.length; i++) {
+                int missing = cursor.getInt(2 * i);
+                int extra = cursor.getInt(2 * i + 1);
+                if (missing + extra > 0) {
+                    drift.add(TABLES[i] + ": " + missing + " rows missing or wrong, " + extra + " extra");
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        return drift;
+    }
+
+    private static String nonZero(int table)
+    {
+        switch (table) {
+            case 0:
+                return "Roll_quantity <> 0 OR Roll_revenue <> 0";
+            case 1:
+                return "Roll_orders <> 0 OR Roll_quantity <> 0 OR Roll_revenue <> 0";
+            case 2:
+                return "Roll_items <> 0";
+            default:
+                return "Roll_payments <> 0 OR Roll_revenue <> 0";
+        }
+    }
+
+    /*
+     * rollup changes for one Order_Item row, row is NEW or OLD and sign 1 or -1
+     * the order counts in its hour while it has at least one item there
+     */
+    private static String item(String row, int sign)
+    {
+        String day = "date(" + row + ".Orditem_time_ordered)";
+        String hour = "CAST(strftime('%H', " + row + ".Orditem_time_ordered) AS INTEGER)";
+        String quantity = sign + " * " + row + ".Orditem_Quantity";
+        String revenue = sign + " * " + row + ".Orditem_Quantity * " + row + ".Orditem_price";
+        String orderHour = "Roll_order = " + row + ".Orditem_Order_id AND Roll_day = " + day +
+                " AND Roll_hour = " + hour;
+        return "INSERT OR IGNORE INTO Rollup_Dish (Roll_dish) VALUES (" + row + ".Orditem_Menu_dishID); " +
+                "UPDATE Rollup_Dish SET Roll_quantity = Roll_quantity + " + quantity +
+                ", Roll_revenue = Roll_revenue + " + revenue +
+                " WHERE Roll_dish = " + row + ".Orditem_Menu_dishID; " +
+                "INSERT OR IGNORE INTO Rollup_Order_Hour (Roll_order, Roll_day, Roll_hour) VALUES (" +
+                row + ".Orditem_Order_id, " + day + ", " + hour + "); " +
+                "UPDATE Rollup_Order_Hour SET Roll_items = Roll_items + " + sign + " WHERE " + orderHour + "; " +
+                "INSERT OR IGNORE INTO Rollup_Hour (Roll_day, Roll_hour) VALUES (" + day + ", " + hour + "); " +
+                "UPDATE Rollup_Hour SET Roll_quantity = Roll_quantity + " + quantity +
+                ", Roll_revenue = Roll_revenue + " + revenue +
+                ", Roll_orders = Roll_orders + (SELECT CASE WHEN Roll_items = " + (sign > 0 ? 1 : 0) +
+                " THEN " + sign + " ELSE 0 END FROM Rollup_Order_Hour WHERE " + orderHour + ")" +
+                " WHERE Roll_day = " + day + " AND Roll_hour = " + hour + "; " +
+                (sign < 0 ? "DELETE FROM Rollup_Order_Hour WHERE " + orderHour + " AND Roll_items = 0; " : "");
+    }
+
+    /*
+     * a payment counts with the total of its order, if the order exists
+     */
+    private static String payment(String row, int sign)
+    {
+        String day = "date(" + row + ".Pay_time)";
+        String order = " FROM Orders WHERE Order_id = " + row + ".Pay_Order_id)";
+        return "INSERT OR IGNORE INTO Rollup_Payment_Day (Roll_day) VALUES (" + day + "); " +
+                "UPDATE Rollup_Payment_Day SET Roll_payments = Roll_payments + " + sign +
+                " * (SELECT COUNT(*)" + order +
+                ", Roll_revenue = Roll_revenue + " + sign + " * IFNULL((SELECT Order_Total" + order + ", 0)" +
+                " WHERE Roll_day = " + day + "; ";
+    }
+
+    /*
+     * an order coming, going or changing its total moves every day it was paid on
+     */
+    private static String paidOrder(String row, int sign)
+    {
+        String payments = "(SELECT COUNT(*) FROM Payments WHERE Pay_Order_id = " + row + ".Order_id" +
+                " AND date(Pay_time) = Roll_day)";
+        return "UPDATE Rollup_Payment_Day SET Roll_payments = Roll_payments + " + sign + " * " + payments +
+                ", Roll_revenue = Roll_revenue + " + sign + " * " + row + ".Order_Total * " + payments +
+                " WHERE Roll_day IN (SELECT date(Pay_time) FROM Payments WHERE Pay_Order_id = " +
+                row + ".Order_id); ";
+    }
+
+    private static String[] concat(String[]... parts)
+    {
+        List<String> all = new ArrayList<>();
+        for (String[] part : parts) {
+            all.addAll(Arrays.asList(part));
+        }
+        return all.toArray(new String[0]);
+    }
+
+    private static String trigger(String name, String event, String body)
+    {
+        return "CREATE TRIGGER IF NOT EXISTS " + name + " AFTER " + event + " BEGIN " + body + "END";
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.restaurant.util;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded LRU of compiled statements keyed by their SQL text,
+ * so hot write paths (see SQLCommand) are parsed and planned only once.
+ * A SQLiteStatement cannot be bound by two threads at once, so a statement is
+ * checked out of the cache under its lock, executed without it and then returned.
+ * The lock is never held while a statement waits for the database connection,
+ * a thread outside a transaction cannot hold up the thread inside one.
+ * Threads running the same SQL at once each get their own statement,
+ * at most MAX_IDLE of them per SQL text are kept for reuse.
+ */
+public class StatementCache
+{
+    //idle statements kept per SQL text, more are closed when returned
+    private static final int MAX_IDLE = 4;
+
+    private final SQLiteDatabase db;
+    private final LinkedHashMap<String, ArrayDeque<SQLiteStatement>> statements;
+    private long hitCount = 0;
+    private long missCount = 0;
+
+    public StatementCache(SQLiteDatabase db, final int maxSize)
+    {
+        this.db = db;
+        //access order: the least recently used statement is evicted first
+        this.statements = new LinkedHashMap<String, ArrayDeque<SQLiteStatement>>(maxSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ArrayDeque<SQLiteStatement>> eldest)
+            {
+                if (size() > maxSize) {
+                    closeAll(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * execute a statement without result, such as update/delete/insert
+     * @param sql
+     * @param args
+     */
+    public void execute(String sql, Object[] args)
+    {
+        SQLiteStatement statement = checkOut(sql);
+        try {
+            bind(statement, args);
+            statement.execute();
+        } finally {
+            checkIn(sql, statement);
+        }
+    }
+
+    /**
+     * execute an insert statement
+     * @param sql
+     * @param args
+     * @return row id of the inserted row, -1 on failure
+     */
+    public long executeInsert(String sql, Object[] args)
+    {
+        SQLiteStatement statement = checkOut(sql);
+        try {
+            bind(statement, args);
+            return statement.executeInsert();
+        } finally {
+            checkIn(sql, statement);
+        }
+    }
+
+    /**
+     * execute an update or delete statement
+     * @param sql
+     * @param args
+     * @return number of rows affected
+     */
+    public int executeUpdateDelete(String sql, Object[] args)
+    {
+        SQLiteStatement statement = checkOut(sql);
+        try {
+            bind(statement, args);
+            return statement.executeUpdateDelete();
+        } finally {
+            checkIn(sql, statement);
+        }
+    }
+
+    public synchronized long getHitCount()
+    {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount()
+    {
+        return missCount;
+    }
+
+    public synchronized boolean contains(String sql)
+    {
+        return statements.containsKey(sql);
+    }
+
+    /**
+     * @return SQL text of the cached statements, least recently used first
+     */
+    public synchronized List<String> cachedSql()
+    {
+        return new ArrayList<>(statements.keySet());
+    }
+
+    /**
+     * close all idle compiled statements, the ones running are closed when they finish
+     */
+    public synchronized void clear()
+    {
+        for (ArrayDeque<SQLiteStatement> idle : statements.values()) {
+            closeAll(idle);
+        }
+        statements.clear();
+    }
+
+    /*
+     * take an idle statement of the SQL out of the cache, or compile one without the lock
+     */
+    private SQLiteStatement checkOut(String sql)
+    {
+        SQLiteStatement statement;
+        synchronized (this) {
+            ArrayDeque<SQLiteStatement> idle = statements.get(sql);
+            if (idle == null) {
+                idle = new ArrayDeque<>();
+                statements.put(sql, idle);
+            }
+            statement = idle.pollFirst();
+            if (statement != null) {
+                hitCount++;
+            } else {
+                missCount++;
+            }
+        }
+        return statement != null ? statement : db.compileStatement(sql);
+    }
+
+    /*
+     * give the statement back for reuse, it is closed if the SQL was evicted meanwhile,
+     * the cache was cleared or enough of them are idle already
+     */
+    private void checkIn(String sql, SQLiteStatement statement)
+    {
+        statement.clearBindings();
+        synchronized (this) {
+            ArrayDeque<SQLiteStatement> idle = statements.get(sql);
+            if (idle != null && idle.size() < MAX_IDLE) {
+                idle.addFirst(statement);
+                return;
+            }
+        }
+        statement.close();
+    }
+
+    private static void bind(SQLiteStatement statement, Object[] args)
+    {
+        if (args == null) return;
+        for (int i = 0; i < args.length; i++) {
+            bindArg(statement, i + 1, args[i]);
+        }
+    }
+
+    private static void closeAll(ArrayDeque<SQLiteStatement> idle)
+    {
+        for (SQLiteStatement statement : idle) {
+            statement.close();
+        }
+        idle.clear();
+    }
+
+    /*
+     * bind one argument with the SQLite type matching its Java type
+     */
+    private static void bindArg(SQLiteStatement statement, int index, Object arg)
+    {
+        if (arg == null) {
+            statement.bindNull(index);
+        } else if (arg instanceof Integer || arg instanceof Long
+                || arg instanceof Short || arg instanceof Byte) {
+            bindLong(statement, index, ((Number) arg).longValue());
+        } else if (arg instanceof Double || arg instanceof Float) {
+            bindDouble(statement, index, ((Number) arg).doubleValue());
+        } else if (arg instanceof Boolean) {
+            bindLong(statement, index, (Boolean) arg ? 1 : 0);
+        } else if (arg instanceof byte[]) {
+            statement.bindBlob(index, (byte[]) arg);
+        } else {
+            bindString(statement, index, arg.toString());
+        }
+    }
+
+    public static void bindLong(SQLiteStatement statement, int index, long value)
+    {
+        statement.bindLong(index, value);
+    }
+
+    public static void bindDouble(SQLiteStatement statement, int index, double value)
+    {
+        statement.bindDouble(index, value);
+    }
+
+    public static void bindString(SQLiteStatement statement, int index, String value)
+    {
+        statement.bindString(index, value);
+    }
+}
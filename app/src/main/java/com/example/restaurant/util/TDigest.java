@@ -0,0 +1,307 @@
+package com.example.restaurant.util;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable sketch of a distribution of values, for quantiles of a stream.
+ * Values are kept as centroids (mean, weight) sorted by mean. Centroids near the
+ * median may absorb many values, centroids in the tails only a few, so p99 stays
+ * accurate while the sketch holds at most about compression centroids, whatever
+ * the number of values. Until that many values were added every value is its own
+ * centroid and the quantiles are exact.
+ * New values are buffered and merged into the centroids in one sorted pass.
+ * Not thread safe, use copy to hand a sketch to another thread.
+ */
+public final class TDigest
+{
+    public static final double DEFAULT_COMPRESSION = 100;
+
+    private final double compression;
+    private double[] means;
+    private double[] weights;
+    private int centroids = 0;
+    private final double[] bufferMeans;
+    private final double[] bufferWeights;
+    private int buffered = 0;
+    private double totalWeight = 0;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    public TDigest()
+    {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param compression about the number of centroids kept, higher is more accurate
+     */
+    public TDigest(double compression)
+    {
+        this.compression = compression;
+        int capacity = (int) Math.ceil(compression) * 2 + 10;
+        means = new double[capacity];
+        weights = new double[capacity];
+        bufferMeans = new double[capacity * 4];
+        bufferWeights = new double[capacity * 4];
+    }
+
+    public void add(double value)
+    {
+        add(value, 1);
+    }
+
+    public void add(double value, double weight)
+    {
+        if (Double.isNaN(value) || weight <= 0) return;
+        if (buffered == bufferMeans.length) compress();
+        bufferMeans[buffered] = value;
+        bufferWeights[buffered] = weight;
+        buffered++;
+        totalWeight += weight;
+        min = Double.isNaN(min) ? value : Math.min(min, value);
+        max = Double.isNaN(max) ? value : Math.max(max, value);
+    }
+
+    /**
+     * add every value of another sketch, the other one is not changed
+     * @param other
+     */
+    public void merge(TDigest other)
+    {
+        for (int i = 0; i < other.centroids; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        for (int i = 0; i < other.buffered; i++) {
+            add(other.bufferMeans[i], other.bufferWeights[i]);
+        }
+        //the centroids of the other one hide its exact extremes
+        if (other.totalWeight > 0) {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+    }
+
+    public TDigest copy()
+    {
+        TDigest copy = new TDigest(compression);
+        copy.merge(this);
+        copy.compress();
+        return copy;
+    }
+
+    /**
+     * @return total weight added, the number of values if they were added one by one
+     */
+    public double size()
+    {
+        return totalWeight;
+    }
+
+    /**
+     * @return smallest value added, NaN if none
+     */
+    public double getMin()
+    {
+        return min;
+    }
+
+    /**
+     * @return largest value added, NaN if none
+     */
+    public double getMax()
+    {
+        return max;
+    }
+
+    /**
+     * @return number of centroids after merging the buffered values
+     */
+    public int centroidCount()
+    {
+        compress();
+        return centroids;
+    }
+
+    /**
+     * estimate the value at a quantile, interpolating between centroid means
+     * with single values this is the median of the two middle values at q = 0.5
+     * @param q between 0 and 1
+     * @return NaN if nothing was added
+     */
+    public double quantile(double q)
+    {
+        if (q < 0 || q > 1) throw new IllegalArgumentException("Quantile out of range: " + q);
+        compress();
+        if (centroids == 0) return Double.NaN;
+        if (centroids == 1) return means[0];
+        //rank of the value asked for, a centroid sits at the middle of its weight
+        double rank = q * totalWeight;
+        double first = weights[0] / 2;
+        if (rank < first) {
+            return min + (means[0] - min) * rank / first;
+        }
+        double last = totalWeight - weights[centroids - 1] / 2;
+        if (rank > last) {
+            return means[centroids - 1] + (max - means[centroids - 1]) * (rank - last) / (totalWeight - last);
+        }
+        double center = first;
+        for (int i = 0; i < centroids - 1; i++) {
+            double next = center + (weights[i] + weights[i + 1]) / 2;
+            if (rank <= next) {
+                return means[i] + (means[i + 1] - means[i]) * (rank - center) / (next - center);
+            }
+            center = next;
+        }
+        return means[centroids - 1];
+    }
+
+    /**
+     * estimate the fraction of values at or below x, the inverse of quantile
+     * @param x
+     * @return between 0 and 1, NaN if nothing was added
+     */
+    public double cdf(double x)
+    {
+        compress();
+        if (centroids == 0) return Double.NaN;
+        if (x < min) return 0;
+        if (x >= max) return 1;
+        if (centroids == 1) return (x - min) / (max - min);
+        //walk the same line quantile interpolates on, from (0, min) over the centroids to (total, max)
+        double first = weights[0] / 2;
+        if (x < means[0]) {
+            return first * (x - min) / (means[0] - min) / totalWeight;
+        }
+        double center = first;
+        for (int i = 0; i < centroids - 1; i++) {
+            double next = center + (weights[i] + weights[i + 1]) / 2;
+            if (x < means[i + 1]) {
+                return (center + (next - center) * (x - means[i]) / (means[i + 1] - means[i])) / totalWeight;
+            }
+            center = next;
+        }
+        return (center + (totalWeight - center) * (x - means[centroids - 1]) / (max - means[centroids - 1])) / totalWeight;
+    }
+
+    /*
+     * merge the buffer into the centroids
+     * a centroid may grow while it spans less than one unit of the scale function k,
+     * which is steep in the tails and flat around the median
+     */
+    private void compress()
+    {
+        if (buffered == 0) return;
+        sort(bufferMeans, bufferWeights, 0, buffered - 1);
+
+        //both lists are sorted, walk them together
+        double[] mergedMeans = new double[Math.max(means.length, centroids + 1)];
+        double[] mergedWeights = new double[mergedMeans.length];
+        int count = 0;
+        int c = 0;
+        int b = 0;
+        double soFar = 0;
+        double limit = totalWeight * quantileOfK(kOfQuantile(0) + 1);
+        double mean = 0;
+        double weight = 0;
+        while (c < centroids || b < buffered) {
+            double nextMean;
+            double nextWeight;
+            if (b == buffered || (c < centroids && means[c] <= bufferMeans[b])) {
+                nextMean = means[c];
+                nextWeight = weights[c];
+                c++;
+            } else {
+                nextMean = bufferMeans[b];
+                nextWeight = bufferWeights[b];
+                b++;
+            }
+            if (weight == 0) {
+                mean = nextMean;
+                weight = nextWeight;
+            } else if (soFar + weight + nextWeight <= limit) {
+                weight += nextWeight;
+                mean += (nextMean - mean) * nextWeight / weight;
+            } else {
+                if (count == mergedMeans.length) {
+                    mergedMeans = Arrays.copyOf(mergedMeans, count * 2);
+                    mergedWeights = Arrays.copyOf(mergedWeights, count * 2);
+                }
+                mergedMeans[count] = mean;
+                mergedWeights[count] = weight;
+                count++;
+                soFar += weight;
+                limit = totalWeight * quantileOfK(kOfQuantile(soFar / totalWeight) + 1);
+                mean = nextMean;
+                weight = nextWeight;
+            }
+        }
+        if (count == mergedMeans.length) {
+            mergedMeans = Arrays.copyOf(mergedMeans, count + 1);
+            mergedWeights = Arrays.copyOf(mergedWeights, count + 1);
+        }
+        mergedMeans[count] = mean;
+        mergedWeights[count] = weight;
+        count++;
+
+        means = mergedMeans;
+        weights = mergedWeights;
+        centroids = count;
+        buffered = 0;
+    }
+
+    //scale function k1 of the t-digest paper, 0 at q = 0 and compression at q = 1
+    private double kOfQuantile(double q)
+    {
+        return compression * (Math.asin(2 * q - 1) / Math.PI + 0.5);
+    }
+
+    private double quantileOfK(double k)
+    {
+        if (k >= compression) return 1;
+        return (Math.sin((k / compression - 0.5) * Math.PI) + 1) / 2;
+    }
+
+    /*
+     * sort values[from..to] and their weights along, without boxing
+     */
+    private static void sort(double[] values, double[] weights, int from, int to)
+    {
+        while (to - from > 16) {
+            double pivot = values[(from + to) >>> 1];
+            int i = from;
+            int j = to;
+            while (i <= j) {
+                while (values[i] < pivot) i++;
+                while (values[j] > pivot) j--;
+                if (i <= j) {
+                    swap(values, weights, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            //recurse into the smaller half, loop on the larger one
+            if (j - from < to - i) {
+                sort(values, weights, from, j);
+                from = i;
+            } else {
+                sort(values, weights, i, to);
+                to = j;
+            }
+        }
+        for (int i = from + 1; i <= to; i++) {
+            for (int j = i; j > from && values[j - 1] > values[j]; j--) {
+                swap(values, weights, j, j - 1);
+            }
+        }
+    }
+
+    private static void swap(double[] values, double[] weights, int i, int j)
+    {
+        double value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+        double weight = weights[i];
+        weights[i] = weights[j];
+        weights[j] = weight;
+    }
+}
@@ -0,0 +1,378 @@
+package com.example.restaurant.util;
+
+import com.example.restaurant.util.TableAvailability.Table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Chooses tables for parties so the floor wastes as few seats and as little waiting as it can.
+ * Every table keeps an IntervalTree of the time it is held, by a reservation, a seated
+ * party or a plan. A party can be given one table or two free-standing tables of the
+ * same type pushed together. The options are scored by:
+ *   empty seats, a table type other than the one asked for, tables pushed together,
+ *   minutes the party waits, and gaps left on a table too short to sell another meal.
+ * The lowest score wins, so a couple waits a little for a two-top rather than take the
+ * four-top a larger party will need, unless the wait costs more than the empty seats.
+ * Holding and releasing is O(log n), scoring a party is O(options * log n), with the
+ * options, every table and every pair that can be combined, listed once up front.
+ * Times are wall-clock minutes, see TableAvailability. Not thread-safe.
+ */
+public final class TableAllocator
+{
+    //tables that are moved around to seat a large party, booths, windows and the like are fixed
+    public static final Set<String> COMBINABLE_TYPES = new HashSet<>(Arrays.asList("Standard", "Large"));
+
+    //score of an option, per empty seat
+    static final long SEAT_COST = 10;
+    //when the tables are not of the type the party asked for
+    static final long PREFERENCE_COST = 25;
+    //per table pushed together
+    static final long COMBINE_COST = 15;
+    //per minute the party waits past the time it wants to sit
+    static final long WAIT_COST = 2;
+    //per minute of a gap left on a table that is too short for another meal
+    static final long GAP_COST = 1;
+    //how far ahead a plan looks for a free table
+    static final long HORIZON_MINUTES = 12 * 60;
+
+    /**
+     * Tables for a party from a start time, and the score they got
+     */
+    public static final class Assignment
+    {
+        public final List<Table> tables;
+        public final long start;
+        public final int seats;
+        final long cost;
+
+        Assignment(Table[] tables, long start, long cost)
+        {
+            this.tables = Collections.unmodifiableList(Arrays.asList(tables));
+            this.start = start;
+            int seats = 0;
+            for (Table table : tables) seats += table.capacity;
+            this.seats = seats;
+            this.cost = cost;
+        }
+
+        /**
+         * @return "Table 3", or "Tables 2 + 8" when tables are pushed together
+         */
+        public String label()
+        {
+            if (tables.size() == 1) return "Table " + tables.get(0).number;
+            StringBuilder label = new StringBuilder("Tables ");
+            for (int i = 0; i < tables.size(); i++) {
+                if (i > 0) label.append(" + ");
+                label.append(tables.get(i).number);
+            }
+            return label.toString();
+        }
+
+        public String[] tableIds()
+        {
+            String[] ids = new String[tables.size()];
+            for (int i = 0; i < ids.length; i++) ids[i] = tables.get(i).id;
+            return ids;
+        }
+    }
+
+    /**
+     * A party waiting to be seated
+     */
+    public static final class Party
+    {
+        public final String id;
+        public final int size;
+        //earliest time the party can sit
+        public final long from;
+        //DT_table_type asked for, null for any
+        public final String preferredType;
+
+        public Party(String id, int size, long from, String preferredType)
+        {
+            this.id = id;
+            this.size = size;
+            this.from = from;
+            this.preferredType = preferredType;
+        }
+    }
+
+    private final List<Table> tables;
+    private final Map<String, IntervalTree> windows = new HashMap<>();
+    //hold id to the tables it holds
+    private final Map<String, String[]> held = new HashMap<>();
+    //every table on its own, then every pair that can be pushed together
+    private final List<Table[]> options = new ArrayList<>();
+
+    /**
+     * @param tables the dining tables
+     */
+    public TableAllocator(Collection<Table> tables)
+    {
+        this.tables = new ArrayList<>(tables);
+        Collections.sort(this.tables, (a, b) -> a.capacity != b.capacity
+                ? Integer.compare(a.capacity, b.capacity) : Integer.compare(a.number, b.number));
+        for (Table table : this.tables) {
+            windows.put(table.id, new IntervalTree());
+            options.add(new Table[]{table});
+        }
+        for (int i = 0; i < this.tables.size(); i++) {
+            Table a = this.tables.get(i);
+            if (!COMBINABLE_TYPES.contains(a.type)) continue;
+            for (int j = i + 1; j < this.tables.size(); j++) {
+                Table b = this.tables.get(j);
+                if (!a.type.equals(b.type)) continue;
+                options.add(a.number < b.number ? new Table[]{a, b} : new Table[]{b, a});
+            }
+        }
+    }
+
+    /**
+     * @return the tables by capacity, then number
+     */
+    public List<Table> tables()
+    {
+        return Collections.unmodifiableList(tables);
+    }
+
+    /**
+     * hold tables for [start, end), replacing what the id held
+     * @param id Res_id, or any other id of the party
+     * @param start
+     * @param end
+     * @param tableIds
+     * @return false if one of the tables is unknown, nothing is held then
+     */
+    public boolean hold(String id, long start, long end, String... tableIds)
+    {
+        for (String tableId : tableIds) {
+            if (!windows.containsKey(tableId)) return false;
+        }
+        release(id);
+        for (String tableId : tableIds) {
+            windows.get(tableId).add(id, start, end);
+        }
+        held.put(id, tableIds.clone());
+        return true;
+    }
+
+    /**
+     * @param id
+     * @return whether the id held any table
+     */
+    public boolean release(String id)
+    {
+        String[] tableIds = held.remove(id);
+        if (tableIds == null) return false;
+        for (String tableId : tableIds) {
+            windows.get(tableId).remove(id);
+        }
+        return true;
+    }
+
+    /**
+     * @param id
+     * @return start and end of what the id holds, null if it holds nothing
+     */
+    public long[] window(String id)
+    {
+        String[] tableIds = held.get(id);
+        return tableIds != null ? windows.get(tableIds[0]).get(id) : null;
+    }
+
+    /**
+     * @param id
+     * @return DT_ids the id holds, null if it holds nothing
+     */
+    public String[] tablesOf(String id)
+    {
+        String[] tableIds = held.get(id);
+        return tableIds != null ? tableIds.clone() : null;
+    }
+
+    /**
+     * @param tableId
+     * @param start
+     * @param end
+     * @return id of a hold on the table overlapping [start, end), null if there is none
+     */
+    public String conflictOf(String tableId, long start, long end)
+    {
+        IntervalTree tree = windows.get(tableId);
+        return tree != null ? tree.findOverlap(start, end) : null;
+    }
+
+    /**
+     * single tables seating the party that are free for its whole meal
+     * @param partySize
+     * @param start
+     * @return smallest tables first
+     */
+    public List<Table> freeTables(int partySize, long start)
+    {
+        List<Table> free = new ArrayList<>();
+        long end = start + TableAvailability.mealMinutes(partySize);
+        for (Table table : tables) {
+            if (table.capacity >= partySize && windows.get(table.id).findOverlap(start, end) == null) {
+                free.add(table);
+            }
+        }
+        return free;
+    }
+
+    /**
+     * every way to seat the party at start, best first
+     * @param partySize
+     * @param start
+     * @param preferredType DT_table_type asked for, null for any
+     * @param combine whether tables may be pushed together
+     * @return empty if nothing is free
+     */
+    public List<Assignment> options(int partySize, long start, String preferredType, boolean combine)
+    {
+        List<Assignment> found = new ArrayList<>();
+        long end = start + TableAvailability.mealMinutes(partySize);
+        for (Table[] option : options) {
+            if (option.length > 1 && !combine) break;
+            if (seats(option) < partySize || !isFree(option, start, end)) continue;
+            found.add(new Assignment(option, start, cost(option, partySize, start, end, preferredType)));
+        }
+        Collections.sort(found, (a, b) -> Long.compare(a.cost, b.cost));
+        return found;
+    }
+
+    /**
+     * @param partySize
+     * @param start
+     * @param preferredType
+     * @param combine
+     * @return best way to seat the party at start, null if nothing is free
+     */
+    public Assignment best(int partySize, long start, String preferredType, boolean combine)
+    {
+        List<Assignment> found = options(partySize, start, preferredType, combine);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * seat the parties in turn, each at the option with the best score counting its wait,
+     * every party holding its tables for the ones after it. The holds are dropped again,
+     * only the plan is returned, so it can be made again after every event.
+     * @param parties in the order they are served
+     * @param now nobody is seated before
+     * @return Assignment of every party that fits within HORIZON_MINUTES, by party id in order
+     */
+    public Map<String, Assignment> plan(List<Party> parties, long now)
+    {
+        Map<String, Assignment> plan = new LinkedHashMap<>();
+        List<String> planned = new ArrayList<>();
+        try {
+            for (Party party : parties) {
+                Assignment assignment = earliest(party, now);
+                if (assignment == null) continue;
+                String holdId = "plan:" + party.id;
+                hold(holdId, assignment.start, assignment.start + TableAvailability.mealMinutes(party.size),
+                        assignment.tableIds());
+                planned.add(holdId);
+                plan.put(party.id, assignment);
+            }
+        } finally {
+            for (String holdId : planned) release(holdId);
+        }
+        return plan;
+    }
+
+    /*
+     * option with the best score for the party, each at the first time it is free
+     */
+    private Assignment earliest(Party party, long now)
+    {
+        long from = Math.max(now, party.from);
+        long meal = TableAvailability.mealMinutes(party.size);
+        Assignment best = null;
+        for (Table[] option : options) {
+            if (seats(option) < party.size) continue;
+            long start = firstFree(option, from, meal);
+            if (start < 0) continue;
+            long cost = cost(option, party.size, start, start + meal, party.preferredType)
+                    + WAIT_COST * (start - from);
+            if (best == null || cost < best.cost) best = new Assignment(option, start, cost);
+        }
+        return best;
+    }
+
+    /*
+     * first start from from on where every table of the option is free for the meal,
+     * -1 past the horizon
+     */
+    private long firstFree(Table[] option, long from, long meal)
+    {
+        long start = from;
+        boolean moved = true;
+        while (moved) {
+            if (start - from > HORIZON_MINUTES) return -1;
+            moved = false;
+            for (Table table : option) {
+                IntervalTree tree = windows.get(table.id);
+                String conflict = tree.findOverlap(start, start + meal);
+                if (conflict != null) {
+                    start = tree.get(conflict)[1];
+                    moved = true;
+                }
+            }
+        }
+        return start;
+    }
+
+    private boolean isFree(Table[] option, long start, long end)
+    {
+        for (Table table : option) {
+            if (windows.get(table.id).findOverlap(start, end) != null) return false;
+        }
+        return true;
+    }
+
+    private long cost(Table[] option, int partySize, long start, long end, String preferredType)
+    {
+        long cost = SEAT_COST * (seats(option) - partySize) + COMBINE_COST * (option.length - 1);
+        for (Table table : option) {
+            if (preferredType != null && !preferredType.equals(table.type)) {
+                cost += PREFERENCE_COST;
+                break;
+            }
+        }
+        for (Table table : option) {
+            IntervalTree tree = windows.get(table.id);
+            long next = tree.nextStart(end);
+            long previous = tree.previousEnd(start);
+            if (next != Long.MAX_VALUE) cost += GAP_COST * unsellable(next - end);
+            if (previous != Long.MIN_VALUE) cost += GAP_COST * unsellable(start - previous);
+        }
+        return cost;
+    }
+
+    /*
+     * a gap between two holds nobody can eat in
+     */
+    private static long unsellable(long gap)
+    {
+        return gap > 0 && gap < TableAvailability.MEAL_MINUTES ? gap : 0;
+    }
+
+    private static int seats(Table[] option)
+    {
+        int seats = 0;
+        for (Table table : option) seats += table.capacity;
+        return seats;
+    }
+}
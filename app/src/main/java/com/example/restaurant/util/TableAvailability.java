@@ -0,0 +1,391 @@
+package com.example.restaurant.util;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import com.example.restaurant.constant.SQLCommand;
+
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Which dining tables are free for a party at a given time. A TableAllocator holds
+ * every table for the windows of its reservations not seated yet, from Res_start_item
+ * for the expected duration of the meal, and from the seating of its open turn in
+ * TableOccupancy until it is likely bussed, whether the party had a reservation or
+ * walked in, so checking a table is O(log n) in its reservations. How long a turn
+ * lasts comes from the TurnTimes of the table type that TableOccupancy keeps up to date,
+ * nothing of the payment history is read again. Creating and cancelling a reservation
+ * update the windows in place, seating one hands its table over to the turn, and the
+ * turns follow TableOccupancy, the only writer of Table_Turn, as it changes. The
+ * DBChangeBus event of a Reservation write applied in place is skipped; any other write
+ * to Reservation reloads the upcoming windows in the background. A write from elsewhere
+ * coalesced into the same event as one applied here is only seen by the next reload.
+ * Times are wall-clock minutes, the local date and time as stored in Reservation
+ * counted as if it were UTC, so no time zone is involved.
+ * Everything is meant to be called on the main thread.
+ */
+public class TableAvailability
+{
+    private static final String TAG = "TableAvailability";
+    //expected length of a meal, longer for large parties
+    public static final long MEAL_MINUTES = 90;
+    public static final long LARGE_PARTY_MEAL_MINUTES = 120;
+    public static final int LARGE_PARTY = 5;
+    private static final String DATE_TIME = "yyyy-MM-dd HH:mm";
+    //hold of a table with an open turn, by DT_id
+    private static final String TURN_HOLD = "turn:";
+    private static TableAvailability instance = null;
+
+    /**
+     * Receives the engine on the main thread once it is loaded, and after every reload
+     */
+    public interface Listener
+    {
+        void onAvailabilityChanged(TableAvailability availability);
+    }
+
+    /**
+     * One row of Dining_table
+     */
+    public static final class Table
+    {
+        public final String id;
+        public final int number;
+        public final int capacity;
+        public final String type;
+
+        public Table(String id, int number, int capacity, String type)
+        {
+            this.id = id;
+            this.number = number;
+            this.capacity = capacity;
+            this.type = type;
+        }
+    }
+
+    private final DBOperator op;
+    private final TableOccupancy occupancy;
+    private final List<Listener> listeners = new ArrayList<>();
+    private TableAllocator floor = null;
+    //bumped by every change made here, a load started before it is thrown away
+    private long version = 0;
+    private DBTask loading = null;
+    private boolean reloadPending = false;
+    //Reservation writes applied in place whose bus event has not come yet
+    private int appliedWrites = 0;
+
+    TableAvailability(DBOperator op, TableOccupancy occupancy)
+    {
+        this.op = op;
+        this.occupancy = occupancy;
+        op.getChangeBus().subscribe(tables -> {
+            //the event of writes already applied here, several may be coalesced into one
+            if (appliedWrites > 0) {
+                appliedWrites = 0;
+                return;
+            }
+            reload();
+        }, DBChangeBus.RESERVATION);
+        occupancy.subscribe(changed -> {
+            if (syncTurns(floor)) notifyListeners();
+        });
+    }
+
+    public static synchronized TableAvailability getInstance()
+    {
+        if (instance == null) {
+            instance = new TableAvailability(DBOperator.getInstance(), TableOccupancy.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * get the engine now if it is loaded, and again after every reload
+     * @param listener
+     */
+    public void subscribe(Listener listener)
+    {
+        if (!listeners.contains(listener)) listeners.add(listener);
+        if (floor != null) {
+            listener.onAvailabilityChanged(this);
+        } else {
+            load();
+        }
+    }
+
+    public void unsubscribe(Listener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    public boolean isLoaded()
+    {
+        return floor != null;
+    }
+
+    /**
+     * tables seating the party that have no reservation overlapping its meal
+     * @param partySize
+     * @param start wall-clock minute the party arrives, see minuteOf
+     * @return smallest tables first, empty until the engine is loaded
+     */
+    public List<Table> freeTables(int partySize, long start)
+    {
+        return floor != null ? floor.freeTables(partySize, start) : new ArrayList<>();
+    }
+
+    /**
+     * every way to seat the party at start, tables pushed together included, best first
+     * @param partySize
+     * @param start
+     * @param preferredType DT_table_type asked for, null for any
+     * @param combine whether tables may be pushed together
+     * @return empty until the engine is loaded
+     */
+    public List<TableAllocator.Assignment> options(int partySize, long start, String preferredType, boolean combine)
+    {
+        return floor != null ? floor.options(partySize, start, preferredType, combine) : new ArrayList<>();
+    }
+
+    /**
+     * @param tableId
+     * @param start
+     * @param end
+     * @return Res_id of a reservation of the table overlapping [start, end), null if there is none
+     */
+    public String conflictOf(String tableId, long start, long end)
+    {
+        return floor != null ? floor.conflictOf(tableId, start, end) : null;
+    }
+
+    /**
+     * @return the allocator behind the engine, to plan with, null until the engine is loaded
+     */
+    public TableAllocator allocator()
+    {
+        return floor;
+    }
+
+    /**
+     * a reservation was inserted
+     * @param resId
+     * @param tableId
+     * @param start wall-clock minute of Res_start_item
+     * @param partySize
+     */
+    public void onCreated(String resId, String tableId, long start, int partySize)
+    {
+        if (floor == null) return;
+        applied();
+        floor.hold(resId, start, start + mealMinutes(partySize), tableId);
+    }
+
+    /**
+     * a reservation was seated, its window gives way to the turn the seating starts
+     * in TableOccupancy, which holds the table until it is bussed
+     * @param resId
+     */
+    public void onSeated(String resId)
+    {
+        if (floor == null) return;
+        applied();
+        floor.release(resId);
+    }
+
+    /**
+     * a reservation was cancelled, its window is free again
+     * @param resId
+     */
+    public void onCancelled(String resId)
+    {
+        if (floor == null) return;
+        applied();
+        floor.release(resId);
+    }
+
+    public static long mealMinutes(int partySize)
+    {
+        return partySize >= LARGE_PARTY ? LARGE_PARTY_MEAL_MINUTES : MEAL_MINUTES;
+    }
+
+    /**
+     * @param dateTime "yyyy-MM-dd HH:mm", as in Res_date and Res_start_item, seconds are ignored
+     * @return wall-clock minute, -1 if the text is not a date and time
+     */
+    public static long minuteOf(String dateTime)
+    {
+        if (dateTime == null) return -1;
+        Date date = utcFormat().parse(dateTime, new ParsePosition(0));
+        return date != null ? date.getTime() / 60000 : -1;
+    }
+
+    /**
+     * @param minute wall-clock minute
+     * @return "yyyy-MM-dd HH:mm"
+     */
+    public static String format(long minute)
+    {
+        return utcFormat().format(new Date(minute * 60000));
+    }
+
+    /**
+     * @return wall-clock minute of the device clock
+     */
+    public static long nowMinute()
+    {
+        return minuteOf(new SimpleDateFormat(DATE_TIME, Locale.US).format(new Date()));
+    }
+
+    private static SimpleDateFormat utcFormat()
+    {
+        SimpleDateFormat format = new SimpleDateFormat(DATE_TIME, Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format;
+    }
+
+    /*
+     * read the windows again once the running load, if any, is done
+     */
+    private void reload()
+    {
+        if (floor == null && listeners.isEmpty()) return;
+        if (loading != null) {
+            reloadPending = true;
+            return;
+        }
+        load();
+    }
+
+    private void load()
+    {
+        if (loading != null) return;
+        final long loadVersion = version;
+        final long now = nowMinute();
+        //windows that ended before now cannot overlap anything asked for from now on
+        final String since = format(now - LARGE_PARTY_MEAL_MINUTES);
+        //copies, the ones of TableOccupancy keep changing on the main thread
+        final Map<String, TurnTimes> turnTimes = occupancy.turnTimes();
+        loading = op.readAsync(() -> read(op, since, now, turnTimes), new DBOperator.Callback<TableAllocator>() {
+            @Override
+            public void onResult(TableAllocator loaded) {
+                loading = null;
+                if (loadVersion == version) {
+                    //steps of the turns not written yet when the load read them
+                    syncTurns(loaded);
+                    floor = loaded;
+                    notifyListeners();
+                } else {
+                    //changed here meanwhile, the bus reports it and a new load follows
+                    reloadPending = true;
+                }
+                if (reloadPending) {
+                    reloadPending = false;
+                    load();
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                loading = null;
+                reloadPending = false;
+                Log.e(TAG, "Could not load the reservations", e);
+            }
+        });
+    }
+
+    /*
+     * a Reservation write was applied in place, loads started before it are thrown away
+     * and its bus event is not reloaded for
+     */
+    private void applied()
+    {
+        version++;
+        appliedWrites++;
+    }
+
+    private void notifyListeners()
+    {
+        for (Listener listener : new ArrayList<>(listeners)) {
+            listener.onAvailabilityChanged(this);
+        }
+    }
+
+    /*
+     * hold the tables with a turn open in TableOccupancy and free the ones bussed,
+     * a hold already starting at the seating of its turn is kept as it is
+     * @return whether a table was held or freed
+     */
+    private boolean syncTurns(TableAllocator allocator)
+    {
+        if (allocator == null || !occupancy.isLoaded()) return false;
+        long now = nowMinute();
+        boolean changed = false;
+        for (Table table : allocator.tables()) {
+            long seated = occupancy.seatedAt(table.id);
+            if (seated < 0) {
+                changed |= allocator.release(TURN_HOLD + table.id);
+                continue;
+            }
+            long[] window = allocator.window(TURN_HOLD + table.id);
+            if (window != null && window[0] == seated) continue;
+            long left = occupancy.turnTimes(table.type).remaining(Math.max(0, now - seated));
+            changed |= allocator.hold(TURN_HOLD + table.id, seated, now + left, table.id);
+        }
+        return changed;
+    }
+
+    /*
+     * tables held by the reservations starting from since and by the open turns,
+     * on the reader lane
+     * @param turnTimes turns that ended by DT_table_type
+     */
+    static TableAllocator read(DBOperator op, String since, long now, Map<String, TurnTimes> turnTimes)
+    {
+        Map<String, String> types = new HashMap<>();
+        List<Table> tables = new ArrayList<>();
+        Cursor cursor = op.execQuery(SQLCommand.QUERY_ALL_TABLES);
+        try {
+            while (cursor.moveToNext()) {
+                tables.add(new Table(cursor.getString(0), cursor.getInt(1), cursor.getInt(2), cursor.getString(3)));
+                types.put(cursor.getString(0), cursor.getString(3));
+            }
+        } finally {
+            cursor.close();
+        }
+        TableAllocator loaded = new TableAllocator(tables);
+        cursor = op.execQuery(SQLCommand.QUERY_RESERVATION_WINDOWS, new String[]{since});
+        try {
+            while (cursor.moveToNext()) {
+                long start = minuteOf(cursor.getString(2));
+                if (start < 0) continue;
+                loaded.hold(cursor.getString(0), start, start + mealMinutes(cursor.getInt(3)), cursor.getString(1));
+            }
+        } finally {
+            cursor.close();
+        }
+        //a seated party keeps its table from the seating for as long as turns that got as far usually last
+        cursor = op.execQuery(SQLCommand.QUERY_OPEN_TURNS);
+        try {
+            while (cursor.moveToNext()) {
+                String tableId = cursor.getString(0);
+                long seated = minuteOf(cursor.getString(1));
+                if (seated < 0 || !types.containsKey(tableId)) continue;
+                TurnTimes turns = turnTimes.get(types.get(tableId));
+                if (turns == null) turns = new TurnTimes();
+                long elapsed = Math.max(0, now - seated);
+                loaded.hold(TURN_HOLD + tableId, seated, now + turns.remaining(elapsed), tableId);
+            }
+        } finally {
+            cursor.close();
+        }
+        return loaded;
+    }
+}
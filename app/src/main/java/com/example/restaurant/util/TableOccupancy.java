@@ -0,0 +1,366 @@
+package com.example.restaurant.util;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import com.example.restaurant.constant.SQLCommand;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where every dining table is in its turn, kept in the Table_Turn table and mirrored in
+ * an Occupancy. A turn goes free, seated, ordered, paid and ends when the table is
+ * bussed, with the time of every step. Seating a reservation or a walk-in, submitting
+ * an order and the floor plan report the steps here; counts of the tables in a state
+ * are then read from memory instead of querying Orders.
+ * The turns that ended give the turn-time percentiles per table type.
+ * Table_Turn holds at most one open turn per table, the statements only move a turn
+ * forward, so the table and the mirror agree whatever order the events come in.
+ * The table is only written through this class. Meant to be called on the main thread.
+ */
+public class TableOccupancy
+{
+    private static final String TAG = "TableOccupancy";
+    private static TableOccupancy instance = null;
+
+    //order statuses of a table still taken, as DashboardStats counts open orders
+    private static final String OPEN_ORDER = "IN ('Open', 'Placed', 'Preparing', 'Ready')";
+    private static final String MINUTE = "'%Y-%m-%d %H:%M'";
+
+    /**
+     * table and its first fill from the orders, run by the schema version 7 migration
+     * paid orders become turns that ended, from the first dish ordered to the payment,
+     * tables with an open order are ordered since their first dish
+     */
+    public static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS Table_Turn (" +
+                    "Turn_id INTEGER PRIMARY KEY, " +
+                    "Turn_DT_id TEXT NOT NULL, " +
+                    //"yyyy-MM-dd HH:mm", null until the turn got there
+                    "Turn_seated TEXT NOT NULL, " +
+                    "Turn_ordered TEXT, " +
+                    "Turn_paid TEXT, " +
+                    "Turn_bussed TEXT)",
+            //one open turn per table
+            "CREATE UNIQUE INDEX IF NOT EXISTS idx_turn_open ON Table_Turn(Turn_DT_id) WHERE Turn_bussed IS NULL",
+            "INSERT INTO Table_Turn (Turn_DT_id, Turn_seated, Turn_ordered, Turn_paid, Turn_bussed) " +
+                    "SELECT o.Order_DT_id, strftime(" + MINUTE + ", MIN(i.Orditem_time_ordered)), " +
+                    "strftime(" + MINUTE + ", MIN(i.Orditem_time_ordered)), " +
+                    "strftime(" + MINUTE + ", p.Pay_time), strftime(" + MINUTE + ", p.Pay_time) " +
+                    "FROM Payments p " +
+                    "JOIN Orders o ON o.Order_id = p.Pay_Order_id " +
+                    "JOIN Order_Item i ON i.Orditem_Order_id = p.Pay_Order_id " +
+                    "GROUP BY p.Pay_id",
+            "INSERT INTO Table_Turn (Turn_DT_id, Turn_seated, Turn_ordered) " +
+                    "SELECT Order_DT_id, First, First FROM (" +
+                    "SELECT o.Order_DT_id, IFNULL(strftime(" + MINUTE + ", MIN(i.Orditem_time_ordered)), " +
+                    "strftime(" + MINUTE + ", 'now', 'localtime')) AS First " +
+                    "FROM Orders o " +
+                    "LEFT JOIN Order_Item i ON i.Orditem_Order_id = o.Order_id " +
+                    "WHERE o.Order_status " + OPEN_ORDER + " " +
+                    "GROUP BY o.Order_DT_id)"
+    };
+
+    /**
+     * Step of the turn a table is at, bussing ends the turn and the table is FREE again
+     */
+    public enum State
+    {
+        FREE,
+        SEATED,
+        ORDERED,
+        PAID
+    }
+
+    /**
+     * Receives the occupancy on the main thread when it is loaded and after every change
+     */
+    public interface Listener
+    {
+        void onOccupancyChanged(TableOccupancy occupancy);
+    }
+
+    private final DBOperator op;
+    private final List<Listener> listeners = new ArrayList<>();
+    private Occupancy board = null;
+    private DBTask loading = null;
+    //a step was written after the running load read the table
+    private boolean reloadPending = false;
+
+    TableOccupancy(DBOperator op)
+    {
+        this.op = op;
+    }
+
+    public static synchronized TableOccupancy getInstance()
+    {
+        if (instance == null) {
+            instance = new TableOccupancy(DBOperator.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * get the occupancy now if it is loaded, and again after every change
+     * @param listener
+     */
+    public void subscribe(Listener listener)
+    {
+        if (!listeners.contains(listener)) listeners.add(listener);
+        if (board != null) {
+            listener.onOccupancyChanged(this);
+        } else {
+            load();
+        }
+    }
+
+    public void unsubscribe(Listener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    public boolean isLoaded()
+    {
+        return board != null;
+    }
+
+    /**
+     * @param state
+     * @return tables at that step, 0 until loaded
+     */
+    public int count(State state)
+    {
+        return board != null ? board.count(state) : 0;
+    }
+
+    /**
+     * @return tables with a turn open, 0 until loaded
+     */
+    public int occupied()
+    {
+        return board != null ? board.tableCount() - board.count(State.FREE) : 0;
+    }
+
+    /**
+     * @param tableId
+     * @return FREE as well until loaded
+     */
+    public State stateOf(String tableId)
+    {
+        return board != null ? board.stateOf(tableId) : State.FREE;
+    }
+
+    /**
+     * @param tableId
+     * @return wall-clock minute the table got to its step, -1 if it is free
+     */
+    public long since(String tableId)
+    {
+        Occupancy.Turn turn = board != null ? board.turnOf(tableId) : null;
+        return turn != null ? turn.since() : -1;
+    }
+
+    /**
+     * @param tableId
+     * @return wall-clock minute the party sat down, -1 if the table is free
+     */
+    public long seatedAt(String tableId)
+    {
+        Occupancy.Turn turn = board != null ? board.turnOf(tableId) : null;
+        return turn != null ? turn.seated : -1;
+    }
+
+    /**
+     * @return every table, empty until loaded
+     */
+    public List<TableAvailability.Table> tables()
+    {
+        return board != null ? board.tables() : new ArrayList<>();
+    }
+
+    /**
+     * @param type DT_table_type
+     * @return turns from seating to bussing at tables of that type
+     */
+    public TurnTimes turnTimes(String type)
+    {
+        return board != null ? board.turnTimes(type) : new TurnTimes();
+    }
+
+    /**
+     * @return copies of the turns from seating to bussing by table type, to read on
+     * another thread, empty until loaded
+     */
+    public Map<String, TurnTimes> turnTimes()
+    {
+        return board != null ? board.history() : new HashMap<>();
+    }
+
+    /**
+     * a party sat down, at every table pushed together for it
+     * @param tableIds
+     */
+    public void onSeated(String... tableIds)
+    {
+        long now = TableAvailability.nowMinute();
+        for (String tableId : tableIds) {
+            if (board != null && !board.seat(tableId, now)) continue;
+            write(SQLCommand.INSERT_TURN_SEATED, tableId, now);
+        }
+        changed();
+    }
+
+    /**
+     * an order was submitted for the table, a free table is seated as well
+     * @param tableId
+     */
+    public void onOrdered(String tableId)
+    {
+        long now = TableAvailability.nowMinute();
+        if (board != null && !board.order(tableId, now)) return;
+        String minute = TableAvailability.format(now);
+        op.callAsync(() -> {
+            int[] rows = {0};
+            op.runInTransaction(tx -> {
+                rows[0] += tx.executeUpdateDelete(SQLCommand.INSERT_TURN_SEATED, new Object[]{tableId, minute});
+                rows[0] += tx.executeUpdateDelete(SQLCommand.UPDATE_TURN_ORDERED, new Object[]{minute, tableId});
+            });
+            return rows[0];
+        }, written);
+        missed();
+        changed();
+    }
+
+    public void onPaid(String tableId)
+    {
+        long now = TableAvailability.nowMinute();
+        if (board != null && !board.pay(tableId, now)) return;
+        write(SQLCommand.UPDATE_TURN_PAID, now, tableId);
+        changed();
+    }
+
+    /**
+     * the table was cleared, its turn ends and the table is free
+     * @param tableId
+     */
+    public void onBussed(String tableId)
+    {
+        long now = TableAvailability.nowMinute();
+        if (board != null && board.bus(tableId, now) < 0) return;
+        write(SQLCommand.UPDATE_TURN_BUSSED, now, tableId);
+        changed();
+    }
+
+    /*
+     * one statement of a step, minutes are stored formatted
+     */
+    private void write(String sql, Object first, Object second)
+    {
+        Object[] args = {first, second};
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof Long) args[i] = TableAvailability.format((Long) args[i]);
+        }
+        op.execAsync(sql, args, written);
+        missed();
+    }
+
+    /*
+     * a step written while the load runs is queued after its read, read again
+     */
+    private void missed()
+    {
+        if (board == null && loading != null) reloadPending = true;
+    }
+
+    private final DBOperator.Callback<Integer> written = new DBOperator.Callback<Integer>() {
+        @Override
+        public void onResult(Integer rows) {
+        }
+
+        @Override
+        public void onError(Exception e) {
+            Log.e(TAG, "Could not record the table turn", e);
+            //the mirror went ahead of the table, read it again
+            if (board != null) {
+                board = null;
+                load();
+            }
+        }
+    };
+
+    private void changed()
+    {
+        if (board == null) return;
+        for (Listener listener : new ArrayList<>(listeners)) {
+            listener.onOccupancyChanged(this);
+        }
+    }
+
+    /*
+     * the read runs on the writer lane, after every step written before it
+     */
+    private void load()
+    {
+        if (loading != null) return;
+        loading = op.callAsync(() -> read(op), new DBOperator.Callback<Occupancy>() {
+            @Override
+            public void onResult(Occupancy loaded) {
+                loading = null;
+                if (reloadPending) {
+                    reloadPending = false;
+                    load();
+                    return;
+                }
+                board = loaded;
+                changed();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                loading = null;
+                reloadPending = false;
+                Log.e(TAG, "Could not load the table turns", e);
+            }
+        });
+    }
+
+    /*
+     * tables, their open turns and the history
+     */
+    static Occupancy read(DBOperator op)
+    {
+        List<TableAvailability.Table> tables = new ArrayList<>();
+        Cursor cursor = op.execQuery(SQLCommand.QUERY_ALL_TABLES);
+        try {
+            while (cursor.moveToNext()) {
+                tables.add(new TableAvailability.Table(cursor.getString(0), cursor.getInt(1),
+                        cursor.getInt(2), cursor.getString(3)));
+            }
+        } finally {
+            cursor.close();
+        }
+        Occupancy loaded = new Occupancy(tables);
+        cursor = op.execQuery(SQLCommand.QUERY_OPEN_TURNS);
+        try {
+            while (cursor.moveToNext()) {
+                loaded.restore(cursor.getString(0), TableAvailability.minuteOf(cursor.getString(1)),
+                        TableAvailability.minuteOf(cursor.getString(2)),
+                        TableAvailability.minuteOf(cursor.getString(3)));
+            }
+        } finally {
+            cursor.close();
+        }
+        cursor = op.execQuery(SQLCommand.QUERY_TURN_HISTORY);
+        try {
+            while (cursor.moveToNext()) {
+                loaded.addHistory(cursor.getString(0), cursor.getDouble(1));
+            }
+        } finally {
+            cursor.close();
+        }
+        return loaded;
+    }
+}
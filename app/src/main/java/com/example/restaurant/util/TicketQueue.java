@@ -0,0 +1,123 @@
+package com.example.restaurant.util;
+
+import androidx.recyclerview.widget.DiffUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Order tickets on screen, keyed by Order_id.
+ * A refresh is applied as a delta: unchanged tickets keep their instance, so a
+ * ListAdapter diffing the snapshots only rebinds the rows that were added or changed.
+ * Tickets are compared with equals, so they should be value objects.
+ */
+public class TicketQueue<T>
+{
+    /**
+     * Key of a ticket, normally its Order_id
+     */
+    public interface KeyOf<T>
+    {
+        String keyOf(T ticket);
+    }
+
+    private final KeyOf<T> key;
+    private Map<String, T> tickets = new LinkedHashMap<>();
+    private List<T> snapshot = Collections.emptyList();
+    //what the last apply did
+    private int added = 0;
+    private int changed = 0;
+    private int removed = 0;
+
+    public TicketQueue(KeyOf<T> key)
+    {
+        this.key = key;
+    }
+
+    /**
+     * replace the queue with a freshly loaded list of tickets
+     * @param fresh tickets in display order
+     * @return snapshot to submit to the adapter
+     */
+    public synchronized List<T> apply(List<T> fresh)
+    {
+        Map<String, T> next = new LinkedHashMap<>();
+        added = 0;
+        changed = 0;
+        int kept = 0;
+        for (T ticket : fresh) {
+            String id = key.keyOf(ticket);
+            T old = tickets.get(id);
+            if (old == null) {
+                added++;
+            } else if (old.equals(ticket)) {
+                //same content, hand back the instance the adapter already has
+                ticket = old;
+                kept++;
+            } else {
+                changed++;
+                kept++;
+            }
+            next.put(id, ticket);
+        }
+        removed = tickets.size() - kept;
+        tickets = next;
+        snapshot = Collections.unmodifiableList(new ArrayList<>(next.values()));
+        return snapshot;
+    }
+
+    public synchronized List<T> snapshot()
+    {
+        return snapshot;
+    }
+
+    public synchronized T get(String id)
+    {
+        return tickets.get(id);
+    }
+
+    public synchronized int size()
+    {
+        return tickets.size();
+    }
+
+    public synchronized int getAdded()
+    {
+        return added;
+    }
+
+    public synchronized int getChanged()
+    {
+        return changed;
+    }
+
+    public synchronized int getRemoved()
+    {
+        return removed;
+    }
+
+    /**
+     * diff callback for a ListAdapter showing these tickets
+     * @return
+     */
+    public DiffUtil.ItemCallback<T> itemCallback()
+    {
+        return new DiffUtil.ItemCallback<T>()
+        {
+            @Override
+            public boolean areItemsTheSame(T oldItem, T newItem)
+            {
+                return key.keyOf(oldItem).equals(key.keyOf(newItem));
+            }
+
+            @Override
+            public boolean areContentsTheSame(T oldItem, T newItem)
+            {
+                return oldItem == newItem || oldItem.equals(newItem);
+            }
+        };
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.restaurant.util;
+
+import android.database.Cursor;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * Compact series of (key, value) points for chart and report data, such as revenue
+ * per month or orders per hour.
+ * Keys are ints (month number, hours since the epoch, ...) appended in ascending
+ * order, values doubles, both kept in parallel primitive arrays, so a point costs
+ * 12 bytes instead of an object each like Pair.
+ * Range sums use prefix sums, built on first use and extended as points are appended.
+ * toBytes writes the series with delta coded keys, and whole values as varints,
+ * for caching it.
+ */
+public final class TimeSeries
+{
+    private static final int MAGIC = 0x5453;
+    private static final int VERSION = 1;
+    //values are all whole numbers, written as varints instead of 8 byte doubles
+    private static final int FLAG_WHOLE_VALUES = 1;
+
+    private int[] keys;
+    private double[] values;
+    private int size = 0;
+    //prefix[i] is the sum of the first i values, valid for prefixSize points
+    private double[] prefix = null;
+    private int prefixSize = 0;
+
+    public TimeSeries()
+    {
+        this(16);
+    }
+
+    public TimeSeries(int capacity)
+    {
+        keys = new int[Math.max(1, capacity)];
+        values = new double[keys.length];
+    }
+
+    /**
+     * @param key not smaller than the last key, equal keys are kept as separate points
+     * @param value
+     */
+    public void append(int key, double value)
+    {
+        if (size > 0 && key < keys[size - 1]) {
+            throw new IllegalArgumentException("Key " + key + " is before the last key " + keys[size - 1]);
+        }
+        if (size == keys.length) {
+            int capacity = keys.length + (keys.length >> 1) + 1;
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public int keyAt(int index)
+    {
+        checkIndex(index);
+        return keys[index];
+    }
+
+    public double valueAt(int index)
+    {
+        checkIndex(index);
+        return values[index];
+    }
+
+    /**
+     * @param fromKey first key included
+     * @param toKey first key excluded
+     * @return sum of the values with fromKey <= key < toKey
+     */
+    public double sum(int fromKey, int toKey)
+    {
+        if (toKey <= fromKey) return 0;
+        ensurePrefix();
+        return prefix[lowerBound(toKey)] - prefix[lowerBound(fromKey)];
+    }
+
+    /**
+     * @return sum of all values
+     */
+    public double sum()
+    {
+        ensurePrefix();
+        return prefix[size];
+    }
+
+    /**
+     * merge the points into buckets of width keys, summing their values
+     * e.g. hours since the epoch with width 24 give days
+     * @param width keys per bucket, a bucket is keyed by its first key
+     * @return new series with one point per bucket that has points
+     */
+    public TimeSeries downsample(int width)
+    {
+        if (width <= 0) throw new IllegalArgumentException("Bucket width must be positive: " + width);
+        TimeSeries result = new TimeSeries(Math.max(1, Math.min(size, 16)));
+        int i = 0;
+        while (i < size) {
+            int bucket = keys[i] - Math.floorMod(keys[i], width);
+            double total = 0;
+            //keys are sorted, the bucket ends at the first key of the next one
+            while (i < size && (long) keys[i] - bucket < width) {
+                total += values[i];
+                i++;
+            }
+            result.append(bucket, total);
+        }
+        return result;
+    }
+
+    /**
+     * read a series from a cursor, in one pass without an object per row
+     * @param cursor rows ordered by the key column
+     * @param keyColumn
+     * @param valueColumn NULL is read as 0
+     * @return
+     */
+    public static TimeSeries read(Cursor cursor, int keyColumn, int valueColumn)
+    {
+        TimeSeries series = new TimeSeries(Math.max(1, cursor.getCount()));
+        while (cursor.moveToNext()) {
+            series.append(cursor.getInt(keyColumn), cursor.isNull(valueColumn) ? 0 : cursor.getDouble(valueColumn));
+        }
+        return series;
+    }
+
+    /**
+     * @return bytes held by the arrays, including unused capacity and prefix sums
+     */
+    public long footprintBytes()
+    {
+        return 4L * keys.length + 8L * values.length + (prefix != null ? 8L * prefix.length : 0);
+    }
+
+    /**
+     * compact binary form, see fromBytes
+     * @return
+     */
+    public byte[] toBytes()
+    {
+        boolean whole = true;
+        for (int i = 0; i < size && whole; i++) {
+            whole = values[i] == Math.rint(values[i]) && Math.abs(values[i]) < 1L << 53;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 + size * (whole ? 4 : 10));
+        writeVarint(out, MAGIC);
+        writeVarint(out, VERSION);
+        writeVarint(out, whole ? FLAG_WHOLE_VALUES : 0);
+        writeVarint(out, size);
+        int previous = 0;
+        for (int i = 0; i < size; i++) {
+            //keys ascend, so the deltas are small and never negative after the first
+            writeVarint(out, zigzag((long) keys[i] - previous));
+            previous = keys[i];
+        }
+        for (int i = 0; i < size; i++) {
+            if (whole) {
+                writeVarint(out, zigzag((long) values[i]));
+            } else {
+                long bits = Double.doubleToLongBits(values[i]);
+                for (int shift = 0; shift < 64; shift += 8) {
+                    out.write((int) (bits >>> shift) & 0xFF);
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @param bytes written by toBytes
+     * @return
+     * @throws IllegalArgumentException if the bytes are not a series
+     */
+    public static TimeSeries fromBytes(byte[] bytes)
+    {
+        int[] position = {0};
+        if (readVarint(bytes, position) != MAGIC || readVarint(bytes, position) != VERSION) {
+            throw new IllegalArgumentException("Not a time series");
+        }
+        boolean whole = (readVarint(bytes, position) & FLAG_WHOLE_VALUES) != 0;
+        int size = (int) readVarint(bytes, position);
+        TimeSeries series = new TimeSeries(size);
+        long key = 0;
+        for (int i = 0; i < size; i++) {
+            key += unzigzag(readVarint(bytes, position));
+            series.keys[i] = (int) key;
+        }
+        for (int i = 0; i < size; i++) {
+            if (whole) {
+                series.values[i] = unzigzag(readVarint(bytes, position));
+            } else {
+                if (position[0] + 8 > bytes.length) throw new IllegalArgumentException("Time series is cut off");
+                long bits = 0;
+                for (int shift = 0; shift < 64; shift += 8) {
+                    bits |= (bytes[position[0]++] & 0xFFL) << shift;
+                }
+                series.values[i] = Double.longBitsToDouble(bits);
+            }
+        }
+        series.size = size;
+        return series;
+    }
+
+    /*
+     * index of the first point with a key >= key, size if there is none
+     */
+    private int lowerBound(int key)
+    {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void ensurePrefix()
+    {
+        if (prefix != null && prefixSize == size) return;
+        if (prefix == null || prefix.length < size + 1) {
+            double[] grown = new double[keys.length + 1];
+            if (prefix != null) System.arraycopy(prefix, 0, grown, 0, prefixSize + 1);
+            prefix = grown;
+        }
+        for (int i = prefixSize; i < size; i++) {
+            prefix[i + 1] = prefix[i] + values[i];
+        }
+        prefixSize = size;
+    }
+
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+    }
+
+    private static long zigzag(long value)
+    {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value)
+    {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value)
+    {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] bytes, int[] position)
+    {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position[0] >= bytes.length) throw new IllegalArgumentException("Time series is cut off");
+            byte b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("Bad varint in time series");
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.restaurant.util;
+
+/**
+ * How long a table stays taken, from seating to bussing, over the turns that ended at
+ * tables of one type. TableOccupancy builds them from Table_Turn once and adds every turn
+ * as it ends. Answers how much longer a seated table will likely be taken: the median
+ * of the turns that lasted at least as long as this one so far.
+ * Not thread-safe, hand a copy to another thread.
+ */
+public final class TurnTimes
+{
+    //a table about to be paid still needs clearing
+    static final long MIN_LEFT_MINUTES = 10;
+    //turns above this are an order left open by mistake
+    static final double MAX_TURN_MINUTES = 6 * 60;
+
+    private final TDigest digest;
+    //turns added, the digest only knows their total weight
+    private int count;
+
+    public TurnTimes()
+    {
+        this(new TDigest(), 0);
+    }
+
+    private TurnTimes(TDigest digest, int count)
+    {
+        this.digest = digest;
+        this.count = count;
+    }
+
+    /**
+     * @param minutes one turn
+     */
+    public void add(double minutes)
+    {
+        if (minutes > 0 && minutes <= MAX_TURN_MINUTES) {
+            digest.add(minutes);
+            count++;
+        }
+    }
+
+    /**
+     * @return turns added, those left out as slips of the till not counted
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * @param q
+     * @return turn in minutes at the quantile, TableAvailability.MEAL_MINUTES without history
+     */
+    public double quantile(double q)
+    {
+        return count == 0 ? TableAvailability.MEAL_MINUTES : digest.quantile(q);
+    }
+
+    /**
+     * @param elapsed minutes the table has been taken
+     * @return minutes it will likely stay taken, at least MIN_LEFT_MINUTES
+     */
+    public long remaining(long elapsed)
+    {
+        double left;
+        if (count == 0) {
+            left = TableAvailability.MEAL_MINUTES - elapsed;
+        } else {
+            //median of the turns that got this far
+            double reached = digest.cdf(elapsed);
+            left = reached >= 1 ? 0 : digest.quantile(reached + (1 - reached) / 2) - elapsed;
+        }
+        return Math.max(MIN_LEFT_MINUTES, Math.round(left));
+    }
+
+    public TurnTimes copy()
+    {
+        return new TurnTimes(digest.copy(), count);
+    }
+}
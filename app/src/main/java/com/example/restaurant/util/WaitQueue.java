@@ -0,0 +1,103 @@
+package com.example.restaurant.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Parties waiting for a table, in the order they are served: VIPs first, then by arrival.
+ * Every party size has a heap of its own, so the party to offer a table that came free
+ * is the best of at most one heap top per seat, whatever the length of the queue.
+ * Leaving the queue only marks the party, it is dropped once it reaches the top of its heap.
+ * Not thread-safe.
+ */
+final class WaitQueue
+{
+    static final Comparator<Waitlist.Entry> PRIORITY = (a, b) -> {
+        if (a.vip != b.vip) return a.vip ? -1 : 1;
+        if (a.arrival != b.arrival) return Long.compare(a.arrival, b.arrival);
+        return a.id.compareTo(b.id);
+    };
+
+    //heaps.get(size) holds the parties of that size, up to the largest party so far
+    private final List<PriorityQueue<Waitlist.Entry>> heaps = new ArrayList<>();
+    private final Map<String, Waitlist.Entry> waiting = new HashMap<>();
+
+    void add(Waitlist.Entry entry)
+    {
+        remove(entry.id);
+        waiting.put(entry.id, entry);
+        int size = Math.max(1, entry.partySize);
+        while (heaps.size() <= size) heaps.add(new PriorityQueue<>(PRIORITY));
+        heaps.get(size).add(entry);
+    }
+
+    /**
+     * @param id
+     * @return the party, null if it was not waiting
+     */
+    Waitlist.Entry remove(String id)
+    {
+        Waitlist.Entry entry = waiting.remove(id);
+        if (entry != null) entry.waiting = false;
+        return entry;
+    }
+
+    Waitlist.Entry get(String id)
+    {
+        return waiting.get(id);
+    }
+
+    int size()
+    {
+        return waiting.size();
+    }
+
+    /**
+     * @return every waiting party in the order they are served
+     */
+    List<Waitlist.Entry> inOrder()
+    {
+        List<Waitlist.Entry> entries = new ArrayList<>(waiting.values());
+        Collections.sort(entries, PRIORITY);
+        return entries;
+    }
+
+    /**
+     * the party to offer a table: the first in order among those filling at least half
+     * of it, so a couple does not take an eight-top while a family waits, or else the
+     * first among those that fit at all
+     * @param capacity seats at the table
+     * @return null if no waiting party fits
+     */
+    Waitlist.Entry bestFor(int capacity)
+    {
+        int largest = Math.min(capacity, heaps.size() - 1);
+        Waitlist.Entry best = bestIn((capacity + 1) / 2, largest);
+        return best != null ? best : bestIn(1, largest);
+    }
+
+    private Waitlist.Entry bestIn(int from, int to)
+    {
+        Waitlist.Entry best = null;
+        for (int size = from; size <= to; size++) {
+            Waitlist.Entry top = top(size);
+            if (top != null && (best == null || PRIORITY.compare(top, best) < 0)) best = top;
+        }
+        return best;
+    }
+
+    /*
+     * first waiting party of a heap, dropping those that left
+     */
+    private Waitlist.Entry top(int size)
+    {
+        PriorityQueue<Waitlist.Entry> heap = heaps.get(size);
+        while (!heap.isEmpty() && !heap.peek().waiting) heap.poll();
+        return heap.peek();
+    }
+}
@@ -0,0 +1,333 @@
+package com.example.restaurant.util;
+
+import android.text.TextUtils;
+import android.util.Log;
+
+import com.example.restaurant.constant.SQLCommand;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Walk-in parties waiting for a table, kept in the Waitlist table and mirrored in a
+ * WaitQueue. Waits are estimated by planning the queue, in the order it is served, on
+ * the TableAllocator of TableAvailability, where tables with an open turn are taken
+ * for as long as TurnTimes expects. The estimates are made again on every change of
+ * the queue or of the tables.
+ * The table is only written through this class. Meant to be called on the main thread.
+ */
+public class Waitlist
+{
+    private static final String TAG = "Waitlist";
+    public static final String WAITING = "Waiting";
+    public static final String SEATED = "Seated";
+    public static final String LEFT = "Left";
+    private static Waitlist instance = null;
+
+    public static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS Waitlist (" +
+                    "Wait_id TEXT NOT NULL PRIMARY KEY, " +
+                    "Wait_name TEXT NOT NULL, " +
+                    "Wait_phone TEXT, " +
+                    "Wait_party_size INTEGER NOT NULL, " +
+                    "Wait_vip INTEGER NOT NULL DEFAULT 0, " +
+                    "Wait_arrival TEXT NOT NULL, " +
+                    "Wait_status TEXT NOT NULL DEFAULT 'Waiting', " +
+                    //DT_ids seated at, comma separated when tables were pushed together
+                    "Wait_tables TEXT, " +
+                    "Wait_seated TEXT)",
+            "CREATE INDEX IF NOT EXISTS idx_wait_status ON Waitlist(Wait_status, Wait_seated)"
+    };
+
+    /**
+     * Receives the waitlist on the main thread when it is loaded and after every change
+     */
+    public interface Listener
+    {
+        void onWaitlistChanged(Waitlist waitlist);
+    }
+
+    /**
+     * One waiting party
+     */
+    public static final class Entry
+    {
+        public final String id;
+        public final String name;
+        public final String phone;
+        public final int partySize;
+        public final boolean vip;
+        //wall-clock minute, see TableAvailability
+        public final long arrival;
+        //false once seated or gone
+        boolean waiting = true;
+
+        public Entry(String id, String name, String phone, int partySize, boolean vip, long arrival)
+        {
+            this.id = id;
+            this.name = name;
+            this.phone = phone;
+            this.partySize = partySize;
+            this.vip = vip;
+            this.arrival = arrival;
+        }
+    }
+
+    /**
+     * A table that is free now and the party to offer it to
+     */
+    public static final class Suggestion
+    {
+        public final Entry entry;
+        public final TableAvailability.Table table;
+
+        Suggestion(Entry entry, TableAvailability.Table table)
+        {
+            this.entry = entry;
+            this.table = table;
+        }
+    }
+
+    private final DBOperator op;
+    private final TableAvailability availability;
+    private final TableOccupancy occupancy;
+    private final List<Listener> listeners = new ArrayList<>();
+    private WaitQueue queue = null;
+    private DBTask loading = null;
+    //estimated minutes until a table is ready, by Wait_id
+    private final Map<String, Long> waits = new HashMap<>();
+    //the plan behind the estimates, by Wait_id
+    private Map<String, TableAllocator.Assignment> plan = new HashMap<>();
+
+    Waitlist(DBOperator op, TableAvailability availability, TableOccupancy occupancy)
+    {
+        this.op = op;
+        this.availability = availability;
+        this.occupancy = occupancy;
+        availability.subscribe(tables -> changed());
+    }
+
+    public static synchronized Waitlist getInstance()
+    {
+        if (instance == null) {
+            instance = new Waitlist(DBOperator.getInstance(), TableAvailability.getInstance(),
+                    TableOccupancy.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * get the waitlist now if it is loaded, and again after every change
+     * @param listener
+     */
+    public void subscribe(Listener listener)
+    {
+        if (!listeners.contains(listener)) listeners.add(listener);
+        if (queue != null) {
+            listener.onWaitlistChanged(this);
+        } else {
+            load();
+        }
+    }
+
+    public void unsubscribe(Listener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    public boolean isLoaded()
+    {
+        return queue != null;
+    }
+
+    /**
+     * @return the waiting parties in the order they are served
+     */
+    public List<Entry> entries()
+    {
+        return queue != null ? queue.inOrder() : new ArrayList<>();
+    }
+
+    /**
+     * @param entry
+     * @return estimated minutes until a table is ready, -1 if none is in sight
+     */
+    public long estimatedWait(Entry entry)
+    {
+        Long wait = waits.get(entry.id);
+        return wait != null ? wait : -1;
+    }
+
+    /**
+     * @param entry
+     * @return the tables the party is planned at, null if none is in sight
+     */
+    public TableAllocator.Assignment plannedTables(Entry entry)
+    {
+        return plan.get(entry.id);
+    }
+
+    /**
+     * a table free now and the party to offer it to, the first in order that fills it well
+     * @return null if no free table fits anybody waiting
+     */
+    public Suggestion suggest()
+    {
+        TableAllocator floor = availability.allocator();
+        if (queue == null || queue.size() == 0 || floor == null) return null;
+        long now = TableAvailability.nowMinute();
+        Suggestion best = null;
+        for (TableAvailability.Table table : floor.tables()) {
+            Entry entry = queue.bestFor(table.capacity);
+            if (entry == null) continue;
+            long end = now + TableAvailability.mealMinutes(entry.partySize);
+            if (floor.conflictOf(table.id, now, end) != null) continue;
+            if (best == null || WaitQueue.PRIORITY.compare(entry, best.entry) < 0) {
+                best = new Suggestion(entry, table);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * put a party on the waitlist
+     * @param name
+     * @param phone
+     * @param partySize
+     * @param vip
+     * @param callback gets the entry once it is stored
+     * @return the running write
+     */
+    public DBTask add(String name, String phone, int partySize, boolean vip, DBOperator.Callback<Entry> callback)
+    {
+        long arrival = TableAvailability.nowMinute();
+        Entry entry = new Entry(IdGenerator.getInstance().nextId("WAIT"), name, phone, partySize, vip, arrival);
+        return op.execAsync(SQLCommand.INSERT_WAITLIST,
+                new Object[]{entry.id, name, phone, partySize, vip ? 1 : 0, TableAvailability.format(arrival)},
+                new DBOperator.Callback<Integer>() {
+                    @Override
+                    public void onResult(Integer inserted) {
+                        if (queue != null) queue.add(entry);
+                        changed();
+                        callback.onResult(entry);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        callback.onError(e);
+                    }
+                });
+    }
+
+    /**
+     * seat a waiting party, its tables are taken while their turns are open
+     * @param entry
+     * @param tableIds
+     * @param callback
+     * @return the running write
+     */
+    public DBTask seat(Entry entry, String[] tableIds, DBOperator.Callback<Integer> callback)
+    {
+        long now = TableAvailability.nowMinute();
+        return op.execAsync(SQLCommand.UPDATE_WAITLIST_SEATED,
+                new Object[]{TextUtils.join(",", tableIds), TableAvailability.format(now), entry.id},
+                new DBOperator.Callback<Integer>() {
+                    @Override
+                    public void onResult(Integer updated) {
+                        if (queue != null) queue.remove(entry.id);
+                        occupancy.onSeated(tableIds);
+                        changed();
+                        callback.onResult(updated);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        callback.onError(e);
+                    }
+                });
+    }
+
+    /**
+     * take a party off the waitlist without seating it
+     * @param entry
+     * @param callback
+     * @return the running write
+     */
+    public DBTask remove(Entry entry, DBOperator.Callback<Integer> callback)
+    {
+        return op.execAsync(SQLCommand.UPDATE_WAITLIST_STATUS, new Object[]{LEFT, entry.id},
+                new DBOperator.Callback<Integer>() {
+                    @Override
+                    public void onResult(Integer updated) {
+                        if (queue != null) queue.remove(entry.id);
+                        changed();
+                        callback.onResult(updated);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        callback.onError(e);
+                    }
+                });
+    }
+
+    /*
+     * estimate the waits again and tell the listeners
+     */
+    private void changed()
+    {
+        if (queue == null) return;
+        estimate();
+        for (Listener listener : new ArrayList<>(listeners)) {
+            listener.onWaitlistChanged(this);
+        }
+    }
+
+    private void estimate()
+    {
+        waits.clear();
+        TableAllocator floor = availability.allocator();
+        if (floor == null) {
+            plan = new HashMap<>();
+            return;
+        }
+        long now = TableAvailability.nowMinute();
+        List<TableAllocator.Party> parties = new ArrayList<>();
+        for (Entry entry : queue.inOrder()) {
+            parties.add(new TableAllocator.Party(entry.id, entry.partySize, now, null));
+        }
+        plan = floor.plan(parties, now);
+        for (Map.Entry<String, TableAllocator.Assignment> planned : plan.entrySet()) {
+            waits.put(planned.getKey(), planned.getValue().start - now);
+        }
+    }
+
+    private void load()
+    {
+        if (loading != null) return;
+        loading = op.queryAsync(SQLCommand.QUERY_WAITLIST, null, cursor -> {
+            WaitQueue loaded = new WaitQueue();
+            while (cursor.moveToNext()) {
+                long arrival = TableAvailability.minuteOf(cursor.getString(5));
+                loaded.add(new Entry(cursor.getString(0), cursor.getString(1), cursor.getString(2),
+                        cursor.getInt(3), cursor.getInt(4) != 0, arrival));
+            }
+            return loaded;
+        }, new DBOperator.Callback<WaitQueue>() {
+            @Override
+            public void onResult(WaitQueue loaded) {
+                loading = null;
+                queue = loaded;
+                changed();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                loading = null;
+                Log.e(TAG, "Could not load the waitlist", e);
+            }
+        });
+    }
+}
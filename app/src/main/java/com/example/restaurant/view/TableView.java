@@ -1,86 +1,235 @@
 package com.example.restaurant.view;
 
 import android.content.Context;
-import android.database.Cursor;
+import android.text.TextUtils;
 import android.view.View;
-import android.widget.TableLayout;
-import android.widget.TableRow;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
 import android.widget.TextView;
 
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
 import com.example.restaurant.util.DBOperator;
+import com.example.restaurant.util.KeysetPager;
+import com.example.restaurant.util.QueryPager;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This class is used to show data in database
- * It is an extension of TableLayout
+ * Rows are read in pages by a QueryPager and shown in a RecyclerView,
+ * so only the rows on screen have views, whatever the size of the result
+ * Rows computed in memory can be shown the same way, without a query
  */
-public class TableView extends TableLayout
+public class TableView extends RecyclerView
 {
+    private static final int TYPE_HEADER = 0;
+    private static final int TYPE_ROW = 1;
+
+    //null when the rows were given
+    private final QueryPager pager;
+    private final String[] columnNames;
+    private final List<String[]> rows;
+    private final GridAdapter adapter = new GridAdapter();
+    private DBOperator.Callback<Integer> callback;
+
     public TableView(Context context, String tableName)
+    {
+        this(context, "select * from " + tableName, null);
+    }
+    /**
+     * @param keys ORDER BY of the query as result columns, to page it by key, see QueryPager
+     */
+    public TableView(Context context, String sql, String[] selectionArgs, KeysetPager.Key... keys)
     {
         super(context);
-        String sql = "select * from " + tableName + ";";
-        DBOperator op = DBOperator.getInstance();
-        Cursor cursor = op.execQuery(sql, null);
-        this.extractData(context, cursor);
+        setLayoutManager(new LinearLayoutManager(context));
+        setAdapter(adapter);
+        columnNames = null;
+        rows = null;
+        pager = new QueryPager(DBOperator.getInstance(), sql, selectionArgs, keys,
+                QueryPager.DEFAULT_PAGE_SIZE, QueryPager.DEFAULT_MAX_PAGES, new QueryPager.Listener()
+        {
+            @Override
+            public void onStarted(String[] columns, int count)
+            {
+                adapter.notifyDataSetChanged();
+            }
+
+            @Override
+            public void onCounted(int count)
+            {
+                adapter.notifyDataSetChanged();
+                if (callback != null) callback.onResult(count);
+            }
+
+            @Override
+            public void onRowsLoaded(int first, int count)
+            {
+                //row positions are shifted by the header
+                adapter.notifyItemRangeChanged(first + 1, count);
+            }
+
+            @Override
+            public void onError(Exception e)
+            {
+                if (callback != null) callback.onError(e);
+            }
+        });
+        pager.start();
     }
-    public TableView(Context context, Cursor cursor)
+    /**
+     * show rows that are already in memory
+     * @param columnNames
+     * @param rows one value per column
+     */
+    public TableView(Context context, String[] columnNames, List<String[]> rows)
     {
         super(context);
-        this.extractData(context, cursor);
+        setLayoutManager(new LinearLayoutManager(context));
+        setAdapter(adapter);
+        pager = null;
+        this.columnNames = columnNames;
+        this.rows = new ArrayList<>(rows);
+    }
+    /**
+     * get the number of rows once the whole result is counted, after the first page is shown
+     * for given rows the callback is called straight away
+     * @param callback
+     */
+    public void setCallback(DBOperator.Callback<Integer> callback)
+    {
+        this.callback = callback;
+        if (pager == null && callback != null) callback.onResult(rows.size());
+    }
+    /**
+     * Do not forget to close the table!
+     * Otherwise pages keep loading after the screen is gone
+     */
+    public void close()
+    {
+        if (pager != null) pager.close();
+    }
+
+    @Override
+    protected void onDetachedFromWindow()
+    {
+        super.onDetachedFromWindow();
+        close();
+    }
+
+    private class GridAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
+    {
+        @Override
+        public int getItemCount()
+        {
+            //no header for an empty result, like before
+            int count = rowCount();
+            return count > 0 ? count + 1 : 0;
+        }
+
+        @Override
+        public int getItemViewType(int position)
+        {
+            return position == 0 ? TYPE_HEADER : TYPE_ROW;
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType)
+        {
+            Context context = parent.getContext();
+            if (viewType == TYPE_HEADER) {
+                return new HeaderHolder(context, columnNames());
+            }
+            return new RowHolder(context, columnNames().length);
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position)
+        {
+            if (holder instanceof RowHolder) {
+                ((RowHolder) holder).bind(row(position - 1));
+            }
+        }
     }
+
+    private int rowCount()
+    {
+        if (pager == null) return rows != null ? rows.size() : -1;
+        return pager.getCount();
+    }
+
+    private String[] columnNames()
+    {
+        return pager != null ? pager.getColumnNames() : columnNames;
+    }
+
+    private String[] row(int position)
+    {
+        return pager != null ? pager.getRow(position) : rows.get(position);
+    }
+
     /*
-     * fill data in table view with a cursor
+     * column names as a header, with a separation line below
      */
-    private void extractData(Context context,Cursor cursor)
+    private static class HeaderHolder extends RecyclerView.ViewHolder
     {
-        TextView textView;
-        TableRow row;
-        boolean first = true;
-        while (cursor.moveToNext())
+        HeaderHolder(Context context, String[] columnNames)
         {
-            /*
-             * Before displaying the first row,
-             * display column names as a header
-             */
-            if (first){
-                textView = new TextView(context);
-                String[] columnNames = cursor.getColumnNames();
-                StringBuilder strBuilder = new StringBuilder();
-                for (int i=0;i<columnNames.length;i++){
-                    if (i>0) strBuilder.append("|");
-                    strBuilder.append(columnNames[i]);
+            super(new LinearLayout(context));
+            LinearLayout layout = (LinearLayout) itemView;
+            layout.setOrientation(LinearLayout.VERTICAL);
+            layout.setLayoutParams(new RecyclerView.LayoutParams(
+                    RecyclerView.LayoutParams.MATCH_PARENT, RecyclerView.LayoutParams.WRAP_CONTENT));
+            TextView textView = new TextView(context);
+            textView.setText(TextUtils.join("|", columnNames));
+            layout.addView(textView);
+            View line = new View(context);
+            line.setLayoutParams(new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, 2));
+            line.setBackgroundColor(0xFF909090);
+            layout.addView(line);
+        }
+    }
+
+    /*
+     * one cell per column, the cells are reused for every row scrolled in
+     */
+    private static class RowHolder extends RecyclerView.ViewHolder
+    {
+        private final TextView[] cells;
+
+        RowHolder(Context context, int columnCount)
+        {
+            super(new LinearLayout(context));
+            LinearLayout row = (LinearLayout) itemView;
+            row.setOrientation(LinearLayout.HORIZONTAL);
+            row.setLayoutParams(new RecyclerView.LayoutParams(
+                    RecyclerView.LayoutParams.MATCH_PARENT, RecyclerView.LayoutParams.WRAP_CONTENT));
+            cells = new TextView[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                if (i > 0) {
+                    TextView separator = new TextView(context);
+                    separator.setText("|");
+                    row.addView(separator);
                 }
-                textView.setText(strBuilder);
-                this.addView(textView);
-                //show separation line
-                View line = new View(context);
-                line.setLayoutParams(new LayoutParams(LayoutParams.FILL_PARENT,2));
-                line.setBackgroundColor(0xFF909090);
-                this.addView(line);
-                first = false;
+                TextView cell = new TextView(context);
+                cell.setSingleLine(true);
+                cell.setEllipsize(TextUtils.TruncateAt.END);
+                cell.setLayoutParams(new LinearLayout.LayoutParams(0,
+                        LinearLayout.LayoutParams.WRAP_CONTENT, 1f));
+                row.addView(cell);
+                cells[i] = cell;
             }
-//show values in a row
-            row = new TableRow(context);
-            int length = cursor.getColumnCount();
-            for (int i=0;i<length;i++)
-            {
-                if (i>0){
-                    textView = new TextView(context);
-                    textView.setText("|");
-                    row.addView(textView);
-                }
-                textView = new TextView(context);
-                textView.setText(cursor.getString(i));
-                row.addView(textView);
+        }
+
+        //values is null while the page of the row is loading
+        void bind(String[] values)
+        {
+            for (int i = 0; i < cells.length; i++) {
+                cells[i].setText(values != null && i < values.length ? values[i] : "");
             }
-            this.addView(row);
         }
-        /*
-         * Do not forget to close the cursor!
-         * Otherwise database exceptions will be thrown
-         */
-        cursor.close();
     }
 }
-
-
@@ -0,0 +1,32 @@
+package com.example.restaurant.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class DBChangeBusTest
+{
+    @Test
+    public void findsTableOfWrites()
+    {
+        assertEquals("Orders", DBChangeBus.tableWrittenBy(
+                "INSERT INTO Orders(Order_id) VALUES(?)"));
+        assertEquals("Order_Item", DBChangeBus.tableWrittenBy(
+                "insert or replace into Order_Item VALUES(?)"));
+        assertEquals("Reservation", DBChangeBus.tableWrittenBy(
+                "  UPDATE Reservation SET Res_status = ? WHERE Res_id = ?"));
+        assertEquals("Inventory", DBChangeBus.tableWrittenBy(
+                "DELETE FROM \"Inventory\" WHERE Inv_ItemID = ?"));
+        assertEquals("Menu", DBChangeBus.tableWrittenBy(
+                "REPLACE INTO Menu VALUES(?)"));
+    }
+
+    @Test
+    public void ignoresOtherStatements()
+    {
+        assertNull(DBChangeBus.tableWrittenBy("SELECT * FROM Orders"));
+        assertNull(DBChangeBus.tableWrittenBy("CREATE INDEX idx ON Orders(Order_status)"));
+        assertNull(DBChangeBus.tableWrittenBy("PRAGMA user_version = 2"));
+    }
+}
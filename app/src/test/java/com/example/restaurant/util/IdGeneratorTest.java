@@ -0,0 +1,94 @@
+package com.example.restaurant.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IdGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 500_000;
+
+    @Test
+    public void idsAreUniqueAcrossThreads() throws Exception {
+        IdGenerator generator = new IdGenerator(7);
+        long[][] ids = new long[THREADS][IDS_PER_THREAD];
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            long[] out = ids[t];
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < out.length; i++) {
+                    out[i] = generator.nextId();
+                }
+            });
+        }
+
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+
+        long[] all = new long[THREADS * IDS_PER_THREAD];
+        for (int t = 0; t < THREADS; t++) {
+            // each thread sees strictly increasing ids
+            for (int i = 1; i < IDS_PER_THREAD; i++) {
+                assertTrue(ids[t][i] > ids[t][i - 1]);
+            }
+            System.arraycopy(ids[t], 0, all, t * IDS_PER_THREAD, IDS_PER_THREAD);
+        }
+        Arrays.sort(all);
+        for (int i = 1; i < all.length; i++) {
+            assertTrue("duplicate id " + all[i], all[i] != all[i - 1]);
+        }
+    }
+
+    @Test
+    public void differentNodesNeverCollide() {
+        IdGenerator a = new IdGenerator(1);
+        IdGenerator b = new IdGenerator(2);
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(seen.add(a.nextId()));
+            assertTrue(seen.add(b.nextId()));
+        }
+    }
+
+    @Test
+    public void idCarriesNodeAndTimestamp() {
+        long before = System.currentTimeMillis();
+        long id = new IdGenerator(5).nextId();
+        long node = (id >>> IdGenerator.SEQUENCE_BITS) & IdGenerator.MAX_NODE;
+        long millis = (id >>> (IdGenerator.NODE_BITS + IdGenerator.SEQUENCE_BITS)) + IdGenerator.EPOCH;
+        assertEquals(5, node);
+        assertTrue(millis >= before && millis <= System.currentTimeMillis());
+    }
+
+    @Test
+    public void prefixedIdsAreShort() {
+        String id = new IdGenerator(0).nextId("ORD");
+        assertTrue(id.startsWith("ORD"));
+        assertTrue(id.length() <= 16);
+    }
+
+    @Test
+    public void nodeIdForIsStableAndInRange() {
+        assertEquals(IdGenerator.nodeIdFor("9774d56d682e549c"), IdGenerator.nodeIdFor("9774d56d682e549c"));
+        assertEquals(0, IdGenerator.nodeIdFor(null));
+        Set<Long> nodes = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            long node = IdGenerator.nodeIdFor(Long.toHexString(0x1234_5678_9abcL * i + 17));
+            assertTrue(node >= 1 && node <= IdGenerator.MAX_NODE);
+            nodes.add(node);
+        }
+        //identifiers spread over every node id
+        assertEquals(IdGenerator.MAX_NODE, nodes.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNodeOutOfRange() {
+        new IdGenerator(IdGenerator.MAX_NODE + 1);
+    }
+}
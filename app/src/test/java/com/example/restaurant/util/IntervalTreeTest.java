@@ -0,0 +1,100 @@
+package com.example.restaurant.util;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class IntervalTreeTest
+{
+    @Test
+    public void overlapIsHalfOpen()
+    {
+        IntervalTree tree = new IntervalTree();
+        tree.add("RES1", 1080, 1170);
+
+        assertNull(tree.findOverlap(900, 1080));
+        assertNull(tree.findOverlap(1170, 1260));
+        assertEquals("RES1", tree.findOverlap(1169, 1200));
+        assertEquals("RES1", tree.findOverlap(1000, 1300));
+        assertEquals("RES1", tree.findOverlap(1100, 1110));
+    }
+
+    @Test
+    public void addReplacesAndRemoveFrees()
+    {
+        IntervalTree tree = new IntervalTree();
+        tree.add("RES1", 1080, 1170);
+        tree.add("RES1", 1200, 1290);
+
+        assertEquals(1, tree.size());
+        assertArrayEquals(new long[]{1200, 1290}, tree.get("RES1"));
+        assertNull(tree.findOverlap(1080, 1170));
+
+        assertTrue(tree.remove("RES1"));
+        assertFalse(tree.remove("RES1"));
+        assertNull(tree.get("RES1"));
+        assertNull(tree.findOverlap(0, Long.MAX_VALUE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyIntervalIsRefused()
+    {
+        new IntervalTree().add("RES1", 1080, 1080);
+    }
+
+    @Test
+    public void agreesWithBruteForce()
+    {
+        Random random = new Random(21);
+        IntervalTree tree = new IntervalTree();
+        Map<String, long[]> expected = new HashMap<>();
+
+        for (int step = 0; step < 20000; step++) {
+            String id = "RES" + random.nextInt(300);
+            int op = random.nextInt(4);
+            if (op == 0) {
+                assertEquals(expected.remove(id) != null, tree.remove(id));
+            } else if (op == 1) {
+                long start = random.nextInt(10000);
+                long end = start + 1 + random.nextInt(150);
+                tree.add(id, start, end);
+                expected.put(id, new long[]{start, end});
+            } else {
+                long start = random.nextInt(10000);
+                long end = start + 1 + random.nextInt(150);
+                String found = tree.findOverlap(start, end);
+                boolean any = false;
+                for (long[] interval : expected.values()) {
+                    if (interval[0] < end && start < interval[1]) any = true;
+                }
+                assertEquals(any, found != null);
+                if (found != null) {
+                    long[] interval = expected.get(found);
+                    assertTrue(interval[0] < end && start < interval[1]);
+                }
+            }
+            assertEquals(expected.size(), tree.size());
+        }
+    }
+
+    @Test
+    public void wallClockMinutesRoundTrip()
+    {
+        long minute = TableAvailability.minuteOf("2025-01-10 18:00");
+
+        assertEquals("2025-01-10 18:00", TableAvailability.format(minute));
+        assertEquals(minute + 90, TableAvailability.minuteOf("2025-01-10 19:30"));
+        assertEquals(minute, TableAvailability.minuteOf("2025-01-10 18:00:45"));
+        assertEquals(-1, TableAvailability.minuteOf("tonight"));
+        assertEquals(TableAvailability.LARGE_PARTY_MEAL_MINUTES, TableAvailability.mealMinutes(6));
+        assertEquals(TableAvailability.MEAL_MINUTES, TableAvailability.mealMinutes(4));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.restaurant.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MenuSearchIndexTest
+{
+    private static final String[] CATEGORIES = {"Appetizer", "Entree", "Side", "Drink", "Dessert"};
+    private static final String[] WORDS = {
+            "chicken", "burger", "salad", "grilled", "spicy", "cheese", "fries", "soup",
+            "steak", "garlic", "lemon", "tea", "coffee", "chocolate", "cake", "shrimp",
+            "pasta", "tomato", "onion", "rings", "wings", "taco", "rice", "beans"};
+
+    private static List<MenuDish> sample()
+    {
+        return Arrays.asList(
+                new MenuDish("D1", "Chicken Wings", "Appetizer", 9, "Yes"),
+                new MenuDish("D2", "Onion Rings", "Appetizer", 6, "Yes"),
+                new MenuDish("D3", "Cheeseburger", "Entree", 12, "Yes"),
+                new MenuDish("D4", "Grilled Chicken", "Entree", 14, "Yes"),
+                new MenuDish("D5", "Chick Pea Salad", "Side", 5, "Yes"),
+                new MenuDish("D6", "Iced Tea", "Drink", 3, "Yes"));
+    }
+
+    private static List<String> ids(MenuSearchIndex index, String query, String category)
+    {
+        List<MenuDish> out = new ArrayList<>();
+        index.search(query, category, out);
+        List<String> ids = new ArrayList<>();
+        for (MenuDish dish : out) ids.add(dish.dishId);
+        return ids;
+    }
+
+    @Test
+    public void emptyQueryKeepsListOrder()
+    {
+        MenuSearchIndex index = new MenuSearchIndex(sample());
+        assertEquals(Arrays.asList("D1", "D2", "D3", "D4", "D5", "D6"), ids(index, "", "All"));
+        assertEquals(Arrays.asList("D3", "D4"), ids(index, "  ", "Entree"));
+    }
+
+    @Test
+    public void exactWordsRankAbovePrefixes()
+    {
+        MenuSearchIndex index = new MenuSearchIndex(sample());
+        //"chick" is a whole word of D5 and a prefix of chicken
+        assertEquals(Arrays.asList("D5", "D1", "D4"), ids(index, "chick", null));
+        //"chick" shares most trigrams with chicken, so it follows as a fuzzy match
+        assertEquals(Arrays.asList("D1", "D4", "D5"), ids(index, "Chicken", null));
+    }
+
+    @Test
+    public void allWordsHaveToMatch()
+    {
+        MenuSearchIndex index = new MenuSearchIndex(sample());
+        assertEquals(Arrays.asList("D4"), ids(index, "grilled chick", null));
+        assertEquals(Arrays.asList("D1"), ids(index, "chicken appetizer", null));
+        assertEquals(Arrays.asList(), ids(index, "chicken tea", null));
+    }
+
+    @Test
+    public void toleratesTypos()
+    {
+        MenuSearchIndex index = new MenuSearchIndex(sample());
+        assertEquals(Arrays.asList("D1", "D4"), ids(index, "chiken", null));
+        assertEquals(Arrays.asList("D3"), ids(index, "cheesburger", null));
+    }
+
+    @Test
+    public void categoryFilterIsApplied()
+    {
+        MenuSearchIndex index = new MenuSearchIndex(sample());
+        assertEquals(Arrays.asList("D4"), ids(index, "chicken", "entree"));
+        assertEquals(Arrays.asList(), ids(index, "chicken", "Dessert"));
+    }
+
+    /**
+     * 5,000 dish menu: every dish of the category with all the typed words is found,
+     * and nothing of another category
+     */
+    @Test
+    public void largeMenuFindsEveryMatch()
+    {
+        List<MenuDish> menu = largeMenu();
+        MenuSearchIndex index = new MenuSearchIndex(menu);
+        for (String typed : new String[]{"grilled chicken", "spicy wings", "chocolate cake", "tea"}) {
+            List<String> found = ids(index, typed, "Entree");
+            int expected = 0;
+            for (MenuDish dish : menu) {
+                if (!dish.category.equals("Entree")) continue;
+                List<String> words = Arrays.asList(dish.name.split(" "));
+                if (words.containsAll(Arrays.asList(typed.split(" ")))) {
+                    expected++;
+                    assertTrue(typed + " misses " + dish.name, found.contains(dish.dishId));
+                }
+            }
+            assertTrue(expected > 0);
+            for (String id : found) {
+                assertEquals("Entree", CATEGORIES[Integer.parseInt(id.substring(1)) % CATEGORIES.length]);
+            }
+        }
+    }
+
+    private static List<MenuDish> largeMenu()
+    {
+        Random random = new Random(42);
+        List<MenuDish> menu = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + i;
+            menu.add(new MenuDish("D" + i, name, CATEGORIES[i % CATEGORIES.length], 10, "Yes"));
+        }
+        return menu;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.restaurant.util;
+
+import com.example.restaurant.util.TableAvailability.Table;
+import com.example.restaurant.util.TableOccupancy.State;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OccupancyTest
+{
+    private static final long OPEN = 17 * 60;
+
+    private static List<Table> floor()
+    {
+        return Arrays.asList(
+                new Table("DT001", 1, 2, "Booth"),
+                new Table("DT002", 2, 4, "Standard"),
+                new Table("DT003", 3, 6, "Large"),
+                new Table("DT008", 8, 4, "Standard"));
+    }
+
+    @Test
+    public void turnGoesThroughEveryStep()
+    {
+        Occupancy occupancy = new Occupancy(floor());
+        assertEquals(4, occupancy.count(State.FREE));
+
+        assertTrue(occupancy.seat("DT002", OPEN));
+        assertTrue(occupancy.order("DT002", OPEN + 5));
+        assertTrue(occupancy.pay("DT002", OPEN + 70));
+        assertEquals(State.PAID, occupancy.stateOf("DT002"));
+        assertEquals(OPEN + 70, occupancy.turnOf("DT002").since());
+        assertEquals(3, occupancy.count(State.FREE));
+        assertEquals(1, occupancy.count(State.PAID));
+
+        assertEquals(80, occupancy.bus("DT002", OPEN + 80));
+        assertEquals(State.FREE, occupancy.stateOf("DT002"));
+        assertEquals(4, occupancy.count(State.FREE));
+        assertEquals(80, occupancy.turnTimes("Standard").quantile(0.5), 0.001);
+    }
+
+    @Test
+    public void repeatedAndOutOfOrderStepsAreRefused()
+    {
+        Occupancy occupancy = new Occupancy(floor());
+        assertFalse(occupancy.pay("DT001", OPEN));
+        assertEquals(-1, occupancy.bus("DT001", OPEN));
+        assertFalse(occupancy.seat("DT999", OPEN));
+
+        //an order at a free table seats it as well
+        assertTrue(occupancy.order("DT001", OPEN));
+        assertEquals(OPEN, occupancy.turnOf("DT001").seated);
+        //a second order keeps the time of the first
+        assertFalse(occupancy.order("DT001", OPEN + 20));
+        assertFalse(occupancy.seat("DT001", OPEN + 20));
+        assertEquals(OPEN, occupancy.turnOf("DT001").ordered);
+        assertEquals(1, occupancy.count(State.ORDERED));
+    }
+
+    @Test
+    public void historyIsKeptPerTableType()
+    {
+        Occupancy occupancy = new Occupancy(floor());
+        occupancy.addHistory("Standard", 60);
+        occupancy.addHistory("Standard", 90);
+        occupancy.addHistory("Booth", 45);
+        assertTrue(occupancy.restore("DT003", OPEN, OPEN + 10, -1));
+        occupancy.bus("DT003", OPEN + 120);
+
+        assertEquals(2, occupancy.turnTimes("Standard").size());
+        assertEquals(45, occupancy.turnTimes("Booth").quantile(0.5), 0.001);
+        assertEquals(120, occupancy.turnTimes("Large").quantile(0.5), 0.001);
+        assertEquals(0, occupancy.turnTimes("Outdoor").size());
+    }
+
+    @Test
+    public void countsAgreeWithTheStates()
+    {
+        Random random = new Random(24);
+        List<Table> tables = floor();
+        Occupancy occupancy = new Occupancy(tables);
+        Map<String, State> expected = new HashMap<>();
+        for (Table table : tables) expected.put(table.id, State.FREE);
+
+        for (long now = OPEN; now < OPEN + 5000; now++) {
+            String id = tables.get(random.nextInt(tables.size())).id;
+            State state = expected.get(id);
+            switch (random.nextInt(4)) {
+                case 0:
+                    assertEquals(state == State.FREE, occupancy.seat(id, now));
+                    if (state == State.FREE) expected.put(id, State.SEATED);
+                    break;
+                case 1:
+                    boolean orders = state == State.FREE || state == State.SEATED;
+                    assertEquals(orders, occupancy.order(id, now));
+                    if (orders) expected.put(id, State.ORDERED);
+                    break;
+                case 2:
+                    boolean pays = state == State.SEATED || state == State.ORDERED;
+                    assertEquals(pays, occupancy.pay(id, now));
+                    if (pays) expected.put(id, State.PAID);
+                    break;
+                default:
+                    assertEquals(state != State.FREE, occupancy.bus(id, now) >= 0);
+                    expected.put(id, State.FREE);
+                    break;
+            }
+            for (State each : State.values()) {
+                int count = 0;
+                for (State value : expected.values()) if (value == each) count++;
+                assertEquals(count, occupancy.count(each));
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.restaurant.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReaderPoolTest
+{
+    @Test
+    public void queriesGoToTheReaders()
+    {
+        assertTrue(ReaderPool.isQuery("SELECT * FROM Orders"));
+        assertTrue(ReaderPool.isQuery("  select Order_id from Orders where Order_status = ?"));
+        assertTrue(ReaderPool.isQuery("WITH paid AS (SELECT Pay_Order_id FROM Payments) SELECT COUNT(*) FROM paid"));
+        //a column named like a statement is still a read
+        assertTrue(ReaderPool.isQuery("WITH t AS (SELECT Last_update FROM Inventory) SELECT * FROM t"));
+    }
+
+    @Test
+    public void everythingElseGoesToTheWriter()
+    {
+        assertFalse(ReaderPool.isQuery("INSERT INTO Orders VALUES (?)"));
+        assertFalse(ReaderPool.isQuery("PRAGMA table_info(Orders)"));
+        assertFalse(ReaderPool.isQuery("EXPLAIN QUERY PLAN SELECT * FROM Orders"));
+        assertFalse(ReaderPool.isQuery(
+                "WITH old AS (SELECT Res_id FROM Reservation) DELETE FROM Reservation WHERE Res_id IN old"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.restaurant.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ReportEngineTest
+{
+    private static final ReportEngine SUMMARY = new ReportEngine(
+            ReportEngine.Metric.sum("Total", "Order_Total"),
+            ReportEngine.Metric.count("Orders", null),
+            ReportEngine.Metric.count("Tipped", "Tip"),
+            ReportEngine.Metric.avg("Avg", "Order_Total"),
+            ReportEngine.Metric.min("Min", "Order_Total"),
+            ReportEngine.Metric.max("Max Tip", "Tip"),
+            ReportEngine.Metric.histogram("Size", "Order_Total", 50, 0, 25));
+
+    //Order_Total in column 0, Tip in column 1
+    private static final int[] COLUMNS = {0, -1, 1, 0, 0, 1, 0};
+
+    @Test
+    public void everyMetricFromOnePass()
+    {
+        ReportEngine.Accumulator accumulator = SUMMARY.new Accumulator();
+        double[][] rows = {{12, 2}, {30, 0}, {45, 5}, {80, 0}, {24.5, 0}};
+        boolean[][] nulls = {{false, false}, {false, true}, {false, false}, {false, true}, {false, true}};
+        for (int i = 0; i < rows.length; i++) {
+            accumulator.add(rows[i], nulls[i], COLUMNS);
+        }
+        ReportEngine.Result result = accumulator.finish();
+
+        assertEquals(5, result.getRowCount());
+        assertEquals("191.50", result.get("Total"));
+        assertEquals("5", result.get("Orders"));
+        //NULL tips are skipped, like COUNT(Tip)
+        assertEquals("2", result.get("Tipped"));
+        assertEquals("38.30", result.get("Avg"));
+        assertEquals("12", result.get("Min"));
+        assertEquals("5", result.get("Max Tip"));
+        //bounds are sorted, 25 falls in the bucket it starts
+        assertEquals("2", result.get("Size 0-25"));
+        assertEquals("2", result.get("Size 25-50"));
+        assertEquals("1", result.get("Size 50+"));
+        assertArrayEquals(new String[]{"Total", "191.50"}, result.getRows().get(0));
+    }
+
+    @Test
+    public void emptySource()
+    {
+        ReportEngine.Result result = SUMMARY.new Accumulator().finish();
+        assertEquals("0", result.get("Total"));
+        assertEquals("0", result.get("Orders"));
+        assertNull(result.get("Avg"));
+        assertNull(result.get("Min"));
+        assertEquals("0", result.get("Size 50+"));
+    }
+
+    @Test
+    public void valuesBelowTheFirstBucketAreNotCounted()
+    {
+        ReportEngine engine = new ReportEngine(ReportEngine.Metric.histogram("Party", "Size", 2, 5));
+        ReportEngine.Accumulator accumulator = engine.new Accumulator();
+        for (double size : new double[]{1, 2, 4, 5, 9}) {
+            accumulator.add(new double[]{size}, new boolean[]{false}, new int[]{0});
+        }
+        ReportEngine.Result result = accumulator.finish();
+        assertEquals("2", result.get("Party 2-5"));
+        assertEquals("2", result.get("Party 5+"));
+    }
+
+    @Test
+    public void format()
+    {
+        assertEquals("45", ReportEngine.format(45.0));
+        assertEquals("30.22", ReportEngine.format(30.2222));
+        assertNull(ReportEngine.format(Double.NaN));
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.restaurant.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TDigestTest
+{
+    private static final double[] QUANTILES = {0.01, 0.1, 0.5, 0.9, 0.99};
+
+    @Test
+    public void smallSamplesAreExact()
+    {
+        TDigest digest = new TDigest();
+        for (double value : new double[]{45, 12, 80, 33}) {
+            digest.add(value);
+        }
+        assertEquals((33 + 45) / 2.0, digest.quantile(0.5), 0);
+        assertEquals(12, digest.quantile(0), 0);
+        assertEquals(80, digest.quantile(1), 0);
+
+        digest.add(20);
+        assertEquals(33, digest.quantile(0.5), 0);
+        assertEquals(5, digest.centroidCount());
+    }
+
+    @Test
+    public void emptyDigest()
+    {
+        TDigest digest = new TDigest();
+        assertTrue(Double.isNaN(digest.quantile(0.5)));
+        assertTrue(Double.isNaN(digest.getMin()));
+        assertEquals(0, digest.size(), 0);
+    }
+
+    @Test
+    public void quantilesOfLargeStreamsStayWithinRankError()
+    {
+        Random random = new Random(42);
+        double[] uniform = new double[100000];
+        double[] skewed = new double[100000];
+        for (int i = 0; i < uniform.length; i++) {
+            uniform[i] = random.nextDouble() * 200;
+            //bills: mostly small, a long tail of large parties
+            skewed[i] = Math.round(-Math.log(1 - random.nextDouble()) * 40 + 5);
+        }
+        assertWithinRankError(uniform, digestOf(uniform, 0, uniform.length), 0);
+        //whole amounts, interpolating between centroids may land between two of them
+        assertWithinRankError(skewed, digestOf(skewed, 0, skewed.length), 0.5);
+    }
+
+    @Test
+    public void mergedDigestsMatchOneDigest()
+    {
+        Random random = new Random(7);
+        double[] values = new double[50000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian() * 15 + 60;
+        }
+        //four devices or days, summed up later
+        TDigest merged = new TDigest();
+        for (int part = 0; part < 4; part++) {
+            merged.merge(digestOf(values, part * 12500, (part + 1) * 12500));
+        }
+        assertEquals(values.length, merged.size(), 0);
+        assertWithinRankError(values, merged, 0);
+    }
+
+    @Test
+    public void centroidsStayBounded()
+    {
+        TDigest digest = new TDigest();
+        Random random = new Random(3);
+        for (int i = 0; i < 1000000; i++) {
+            digest.add(random.nextDouble());
+        }
+        assertTrue(digest.centroidCount() <= 2 * TDigest.DEFAULT_COMPRESSION);
+    }
+
+    @Test
+    public void cdfInvertsQuantile()
+    {
+        Random random = new Random(7);
+        TDigest digest = new TDigest();
+        for (int i = 0; i < 20000; i++) {
+            digest.add(30 + random.nextGaussian() * 10);
+        }
+        for (double q = 0.05; q < 1; q += 0.05) {
+            assertEquals(q, digest.cdf(digest.quantile(q)), 1e-9);
+        }
+        assertEquals(0, digest.cdf(digest.getMin() - 1), 0);
+        assertEquals(1, digest.cdf(digest.getMax()), 0);
+        assertTrue(Double.isNaN(new TDigest().cdf(1)));
+    }
+
+    @Test
+    public void copyIsIndependent()
+    {
+        TDigest digest = digestOf(new double[]{1, 2, 3}, 0, 3);
+        TDigest copy = digest.copy();
+        digest.add(100);
+        assertEquals(3, copy.getMax(), 0);
+        assertEquals(3, copy.size(), 0);
+    }
+
+    private static TDigest digestOf(double[] values, int from, int to)
+    {
+        TDigest digest = new TDigest();
+        for (int i = from; i < to; i++) {
+            digest.add(values[i]);
+        }
+        return digest;
+    }
+
+    /*
+     * the estimate has to fall between the values ranked 0.5% around the quantile
+     * in the tails that is much tighter than the bound itself, it shrinks with q(1 - q)
+     * slack widens the range by a value distance, for data with many equal values
+     */
+    private static void assertWithinRankError(double[] values, TDigest digest, double slack)
+    {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        assertEquals(sorted[0], digest.getMin(), 0);
+        assertEquals(sorted[sorted.length - 1], digest.getMax(), 0);
+        for (double q : QUANTILES) {
+            double error = 0.005 * Math.sqrt(4 * q * (1 - q)) + 0.0005;
+            double low = sorted[(int) Math.max(0, Math.floor((q - error) * (sorted.length - 1)))] - slack;
+            double high = sorted[(int) Math.min(sorted.length - 1, Math.ceil((q + error) * (sorted.length - 1)))] + slack;
+            double estimate = digest.quantile(q);
+            assertTrue("q" + q + ": " + estimate + " not in [" + low + ", " + high + "]",
+                    estimate >= low && estimate <= high);
+        }
+    }
+}
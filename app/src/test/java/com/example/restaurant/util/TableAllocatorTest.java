@@ -0,0 +1,255 @@
+package com.example.restaurant.util;
+
+import com.example.restaurant.util.TableAllocator.Assignment;
+import com.example.restaurant.util.TableAllocator.Party;
+import com.example.restaurant.util.TableAvailability.Table;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TableAllocatorTest
+{
+    //evening in wall-clock minutes, 17:00 to 23:00 of a day
+    private static final long OPEN = 17 * 60;
+    private static final long CLOSE = 23 * 60;
+    //a party waiting longer than this walks away
+    private static final long PATIENCE = 60;
+
+    //the floor of the asset database
+    private static List<Table> floor()
+    {
+        return Arrays.asList(
+                new Table("DT001", 1, 2, "Booth"),
+                new Table("DT002", 2, 4, "Standard"),
+                new Table("DT003", 3, 6, "Large"),
+                new Table("DT004", 4, 2, "Standard"),
+                new Table("DT005", 5, 4, "Window"),
+                new Table("DT006", 6, 8, "Party"),
+                new Table("DT007", 7, 2, "Outdoor"),
+                new Table("DT008", 8, 4, "Standard"),
+                new Table("DT009", 9, 6, "Large"),
+                new Table("DT010", 10, 4, "Booth"));
+    }
+
+    @Test
+    public void couplesGetTwoTops()
+    {
+        TableAllocator allocator = new TableAllocator(floor());
+
+        Assignment best = allocator.best(2, OPEN, null, true);
+        assertEquals(2, best.seats);
+        assertEquals(1, best.tables.size());
+    }
+
+    @Test
+    public void preferenceWinsOverASeat()
+    {
+        TableAllocator allocator = new TableAllocator(floor());
+
+        assertEquals("DT010", allocator.best(3, OPEN, "Booth", true).tables.get(0).id);
+        assertEquals("DT005", allocator.best(4, OPEN, "Window", true).tables.get(0).id);
+        //but not over three
+        assertEquals(2, allocator.best(2, OPEN, "Party", true).seats);
+    }
+
+    @Test
+    public void largePartiesPushStandardTablesTogether()
+    {
+        TableAllocator allocator = new TableAllocator(floor());
+        allocator.hold("RES1", OPEN, OPEN + 120, "DT006");
+        allocator.hold("RES2", OPEN, OPEN + 120, "DT003");
+
+        Assignment best = allocator.best(8, OPEN, null, true);
+        assertEquals("Tables 2 + 8", best.label());
+        assertNull(allocator.best(8, OPEN, null, false));
+        //booths are fixed
+        for (Assignment option : allocator.options(8, OPEN, null, true)) {
+            for (Table table : option.tables) assertTrue(TableAllocator.COMBINABLE_TYPES.contains(table.type));
+        }
+    }
+
+    @Test
+    public void holdsReleaseTogether()
+    {
+        TableAllocator allocator = new TableAllocator(floor());
+        assertTrue(allocator.hold("RES1", OPEN, OPEN + 90, "DT002", "DT008"));
+        assertFalse(allocator.hold("RES2", OPEN, OPEN + 90, "DT999"));
+
+        assertEquals("RES1", allocator.conflictOf("DT008", OPEN + 30, OPEN + 40));
+        assertTrue(allocator.release("RES1"));
+        assertNull(allocator.conflictOf("DT002", OPEN, OPEN + 90));
+        assertNull(allocator.window("RES1"));
+    }
+
+    @Test
+    public void planLeavesNoHolds()
+    {
+        TableAllocator allocator = new TableAllocator(floor());
+        List<Party> queue = new ArrayList<>();
+        for (int i = 0; i < 30; i++) queue.add(new Party("W" + i, 2 + i % 5, OPEN, null));
+
+        Map<String, Assignment> plan = allocator.plan(queue, OPEN);
+        assertEquals(30, plan.size());
+        for (Table table : floor()) {
+            assertNull(allocator.conflictOf(table.id, OPEN, CLOSE));
+        }
+        //planned parties never share a table at the same time
+        TableAllocator check = new TableAllocator(floor());
+        for (Map.Entry<String, Assignment> entry : plan.entrySet()) {
+            Assignment assignment = entry.getValue();
+            long end = assignment.start + TableAvailability.mealMinutes(queue.get(Integer.parseInt(entry.getKey().substring(1))).size);
+            for (Table table : assignment.tables) assertNull(check.conflictOf(table.id, assignment.start, end));
+            check.hold(entry.getKey(), assignment.start, end, assignment.tableIds());
+        }
+    }
+
+    @Test
+    public void busyNight()
+    {
+        //how long the re-plans take is measured by TableAllocatorBenchmark on a device
+        for (long seed = 1; seed <= 7; seed++) {
+            Night greedy = replay(false, seed);
+            Night planned = replay(true, seed);
+            String nights = "seed " + seed + ": greedy " + greedy + ", planned " + planned;
+            assertTrue(nights, planned.replans > 0);
+            assertTrue(nights, planned.served >= greedy.served);
+            assertTrue(nights, planned.walkedAway <= greedy.walkedAway);
+            assertTrue(nights, planned.emptySeatsPerParty() <= greedy.emptySeatsPerParty());
+        }
+    }
+
+    /*
+     * what happened in one replayed night
+     */
+    private static final class Night
+    {
+        int served;
+        int walkedAway;
+        long waited;
+        long emptySeats;
+        int replans;
+        //minutes a table comes free, with how many tables
+        final Map<Long, Integer> leaving = new HashMap<>();
+
+        double emptySeatsPerParty()
+        {
+            return served == 0 ? 0 : (double) emptySeats / served;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("served %d, walked away %d, mean wait %.1f min, %.2f empty seats per party, %d re-plans",
+                    served, walkedAway, served == 0 ? 0.0 : (double) waited / served, emptySeatsPerParty(), replans);
+        }
+    }
+
+    /*
+     * replay a busy night minute by minute: reservations booked up front, walk-ins arriving
+     * most in the 18:00 to 21:00 rush, everyone leaving after the expected meal.
+     * planned seats the queue by the plan of the allocator, re-made whenever a party
+     * arrives, leaves or walks away; otherwise the old way, every minute the smallest
+     * free table to the first party in the queue it fits.
+     */
+    private static Night replay(boolean planned, long seed)
+    {
+        Random random = new Random(seed);
+        TableAllocator allocator = new TableAllocator(floor());
+        Night night = new Night();
+
+        //reservations, booked before the night starts, held at their own table
+        for (int i = 0; i < 12; i++) {
+            int size = partySize(random);
+            long start = OPEN + 30 + random.nextInt(8) * 30;
+            long end = start + TableAvailability.mealMinutes(size);
+            if (planned) {
+                Assignment best = allocator.best(size, start, null, false);
+                if (best != null) book(allocator, night, "RES" + i, start, end, best.tableIds());
+            } else {
+                List<Table> free = allocator.freeTables(size, start);
+                if (!free.isEmpty()) book(allocator, night, "RES" + i, start, end, free.get(0).id);
+            }
+        }
+
+        List<Party> queue = new ArrayList<>();
+        Map<String, Assignment> plan = new HashMap<>();
+        int walkIns = 0;
+        for (long now = OPEN; now < CLOSE; now++) {
+            //a table came free
+            boolean changed = night.leaving.remove(now) != null;
+            boolean rush = now >= 18 * 60 && now < 21 * 60;
+            if (random.nextDouble() < (rush ? 0.12 : 0.04) && now < CLOSE - 90) {
+                queue.add(new Party("W" + walkIns++, partySize(random), now, null));
+                changed = true;
+            }
+            for (Iterator<Party> it = queue.iterator(); it.hasNext(); ) {
+                if (now - it.next().from > PATIENCE) {
+                    it.remove();
+                    night.walkedAway++;
+                    changed = true;
+                }
+            }
+            if (planned) {
+                if (changed) {
+                    plan = allocator.plan(queue, now);
+                    night.replans++;
+                }
+                for (Iterator<Party> it = queue.iterator(); it.hasNext(); ) {
+                    Party party = it.next();
+                    Assignment assignment = plan.get(party.id);
+                    if (assignment == null || assignment.start != now) continue;
+                    seat(allocator, night, party, now, assignment.seats, assignment.tableIds());
+                    it.remove();
+                }
+            } else {
+                for (Iterator<Party> it = queue.iterator(); it.hasNext(); ) {
+                    Party party = it.next();
+                    List<Table> free = allocator.freeTables(party.size, now);
+                    if (free.isEmpty()) continue;
+                    seat(allocator, night, party, now, free.get(0).capacity, free.get(0).id);
+                    it.remove();
+                }
+            }
+        }
+        night.walkedAway += queue.size();
+        return night;
+    }
+
+    private static void book(TableAllocator allocator, Night night, String id, long start, long end, String... tableIds)
+    {
+        assertTrue(allocator.hold(id, start, end, tableIds));
+        night.leaving.put(end, night.leaving.getOrDefault(end, 0) + 1);
+    }
+
+    private static void seat(TableAllocator allocator, Night night, Party party, long now, int seats, String... tableIds)
+    {
+        book(allocator, night, party.id, now, now + TableAvailability.mealMinutes(party.size), tableIds);
+        night.served++;
+        night.waited += now - party.from;
+        night.emptySeats += seats - party.size;
+    }
+
+    //mostly couples and fours, now and then a party for the big tables
+    private static int partySize(Random random)
+    {
+        int roll = random.nextInt(100);
+        if (roll < 45) return 2;
+        if (roll < 55) return 3;
+        if (roll < 75) return 4;
+        if (roll < 85) return 5 + random.nextInt(2);
+        if (roll < 95) return 1;
+        return 7 + random.nextInt(4);
+    }
+}
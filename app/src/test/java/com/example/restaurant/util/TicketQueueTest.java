@@ -0,0 +1,98 @@
+package com.example.restaurant.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class TicketQueueTest
+{
+    private static final int BOARD_SIZE = 200;
+
+    private static class Ticket
+    {
+        final String id;
+        final String status;
+
+        Ticket(String id, String status)
+        {
+            this.id = id;
+            this.status = status;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (!(o instanceof Ticket)) return false;
+            Ticket other = (Ticket) o;
+            return id.equals(other.id) && status.equals(other.status);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(id, status);
+        }
+    }
+
+    private static List<Ticket> board()
+    {
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            tickets.add(new Ticket("ORD" + i, "Placed"));
+        }
+        return tickets;
+    }
+
+    @Test
+    public void firstLoadAddsEverything()
+    {
+        TicketQueue<Ticket> queue = new TicketQueue<>(t -> t.id);
+        assertEquals(BOARD_SIZE, queue.apply(board()).size());
+        assertEquals(BOARD_SIZE, queue.getAdded());
+        assertEquals(0, queue.getChanged());
+        assertEquals(0, queue.getRemoved());
+    }
+
+    @Test
+    public void refreshOnlyTouchesChangedTickets()
+    {
+        TicketQueue<Ticket> queue = new TicketQueue<>(t -> t.id);
+        List<Ticket> before = queue.apply(board());
+
+        List<Ticket> fresh = board();
+        fresh.set(10, new Ticket("ORD10", "Preparing"));
+        fresh.set(20, new Ticket("ORD20", "Preparing"));
+        fresh.remove(199);
+        fresh.remove(0);
+        fresh.add(new Ticket("ORD200", "Placed"));
+        List<Ticket> after = queue.apply(fresh);
+
+        assertEquals(1, queue.getAdded());
+        assertEquals(2, queue.getChanged());
+        assertEquals(2, queue.getRemoved());
+        assertEquals(BOARD_SIZE - 1, queue.size());
+        //unchanged tickets keep the instance the adapter already bound
+        assertSame(before.get(5), after.get(4));
+        assertNotSame(before.get(10), after.get(9));
+        assertEquals("Preparing", queue.get("ORD10").status);
+    }
+
+    @Test
+    public void identicalRefreshIsANoOp()
+    {
+        TicketQueue<Ticket> queue = new TicketQueue<>(t -> t.id);
+        List<Ticket> before = queue.apply(board());
+        List<Ticket> after = queue.apply(board());
+
+        assertEquals(0, queue.getAdded() + queue.getChanged() + queue.getRemoved());
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            assertSame(before.get(i), after.get(i));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.restaurant.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimeSeriesTest
+{
+    private static TimeSeries series(int[] keys, double[] values)
+    {
+        TimeSeries series = new TimeSeries(1);
+        for (int i = 0; i < keys.length; i++) {
+            series.append(keys[i], values[i]);
+        }
+        return series;
+    }
+
+    @Test
+    public void rangeSums()
+    {
+        TimeSeries series = series(new int[]{1, 3, 3, 7, 10}, new double[]{5, 2.5, 1, 4, 8});
+        assertEquals(5, series.size());
+        assertEquals(20.5, series.sum(), 0);
+        //from included, to excluded
+        assertEquals(3.5, series.sum(2, 7), 0);
+        assertEquals(7.5, series.sum(3, 10), 0);
+        assertEquals(0, series.sum(4, 7), 0);
+        assertEquals(20.5, series.sum(Integer.MIN_VALUE, Integer.MAX_VALUE), 0);
+        assertEquals(0, series.sum(7, 7), 0);
+
+        //prefix sums follow the points appended after them
+        series.append(12, 1.5);
+        assertEquals(9.5, series.sum(10, 13), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void keysMustAscend()
+    {
+        series(new int[]{4, 2}, new double[]{1, 1});
+    }
+
+    @Test
+    public void downsample()
+    {
+        //hours of two days, the first before the epoch
+        TimeSeries hours = series(new int[]{-3, -1, 0, 5, 23, 24, 47}, new double[]{1, 2, 3, 4, 5, 6, 7});
+        TimeSeries days = hours.downsample(24);
+        assertEquals(3, days.size());
+        assertEquals(-24, days.keyAt(0));
+        assertEquals(3, days.valueAt(0), 0);
+        assertEquals(0, days.keyAt(1));
+        assertEquals(12, days.valueAt(1), 0);
+        assertEquals(24, days.keyAt(2));
+        assertEquals(13, days.valueAt(2), 0);
+
+        //width 1 merges the points of equal keys
+        TimeSeries months = series(new int[]{24300, 24300, 24301}, new double[]{10, 20, 5}).downsample(1);
+        assertEquals(2, months.size());
+        assertEquals(30, months.valueAt(0), 0);
+    }
+
+    @Test
+    public void bytesRoundTrip()
+    {
+        TimeSeries whole = series(new int[]{-5, 0, 100, 100, Integer.MAX_VALUE}, new double[]{-3, 0, 42, 1e12, 7});
+        assertSame(whole, TimeSeries.fromBytes(whole.toBytes()));
+
+        TimeSeries fractional = series(new int[]{1, 2, 3}, new double[]{12.5, Double.NaN, -0.1});
+        assertSame(fractional, TimeSeries.fromBytes(fractional.toBytes()));
+
+        assertEquals(0, TimeSeries.fromBytes(new TimeSeries().toBytes()).size());
+    }
+
+    @Test
+    public void wholeHourlyCountsTakeAFewBytesAPoint()
+    {
+        TimeSeries hours = new TimeSeries();
+        for (int hour = 0; hour < 10000; hour++) {
+            hours.append(480000 + hour, hour % 50);
+        }
+        byte[] bytes = hours.toBytes();
+        //one byte of key delta and one of value, against 12 bytes in memory
+        assertTrue(bytes.length + " bytes", bytes.length < 2 * 10000 + 16);
+        assertSame(hours, TimeSeries.fromBytes(bytes));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cutOffBytes()
+    {
+        byte[] bytes = series(new int[]{1, 2}, new double[]{0.5, 1.5}).toBytes();
+        TimeSeries.fromBytes(Arrays.copyOf(bytes, bytes.length - 3));
+    }
+
+    private static void assertSame(TimeSeries expected, TimeSeries actual)
+    {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.keyAt(i), actual.keyAt(i));
+            assertEquals(Double.doubleToLongBits(expected.valueAt(i)), Double.doubleToLongBits(actual.valueAt(i)));
+        }
+    }
+}
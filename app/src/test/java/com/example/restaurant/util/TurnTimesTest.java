@@ -0,0 +1,49 @@
+package com.example.restaurant.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TurnTimesTest
+{
+    @Test
+    public void withoutHistoryAMealIsExpected()
+    {
+        TurnTimes turns = new TurnTimes();
+        assertEquals(TableAvailability.MEAL_MINUTES, turns.remaining(0));
+        assertEquals(TableAvailability.MEAL_MINUTES - 30, turns.remaining(30));
+        assertEquals(TurnTimes.MIN_LEFT_MINUTES, turns.remaining(200));
+    }
+
+    @Test
+    public void remainingIsTheMedianOfTurnsThatGotAsFar()
+    {
+        TurnTimes turns = new TurnTimes();
+        for (int minutes = 31; minutes <= 90; minutes++) {
+            turns.add(minutes);
+        }
+        //slips of the till are left out
+        turns.add(0);
+        turns.add(24 * 60);
+        assertEquals(60, turns.size());
+
+        assertEquals(60, turns.remaining(0), 1);
+        //the turns past 60 minutes last 75 in the middle
+        assertEquals(15, turns.remaining(60), 1);
+        assertEquals(TurnTimes.MIN_LEFT_MINUTES, turns.remaining(120));
+        assertTrue(turns.remaining(80) >= TurnTimes.MIN_LEFT_MINUTES);
+    }
+
+    @Test
+    public void copyIsNotChangedByLaterTurns()
+    {
+        TurnTimes turns = new TurnTimes();
+        turns.add(60);
+        TurnTimes copy = turns.copy();
+        turns.add(120);
+        assertEquals(1, copy.size());
+        assertEquals(60, copy.quantile(0.5), 0.001);
+        assertEquals(2, turns.size());
+    }
+}
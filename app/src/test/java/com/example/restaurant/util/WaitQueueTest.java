@@ -0,0 +1,92 @@
+package com.example.restaurant.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class WaitQueueTest
+{
+    private static Waitlist.Entry party(String id, int size, boolean vip, long arrival)
+    {
+        return new Waitlist.Entry(id, id, null, size, vip, arrival);
+    }
+
+    @Test
+    public void vipsFirstThenByArrival()
+    {
+        WaitQueue queue = new WaitQueue();
+        Waitlist.Entry early = party("A", 2, false, 1080);
+        Waitlist.Entry late = party("B", 4, false, 1095);
+        Waitlist.Entry vip = party("C", 3, true, 1100);
+        queue.add(late);
+        queue.add(vip);
+        queue.add(early);
+
+        assertEquals(Arrays.asList(vip, early, late), queue.inOrder());
+    }
+
+    @Test
+    public void tablesGoToPartiesThatFillThem()
+    {
+        WaitQueue queue = new WaitQueue();
+        Waitlist.Entry couple = party("A", 2, false, 1080);
+        Waitlist.Entry five = party("B", 5, false, 1090);
+        queue.add(couple);
+        queue.add(five);
+
+        //the eight-top waits for the five, the couple came first but would leave six seats empty
+        assertSame(five, queue.bestFor(8));
+        assertSame(couple, queue.bestFor(4));
+        assertNull(queue.bestFor(1));
+
+        queue.remove("B");
+        //nobody fills it well, so the couple rather than an empty table
+        assertSame(couple, queue.bestFor(8));
+        queue.remove("A");
+        assertNull(queue.bestFor(8));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void agreesWithBruteForce()
+    {
+        Random random = new Random(23);
+        WaitQueue queue = new WaitQueue();
+        List<Waitlist.Entry> waiting = new ArrayList<>();
+
+        for (int step = 0; step < 5000; step++) {
+            int op = random.nextInt(3);
+            if (op == 0 || waiting.isEmpty()) {
+                Waitlist.Entry entry = party("W" + step, 1 + random.nextInt(14), random.nextInt(10) == 0, random.nextInt(600));
+                queue.add(entry);
+                waiting.add(entry);
+            } else if (op == 1) {
+                Waitlist.Entry entry = waiting.remove(random.nextInt(waiting.size()));
+                assertSame(entry, queue.remove(entry.id));
+            } else {
+                int capacity = 1 + random.nextInt(12);
+                assertSame(bruteForce(waiting, capacity), queue.bestFor(capacity));
+            }
+        }
+    }
+
+    private static Waitlist.Entry bruteForce(List<Waitlist.Entry> waiting, int capacity)
+    {
+        Waitlist.Entry best = null;
+        for (boolean fill : new boolean[]{true, false}) {
+            for (Waitlist.Entry entry : waiting) {
+                if (entry.partySize > capacity || (fill && entry.partySize * 2 < capacity)) continue;
+                if (best == null || WaitQueue.PRIORITY.compare(entry, best) < 0) best = entry;
+            }
+            if (best != null) return best;
+        }
+        return null;
+    }
+}